@@ -89,6 +89,40 @@ public abstract class ConnectionSetupPayload implements Payload {
         };
     }
 
+    /**
+     * Create a setup payload whose payloads are sent in fragments of at most {@code dataMtu} bytes of data, see
+     * {@link #dataMtu()}.
+     */
+    public static ConnectionSetupPayload create(String metadataMimeType, String dataMimeType, int flags, int dataMtu) {
+        return new ConnectionSetupPayload() {
+            public String metadataMimeType() {
+                return metadataMimeType;
+            }
+
+            public String dataMimeType() {
+                return dataMimeType;
+            }
+
+            public ByteBuffer getData() {
+                return Frame.NULL_BYTEBUFFER;
+            }
+
+            public ByteBuffer getMetadata() {
+                return Frame.NULL_BYTEBUFFER;
+            }
+
+            @Override
+            public int getFlags() {
+                return flags;
+            }
+
+            @Override
+            public int dataMtu() {
+                return dataMtu;
+            }
+        };
+    }
+
     public static ConnectionSetupPayload create(final Frame setupFrame) {
         Frame.ensureFrameType(FrameType.SETUP, setupFrame);
         return new ConnectionSetupPayload() {
@@ -127,6 +161,34 @@ public abstract class ConnectionSetupPayload implements Payload {
         return HONOR_LEASE;
     }
 
+    /**
+     * Largest metadata, in bytes, sent in a single frame on this connection. Payloads with more metadata are split
+     * into fragments and reassembled by the receiver.
+     *
+     * @return metadata MTU, {@link Frame#METADATA_MTU} unless overridden
+     */
+    public int metadataMtu() {
+        return Frame.METADATA_MTU;
+    }
+
+    /**
+     * Largest data, in bytes, sent in a single frame on this connection, see {@link #metadataMtu()}.
+     *
+     * @return data MTU, {@link Frame#DATA_MTU} unless overridden
+     */
+    public int dataMtu() {
+        return Frame.DATA_MTU;
+    }
+
+    /**
+     * Sizes the REQUEST_N credit of streams this side requests on the connection, unless a request passes its own.
+     *
+     * @return strategy, {@link RequestNStrategy#DEFAULT} unless overridden
+     */
+    public RequestNStrategy requestNStrategy() {
+        return RequestNStrategy.DEFAULT;
+    }
+
     public boolean willClientHonorLease() {
         return HONOR_LEASE == (getFlags() & HONOR_LEASE);
     }
@@ -18,6 +18,7 @@ package io.reactivesocket;
 import io.reactivesocket.internal.Publishers;
 import io.reactivesocket.internal.Requester;
 import io.reactivesocket.internal.Responder;
+import io.reactivesocket.internal.frame.ReassemblyBudget;
 import io.reactivesocket.internal.rx.CompositeCompletable;
 import io.reactivesocket.internal.rx.CompositeDisposable;
 import io.reactivesocket.rx.Completable;
@@ -27,6 +28,7 @@ import io.reactivesocket.rx.Observer;
 import org.agrona.BitUtil;
 import org.reactivestreams.Publisher;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -53,6 +55,8 @@ public class DefaultReactiveSocket implements ReactiveSocket {
     private final RequestHandler clientRequestHandler;
     private final ConnectionSetupHandler responderConnectionHandler;
     private final LeaseGovernor leaseGovernor;
+    // shared by the requester and responder so fragmented payloads are bounded per connection
+    private final ReassemblyBudget reassemblyBudget = new ReassemblyBudget();
 
     private DefaultReactiveSocket(
         DuplexConnection connection,
@@ -214,6 +218,33 @@ public class DefaultReactiveSocket implements ReactiveSocket {
         return requester.requestChannel(payloads);
     }
 
+    /**
+     * {@link #requestStream(Payload)} with the REQUEST_N credit sized by the given strategy instead of
+     * {@link ConnectionSetupPayload#requestNStrategy()}.
+     */
+    public Publisher<Payload> requestStream(final Payload payload, final RequestNStrategy strategy) {
+        assertRequester();
+        return requester.requestStream(payload, strategy);
+    }
+
+    /**
+     * {@link #requestSubscription(Payload)} with the REQUEST_N credit sized by the given strategy instead of
+     * {@link ConnectionSetupPayload#requestNStrategy()}.
+     */
+    public Publisher<Payload> requestSubscription(final Payload payload, final RequestNStrategy strategy) {
+        assertRequester();
+        return requester.requestSubscription(payload, strategy);
+    }
+
+    /**
+     * {@link #requestChannel(Publisher)} with the REQUEST_N credit sized by the given strategy instead of
+     * {@link ConnectionSetupPayload#requestNStrategy()}.
+     */
+    public Publisher<Payload> requestChannel(final Publisher<Payload> payloads, final RequestNStrategy strategy) {
+        assertRequester();
+        return requester.requestChannel(payloads, strategy);
+    }
+
     @Override
     public Publisher<Void> metadataPush(final Payload payload) {
         assertRequester();
@@ -244,6 +275,15 @@ public class DefaultReactiveSocket implements ReactiveSocket {
         return requester.availability();
     }
 
+    /**
+     * Bytes received as fragments of payloads that are not complete yet, on either side of the connection.
+     *
+     * @return bytes pending reassembly
+     */
+    public long pendingReassemblyBytes() {
+        return reassemblyBudget.pendingBytes();
+    }
+
     @Override
     public void sendLease(int ttl, int numberOfRequests) {
         // TODO: can happen in either direction
@@ -252,9 +292,10 @@ public class DefaultReactiveSocket implements ReactiveSocket {
 
     @Override
     public final void start(Completable c) {
+        final ConnectionDemultiplexer demultiplexer = new ConnectionDemultiplexer(connection, isServer);
         if (isServer) {
             responder = Responder.createServerResponder(
-                new ConnectionFilter(connection, ConnectionFilter.STREAMS.FROM_CLIENT_EVEN),
+                demultiplexer.responderConnection(),
                 responderConnectionHandler,
                 leaseGovernor,
                 errorStream,
@@ -277,14 +318,16 @@ public class DefaultReactiveSocket implements ReactiveSocket {
                         }
                     };
                     requester = Requester.createServerRequester(
-                        new ConnectionFilter(connection, ConnectionFilter.STREAMS.FROM_SERVER_ODD),
+                        demultiplexer.requesterConnection(),
                         setupPayload,
                         errorStream,
-                        two
+                        two,
+                        reassemblyBudget
                     );
                     two.success(); // now that the reference is assigned in case of synchronous setup
                 },
-                this);
+                this,
+                reassemblyBudget);
         } else {
             Completable both = new Completable() {
                 // wait for 2 success, or 1 error to pass on
@@ -303,7 +346,7 @@ public class DefaultReactiveSocket implements ReactiveSocket {
                 }
             };
             requester = Requester.createClientRequester(
-                new ConnectionFilter(connection, ConnectionFilter.STREAMS.FROM_CLIENT_EVEN),
+                demultiplexer.requesterConnection(),
                 requestorSetupPayload,
                 errorStream,
                 new Completable() {
@@ -318,14 +361,17 @@ public class DefaultReactiveSocket implements ReactiveSocket {
                         requesterReady.error(e);
                         both.error(e);
                     }
-                });
+                },
+                reassemblyBudget);
             responder = Responder.createClientResponder(
-                new ConnectionFilter(connection, ConnectionFilter.STREAMS.FROM_SERVER_ODD),
+                demultiplexer.responderConnection(),
+                requestorSetupPayload,
                 clientRequestHandler,
                 leaseGovernor,
                 errorStream,
                 both,
-                this
+                this,
+                reassemblyBudget
             );
         }
     }
@@ -352,99 +398,155 @@ public class DefaultReactiveSocket implements ReactiveSocket {
         });
     }
 
-    private static class ConnectionFilter implements DuplexConnection {
-        private enum STREAMS {
-            FROM_CLIENT_EVEN, FROM_SERVER_ODD;
-        }
-
+    /**
+     * Subscribes once to the input of the connection and routes every frame to either the requester or the
+     * responder, by the parity of its stream id or, on stream 0, by its type.
+     */
+    private static final class ConnectionDemultiplexer {
         private final DuplexConnection connection;
-        private final STREAMS s;
-
-        private ConnectionFilter(DuplexConnection connection, STREAMS s) {
+        private final boolean isServer;
+        private final Side requesterSide = new Side();
+        private final Side responderSide = new Side();
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+        // sides subscribed and not disposed, the transport subscription is disposed when it drops to 0
+        private final AtomicInteger liveSides = new AtomicInteger();
+        private final CompositeDisposable transportSubscription = new CompositeDisposable();
+
+        private ConnectionDemultiplexer(DuplexConnection connection, boolean isServer) {
             this.connection = connection;
-            this.s = s;
+            this.isServer = isServer;
         }
 
-        @Override
-        public Publisher<Void> close() {
-            return connection.close(); // forward
+        private DuplexConnection requesterConnection() {
+            return requesterSide;
         }
 
-        @Override
-        public Publisher<Void> onClose() {
-            return connection.onClose();
+        private DuplexConnection responderConnection() {
+            return responderSide;
         }
 
-        @Override
-        public Observable<Frame> getInput() {
-            return new Observable<Frame>() {
-                @Override
-                public void subscribe(Observer<Frame> o) {
-                    CompositeDisposable cd = new CompositeDisposable();
-                    o.onSubscribe(cd);
-                    connection.getInput().subscribe(new Observer<Frame>() {
+        private void subscribeToTransport() {
+            if (!subscribed.compareAndSet(false, true)) {
+                return;
+            }
 
-                        @Override
-                        public void onNext(Frame t) {
-                            int streamId = t.getStreamId();
-                            FrameType type = t.getType();
-                            if (streamId == 0) {
-                                if (FrameType.SETUP.equals(type) && s == STREAMS.FROM_CLIENT_EVEN) {
-                                    o.onNext(t);
-                                } else if (FrameType.LEASE.equals(type)) {
-                                    o.onNext(t);
-                                } else if (FrameType.ERROR.equals(type)) {
-                                    // o.onNext(t); // TODO this doesn't work
-                                } else if (FrameType.KEEPALIVE.equals(type)) {
-                                    o.onNext(t); // TODO need tests
-                                } else if (FrameType.METADATA_PUSH.equals(type)) {
-                                    o.onNext(t);
-                                }
-                            } else if (BitUtil.isEven(streamId)) {
-                                if (s == STREAMS.FROM_CLIENT_EVEN) {
-                                    o.onNext(t);
-                                }
-                            } else {
-                                if (s == STREAMS.FROM_SERVER_ODD) {
-                                    o.onNext(t);
-                                }
+            connection.getInput().subscribe(new Observer<Frame>() {
+                @Override
+                public void onNext(Frame frame) {
+                    final int streamId = frame.getStreamId();
+                    if (streamId == 0) {
+                        final FrameType type = frame.getType();
+                        if (FrameType.SETUP == type) {
+                            if (isServer) {
+                                responderSide.onNext(frame);
                             }
+                        } else if (FrameType.LEASE == type || FrameType.ERROR == type) {
+                            // a connection level ERROR fails the streams of the requester
+                            requesterSide.onNext(frame);
+                        } else if (FrameType.METADATA_PUSH == type) {
+                            responderSide.onNext(frame);
+                        } else if (FrameType.KEEPALIVE == type) {
+                            responderSide.onNext(frame); // TODO need tests
+                            requesterSide.onNext(frame);
                         }
+                    } else if (BitUtil.isEven(streamId) == isServer) {
+                        // client streams are even, server streams odd
+                        responderSide.onNext(frame);
+                    } else {
+                        requesterSide.onNext(frame);
+                    }
+                }
 
-                        @Override
-                        public void onError(Throwable e) {
-                            o.onError(e);
-                        }
+                @Override
+                public void onError(Throwable e) {
+                    requesterSide.onError(e);
+                    responderSide.onError(e);
+                }
 
-                        @Override
-                        public void onComplete() {
-                            o.onComplete();
-                        }
+                @Override
+                public void onComplete() {
+                    requesterSide.onComplete();
+                    responderSide.onComplete();
+                }
 
-                        @Override
-                        public void onSubscribe(Disposable d) {
-                            cd.add(d);
-                        }
-                    });
+                @Override
+                public void onSubscribe(Disposable d) {
+                    transportSubscription.add(d);
                 }
-            };
+            });
         }
 
-        @Override
-        public void addOutput(Publisher<Frame> o, Completable callback) {
-            connection.addOutput(o, callback);
-        }
+        private final class Side implements DuplexConnection {
+            private volatile Observer<Frame> observer;
 
-        @Override
-        public void addOutput(Frame f, Completable callback) {
-            connection.addOutput(f, callback);
-        }
+            private void onNext(Frame frame) {
+                final Observer<Frame> o = observer;
+                if (o != null) {
+                    o.onNext(frame);
+                }
+            }
 
-        @Override
-        public double availability() {
-            return connection.availability();
+            private void onError(Throwable e) {
+                final Observer<Frame> o = observer;
+                if (o != null) {
+                    o.onError(e);
+                }
+            }
+
+            private void onComplete() {
+                final Observer<Frame> o = observer;
+                if (o != null) {
+                    o.onComplete();
+                }
+            }
+
+            @Override
+            public Observable<Frame> getInput() {
+                return o -> {
+                    final AtomicBoolean disposed = new AtomicBoolean();
+                    liveSides.incrementAndGet();
+                    o.onSubscribe(() -> {
+                        if (disposed.compareAndSet(false, true)) {
+                            observer = null;
+                            if (liveSides.decrementAndGet() == 0) {
+                                transportSubscription.dispose();
+                            }
+                        }
+                    });
+                    if (!disposed.get()) {
+                        // only route frames once the observer has seen onSubscribe
+                        observer = o;
+                    }
+                    subscribeToTransport();
+                };
+            }
+
+            @Override
+            public Publisher<Void> close() {
+                return connection.close(); // forward
+            }
+
+            @Override
+            public Publisher<Void> onClose() {
+                return connection.onClose();
+            }
+
+            @Override
+            public void addOutput(Publisher<Frame> o, Completable callback) {
+                connection.addOutput(o, callback);
+            }
+
+            @Override
+            public void addOutput(Frame f, Completable callback) {
+                connection.addOutput(f, callback);
+            }
+
+            @Override
+            public double availability() {
+                return connection.availability();
+            }
         }
-    };
+    }
 
     @Override
     public Publisher<Void> close() {
@@ -21,11 +21,28 @@ import java.io.Closeable;
 
 /**
  * Represents a connection with input/output that the protocol uses. 
+ * <p>
+ * <b>Frame ownership:</b> a {@link Frame} written via {@code addOutput} is owned by the connection from then on and
+ * must be {@link Frame#release() released} by the connection once its bytes have been handed to the transport.
+ * A {@link Frame} emitted from {@link #getInput()} remains owned by the connection, which may release or reuse it
+ * as soon as {@code onNext} returns. Observers that need a frame beyond that must {@link Frame#retain() retain} it.
  */
 public interface DuplexConnection {
 
+    /**
+     * Frames emitted are only valid for the duration of {@code onNext}.
+     *
+     * @return input of frames read from the transport
+     */
     Observable<Frame> getInput();
 
+    /**
+     * Write all frames emitted by the passed {@code Publisher}. The connection takes ownership of every frame and
+     * releases it after writing.
+     *
+     * @param o frames to write
+     * @param callback notified on completion of the {@code Publisher} or on error
+     */
     void addOutput(Publisher<Frame> o, Completable callback);
 
     default void addOutput(Frame frame, Completable callback) {
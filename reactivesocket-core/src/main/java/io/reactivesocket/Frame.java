@@ -17,6 +17,7 @@ package io.reactivesocket;
 
 import io.reactivesocket.internal.frame.ErrorFrameFlyweight;
 import io.reactivesocket.internal.frame.FrameHeaderFlyweight;
+import io.reactivesocket.internal.frame.FrameLeakDetector;
 import io.reactivesocket.internal.frame.FramePool;
 import io.reactivesocket.internal.frame.LeaseFrameFlyweight;
 import io.reactivesocket.internal.frame.RequestFrameFlyweight;
@@ -25,9 +26,11 @@ import io.reactivesocket.internal.frame.SetupFrameFlyweight;
 import io.reactivesocket.internal.frame.UnpooledFrame;
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import static java.lang.System.getProperty;
 
@@ -35,6 +38,15 @@ import static java.lang.System.getProperty;
  * Represents a Frame sent over a {@link DuplexConnection}.
  * <p>
  * This provides encoding, decoding and field accessors.
+ * <p>
+ * Frames are reference counted. A Frame is acquired with a reference count of 1 and is handed back to the
+ * {@link FramePool} when {@link #release()} brings the count to 0. Ownership of an outbound Frame passes to the
+ * {@link DuplexConnection} it is written to, which releases it once the bytes have been handed to the transport.
+ * Inbound Frames are owned by the {@link DuplexConnection} and are only valid for the duration of
+ * {@link io.reactivesocket.rx.Observer#onNext(Object)} unless {@link #retain()} or {@link #retainOrCopy()} is
+ * called. A transport that hands out a frame per received buffer, see {@link #from(DirectBuffer, int, int, Runnable)},
+ * keeps that buffer alive for as long as the frame is retained, otherwise the frame is copied into pooled memory when
+ * it is retained.
  */
 public class Frame implements Payload {
     public static final ByteBuffer NULL_BYTEBUFFER = FrameHeaderFlyweight.NULL_BYTEBUFFER;
@@ -45,8 +57,28 @@ public class Frame implements Payload {
      * ThreadLocal handling in the pool itself. We don't have a per thread pool at this level.
      */
     private static final String FRAME_POOLER_CLASS_NAME =
-        getProperty("io.reactivesocket.FramePool", "io.reactivesocket.internal.UnpooledFrame");
+        getProperty("io.reactivesocket.FramePool", "io.reactivesocket.internal.frame.UnpooledFrame");
     private static final FramePool POOL;
+    private static final FrameLeakDetector LEAK_DETECTOR =
+        FrameLeakDetector.isEnabled() ? new FrameLeakDetector() : null;
+
+    /*
+     * When enabled, request and response frames carrying a payload only reference it and are encoded by the
+     * transport straight into its outbound buffer, see encode(MutableDirectBuffer, int).
+     */
+    private static final boolean DEFERRED_ENCODING = Boolean.getBoolean("io.reactivesocket.Frame.deferredEncoding");
+
+    /**
+     * Payloads (metadata plus data) of at least this many bytes are referenced rather than copied into the frame, and
+     * sent by transports with a gathering write, see {@link #isGathering()}. Set with
+     * {@code -Dio.reactivesocket.Frame.gatheringThreshold}, disabled by default.
+     */
+    public static final int GATHERING_THRESHOLD =
+        Integer.getInteger("io.reactivesocket.Frame.gatheringThreshold", Integer.MAX_VALUE);
+    private static final MutableDirectBuffer EMPTY_BUFFER = new UnsafeBuffer(new byte[0]);
+
+    private static final AtomicIntegerFieldUpdater<Frame> REF_CNT_UPDATER =
+        AtomicIntegerFieldUpdater.newUpdater(Frame.class, "refCnt");
 
     static {
         FramePool tmpPool;
@@ -61,10 +93,37 @@ public class Frame implements Payload {
         POOL = tmpPool;
     }
 
+    /**
+     * Return the {@link FramePool} selected with the {@code io.reactivesocket.FramePool} system property, e.g. to
+     * read the counters of a {@link io.reactivesocket.internal.frame.MagazineFramePool}.
+     *
+     * @return the pool frames are acquired from
+     */
+    public static FramePool framePool() {
+        return POOL;
+    }
+
     // not final so we can reuse this object
     private MutableDirectBuffer directBuffer;
     private int offset = 0;
     private int length = 0;
+    // true when directBuffer was acquired from the POOL and must be handed back on the final release
+    private boolean ownsBuffer = false;
+    // non null when directBuffer wraps a transport owned buffer that is freed by running it on the final release
+    private Runnable bufferReleaser;
+    private volatile int refCnt = 1;
+    private FrameLeakDetector.Tracker leakTracker;
+
+    // non null while encoding is deferred, the payload is then only referenced until encode() or buffer()
+    private FrameType deferredType;
+    private int deferredStreamId;
+    private int deferredInitialRequestN;
+    private ByteBuffer deferredMetadata;
+    private ByteBuffer deferredData;
+    private int deferredMetadataLength;
+    private int deferredDataLength;
+    // non null for a view over a payload that is referenced, metadata and data are only read from it when asked for
+    private Payload deferredPayload;
 
     private Frame(final MutableDirectBuffer directBuffer) {
         this.directBuffer = directBuffer;
@@ -76,7 +135,7 @@ public class Frame implements Payload {
      * @return underlying {@link ByteBuffer} for frame
      */
     public ByteBuffer getByteBuffer() {
-        return directBuffer.byteBuffer();
+        return buffer().byteBuffer();
     }
 
     /**
@@ -87,7 +146,11 @@ public class Frame implements Payload {
      * @return ByteBuffer containing the data
      */
     public ByteBuffer getData() {
-        return FrameHeaderFlyweight.sliceFrameData(directBuffer, offset, 0);
+        if (null != deferredType) {
+            return deferredData().slice();
+        }
+
+        return FrameHeaderFlyweight.sliceFrameData(buffer(), offset, 0);
     }
 
     /**
@@ -98,7 +161,94 @@ public class Frame implements Payload {
      * @return ByteBuffer containing the data
      */
     public ByteBuffer getMetadata() {
-        return FrameHeaderFlyweight.sliceFrameMetadata(directBuffer, offset, 0);
+        if (null != deferredType) {
+            return deferredMetadata().slice();
+        }
+
+        return FrameHeaderFlyweight.sliceFrameMetadata(buffer(), offset, 0);
+    }
+
+    /**
+     * Return the offset of the metadata bytes within the frame buffer, for use with
+     * {@link #wrapMetadata(UnsafeBuffer)} or direct reads without slicing a {@link ByteBuffer}.
+     *
+     * @return offset of the metadata
+     */
+    public int metadataOffset() {
+        return FrameHeaderFlyweight.frameMetadataOffset(buffer(), offset);
+    }
+
+    /**
+     * Return the length of the frame metadata
+     *
+     * @return metadata length, 0 if there is no metadata
+     */
+    public int metadataLength() {
+        if (null != deferredType) {
+            return deferredMetadataLength;
+        }
+
+        return FrameHeaderFlyweight.frameMetadataLength(directBuffer, offset);
+    }
+
+    /**
+     * Return the offset of the data bytes within the frame buffer
+     *
+     * @return offset of the data
+     */
+    public int dataOffset() {
+        return FrameHeaderFlyweight.frameDataOffset(buffer(), offset);
+    }
+
+    /**
+     * Return the length of the frame data
+     *
+     * @return data length, 0 if there is no data
+     */
+    public int dataLength() {
+        if (null != deferredType) {
+            return deferredDataLength;
+        }
+
+        return FrameHeaderFlyweight.frameDataLength(directBuffer, offset, 0);
+    }
+
+    /**
+     * Re-wrap the given view over the frame metadata. Unlike {@link #getMetadata()} this does not allocate, so a
+     * view can be reused across frames. The view is only valid while the frame is.
+     *
+     * @param view to wrap
+     * @return the view
+     */
+    public UnsafeBuffer wrapMetadata(final UnsafeBuffer view) {
+        final MutableDirectBuffer buffer = buffer();
+        final int metadataLength = FrameHeaderFlyweight.frameMetadataLength(buffer, offset);
+        return wrapView(view, buffer, FrameHeaderFlyweight.frameMetadataOffset(buffer, offset), metadataLength);
+    }
+
+    /**
+     * Re-wrap the given view over the frame data, see {@link #wrapMetadata(UnsafeBuffer)}.
+     *
+     * @param view to wrap
+     * @return the view
+     */
+    public UnsafeBuffer wrapData(final UnsafeBuffer view) {
+        final MutableDirectBuffer buffer = buffer();
+        final int dataLength = FrameHeaderFlyweight.frameDataLength(buffer, offset, 0);
+        return wrapView(view, buffer, FrameHeaderFlyweight.frameDataOffset(buffer, offset), dataLength);
+    }
+
+    private static UnsafeBuffer wrapView(
+        final UnsafeBuffer view, final MutableDirectBuffer buffer, final int offset, final int length
+    ) {
+        // an absent field may point past the end of the frame, which wrap would reject even for 0 length
+        if (0 == length) {
+            view.wrap(buffer, 0, 0);
+        } else {
+            view.wrap(buffer, offset, length);
+        }
+
+        return view;
     }
 
     /**
@@ -107,6 +257,10 @@ public class Frame implements Payload {
      * @return frame stream identifier
      */
     public int getStreamId() {
+        if (null != deferredType) {
+            return deferredStreamId;
+        }
+
         return FrameHeaderFlyweight.streamId(directBuffer, offset);
     }
 
@@ -116,6 +270,10 @@ public class Frame implements Payload {
      * @return frame type
      */
     public FrameType getType() {
+        if (null != deferredType) {
+            return deferredType;
+        }
+
         return FrameHeaderFlyweight.frameType(directBuffer, offset);
     }
 
@@ -137,12 +295,86 @@ public class Frame implements Payload {
         return length;
     }
 
+    /**
+     * Return whether the frame has been encoded into its backing buffer. A frame created with
+     * {@code -Dio.reactivesocket.Frame.deferredEncoding=true} only references its payload until it is written with
+     * {@link #encode(MutableDirectBuffer, int)}, or until one of the accessors needs the encoded bytes.
+     *
+     * @return true if the encoded frame is available from {@link #getByteBuffer()}
+     */
+    public boolean isEncoded() {
+        return null == deferredType;
+    }
+
+    /**
+     * Write the encoded frame into a buffer provided by the transport, e.g. a Netty {@code ByteBuf} or an Aeron
+     * {@code BufferClaim}. A frame that is not {@link #isEncoded() encoded} yet has its header, metadata and data
+     * written straight into {@code dst}, so the payload is copied only once.
+     *
+     * @param dst to write the frame to, must have at least {@link #length()} bytes available from {@code dstOffset}
+     * @param dstOffset in {@code dst} to write the frame at
+     * @return number of bytes written, the frame length
+     */
+    public int encode(final MutableDirectBuffer dst, final int dstOffset) {
+        if (null == deferredType) {
+            dst.putBytes(dstOffset, directBuffer, offset, length);
+        } else {
+            encodeDeferred(dst, dstOffset);
+        }
+
+        return length;
+    }
+
+    /**
+     * Return whether the frame references a payload large enough to be sent by a gathering write, i.e. a header from
+     * {@link #encodeHeader(MutableDirectBuffer, int)} followed by {@link #getMetadata()} and {@link #getData()}
+     * straight from the caller's buffers.
+     *
+     * @return true if the payload should not be copied by the transport
+     */
+    public boolean isGathering() {
+        return null != deferredType && deferredMetadataLength + deferredDataLength >= GATHERING_THRESHOLD;
+    }
+
+    /**
+     * Return the number of bytes written by {@link #encodeHeader(MutableDirectBuffer, int)}.
+     *
+     * @return header length, the frame length for an encoded frame
+     */
+    public int headerLength() {
+        if (null == deferredType) {
+            return length;
+        }
+
+        return length - deferredMetadataLength - deferredDataLength;
+    }
+
+    /**
+     * Write everything up to the metadata bytes of a frame that is not {@link #isEncoded() encoded}, the first part
+     * of a gathering write. An encoded frame is written in full as by {@link #encode(MutableDirectBuffer, int)}.
+     *
+     * @param dst to write the header to, must have at least {@link #headerLength()} bytes available
+     * @param dstOffset in {@code dst} to write the header at
+     * @return number of bytes written
+     */
+    public int encodeHeader(final MutableDirectBuffer dst, final int dstOffset) {
+        if (null == deferredType) {
+            return encode(dst, dstOffset);
+        }
+
+        return encodeDeferredHeader(dst, dstOffset);
+    }
+
     /**
      * Return the flags field for the frame
      *
      * @return frame flags field value
      */
     public int flags() {
+        if (null != deferredType) {
+            return deferredFlags();
+        }
+
         return FrameHeaderFlyweight.flags(directBuffer, offset);
     }
 
@@ -161,6 +393,9 @@ public class Frame implements Payload {
      * @param directBuffer to wrap
      */
     public void wrap(final MutableDirectBuffer directBuffer, final int offset) {
+        clearDeferred();
+        releaseBuffer();
+
         this.directBuffer = directBuffer;
         this.offset = offset;
     }
@@ -172,7 +407,11 @@ public class Frame implements Payload {
      * @return new {@link Frame}
      */
     public static Frame from(final ByteBuffer byteBuffer) {
-        return POOL.acquireFrame(byteBuffer);
+        final Frame frame = POOL.acquireFrame(byteBuffer);
+        frame.offset = 0;
+        frame.length = byteBuffer.remaining();
+
+        return frame.acquired(false);
     }
 
     /**
@@ -188,6 +427,29 @@ public class Frame implements Payload {
         frame.offset = offset;
         frame.length = length;
 
+        return frame.acquired(false);
+    }
+
+    /**
+     * Acquire a free Frame backed by a buffer the transport received the frame in. The buffer stays valid for as
+     * long as the frame is referenced, {@code bufferReleaser} frees it once the last reference is released, so a
+     * frame that escapes the callback it was received in with {@link #retainOrCopy()} is retained, not copied.
+     *
+     * @param directBuffer to use as backing buffer
+     * @param offset of start of frame
+     * @param length of frame in bytes
+     * @param bufferReleaser frees the backing buffer
+     * @return frame
+     */
+    public static Frame from(
+        final DirectBuffer directBuffer,
+        final int offset,
+        final int length,
+        final Runnable bufferReleaser
+    ) {
+        final Frame frame = from(directBuffer, offset, length);
+        frame.bufferReleaser = bufferReleaser;
+
         return frame;
     }
 
@@ -204,13 +466,289 @@ public class Frame implements Payload {
     }
 
     /**
-     * Release frame for re-use.
+     * Return the current reference count of this frame.
+     *
+     * @return reference count, 0 once the frame has been handed back to the pool
+     */
+    public int refCnt() {
+        return refCnt;
+    }
+
+    /**
+     * Increment the reference count so the frame stays valid until a matching {@link #release()}.
+     * <p>
+     * A frame that only wraps a buffer owned by the transport, which is reused once the callback the frame was
+     * received in returns, first copies its bytes into a buffer from the {@link FramePool}. Frames that are never
+     * retained are never copied. The transport must hand out a new frame for every message, use
+     * {@link #retainOrCopy()} for a frame instance that is wrapped around the next message.
+     *
+     * @return this frame
+     * @throws IllegalStateException if the frame has already been released
      */
-    public void release() {
-        POOL.release(this.directBuffer);
+    @Override
+    public Frame retain() {
+        if (!ownsBuffer && null == bufferReleaser && null == deferredType) {
+            detach();
+        }
+
+        for (;;) {
+            final int current = refCnt;
+            if (current <= 0) {
+                throw new IllegalStateException("Frame already released, refCnt: " + current);
+            }
+            if (REF_CNT_UPDATER.compareAndSet(this, current, current + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /*
+     * Copy the frame out of the transport owned buffer it wraps into one from the pool.
+     */
+    private void detach() {
+        if (refCnt <= 0) {
+            throw new IllegalStateException("Frame already released, refCnt: " + refCnt);
+        }
+
+        final int frameLength = FrameHeaderFlyweight.frameLength(directBuffer, offset);
+        final MutableDirectBuffer copy = POOL.acquireMutableDirectBuffer(frameLength);
+        copy.putBytes(0, directBuffer, offset, frameLength);
+
+        directBuffer = copy;
+        offset = 0;
+        length = frameLength;
+        ownsBuffer = true;
+    }
+
+    /**
+     * Return a frame with the same bytes that stays valid beyond the callback it was received in, to be released by
+     * the caller. A frame backed by a buffer from the {@link FramePool}, or by a transport buffer whose lifetime
+     * follows the frame, is {@link #retain() retained}, a frame that only wraps a transport owned buffer is copied
+     * into one from the pool.
+     *
+     * @return this frame, retained, or a copy
+     * @throws IllegalStateException if the frame has already been released
+     */
+    public Frame retainOrCopy() {
+        if (ownsBuffer || null != bufferReleaser || null != deferredType) {
+            return retain();
+        }
+
+        final int frameLength = FrameHeaderFlyweight.frameLength(directBuffer, offset);
+        final Frame copy = acquire(frameLength);
+        copy.directBuffer.putBytes(0, directBuffer, offset, frameLength);
+        copy.length = frameLength;
+
+        return copy;
+    }
+
+    /**
+     * Decrement the reference count and hand the frame, and its buffer when it owns one, back to the pool once
+     * the count reaches 0.
+     *
+     * @return true if this call released the frame to the pool
+     * @throws IllegalStateException if the frame has already been released
+     */
+    @Override
+    public boolean release() {
+        for (;;) {
+            final int current = refCnt;
+            if (current <= 0) {
+                throw new IllegalStateException("Frame already released, refCnt: " + current);
+            }
+            if (REF_CNT_UPDATER.compareAndSet(this, current, current - 1)) {
+                if (current == 1) {
+                    deallocate();
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+
+    private void deallocate() {
+        if (null != leakTracker) {
+            leakTracker.close();
+            leakTracker = null;
+        }
+
+        clearDeferred();
+        releaseBuffer();
+
         POOL.release(this);
     }
 
+    private void releaseBuffer() {
+        if (ownsBuffer) {
+            ownsBuffer = false;
+            POOL.release(this.directBuffer);
+        }
+
+        if (null != bufferReleaser) {
+            final Runnable releaser = bufferReleaser;
+            bufferReleaser = null;
+            releaser.run();
+        }
+    }
+
+    /*
+     * Reset the lifecycle state of a frame handed out by the pool.
+     */
+    private Frame acquired(final boolean ownsBuffer) {
+        this.ownsBuffer = ownsBuffer;
+        this.bufferReleaser = null;
+        this.refCnt = 1;
+
+        if (null != LEAK_DETECTOR) {
+            leakTracker = LEAK_DETECTOR.track(this);
+        }
+
+        return this;
+    }
+
+    /*
+     * Acquire a frame with a pool owned backing buffer of at least size bytes
+     */
+    private static Frame acquire(final int size) {
+        final Frame frame = POOL.acquireFrame(size);
+        frame.offset = 0;
+        frame.length = 0;
+
+        return frame.acquired(true);
+    }
+
+    /*
+     * Acquire a frame that references the payload and defers encoding to encode() or buffer()
+     */
+    private static Frame deferred(
+        final int streamId, final FrameType type, final int initialRequestN, final ByteBuffer metadata,
+        final ByteBuffer data, final int length
+    ) {
+        final Frame frame = POOL.acquireFrame(EMPTY_BUFFER);
+        frame.offset = 0;
+        frame.length = length;
+        frame.deferredType = type;
+        frame.deferredStreamId = streamId;
+        frame.deferredInitialRequestN = initialRequestN;
+        frame.deferredMetadata = metadata;
+        frame.deferredData = data;
+        frame.deferredMetadataLength = metadata.remaining();
+        frame.deferredDataLength = data.remaining();
+
+        return frame.acquired(false);
+    }
+
+    /*
+     * Acquire a frame that takes over a reference to the payload, which is released with the frame
+     */
+    private static Frame view(
+        final int streamId, final FrameType type, final int initialRequestN, final Payload payload,
+        final int metadataLength, final int dataLength, final int length
+    ) {
+        final Frame frame = POOL.acquireFrame(EMPTY_BUFFER);
+        frame.offset = 0;
+        frame.length = length;
+        frame.deferredType = type;
+        frame.deferredStreamId = streamId;
+        frame.deferredInitialRequestN = initialRequestN;
+        frame.deferredMetadataLength = metadataLength;
+        frame.deferredDataLength = dataLength;
+        frame.deferredPayload = payload;
+
+        return frame.acquired(false);
+    }
+
+    private ByteBuffer deferredMetadata() {
+        if (null == deferredMetadata) {
+            deferredMetadata = deferredPayload.getMetadata();
+        }
+
+        return deferredMetadata;
+    }
+
+    private ByteBuffer deferredData() {
+        if (null == deferredData) {
+            deferredData = deferredPayload.getData();
+        }
+
+        return deferredData;
+    }
+
+    /*
+     * Backing buffer holding the encoded frame, encoding a deferred frame into a pool owned buffer first
+     */
+    private MutableDirectBuffer buffer() {
+        if (null != deferredType) {
+            final MutableDirectBuffer buffer = POOL.acquireMutableDirectBuffer(length);
+            encodeDeferred(buffer, 0);
+            clearDeferred();
+
+            directBuffer = buffer;
+            offset = 0;
+            ownsBuffer = true;
+        }
+
+        return directBuffer;
+    }
+
+    private void encodeDeferred(final MutableDirectBuffer dst, final int dstOffset) {
+        int length = encodeDeferredHeader(dst, dstOffset);
+
+        // absolute copies leave the payload untouched so the frame can be encoded again
+        if (0 < deferredMetadataLength) {
+            final ByteBuffer metadata = deferredMetadata();
+            dst.putBytes(dstOffset + length, metadata, metadata.position(), deferredMetadataLength);
+            length += deferredMetadataLength;
+        }
+
+        if (0 < deferredDataLength) {
+            final ByteBuffer data = deferredData();
+            dst.putBytes(dstOffset + length, data, data.position(), deferredDataLength);
+        }
+    }
+
+    private int encodeDeferredHeader(final MutableDirectBuffer dst, final int dstOffset) {
+        if (deferredType.hasInitialRequestN()) {
+            return RequestFrameFlyweight.encodeHeader(
+                dst, dstOffset, deferredStreamId, 0, deferredType, deferredInitialRequestN,
+                deferredMetadataLength, deferredDataLength);
+        }
+
+        return FrameHeaderFlyweight.encodeHeader(
+            dst, dstOffset, deferredStreamId, 0, deferredType, deferredMetadataLength, deferredDataLength);
+    }
+
+    /*
+     * Flags of the header encodeDeferredHeader() writes
+     */
+    private int deferredFlags() {
+        int flags = 0;
+
+        if (FrameType.COMPLETE == deferredType) {
+            flags |= FrameHeaderFlyweight.FLAGS_RESPONSE_C;
+        }
+        if (deferredType.hasInitialRequestN()) {
+            flags |= RequestFrameFlyweight.FLAGS_REQUEST_CHANNEL_N;
+        }
+        if (0 < deferredMetadataLength) {
+            flags |= FrameHeaderFlyweight.FLAGS_M;
+        }
+
+        return flags;
+    }
+
+    private void clearDeferred() {
+        deferredType = null;
+        deferredMetadata = null;
+        deferredData = null;
+
+        if (null != deferredPayload) {
+            final Payload payload = deferredPayload;
+            deferredPayload = null;
+            payload.release();
+        }
+    }
+
     /**
      * Mutates this Frame to contain the given parameters.
      *
@@ -221,10 +759,12 @@ public class Frame implements Payload {
      * @param data     to include in frame
      */
     public void wrap(final int streamId, final FrameType type, final ByteBuffer data) {
-        POOL.release(this.directBuffer);
+        clearDeferred();
+        releaseBuffer();
 
         this.directBuffer =
             POOL.acquireMutableDirectBuffer(FrameHeaderFlyweight.computeFrameHeaderLength(type, 0, data.remaining()));
+        this.ownsBuffer = true;
 
         this.length = FrameHeaderFlyweight.encode(this.directBuffer, offset, streamId, 0, type, NULL_BYTEBUFFER, data);
     }
@@ -253,7 +793,7 @@ public class Frame implements Payload {
             final ByteBuffer data = payload.getData();
 
             final Frame frame =
-                POOL.acquireFrame(SetupFrameFlyweight.computeFrameLength(metadataMimeType, dataMimeType, metadata.remaining(), data.remaining()));
+                acquire(SetupFrameFlyweight.computeFrameLength(metadataMimeType, dataMimeType, metadata.remaining(), data.remaining()));
 
             frame.length = SetupFrameFlyweight.encode(
                 frame.directBuffer, frame.offset, flags, keepaliveInterval, maxLifetime, metadataMimeType, dataMimeType, metadata, data);
@@ -262,34 +802,34 @@ public class Frame implements Payload {
 
         public static int getFlags(final Frame frame) {
             ensureFrameType(FrameType.SETUP, frame);
-            final int flags = FrameHeaderFlyweight.flags(frame.directBuffer, frame.offset);
+            final int flags = frame.flags();
 
             return flags & (SetupFrameFlyweight.FLAGS_WILL_HONOR_LEASE | SetupFrameFlyweight.FLAGS_STRICT_INTERPRETATION);
         }
 
         public static int version(final Frame frame) {
             ensureFrameType(FrameType.SETUP, frame);
-            return SetupFrameFlyweight.version(frame.directBuffer, frame.offset);
+            return SetupFrameFlyweight.version(frame.buffer(), frame.offset);
         }
 
         public static int keepaliveInterval(final Frame frame) {
             ensureFrameType(FrameType.SETUP, frame);
-            return SetupFrameFlyweight.keepaliveInterval(frame.directBuffer, frame.offset);
+            return SetupFrameFlyweight.keepaliveInterval(frame.buffer(), frame.offset);
         }
 
         public static int maxLifetime(final Frame frame) {
             ensureFrameType(FrameType.SETUP, frame);
-            return SetupFrameFlyweight.maxLifetime(frame.directBuffer, frame.offset);
+            return SetupFrameFlyweight.maxLifetime(frame.buffer(), frame.offset);
         }
 
         public static String metadataMimeType(final Frame frame) {
             ensureFrameType(FrameType.SETUP, frame);
-            return SetupFrameFlyweight.metadataMimeType(frame.directBuffer, frame.offset);
+            return SetupFrameFlyweight.metadataMimeType(frame.buffer(), frame.offset);
         }
 
         public static String dataMimeType(final Frame frame) {
             ensureFrameType(FrameType.SETUP, frame);
-            return SetupFrameFlyweight.dataMimeType(frame.directBuffer, frame.offset);
+            return SetupFrameFlyweight.dataMimeType(frame.buffer(), frame.offset);
         }
     }
 
@@ -304,7 +844,7 @@ public class Frame implements Payload {
             ByteBuffer data
         ) {
             final int code = ErrorFrameFlyweight.errorCodeFromException(throwable);
-            final Frame frame = POOL.acquireFrame(
+            final Frame frame = acquire(
                 ErrorFrameFlyweight.computeFrameLength(metadata.remaining(), data.remaining()));
 
             frame.length = ErrorFrameFlyweight.encode(
@@ -333,7 +873,7 @@ public class Frame implements Payload {
 
         public static int errorCode(final Frame frame) {
             ensureFrameType(FrameType.ERROR, frame);
-            return ErrorFrameFlyweight.errorCode(frame.directBuffer, frame.offset);
+            return ErrorFrameFlyweight.errorCode(frame.buffer(), frame.offset);
         }
     }
 
@@ -341,7 +881,7 @@ public class Frame implements Payload {
         private Lease() {}
 
         public static Frame from(int ttl, int numberOfRequests, ByteBuffer metadata) {
-            final Frame frame = POOL.acquireFrame(LeaseFrameFlyweight.computeFrameLength(metadata.remaining()));
+            final Frame frame = acquire(LeaseFrameFlyweight.computeFrameLength(metadata.remaining()));
 
             frame.length = LeaseFrameFlyweight.encode(frame.directBuffer, frame.offset, ttl, numberOfRequests, metadata);
             return frame;
@@ -349,12 +889,12 @@ public class Frame implements Payload {
 
         public static int ttl(final Frame frame) {
             ensureFrameType(FrameType.LEASE, frame);
-            return LeaseFrameFlyweight.ttl(frame.directBuffer, frame.offset);
+            return LeaseFrameFlyweight.ttl(frame.buffer(), frame.offset);
         }
 
         public static int numberOfRequests(final Frame frame) {
             ensureFrameType(FrameType.LEASE, frame);
-            return LeaseFrameFlyweight.numRequests(frame.directBuffer, frame.offset);
+            return LeaseFrameFlyweight.numRequests(frame.buffer(), frame.offset);
         }
     }
 
@@ -362,7 +902,7 @@ public class Frame implements Payload {
         private RequestN() {}
 
         public static Frame from(int streamId, int requestN) {
-            final Frame frame = POOL.acquireFrame(RequestNFrameFlyweight.computeFrameLength());
+            final Frame frame = acquire(RequestNFrameFlyweight.computeFrameLength());
 
             frame.length = RequestNFrameFlyweight.encode(frame.directBuffer, frame.offset, streamId, requestN);
             return frame;
@@ -370,7 +910,7 @@ public class Frame implements Payload {
 
         public static int requestN(final Frame frame) {
             ensureFrameType(FrameType.REQUEST_N, frame);
-            return RequestNFrameFlyweight.requestN(frame.directBuffer, frame.offset);
+            return RequestNFrameFlyweight.requestN(frame.buffer(), frame.offset);
         }
     }
 
@@ -380,8 +920,13 @@ public class Frame implements Payload {
         public static Frame from(int streamId, FrameType type, Payload payload, int initialRequestN) {
             final ByteBuffer d = payload.getData() != null ? payload.getData() : NULL_BYTEBUFFER;
             final ByteBuffer md = payload.getMetadata() != null ? payload.getMetadata() : NULL_BYTEBUFFER;
+            final int frameLength = RequestFrameFlyweight.computeFrameLength(type, md.remaining(), d.remaining());
+
+            if (DEFERRED_ENCODING || md.remaining() + d.remaining() >= GATHERING_THRESHOLD) {
+                return deferred(streamId, type, initialRequestN, md, d, frameLength);
+            }
 
-            final Frame frame = POOL.acquireFrame(RequestFrameFlyweight.computeFrameLength(type, md.remaining(), d.remaining()));
+            final Frame frame = acquire(frameLength);
 
             if (type.hasInitialRequestN()) {
                 frame.length = RequestFrameFlyweight.encode(frame.directBuffer, frame.offset, streamId, 0, type, initialRequestN, md, d);
@@ -393,19 +938,39 @@ public class Frame implements Payload {
             return frame;
         }
 
+        /**
+         * Acquire a frame over a payload that is only referenced, e.g. a reassembled
+         * {@link io.reactivesocket.internal.frame.CompositePayload}. Metadata and data are read from the payload
+         * when first asked for, the frame is never encoded unless it is written.
+         *
+         * @param payload whose reference passes to the frame, released with it
+         * @param metadataLength of the payload metadata
+         * @param dataLength of the payload data
+         */
+        public static Frame view(
+            int streamId, FrameType type, Payload payload, int metadataLength, int dataLength, int initialRequestN
+        ) {
+            return Frame.view(streamId, type, initialRequestN, payload, metadataLength, dataLength,
+                RequestFrameFlyweight.computeFrameLength(type, metadataLength, dataLength));
+        }
+
         public static Frame from(int streamId, FrameType type, int flags) {
-            final Frame frame = POOL.acquireFrame(RequestFrameFlyweight.computeFrameLength(type, 0, 0));
+            final Frame frame = acquire(RequestFrameFlyweight.computeFrameLength(type, 0, 0));
 
             frame.length = RequestFrameFlyweight.encode(frame.directBuffer, frame.offset, streamId, flags, type, NULL_BYTEBUFFER, NULL_BYTEBUFFER);
             return frame;
         }
 
         public static Frame from(int streamId, FrameType type, ByteBuffer metadata, ByteBuffer data, int initialRequestN, int flags) {
-            final Frame frame = POOL.acquireFrame(RequestFrameFlyweight.computeFrameLength(type, metadata.remaining(), data.remaining()));
+            final Frame frame = acquire(RequestFrameFlyweight.computeFrameLength(type, metadata.remaining(), data.remaining()));
 
-            frame.length = RequestFrameFlyweight.encode(frame.directBuffer, frame.offset, streamId, flags, type, initialRequestN, metadata, data);
+            if (type.hasInitialRequestN()) {
+                frame.length = RequestFrameFlyweight.encode(frame.directBuffer, frame.offset, streamId, flags, type, initialRequestN, metadata, data);
+            }
+            else {
+                frame.length = RequestFrameFlyweight.encode(frame.directBuffer, frame.offset, streamId, flags, type, metadata, data);
+            }
             return frame;
-
         }
 
         public static long initialRequestN(final Frame frame) {
@@ -416,7 +981,7 @@ public class Frame implements Payload {
                 throw new AssertionError("expected request type, but saw " + type.name());
             }
 
-            switch (frame.getType()) {
+            switch (type) {
                 case REQUEST_RESPONSE:
                     result = 1;
                     break;
@@ -424,7 +989,9 @@ public class Frame implements Payload {
                     result = 0;
                     break;
                 default:
-                    result = RequestFrameFlyweight.initialRequestN(frame.directBuffer, frame.offset);
+                    result = null != frame.deferredType
+                        ? frame.deferredInitialRequestN
+                        : RequestFrameFlyweight.initialRequestN(frame.directBuffer, frame.offset);
                     break;
             }
 
@@ -433,7 +1000,7 @@ public class Frame implements Payload {
 
         public static boolean isRequestChannelComplete(final Frame frame) {
             ensureFrameType(FrameType.REQUEST_CHANNEL, frame);
-            final int flags = FrameHeaderFlyweight.flags(frame.directBuffer, frame.offset);
+            final int flags = frame.flags();
 
             return (flags & RequestFrameFlyweight.FLAGS_REQUEST_CHANNEL_C) == RequestFrameFlyweight.FLAGS_REQUEST_CHANNEL_C;
         }
@@ -446,17 +1013,30 @@ public class Frame implements Payload {
         public static Frame from(int streamId, FrameType type, Payload payload) {
             final ByteBuffer data = payload.getData() != null ? payload.getData() : NULL_BYTEBUFFER;
             final ByteBuffer metadata = payload.getMetadata() != null ? payload.getMetadata() : NULL_BYTEBUFFER;
+            final int frameLength = FrameHeaderFlyweight.computeFrameHeaderLength(type, metadata.remaining(), data.remaining());
 
-            final Frame frame =
-                POOL.acquireFrame(FrameHeaderFlyweight.computeFrameHeaderLength(type, metadata.remaining(), data.remaining()));
+            if (DEFERRED_ENCODING || metadata.remaining() + data.remaining() >= GATHERING_THRESHOLD) {
+                return deferred(streamId, type, 0, metadata, data, frameLength);
+            }
+
+            final Frame frame = acquire(frameLength);
 
             frame.length = FrameHeaderFlyweight.encode(frame.directBuffer, frame.offset, streamId, 0, type, metadata, data);
             return frame;
         }
 
+        /**
+         * Acquire a frame over a payload that is only referenced, see
+         * {@link Request#view(int, FrameType, Payload, int, int, int)}.
+         */
+        public static Frame view(int streamId, FrameType type, Payload payload, int metadataLength, int dataLength) {
+            return Frame.view(streamId, type, 0, payload, metadataLength, dataLength,
+                FrameHeaderFlyweight.computeFrameHeaderLength(type, metadataLength, dataLength));
+        }
+
         public static Frame from(int streamId, FrameType type, ByteBuffer metadata, ByteBuffer data, int flags) {
             final Frame frame =
-                POOL.acquireFrame(FrameHeaderFlyweight.computeFrameHeaderLength(type, metadata.remaining(), data.remaining()));
+                acquire(FrameHeaderFlyweight.computeFrameHeaderLength(type, metadata.remaining(), data.remaining()));
 
             frame.length = FrameHeaderFlyweight.encode(frame.directBuffer, frame.offset, streamId, flags, type, metadata, data);
             return frame;
@@ -464,7 +1044,7 @@ public class Frame implements Payload {
 
         public static Frame from(int streamId, FrameType type) {
             final Frame frame =
-                POOL.acquireFrame(FrameHeaderFlyweight.computeFrameHeaderLength(type, 0, 0));
+                acquire(FrameHeaderFlyweight.computeFrameHeaderLength(type, 0, 0));
 
             frame.length = FrameHeaderFlyweight.encode(
                 frame.directBuffer, frame.offset, streamId, 0, type, Frame.NULL_BYTEBUFFER, Frame.NULL_BYTEBUFFER);
@@ -478,7 +1058,7 @@ public class Frame implements Payload {
 
         public static Frame from(int streamId) {
             final Frame frame =
-                POOL.acquireFrame(FrameHeaderFlyweight.computeFrameHeaderLength(FrameType.CANCEL, 0, 0));
+                acquire(FrameHeaderFlyweight.computeFrameHeaderLength(FrameType.CANCEL, 0, 0));
 
             frame.length = FrameHeaderFlyweight.encode(
                 frame.directBuffer, frame.offset, streamId, 0, FrameType.CANCEL, Frame.NULL_BYTEBUFFER, Frame.NULL_BYTEBUFFER);
@@ -492,7 +1072,7 @@ public class Frame implements Payload {
 
         public static Frame from(ByteBuffer data, boolean respond) {
             final Frame frame =
-                POOL.acquireFrame(FrameHeaderFlyweight.computeFrameHeaderLength(FrameType.KEEPALIVE, 0, data.remaining()));
+                acquire(FrameHeaderFlyweight.computeFrameHeaderLength(FrameType.KEEPALIVE, 0, data.remaining()));
 
             final int flags = respond ? FrameHeaderFlyweight.FLAGS_KEEPALIVE_R : 0;
 
@@ -504,7 +1084,7 @@ public class Frame implements Payload {
 
         public static boolean hasRespondFlag(final Frame frame) {
             ensureFrameType(FrameType.KEEPALIVE, frame);
-            final int flags = FrameHeaderFlyweight.flags(frame.directBuffer, frame.offset);
+            final int flags = frame.flags();
 
             return (flags & FrameHeaderFlyweight.FLAGS_KEEPALIVE_R) == FrameHeaderFlyweight.FLAGS_KEEPALIVE_R;
         }
@@ -525,25 +1105,25 @@ public class Frame implements Payload {
         long streamId = -1;
 
         try {
-            type = FrameHeaderFlyweight.frameType(directBuffer, 0);
+            type = getType();
             ByteBuffer byteBuffer;
             byte[] bytes;
 
-            byteBuffer = FrameHeaderFlyweight.sliceFrameMetadata(directBuffer, 0, 0);
+            byteBuffer = getMetadata();
             if (0 < byteBuffer.remaining()) {
                 bytes = new byte[byteBuffer.remaining()];
                 byteBuffer.get(bytes);
                 payload.append(String.format("metadata: \"%s\" ", new String(bytes, StandardCharsets.UTF_8)));
             }
 
-            byteBuffer = FrameHeaderFlyweight.sliceFrameData(directBuffer, 0, 0);
+            byteBuffer = getData();
             if (0 < byteBuffer.remaining()) {
                 bytes = new byte[byteBuffer.remaining()];
                 byteBuffer.get(bytes);
                 payload.append(String.format("data: \"%s\"", new String(bytes, StandardCharsets.UTF_8)));
             }
 
-            streamId = FrameHeaderFlyweight.streamId(directBuffer, 0);
+            streamId = getStreamId();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -54,7 +54,7 @@ public enum FrameType {
         private static final int HAS_INITIAL_REQUEST_N = 0b1000;
     }
 
-    private static FrameType[] typesById;
+    private static final FrameType[] typesById;
 
     private final int id;
     private final int flags;
@@ -110,7 +110,18 @@ public enum FrameType {
         return 0;
     }
 
+    /**
+     * Look up a type by its encoded id, without allocating.
+     *
+     * @param id encoded type
+     * @return type for the id, {@link #UNDEFINED} if unknown
+     */
     public static FrameType from(int id) {
-        return typesById[id];
+        if (id < 0 || id >= typesById.length) {
+            return UNDEFINED;
+        }
+
+        final FrameType type = typesById[id];
+        return null == type ? UNDEFINED : type;
     }
 }
\ No newline at end of file
@@ -17,7 +17,36 @@ package io.reactivesocket;
 
 import java.nio.ByteBuffer;
 
+/**
+ * Payload of a request or response, a pair of metadata and data buffers.
+ * <p>
+ * A Payload received in a callback, such as the request passed to a {@link RequestHandler} or a response passed to
+ * {@link org.reactivestreams.Subscriber#onNext(Object)}, is only valid for the duration of that callback. Code that
+ * reads it later, e.g. after handing it to another thread, calls {@link #retain()} within the callback and
+ * {@link #release()} once done. Retaining a {@link Frame} is a reference count increment when its memory can outlive
+ * the callback and a copy into pooled memory when the transport reuses it, so payloads that are only read within
+ * the callback are never copied. Heap backed payloads do not need to be released.
+ */
 public interface Payload {
     ByteBuffer getData();
     ByteBuffer getMetadata();
+
+    /**
+     * Increment the reference count of this payload, so it stays valid beyond the callback it was received in until
+     * the matching {@link #release()}.
+     *
+     * @return this payload
+     */
+    default Payload retain() {
+        return this;
+    }
+
+    /**
+     * Decrement the reference count of this payload, freeing any pooled memory once it reaches 0.
+     *
+     * @return true if the payload was freed by this call
+     */
+    default boolean release() {
+        return false;
+    }
 }
@@ -0,0 +1,224 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket;
+
+/**
+ * Sizes the REQUEST_N credit a requester keeps outstanding for requestStream, requestSubscription and
+ * requestChannel.
+ * <p>
+ * Every stream gets its own {@link Window}. The requester never asks for more than the subscriber requested, it
+ * asks for up to {@link Window#batch()} items and asks again once the outstanding credit drops to
+ * {@link Window#threshold()}.
+ * <p>
+ * {@link #DEFAULT} is a fixed window of {@code -Dio.reactivesocket.requestN.batch} (1024) items, refilled at
+ * {@code -Dio.reactivesocket.requestN.threshold} (256). {@link #adaptive(long, long)} sizes the window from the
+ * round-trip time of REQUEST_N and the rate at which the subscriber drains items, so a fast subscriber on a slow
+ * link does not stall waiting for credit and a slow subscriber does not get a large batch buffered for it.
+ */
+public abstract class RequestNStrategy {
+    public static final long DEFAULT_BATCH = Long.getLong("io.reactivesocket.requestN.batch", 1024);
+    public static final long DEFAULT_THRESHOLD = Long.getLong("io.reactivesocket.requestN.threshold", 256);
+
+    public static final RequestNStrategy DEFAULT = fixed(DEFAULT_BATCH, DEFAULT_THRESHOLD);
+
+    /**
+     * Credit of every stream is refilled up to {@code batch} once it drops to {@code threshold}.
+     *
+     * @param batch most items requested from the responder at once
+     * @param threshold outstanding items at which more are requested
+     * @return fixed strategy
+     */
+    public static RequestNStrategy fixed(final long batch, final long threshold) {
+        if (batch <= 0 || batch > Integer.MAX_VALUE || threshold < 0 || threshold >= batch) {
+            throw new IllegalArgumentException(
+                "Invalid REQUEST_N window: batch=" + batch + " threshold=" + threshold);
+        }
+
+        return new RequestNStrategy() {
+            @Override
+            public Window newWindow() {
+                return new FixedWindow(batch, threshold);
+            }
+        };
+    }
+
+    /**
+     * Credit of every stream starts at {@code minBatch} and is resized as items arrive to twice the items the
+     * subscriber drains in one round-trip, within {@code minBatch} and {@code maxBatch}.
+     *
+     * @param minBatch smallest window, also the initial one
+     * @param maxBatch largest window
+     * @return adaptive strategy
+     */
+    public static RequestNStrategy adaptive(final long minBatch, final long maxBatch) {
+        if (minBatch <= 1 || maxBatch < minBatch || maxBatch > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                "Invalid REQUEST_N window: minBatch=" + minBatch + " maxBatch=" + maxBatch);
+        }
+
+        return new RequestNStrategy() {
+            @Override
+            public Window newWindow() {
+                return new AdaptiveWindow(minBatch, maxBatch);
+            }
+        };
+    }
+
+    /**
+     * Create the credit window of a new stream.
+     *
+     * @return window for a single stream
+     */
+    public abstract Window newWindow();
+
+    /**
+     * Credit window of a single stream. Called from the thread requesting items and the thread delivering them.
+     */
+    public interface Window {
+        /**
+         * @return most items to have outstanding at the responder
+         */
+        long batch();
+
+        /**
+         * @return outstanding items at which more are requested
+         */
+        long threshold();
+
+        /**
+         * Credit for {@code n} items has been sent to the responder.
+         *
+         * @param n items requested
+         * @param nowNanos {@link System#nanoTime()}
+         */
+        void onRequested(long n, long nowNanos);
+
+        /**
+         * An item has been delivered to the subscriber.
+         *
+         * @param nowNanos {@link System#nanoTime()}
+         */
+        void onDelivered(long nowNanos);
+    }
+
+    private static final class FixedWindow implements Window {
+        private final long batch;
+        private final long threshold;
+
+        private FixedWindow(final long batch, final long threshold) {
+            this.batch = batch;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public long batch() {
+            return batch;
+        }
+
+        @Override
+        public long threshold() {
+            return threshold;
+        }
+
+        @Override
+        public void onRequested(final long n, final long nowNanos) {
+        }
+
+        @Override
+        public void onDelivered(final long nowNanos) {
+        }
+    }
+
+    private static final class AdaptiveWindow implements Window {
+        // weight of a new sample in the moving averages
+        private static final double ALPHA = 0.125;
+
+        private final long minBatch;
+        private final long maxBatch;
+
+        private volatile long batch;
+        private volatile long threshold;
+
+        // guarded by this
+        private long granted;
+        private long delivered;
+        private boolean timing;
+        private long timedItem;
+        private long requestSentNanos;
+        private long lastDeliveredNanos;
+        private double rttNanos;
+        private double drainNanos;
+
+        private AdaptiveWindow(final long minBatch, final long maxBatch) {
+            this.minBatch = minBatch;
+            this.maxBatch = maxBatch;
+            this.batch = minBatch;
+            this.threshold = minBatch / 2;
+        }
+
+        @Override
+        public long batch() {
+            return batch;
+        }
+
+        @Override
+        public long threshold() {
+            return threshold;
+        }
+
+        @Override
+        public synchronized void onRequested(final long n, final long nowNanos) {
+            // time one REQUEST_N at a time, until the first item it grants arrives
+            if (!timing) {
+                timing = true;
+                timedItem = granted + 1;
+                requestSentNanos = nowNanos;
+            }
+            granted += n;
+        }
+
+        @Override
+        public synchronized void onDelivered(final long nowNanos) {
+            final boolean first = delivered++ == 0;
+            if (timing && delivered >= timedItem) {
+                timing = false;
+                if (first || lastDeliveredNanos - requestSentNanos <= 0) {
+                    // the subscriber waited for this credit, the gap is the round-trip
+                    rttNanos = average(rttNanos, nowNanos - requestSentNanos);
+                } else {
+                    // credit arrived before it ran out
+                    drainNanos = average(drainNanos, nowNanos - lastDeliveredNanos);
+                }
+            } else if (!first) {
+                drainNanos = average(drainNanos, nowNanos - lastDeliveredNanos);
+            }
+            lastDeliveredNanos = nowNanos;
+
+            if (rttNanos > 0 && drainNanos > 0) {
+                // items drained while a REQUEST_N travels to the responder and the first item comes back
+                final double inFlight = rttNanos / drainNanos;
+                final long next = Math.max(minBatch, Math.min(maxBatch, (long) Math.ceil(2 * inFlight)));
+                batch = next;
+                threshold = Math.max(1, Math.min(next / 2, (long) Math.ceil(inFlight)));
+            }
+        }
+
+        private static double average(final double current, final long sample) {
+            final double value = Math.max(1, sample);
+            return current == 0 ? value : current + ALPHA * (value - current);
+        }
+    }
+}
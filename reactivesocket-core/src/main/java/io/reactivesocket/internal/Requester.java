@@ -20,6 +20,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -33,9 +34,14 @@ import io.reactivesocket.DuplexConnection;
 import io.reactivesocket.Frame;
 import io.reactivesocket.FrameType;
 import io.reactivesocket.Payload;
+import io.reactivesocket.RequestNStrategy;
 import io.reactivesocket.exceptions.CancelException;
 import io.reactivesocket.exceptions.Exceptions;
+import io.reactivesocket.exceptions.RejectedException;
 import io.reactivesocket.exceptions.Retryable;
+import io.reactivesocket.internal.frame.PayloadFragmenter;
+import io.reactivesocket.internal.frame.PayloadReassembler;
+import io.reactivesocket.internal.frame.ReassemblyBudget;
 import io.reactivesocket.internal.frame.RequestFrameFlyweight;
 import io.reactivesocket.internal.rx.BackpressureUtils;
 import io.reactivesocket.internal.rx.EmptyDisposable;
@@ -43,7 +49,6 @@ import io.reactivesocket.internal.rx.EmptySubscription;
 import io.reactivesocket.rx.Completable;
 import io.reactivesocket.rx.Disposable;
 import io.reactivesocket.rx.Observer;
-import org.agrona.collections.Int2ObjectHashMap;
 
 /**
  * Protocol implementation abstracted over a {@link DuplexConnection}.
@@ -53,20 +58,25 @@ import org.agrona.collections.Int2ObjectHashMap;
 public class Requester {
     private static final Disposable CANCELLED = EmptyDisposable.INSTANCE;
     private static final int KEEPALIVE_INTERVAL_MS = 1000;
-    private static final long DEFAULT_BATCH = 1024;
-    private static final long REQUEST_THRESHOLD = 256;
 
     private final boolean isServer;
     private final DuplexConnection connection;
-    private final Int2ObjectHashMap<UnicastSubject<Frame>> streamInputMap = new Int2ObjectHashMap<>();
+    // looked up for every frame received, lock-free
+    private final StreamTable<UnicastSubject<Frame>> streamInputMap = new StreamTable<>();
     private final ConnectionSetupPayload setupPayload;
     private final Consumer<Throwable> errorStream;
     private final boolean honorLease;
+    private final int metadataMtu;
+    private final int dataMtu;
+    private final RequestNStrategy requestNStrategy;
+    // only touched from the connection input, which is serialized
+    private final PayloadReassembler reassembler;
 
     private long ttlExpiration;
     private long numberOfRemainingRequests = 0;
     private long timeOfLastKeepalive = 0;
-    private int streamCount = 0; // 0 is reserved for setup, all normal messages are >= 1
+    // 0 is reserved for setup, all normal messages are >= 1, taken by any thread starting a stream
+    private final AtomicInteger streamCount = new AtomicInteger();
     private AtomicReference<Disposable> connectionSubscription = new AtomicReference<>();
 
     private volatile boolean requesterStarted = false;
@@ -75,19 +85,24 @@ public class Requester {
         boolean isServer,
         DuplexConnection connection,
         ConnectionSetupPayload setupPayload,
-        Consumer<Throwable> errorStream
+        Consumer<Throwable> errorStream,
+        ReassemblyBudget reassemblyBudget
     ) {
         this.isServer = isServer;
         this.connection = connection;
         this.setupPayload = setupPayload;
         this.errorStream = errorStream;
         if (isServer) {
-            streamCount = 1; // server is odds
+            streamCount.set(1); // server is odds
         } else {
-            streamCount = 0; // client is even
+            streamCount.set(0); // client is even
         }
 
         this.honorLease = setupPayload.willClientHonorLease();
+        this.metadataMtu = setupPayload.metadataMtu();
+        this.dataMtu = setupPayload.dataMtu();
+        this.requestNStrategy = setupPayload.requestNStrategy();
+        this.reassembler = PayloadReassembler.create(reassemblyBudget);
     }
 
     public static Requester createClientRequester(
@@ -96,7 +111,18 @@ public class Requester {
         Consumer<Throwable> errorStream,
         Completable requesterCompletable
     ) {
-        Requester requester = new Requester(false, connection, setupPayload, errorStream);
+        return createClientRequester(connection, setupPayload, errorStream, requesterCompletable,
+            new ReassemblyBudget());
+    }
+
+    public static Requester createClientRequester(
+        DuplexConnection connection,
+        ConnectionSetupPayload setupPayload,
+        Consumer<Throwable> errorStream,
+        Completable requesterCompletable,
+        ReassemblyBudget reassemblyBudget
+    ) {
+        Requester requester = new Requester(false, connection, setupPayload, errorStream, reassemblyBudget);
         requester.start(requesterCompletable);
         return requester;
     }
@@ -107,7 +133,18 @@ public class Requester {
         Consumer<Throwable> errorStream,
         Completable requesterCompletable
     ) {
-        Requester requester = new Requester(true, connection, setupPayload, errorStream);
+        return createServerRequester(connection, setupPayload, errorStream, requesterCompletable,
+            new ReassemblyBudget());
+    }
+
+    public static Requester createServerRequester(
+        DuplexConnection connection,
+        ConnectionSetupPayload setupPayload,
+        Consumer<Throwable> errorStream,
+        Completable requesterCompletable,
+        ReassemblyBudget reassemblyBudget
+    ) {
+        Requester requester = new Requester(true, connection, setupPayload, errorStream, reassemblyBudget);
         requester.start(requesterCompletable);
         return requester;
     }
@@ -147,7 +184,19 @@ public class Requester {
      * @return
      */
     public Publisher<Payload> requestStream(final Payload payload) {
-        return startStream(nextStreamId(), FrameType.REQUEST_STREAM, payload);
+        return requestStream(payload, requestNStrategy);
+    }
+
+    /**
+     * {@link #requestStream(Payload)} with the REQUEST_N credit sized by the given strategy instead of the one of
+     * the connection.
+     *
+     * @param payload
+     * @param strategy
+     * @return
+     */
+    public Publisher<Payload> requestStream(final Payload payload, final RequestNStrategy strategy) {
+        return startStream(nextStreamId(), FrameType.REQUEST_STREAM, payload, strategy);
     }
 
     /**
@@ -175,9 +224,7 @@ public class Requester {
                 if (n > 0 && started.compareAndSet(false, true)) {
                     numberOfRemainingRequests--;
 
-                    Frame fnfFrame = Frame.Request.from(
-                        nextStreamId(), FrameType.FIRE_AND_FORGET, payload, 0);
-                    connection.addOutput(fnfFrame, new Completable() {
+                    addRequestOutput(nextStreamId(), FrameType.FIRE_AND_FORGET, payload, 0, new Completable() {
                         @Override
                         public void success() {
                             child.onComplete();
@@ -256,7 +303,19 @@ public class Requester {
      * @return
      */
     public Publisher<Payload> requestSubscription(final Payload payload) {
-        return startStream(nextStreamId(), FrameType.REQUEST_SUBSCRIPTION, payload);
+        return requestSubscription(payload, requestNStrategy);
+    }
+
+    /**
+     * {@link #requestSubscription(Payload)} with the REQUEST_N credit sized by the given strategy instead of the
+     * one of the connection.
+     *
+     * @param payload
+     * @param strategy
+     * @return
+     */
+    public Publisher<Payload> requestSubscription(final Payload payload, final RequestNStrategy strategy) {
+        return startStream(nextStreamId(), FrameType.REQUEST_SUBSCRIPTION, payload, strategy);
     }
 
     /**
@@ -268,7 +327,22 @@ public class Requester {
      * @return
      */
     public Publisher<Payload> requestChannel(final Publisher<Payload> payloadStream) {
-        return startChannel(nextStreamId(), FrameType.REQUEST_CHANNEL, payloadStream);
+        return requestChannel(payloadStream, requestNStrategy);
+    }
+
+    /**
+     * {@link #requestChannel(Publisher)} with the REQUEST_N credit sized by the given strategy instead of the one
+     * of the connection.
+     *
+     * @param payloadStream
+     * @param strategy
+     * @return
+     */
+    public Publisher<Payload> requestChannel(
+        final Publisher<Payload> payloadStream,
+        final RequestNStrategy strategy
+    ) {
+        return startChannel(nextStreamId(), FrameType.REQUEST_CHANNEL, payloadStream, strategy);
     }
 
     private void assertStarted() {
@@ -300,7 +374,12 @@ public class Requester {
      * Using payload/payloads with null check for efficiency so I don't have to
      * allocate a Publisher for the most common case of single Payload
      */
-    private Publisher<Payload> startStream(int streamId, FrameType type, Payload payload) {
+    private Publisher<Payload> startStream(
+        int streamId,
+        FrameType type,
+        Payload payload,
+        RequestNStrategy strategy
+    ) {
         assertStarted();
         return (Subscriber<? super Payload> child) -> {
             child.onSubscribe(new Subscription() {
@@ -313,6 +392,7 @@ public class Requester {
                 final AtomicLong requested = new AtomicLong();
                 // TODO AtomicLong just so I can pass it around ... perf issue? or is there a thread-safety issue?
                 final AtomicLong outstanding = new AtomicLong();
+                final RequestNStrategy.Window window = strategy.newWindow();
 
                 @Override
                 public void request(long n) {
@@ -330,9 +410,8 @@ public class Requester {
                     if (started.compareAndSet(false, true)) {
                         // determine initial RequestN
                         long currentN = requested.get();
-                        long requestN = currentN < DEFAULT_BATCH ? currentN : DEFAULT_BATCH;
-                        long threshold =
-                            requestN == DEFAULT_BATCH ? REQUEST_THRESHOLD : requestN / 3;
+                        long batch = window.batch();
+                        long requestN = currentN < batch ? currentN : batch;
 
                         // declare output to transport
                         writer = UnicastSubject.create((w, rn) -> {
@@ -342,19 +421,18 @@ public class Requester {
                             requested.addAndGet(-requestN);
                             // record how many we have requested
                             outstanding.addAndGet(requestN);
+                            window.onRequested(requestN, System.nanoTime());
 
                             // when transport connects we write the request frame for this stream
-                            w.onNext(Frame.Request.from(streamId, type, payload, (int)requestN));
+                            writeRequest(w, streamId, type, payload, (int)requestN);
                         });
 
                         // Response frames for this Stream
                         UnicastSubject<Frame> transportInputSubject = UnicastSubject.create();
-                        synchronized(Requester.this) {
-                            streamInputMap.put(streamId, transportInputSubject);
-                        }
+                        streamInputMap.put(streamId, transportInputSubject);
                         streamInputSubscriber = new StreamInputSubscriber(
                             streamId,
-                            threshold,
+                            window,
                             outstanding,
                             requested,
                             writer,
@@ -378,13 +456,10 @@ public class Requester {
                         });
                     } else {
                         // propagate further requestN frames
-                        long currentN = requested.get();
-                        long requestThreshold =
-                            REQUEST_THRESHOLD < currentN ? REQUEST_THRESHOLD : currentN / 3;
                         requestIfNecessary(
                             streamId,
-                            requestThreshold,
-                            currentN,
+                            window,
+                            requested.get(),
                             outstanding.get(),
                             writer,
                             requested,
@@ -404,9 +479,7 @@ public class Requester {
                         cancelled = true;
                     }
 
-                    synchronized(Requester.this) {
-                        streamInputMap.remove(streamId);
-                    }
+                    streamInputMap.remove(streamId);
                     if (streamInputSubscriber != null) {
                         if (!streamInputSubscriber.terminated.get()) {
                             writer.onNext(Frame.Cancel.from(streamId));
@@ -428,7 +501,8 @@ public class Requester {
     private Publisher<Payload> startChannel(
         int streamId,
         FrameType type,
-        Publisher<Payload> payloads
+        Publisher<Payload> payloads,
+        RequestNStrategy strategy
     ) {
         if (payloads == null) {
             throw new IllegalStateException(name() + " Both payload and payloads can not be null");
@@ -446,6 +520,7 @@ public class Requester {
                 final AtomicLong requested = new AtomicLong();
                 // TODO AtomicLong just so I can pass it around ... perf issue? or is there a thread-safety issue?
                 final AtomicLong outstanding = new AtomicLong();
+                final RequestNStrategy.Window window = strategy.newWindow();
 
                 @Override
                 public void request(long n) {
@@ -463,10 +538,8 @@ public class Requester {
                     if (started.compareAndSet(false, true)) {
                         // determine initial RequestN
                         long currentN = requested.get();
-                        final long requestN = currentN < DEFAULT_BATCH ? currentN : DEFAULT_BATCH;
-                        // threshold
-                        final long threshold =
-                            requestN == DEFAULT_BATCH ? REQUEST_THRESHOLD : requestN / 3;
+                        final long batch = window.batch();
+                        final long requestN = currentN < batch ? currentN : batch;
 
                         // declare output to transport
                         writer = UnicastSubject.create((w, rn) -> {
@@ -475,6 +548,7 @@ public class Requester {
                             requested.addAndGet(-requestN);
                             // record how many we have requested
                             outstanding.addAndGet(requestN);
+                            window.onRequested(requestN, System.nanoTime());
 
                             connection.addOutput(new Publisher<Frame>() {
                                 @Override
@@ -511,13 +585,9 @@ public class Requester {
                                                     public void onNext(Payload p) {
                                                         if(isInitialRequest) {
                                                             isInitialRequest = false;
-                                                            Frame f = Frame.Request.from(
-                                                                streamId, type, p, (int)requestN);
-                                                            transport.onNext(f);
+                                                            writeRequest(transport, streamId, type, p, (int)requestN);
                                                         } else {
-                                                            Frame f = Frame.Request.from(
-                                                                streamId, type, p, 0);
-                                                            transport.onNext(f);
+                                                            writeRequest(transport, streamId, type, p, 0);
                                                         }
                                                     }
 
@@ -571,12 +641,10 @@ public class Requester {
 
                         // Response frames for this Stream
                         UnicastSubject<Frame> transportInputSubject = UnicastSubject.create();
-                        synchronized(Requester.this) {
-                            streamInputMap.put(streamId, transportInputSubject);
-                        }
+                        streamInputMap.put(streamId, transportInputSubject);
                         streamInputSubscriber = new StreamInputSubscriber(
                             streamId,
-                            threshold,
+                            window,
                             outstanding,
                             requested,
                             writer,
@@ -603,13 +671,10 @@ public class Requester {
                         });
                     } else {
                         // propagate further requestN frames
-                        long currentN = requested.get();
-                        long requestThreshold =
-                            REQUEST_THRESHOLD < currentN ? REQUEST_THRESHOLD : currentN / 3;
                         requestIfNecessary(
                             streamId,
-                            requestThreshold,
-                            currentN,
+                            window,
+                            requested.get(),
                             outstanding.get(),
                             writer,
                             requested,
@@ -628,9 +693,7 @@ public class Requester {
                         cancelled = true;
                     }
 
-                    synchronized(Requester.this) {
-                        streamInputMap.remove(streamId);
-                    }
+                    streamInputMap.remove(streamId);
                     if (streamInputSubscriber != null && !streamInputSubscriber.terminated.get()) {
                         writer.onNext(Frame.Cancel.from(streamId));
                         if (streamInputSubscriber.parentSubscription != null) {
@@ -677,12 +740,10 @@ public class Requester {
 
                         // Response frames for this Stream
                         UnicastSubject<Frame> transportInputSubject = UnicastSubject.create();
-                        synchronized(Requester.this) {
-                            streamInputMap.put(streamId, transportInputSubject);
-                        }
+                        streamInputMap.put(streamId, transportInputSubject);
                         streamInputSubscriber = new StreamInputSubscriber(
                             streamId,
-                            0,
+                            null,
                             null,
                             null,
                             null,
@@ -691,9 +752,8 @@ public class Requester {
                         );
                         transportInputSubject.subscribe(streamInputSubscriber);
 
-                        Frame requestFrame = Frame.Request.from(streamId, type, payload, 1);
                         // connect to transport
-                        connection.addOutput(requestFrame, new Completable() {
+                        addRequestOutput(streamId, type, payload, 1, new Completable() {
                             @Override
                             public void success() {
                                 // nothing to do onSuccess
@@ -732,9 +792,7 @@ public class Requester {
                             }
                         });
                     }
-                    synchronized(Requester.this) {
-                        streamInputMap.remove(streamId);
-                    }
+                    streamInputMap.remove(streamId);
                     if (streamInputSubscriber != null && streamInputSubscriber.parentSubscription != null) {
                         streamInputSubscriber.parentSubscription.cancel();
                     }
@@ -743,12 +801,50 @@ public class Requester {
         };
     }
 
+    /*
+     * Write the frame for a request, or its fragments when the payload does not fit the MTU.
+     */
+    private void writeRequest(
+        Subscriber<? super Frame> transport,
+        int streamId,
+        FrameType type,
+        Payload payload,
+        int initialRequestN
+    ) {
+        if (PayloadFragmenter.requiresFragmenting(metadataMtu, dataMtu, payload)) {
+            final PayloadFragmenter fragmenter = new PayloadFragmenter(metadataMtu, dataMtu);
+            fragmenter.resetForRequest(streamId, type, payload, initialRequestN);
+            for (Frame fragment : fragmenter) {
+                transport.onNext(fragment);
+            }
+        } else {
+            transport.onNext(Frame.Request.from(streamId, type, payload, initialRequestN));
+        }
+    }
+
+    private void addRequestOutput(
+        int streamId,
+        FrameType type,
+        Payload payload,
+        int initialRequestN,
+        Completable callback
+    ) {
+        if (PayloadFragmenter.requiresFragmenting(metadataMtu, dataMtu, payload)) {
+            // fragments are encoded as the transport asks for them rather than all upfront
+            final PayloadFragmenter fragmenter = new PayloadFragmenter(metadataMtu, dataMtu);
+            fragmenter.resetForRequest(streamId, type, payload, initialRequestN);
+            connection.addOutput(PublisherUtils.fromIterable(fragmenter), callback);
+        } else {
+            connection.addOutput(Frame.Request.from(streamId, type, payload, initialRequestN), callback);
+        }
+    }
+
     private final static class StreamInputSubscriber implements Subscriber<Frame> {
         final AtomicBoolean terminated = new AtomicBoolean(false);
         volatile Subscription parentSubscription;
 
         private final int streamId;
-        private final long requestThreshold;
+        private final RequestNStrategy.Window window;
         private final AtomicLong outstandingRequests;
         private final AtomicLong requested;
         private final UnicastSubject<Frame> writer;
@@ -758,7 +854,7 @@ public class Requester {
 
         public StreamInputSubscriber(
             int streamId,
-            long threshold,
+            RequestNStrategy.Window window,
             AtomicLong outstanding,
             AtomicLong requested,
             UnicastSubject<Frame> writer,
@@ -766,7 +862,7 @@ public class Requester {
             Runnable cancelAction
         ) {
             this.streamId = streamId;
-            this.requestThreshold = threshold;
+            this.window = window;
             this.requested = requested;
             this.outstandingRequests = outstanding;
             this.writer = writer;
@@ -777,7 +873,7 @@ public class Requester {
 
         public StreamInputSubscriber(
             int streamId,
-            long threshold,
+            RequestNStrategy.Window window,
             AtomicLong outstanding,
             AtomicLong requested,
             UnicastSubject<Frame> writer,
@@ -786,7 +882,7 @@ public class Requester {
             Runnable cancelAction
         ) {
             this.streamId = streamId;
-            this.requestThreshold = threshold;
+            this.window = window;
             this.requested = requested;
             this.outstandingRequests = outstanding;
             this.writer = writer;
@@ -813,8 +909,9 @@ public class Requester {
                 cancel();
             } else if (type == FrameType.NEXT) {
                 child.onNext(frame);
+                window.onDelivered(System.nanoTime());
                 long currentOutstanding = outstandingRequests.decrementAndGet();
-                requestIfNecessary(streamId, requestThreshold, requested.get(),
+                requestIfNecessary(streamId, window, requested.get(),
                     currentOutstanding, writer, requested, outstandingRequests);
             } else if (type == FrameType.REQUEST_N) {
                 if(requestStreamSubscription != null) {
@@ -864,15 +961,18 @@ public class Requester {
 
     private static void requestIfNecessary(
         int streamId,
-        long requestThreshold,
+        RequestNStrategy.Window window,
         long currentN,
         long currentOutstanding,
         UnicastSubject<Frame> writer,
         AtomicLong requested,
         AtomicLong outstanding
     ) {
+        // once the subscriber wants fewer items than the threshold, refill at a third of what it still wants
+        final long windowThreshold = window.threshold();
+        final long requestThreshold = windowThreshold < currentN ? windowThreshold : currentN / 3;
         if(currentOutstanding <= requestThreshold) {
-            long batchSize = DEFAULT_BATCH - currentOutstanding;
+            long batchSize = window.batch() - currentOutstanding;
             final long requestN = currentN < batchSize ? currentN : batchSize;
 
             if (requestN > 0) {
@@ -880,6 +980,7 @@ public class Requester {
                 requested.addAndGet(-requestN);
                 // record how many we have requested
                 outstanding.addAndGet(requestN);
+                window.onRequested(requestN, System.nanoTime());
 
                 writer.onNext(Frame.RequestN.from(streamId, (int)requestN));
             }
@@ -887,7 +988,7 @@ public class Requester {
     }
 
     private int nextStreamId() {
-        return streamCount += 2; // go by two since server is odd, client is even
+        return streamCount.addAndGet(2); // go by two since server is odd, client is even
     }
 
     private void start(Completable onComplete) {
@@ -952,10 +1053,11 @@ public class Requester {
             public void onNext(Frame frame) {
                 int streamId = frame.getStreamId();
                 if (streamId == 0) {
-                    if (FrameType.ERROR.equals(frame.getType())) {
+                    final FrameType type = frame.getType();
+                    if (FrameType.ERROR.equals(type)) {
                         final Throwable throwable = Exceptions.from(frame);
                         onError(throwable);
-                    } else if (FrameType.LEASE.equals(frame.getType()) && honorLease) {
+                    } else if (FrameType.LEASE.equals(type) && honorLease) {
                         numberOfRemainingRequests = Frame.Lease.numberOfRequests(frame);
                         final long now = System.currentTimeMillis();
                         final int ttl = Frame.Lease.ttl(frame);
@@ -965,19 +1067,18 @@ public class Requester {
                         } else {
                             ttlExpiration = now + ttl;
                         }
-                    } else if (FrameType.KEEPALIVE.equals(frame.getType())) {
+                    } else if (FrameType.KEEPALIVE.equals(type)) {
                         timeOfLastKeepalive = System.currentTimeMillis();
                     } else {
                         onError(new RuntimeException(
-                            name() + " Received unexpected message type on stream 0: " + frame.getType().name()));
+                            name() + " Received unexpected message type on stream 0: " + type.name()));
                     }
                 } else {
-                    UnicastSubject<Frame> streamSubject;
-                    synchronized (Requester.this) {
-                        streamSubject = streamInputMap.get(streamId);
-                    }
+                    UnicastSubject<Frame> streamSubject = streamInputMap.get(streamId);
                     if (streamSubject == null) {
-                        if (streamId <= streamCount) {
+                        // drop anything received of a payload for the stream
+                        reassembler.resetStream(streamId);
+                        if (streamId <= streamCount.get()) {
                             // receiving a frame after a given stream has been cancelled/completed,
                             // so ignore (cancellation is async so there is a race condition)
                             return;
@@ -995,28 +1096,54 @@ public class Requester {
                             }
                         }
                     } else {
-                        streamSubject.onNext(frame);
+                        final Frame reassembled;
+                        try {
+                            reassembled = reassembler.reassemble(frame);
+                        } catch (RejectedException e) {
+                            // the payload outgrew the reassembly budget and was dropped, give up on the stream
+                            streamInputMap.remove(streamId);
+                            connection.addOutput(Frame.Cancel.from(streamId), new Completable() {
+                                @Override
+                                public void success() {
+                                    // nothing to do onSuccess
+                                }
+
+                                @Override
+                                public void error(Throwable t) {
+                                    errorStream.accept(t);
+                                }
+                            });
+                            streamSubject.onError(e);
+                            return;
+                        }
+                        if (reassembled == null) {
+                            // more fragments to come
+                            return;
+                        }
+                        try {
+                            streamSubject.onNext(reassembled);
+                        } finally {
+                            if (reassembled != frame) {
+                                reassembled.release();
+                            }
+                        }
                     }
                 }
             }
 
             public void onError(Throwable t) {
-                Collection<UnicastSubject<Frame>> subjects;
-                synchronized (Requester.this) {
-                    subjects = streamInputMap.values();
-                }
+                Collection<UnicastSubject<Frame>> subjects = streamInputMap.values();
                 subjects.forEach(subject -> subject.onError(t));
+                reassembler.clear();
                 // TODO: iterate over responder side and destroy world
                 errorStream.accept(t);
                 cancel();
             }
 
             public void onComplete() {
-                Collection<UnicastSubject<Frame>> subjects;
-                synchronized (Requester.this) {
-                    subjects = streamInputMap.values();
-                }
+                Collection<UnicastSubject<Frame>> subjects = streamInputMap.values();
                 subjects.forEach(UnicastSubject::onComplete);
+                reassembler.clear();
                 cancel();
             }
 
@@ -26,17 +26,20 @@ import io.reactivesocket.exceptions.InvalidSetupException;
 import io.reactivesocket.exceptions.RejectedException;
 import io.reactivesocket.exceptions.SetupException;
 import io.reactivesocket.internal.frame.FrameHeaderFlyweight;
+import io.reactivesocket.internal.frame.PayloadFragmenter;
+import io.reactivesocket.internal.frame.PayloadReassembler;
+import io.reactivesocket.internal.frame.ReassemblyBudget;
 import io.reactivesocket.internal.frame.SetupFrameFlyweight;
 import io.reactivesocket.internal.rx.EmptyDisposable;
 import io.reactivesocket.internal.rx.EmptySubscription;
 import io.reactivesocket.rx.Completable;
 import io.reactivesocket.rx.Disposable;
 import io.reactivesocket.rx.Observer;
-import org.agrona.collections.Int2ObjectHashMap;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
+import java.util.ArrayDeque;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
@@ -62,6 +65,10 @@ public class Responder {
     private final Consumer<ConnectionSetupPayload> setupCallback;
     private final boolean isServer;
     private final AtomicReference<Disposable> transportSubscription = new AtomicReference<>();
+    // taken from the SETUP frame on the server
+    private volatile int metadataMtu;
+    private volatile int dataMtu;
+    private final ReassemblyBudget reassemblyBudget;
 
     private Responder(
             boolean isServer,
@@ -70,7 +77,10 @@ public class Responder {
             RequestHandler requestHandler,
             LeaseGovernor leaseGovernor,
             Consumer<Throwable> errorStream,
-            Consumer<ConnectionSetupPayload> setupCallback
+            Consumer<ConnectionSetupPayload> setupCallback,
+            int metadataMtu,
+            int dataMtu,
+            ReassemblyBudget reassemblyBudget
     ) {
         this.isServer = isServer;
         this.connection = connection;
@@ -80,6 +90,9 @@ public class Responder {
         this.errorStream = errorStream;
         this.timeOfLastKeepalive = System.nanoTime();
         this.setupCallback = setupCallback;
+        this.metadataMtu = metadataMtu;
+        this.dataMtu = dataMtu;
+        this.reassemblyBudget = reassemblyBudget;
     }
 
     /**
@@ -99,9 +112,28 @@ public class Responder {
             Completable responderCompletable,
             Consumer<ConnectionSetupPayload> setupCallback,
             ReactiveSocket reactiveSocket
+    ) {
+        return createServerResponder(connection, connectionHandler, leaseGovernor, errorStream,
+                responderCompletable, setupCallback, reactiveSocket, new ReassemblyBudget());
+    }
+
+    /**
+     * @param reassemblyBudget bounding the bytes of fragmented requests held, shared with the requester side of the
+     *                         connection
+     * @return responder instance
+     */
+    public static Responder createServerResponder(
+            DuplexConnection connection,
+            ConnectionSetupHandler connectionHandler,
+            LeaseGovernor leaseGovernor,
+            Consumer<Throwable> errorStream,
+            Completable responderCompletable,
+            Consumer<ConnectionSetupPayload> setupCallback,
+            ReactiveSocket reactiveSocket,
+            ReassemblyBudget reassemblyBudget
     ) {
         Responder responder = new Responder(true, connection, connectionHandler, null,
-                leaseGovernor, errorStream, setupCallback);
+                leaseGovernor, errorStream, setupCallback, Frame.METADATA_MTU, Frame.DATA_MTU, reassemblyBudget);
         responder.start(responderCompletable, reactiveSocket);
         return responder;
     }
@@ -118,6 +150,45 @@ public class Responder {
                 errorStream, responderCompletable, s -> {}, reactiveSocket);
     }
 
+    /**
+     * @param setupPayload sent by this client, responses are fragmented to its MTU
+     * @return responder instance
+     */
+    public static Responder createClientResponder(
+            DuplexConnection connection,
+            ConnectionSetupPayload setupPayload,
+            RequestHandler requestHandler,
+            LeaseGovernor leaseGovernor,
+            Consumer<Throwable> errorStream,
+            Completable responderCompletable,
+            ReactiveSocket reactiveSocket
+    ) {
+        return createClientResponder(connection, setupPayload, requestHandler, leaseGovernor, errorStream,
+                responderCompletable, reactiveSocket, new ReassemblyBudget());
+    }
+
+    /**
+     * @param setupPayload sent by this client, responses are fragmented to its MTU
+     * @param reassemblyBudget bounding the bytes of fragmented requests held, shared with the requester side of the
+     *                         connection
+     * @return responder instance
+     */
+    public static Responder createClientResponder(
+            DuplexConnection connection,
+            ConnectionSetupPayload setupPayload,
+            RequestHandler requestHandler,
+            LeaseGovernor leaseGovernor,
+            Consumer<Throwable> errorStream,
+            Completable responderCompletable,
+            ReactiveSocket reactiveSocket,
+            ReassemblyBudget reassemblyBudget
+    ) {
+        Responder responder = new Responder(false, connection, null, requestHandler, leaseGovernor, errorStream,
+                s -> {}, setupPayload.metadataMtu(), setupPayload.dataMtu(), reassemblyBudget);
+        responder.start(responderCompletable, reactiveSocket);
+        return responder;
+    }
+
     public static Responder createClientResponder(
             DuplexConnection connection,
             RequestHandler requestHandler,
@@ -127,7 +198,7 @@ public class Responder {
             ReactiveSocket reactiveSocket
     ) {
         Responder responder = new Responder(false, connection, null, requestHandler,
-                leaseGovernor, errorStream, s -> {});
+                leaseGovernor, errorStream, s -> {}, Frame.METADATA_MTU, Frame.DATA_MTU, new ReassemblyBudget());
         responder.start(responderCompletable, reactiveSocket);
         return responder;
     }
@@ -162,16 +233,20 @@ public class Responder {
     }
 
     private void start(final Completable responderCompletable, ReactiveSocket reactiveSocket) {
-        /* state of cancellation subjects during connection */
-        final Int2ObjectHashMap<Subscription> cancellationSubscriptions = new Int2ObjectHashMap<>();
+        /* state of cancellation subjects during connection, the stream tables are looked up lock-free */
+        final StreamTable<Subscription> cancellationSubscriptions = new StreamTable<>();
         /* streams in flight that can receive REQUEST_N messages */
-        final Int2ObjectHashMap<SubscriptionArbiter> inFlight = new Int2ObjectHashMap<>();
+        final StreamTable<SubscriptionArbiter> inFlight = new StreamTable<>();
         /* bidirectional channels */
         // TODO: should/can we make this optional so that it only gets allocated per connection if
         //       channels are used?
-        final Int2ObjectHashMap<UnicastSubject<Payload>> channels = new Int2ObjectHashMap<>();
+        final StreamTable<UnicastSubject<Payload>> channels = new StreamTable<>();
+        /* request frames of streams whose handler has not been called yet */
+        final StreamTable<DeferredRequest> deferredRequests = new StreamTable<>();
 
         final AtomicBoolean childTerminated = new AtomicBoolean(false);
+        /* payloads of requests received in fragments, only touched from the serialized transport input */
+        final PayloadReassembler reassembler = PayloadReassembler.create(reassemblyBudget);
 
         // subscribe to transport to get Frames
         connection.getInput().subscribe(new Observer<Frame>() {
@@ -191,19 +266,21 @@ public class Responder {
             volatile RequestHandler requestHandler = !isServer ? clientRequestHandler : null;
 
             @Override
-            public void onNext(Frame requestFrame) {
-                final int streamId = requestFrame.getStreamId();
+            public void onNext(Frame frame) {
+                final int streamId = frame.getStreamId();
                 if (requestHandler == null) { // this will only happen when isServer==true
                     if (childTerminated.get()) {
                         // already terminated, but still receiving latent messages...
                         // ignore them while shutdown occurs
                         return;
                     }
-                    if (requestFrame.getType() == FrameType.SETUP) {
+                    if (frame.getType() == FrameType.SETUP) {
                         final ConnectionSetupPayload connectionSetupPayload =
-                            ConnectionSetupPayload.create(requestFrame);
+                            ConnectionSetupPayload.create(frame);
+                        metadataMtu = connectionSetupPayload.metadataMtu();
+                        dataMtu = connectionSetupPayload.dataMtu();
                         try {
-                            int version = Frame.Setup.version(requestFrame);
+                            int version = Frame.Setup.version(frame);
                             if (version != SetupFrameFlyweight.CURRENT_VERSION) {
                                 throw new SetupException(name() + ": unsupported protocol version: " + version);
                             }
@@ -233,42 +310,66 @@ public class Responder {
                             new InvalidSetupException(name() + ": Setup frame missing"));
                     }
                 } else {
+                    // handlers that are called once the response is requested hold the request as a DeferredRequest
+                    final Frame requestFrame;
+                    try {
+                        requestFrame = reassembler.reassemble(frame);
+                    } catch (RejectedException e) {
+                        // the payload outgrew the reassembly budget and was dropped, fail the stream
+                        final Subscription s = cancellationSubscriptions.get(streamId);
+                        if (s != null) {
+                            s.cancel();
+                        }
+                        connection.addOutput(PublisherUtils.errorFrame(streamId, e), new Completable() {
+                            @Override
+                            public void success() {
+                                // nothing to do onSuccess
+                            }
+
+                            @Override
+                            public void error(Throwable t) {
+                                errorStream.accept(t);
+                            }
+                        });
+                        return;
+                    }
+                    if (requestFrame == null) {
+                        // more fragments to come
+                        return;
+                    }
                     Publisher<Frame> responsePublisher = null;
+                    // decode once, the dispatch below compares against every request type
+                    final FrameType type = requestFrame.getType();
                     if (leaseGovernor.accept(Responder.this, requestFrame)) {
                     try {
-                        if (requestFrame.getType() == FrameType.REQUEST_RESPONSE) {
+                        if (type == FrameType.REQUEST_RESPONSE) {
                             responsePublisher = handleRequestResponse(
-                                requestFrame, requestHandler, cancellationSubscriptions);
-                        } else if (requestFrame.getType() == FrameType.REQUEST_STREAM) {
+                                requestFrame, requestHandler, cancellationSubscriptions, deferredRequests);
+                        } else if (type == FrameType.REQUEST_STREAM) {
                             responsePublisher = handleRequestStream(
-                                requestFrame, requestHandler, cancellationSubscriptions, inFlight);
-                        } else if (requestFrame.getType() == FrameType.FIRE_AND_FORGET) {
+                                requestFrame, requestHandler, cancellationSubscriptions, inFlight, deferredRequests);
+                        } else if (type == FrameType.FIRE_AND_FORGET) {
                             responsePublisher = handleFireAndForget(
                                 requestFrame, requestHandler);
-                        } else if (requestFrame.getType() == FrameType.REQUEST_SUBSCRIPTION) {
+                        } else if (type == FrameType.REQUEST_SUBSCRIPTION) {
                             responsePublisher = handleRequestSubscription(
-                                requestFrame, requestHandler, cancellationSubscriptions, inFlight);
-                        } else if (requestFrame.getType() == FrameType.REQUEST_CHANNEL) {
+                                requestFrame, requestHandler, cancellationSubscriptions, inFlight, deferredRequests);
+                        } else if (type == FrameType.REQUEST_CHANNEL) {
                             responsePublisher = handleRequestChannel(
                                 requestFrame, requestHandler, channels,
-                                cancellationSubscriptions, inFlight);
-                        } else if (requestFrame.getType() == FrameType.METADATA_PUSH) {
+                                cancellationSubscriptions, inFlight, deferredRequests);
+                        } else if (type == FrameType.METADATA_PUSH) {
                             responsePublisher = handleMetadataPush(
                                 requestFrame, requestHandler);
-                        } else if (requestFrame.getType() == FrameType.CANCEL) {
-                            Subscription s;
-                            synchronized (Responder.this) {
-                                s = cancellationSubscriptions.get(streamId);
-                            }
+                        } else if (type == FrameType.CANCEL) {
+                            final Subscription s = cancellationSubscriptions.get(streamId);
                             if (s != null) {
                                 s.cancel();
                             }
+                            reassembler.resetStream(streamId);
                             return;
-                        } else if (requestFrame.getType() == FrameType.REQUEST_N) {
-                            SubscriptionArbiter inFlightSubscription;
-                            synchronized (Responder.this) {
-                                inFlightSubscription = inFlight.get(streamId);
-                            }
+                        } else if (type == FrameType.REQUEST_N) {
+                            final SubscriptionArbiter inFlightSubscription = inFlight.get(streamId);
                             if (inFlightSubscription != null) {
                                 long requestN = Frame.RequestN.requestN(requestFrame);
                                 inFlightSubscription.addApplicationRequest(requestN);
@@ -277,7 +378,7 @@ public class Responder {
                             // TODO should we do anything if we don't find the stream?
                             // emitting an error is risky as the responder could have
                             // terminated and cleaned up already
-                        } else if (requestFrame.getType() == FrameType.KEEPALIVE) {
+                        } else if (type == FrameType.KEEPALIVE) {
                             // this client is alive.
                             timeOfLastKeepalive = System.nanoTime();
                             // echo back if flag set
@@ -288,7 +389,7 @@ public class Responder {
                             } else {
                                 return;
                             }
-                        } else if (requestFrame.getType() == FrameType.LEASE) {
+                        } else if (type == FrameType.LEASE) {
                             // LEASE only concerns the Requester
                         } else {
                             IllegalStateException exc = new IllegalStateException(
@@ -319,6 +420,11 @@ public class Responder {
 
                             @Override
                             public void error(Throwable e) {
+                                // the response may never have been subscribed to
+                                final DeferredRequest deferred = deferredRequests.get(streamId);
+                                if (deferred != null) {
+                                    deferred.discard();
+                                }
                                 // TODO validate with unit tests
                                 if (childTerminated.compareAndSet(false, true)) {
                                     // TODO should we have typed RuntimeExceptions?
@@ -328,6 +434,16 @@ public class Responder {
                             }
                         });
                     }
+                    // the frame is only valid until this callback returns, a handler that is still to be called
+                    // needs it retained
+                    final DeferredRequest deferred = deferredRequests.get(streamId);
+                    if (deferred != null) {
+                        deferred.leaveInbound();
+                    }
+                    if (requestFrame != frame) {
+                        // a reassembled request is owned here, the transport owns the frame it received
+                        requestFrame.release();
+                    }
                 }
             }
 
@@ -362,6 +478,8 @@ public class Responder {
             public void onError(Throwable t) {
                 // TODO validate with unit tests
                 if (childTerminated.compareAndSet(false, true)) {
+                    reassembler.clear();
+                    discardDeferredRequests();
                     errorStream.accept(t);
                     cancel();
                 }
@@ -372,10 +490,19 @@ public class Responder {
                 //TODO validate what is happening here
                 // this would mean the connection gracefully shut down, which is unexpected
                 if (childTerminated.compareAndSet(false, true)) {
+                    reassembler.clear();
+                    discardDeferredRequests();
                     cancel();
                 }
             }
 
+            private void discardDeferredRequests() {
+                // handlers of responses that were never requested will not be called any more
+                for (DeferredRequest deferred : deferredRequests.values()) {
+                    deferred.discard();
+                }
+            }
+
             private void cancel() {
                 // child has cancelled (shutdown the connection or server)
                 // TODO validate with unit tests
@@ -400,72 +527,88 @@ public class Responder {
     private Publisher<Frame> handleRequestResponse(
             Frame requestFrame,
             final RequestHandler requestHandler,
-            final Int2ObjectHashMap<Subscription> cancellationSubscriptions) {
+            final StreamTable<Subscription> cancellationSubscriptions,
+            final StreamTable<DeferredRequest> deferredRequests) {
 
         final int streamId = requestFrame.getStreamId();
+        // the handler is called once the response is requested, possibly after the frame's callback returned
+        final DeferredRequest deferred = new DeferredRequest(requestFrame, 1, deferredRequests);
         return child -> {
             Subscription s = new Subscription() {
 
                 final AtomicBoolean started = new AtomicBoolean(false);
                 final AtomicReference<Subscription> parent = new AtomicReference<>();
+                final SubscriptionArbiter arbiter = new SubscriptionArbiter(child);
 
                 @Override
                 public void request(long n) {
-                    if (n > 0 && started.compareAndSet(false, true)) {
+                    if (n <= 0) {
+                        return;
+                    }
+                    arbiter.addTransportRequest(n);
+                    if (started.compareAndSet(false, true)) {
                         try {
-                            Publisher<Payload> responsePublisher =
-                                    requestHandler.handleRequestResponse(requestFrame);
-                            responsePublisher.subscribe(new Subscriber<Payload>() {
-
-                                // event emission is serialized so this doesn't need to be atomic
-                                int count;
-
-                                @Override
-                                public void onSubscribe(Subscription s) {
-                                    if (parent.compareAndSet(null, s)) {
-                                        // only expect 1 value so we don't need REQUEST_N
-                                        s.request(Long.MAX_VALUE);
-                                    } else {
-                                        s.cancel();
-                                        cleanup();
-                                    }
-                                }
+                            final Frame request = deferred.acquire();
+                            if (request == null) {
+                                // the connection terminated before the response was requested
+                                return;
+                            }
+                            try {
+                                Publisher<Payload> responsePublisher = requestHandler.handleRequestResponse(request);
+                                responsePublisher.subscribe(new Subscriber<Payload>() {
+
+                                    // event emission is serialized so this doesn't need to be atomic
+                                    int count;
 
-                                @Override
-                                public void onNext(Payload v) {
-                                    if (++count > 1) {
-                                        IllegalStateException exc = new IllegalStateException(
-                                            name() + ": RequestResponse expects a single onNext");
-                                        onError(exc);
-                                    } else {
-                                        Frame nextCompleteFrame = Frame.Response.from(
-                                                streamId, FrameType.RESPONSE, v.getMetadata(), v.getData(), FrameHeaderFlyweight.FLAGS_RESPONSE_C);
-                                        child.onNext(nextCompleteFrame);
+                                    @Override
+                                    public void onSubscribe(Subscription s) {
+                                        if (parent.compareAndSet(null, s)) {
+                                            // only expect 1 value so we don't need REQUEST_N
+                                            s.request(Long.MAX_VALUE);
+                                        } else {
+                                            s.cancel();
+                                            cleanup();
+                                        }
                                     }
-                                }
 
-                                @Override
-                                public void onError(Throwable t) {
-                                    child.onNext(Frame.Error.from(streamId, t));
-                                    child.onComplete();
-                                    cleanup();
-                                }
+                                    @Override
+                                    public void onNext(Payload v) {
+                                        if (++count > 1) {
+                                            IllegalStateException exc = new IllegalStateException(
+                                                name() + ": RequestResponse expects a single onNext");
+                                            onError(exc);
+                                        } else {
+                                            writeResponse(arbiter, streamId, v, true);
+                                            arbiter.onPayload();
+                                        }
+                                    }
 
-                                @Override
-                                public void onComplete() {
-                                    if (count != 1) {
-                                        IllegalStateException exc = new IllegalStateException(
-                                            name() + ": RequestResponse expects a single onNext");
-                                        onError(exc);
-                                    } else {
-                                        child.onComplete();
+                                    @Override
+                                    public void onError(Throwable t) {
+                                        arbiter.emit(Frame.Error.from(streamId, t));
+                                        arbiter.complete();
                                         cleanup();
                                     }
-                                }
-                            });
+
+                                    @Override
+                                    public void onComplete() {
+                                        if (count != 1) {
+                                            IllegalStateException exc = new IllegalStateException(
+                                                name() + ": RequestResponse expects a single onNext");
+                                            onError(exc);
+                                        } else {
+                                            arbiter.complete();
+                                            cleanup();
+                                        }
+                                    }
+                                });
+                            } finally {
+                                // after subscribing, so that a handler may take its own reference to the request as it is subscribed to
+                                deferred.done();
+                            }
                         } catch (Throwable t) {
-                            child.onNext(Frame.Error.from(streamId, t));
-                            child.onComplete();
+                            arbiter.emit(Frame.Error.from(streamId, t));
+                            arbiter.complete();
                             cleanup();
                         }
                     }
@@ -473,6 +616,11 @@ public class Responder {
 
                 @Override
                 public void cancel() {
+                    if (started.compareAndSet(false, true)) {
+                        // cancelled before the handler was called
+                        deferred.discard();
+                    }
+                    arbiter.cancel();
                     if (!parent.compareAndSet(null, EmptySubscription.INSTANCE)) {
                         parent.get().cancel();
                         cleanup();
@@ -480,15 +628,11 @@ public class Responder {
                 }
 
                 private void cleanup() {
-                    synchronized(Responder.this) {
-                        cancellationSubscriptions.remove(streamId);
-                    }
+                    cancellationSubscriptions.remove(streamId);
                 }
 
             };
-            synchronized(this) {
-                cancellationSubscriptions.put(streamId, s);
-            }
+            cancellationSubscriptions.put(streamId, s);
             child.onSubscribe(s);
         };
     }
@@ -501,14 +645,16 @@ public class Responder {
     private Publisher<Frame> handleRequestStream(
             Frame requestFrame,
             final RequestHandler requestHandler,
-            final Int2ObjectHashMap<Subscription> cancellationSubscriptions,
-            final Int2ObjectHashMap<SubscriptionArbiter> inFlight) {
+            final StreamTable<Subscription> cancellationSubscriptions,
+            final StreamTable<SubscriptionArbiter> inFlight,
+            final StreamTable<DeferredRequest> deferredRequests) {
         return _handleRequestStream(
                 requestStreamHandler,
                 requestFrame,
                 requestHandler,
                 cancellationSubscriptions,
                 inFlight,
+                deferredRequests,
                 true
         );
     }
@@ -516,14 +662,16 @@ public class Responder {
     private Publisher<Frame> handleRequestSubscription(
             Frame requestFrame,
             final RequestHandler requestHandler,
-            final Int2ObjectHashMap<Subscription> cancellationSubscriptions,
-            final Int2ObjectHashMap<SubscriptionArbiter> inFlight) {
+            final StreamTable<Subscription> cancellationSubscriptions,
+            final StreamTable<SubscriptionArbiter> inFlight,
+            final StreamTable<DeferredRequest> deferredRequests) {
         return _handleRequestStream(
                 requestSubscriptionHandler,
                 requestFrame,
                 requestHandler,
                 cancellationSubscriptions,
                 inFlight,
+                deferredRequests,
                 false
         );
     }
@@ -535,6 +683,7 @@ public class Responder {
      * @param requestFrame
      * @param cancellationSubscriptions
      * @param inFlight
+     * @param deferredRequests
      * @param allowCompletion
      * @return
      */
@@ -542,16 +691,20 @@ public class Responder {
             BiFunction<RequestHandler, Payload, Publisher<Payload>> handler,
             Frame requestFrame,
             final RequestHandler requestHandler,
-            final Int2ObjectHashMap<Subscription> cancellationSubscriptions,
-            final Int2ObjectHashMap<SubscriptionArbiter> inFlight,
+            final StreamTable<Subscription> cancellationSubscriptions,
+            final StreamTable<SubscriptionArbiter> inFlight,
+            final StreamTable<DeferredRequest> deferredRequests,
             final boolean allowCompletion) {
         final int streamId = requestFrame.getStreamId();
+        final long initialRequestN = Frame.Request.initialRequestN(requestFrame);
+        // the handler is called once the response is requested, possibly after the frame's callback returned
+        final DeferredRequest deferred = new DeferredRequest(requestFrame, 1, deferredRequests);
         return child -> {
             Subscription s = new Subscription() {
 
                 final AtomicBoolean started = new AtomicBoolean(false);
                 final AtomicReference<Subscription> parent = new AtomicReference<>();
-                final SubscriptionArbiter arbiter = new SubscriptionArbiter();
+                final SubscriptionArbiter arbiter = new SubscriptionArbiter(child);
 
                 @Override
                 public void request(long n) {
@@ -562,60 +715,67 @@ public class Responder {
                         arbiter.addTransportRequest(n);
 
                         try {
-                            Publisher<Payload> responses =
-                                    handler.apply(requestHandler, requestFrame);
-                            responses.subscribe(new Subscriber<Payload>() {
-
-                                @Override
-                                public void onSubscribe(Subscription s) {
-                                    if (parent.compareAndSet(null, s)) {
-                                        inFlight.put(streamId, arbiter);
-                                        long n = Frame.Request.initialRequestN(requestFrame);
-                                        arbiter.addApplicationRequest(n);
-                                        arbiter.addApplicationProducer(s);
-                                    } else {
-                                        s.cancel();
-                                        cleanup();
-                                    }
-                                }
+                            final Frame request = deferred.acquire();
+                            if (request == null) {
+                                // the connection terminated before the response was requested
+                                return;
+                            }
+                            try {
+                                Publisher<Payload> responses = handler.apply(requestHandler, request);
+                                responses.subscribe(new Subscriber<Payload>() {
 
-                                @Override
-                                public void onNext(Payload v) {
-                                    try {
-                                        Frame nextFrame = Frame.Response.from(
-                                                streamId, FrameType.NEXT, v);
-                                        child.onNext(nextFrame);
-                                    } catch (Throwable e) {
-                                        onError(e);
+                                    @Override
+                                    public void onSubscribe(Subscription s) {
+                                        if (parent.compareAndSet(null, s)) {
+                                            inFlight.put(streamId, arbiter);
+                                            arbiter.addApplicationRequest(initialRequestN);
+                                            arbiter.addApplicationProducer(s);
+                                        } else {
+                                            s.cancel();
+                                            cleanup();
+                                        }
                                     }
-                                }
 
-                                @Override
-                                public void onError(Throwable t) {
-                                    child.onNext(Frame.Error.from(streamId, t));
-                                    child.onComplete();
-                                    cleanup();
-                                }
+                                    @Override
+                                    public void onNext(Payload v) {
+                                        try {
+                                            writeResponse(arbiter, streamId, v, false);
+                                            arbiter.onPayload();
+                                        } catch (Throwable e) {
+                                            onError(e);
+                                        }
+                                    }
 
-                                @Override
-                                public void onComplete() {
-                                    if (allowCompletion) {
-                                        Frame completeFrame = Frame.Response.from(
-                                                streamId, FrameType.COMPLETE);
-                                        child.onNext(completeFrame);
-                                        child.onComplete();
+                                    @Override
+                                    public void onError(Throwable t) {
+                                        arbiter.emit(Frame.Error.from(streamId, t));
+                                        arbiter.complete();
                                         cleanup();
-                                    } else {
-                                        IllegalStateException exc = new IllegalStateException(
-                                            name() + ": Unexpected onComplete occurred on " +
-                                                "'requestSubscription'");
-                                        onError(exc);
                                     }
-                                }
-                            });
+
+                                    @Override
+                                    public void onComplete() {
+                                        if (allowCompletion) {
+                                            Frame completeFrame = Frame.Response.from(
+                                                    streamId, FrameType.COMPLETE);
+                                            arbiter.emit(completeFrame);
+                                            arbiter.complete();
+                                            cleanup();
+                                        } else {
+                                            IllegalStateException exc = new IllegalStateException(
+                                                name() + ": Unexpected onComplete occurred on " +
+                                                    "'requestSubscription'");
+                                            onError(exc);
+                                        }
+                                    }
+                                });
+                            } finally {
+                                // after subscribing, so that a handler may take its own reference to the request as it is subscribed to
+                                deferred.done();
+                            }
                         } catch (Throwable t) {
-                            child.onNext(Frame.Error.from(streamId, t));
-                            child.onComplete();
+                            arbiter.emit(Frame.Error.from(streamId, t));
+                            arbiter.complete();
                             cleanup();
                         }
                     } else {
@@ -625,6 +785,11 @@ public class Responder {
 
                 @Override
                 public void cancel() {
+                    if (started.compareAndSet(false, true)) {
+                        // cancelled before the handler was called
+                        deferred.discard();
+                    }
+                    arbiter.cancel();
                     if (!parent.compareAndSet(null, EmptySubscription.INSTANCE)) {
                         parent.get().cancel();
                         cleanup();
@@ -632,16 +797,12 @@ public class Responder {
                 }
 
                 private void cleanup() {
-                    synchronized(Responder.this) {
-                        inFlight.remove(streamId);
-                        cancellationSubscriptions.remove(streamId);
-                    }
+                    inFlight.remove(streamId);
+                    cancellationSubscriptions.remove(streamId);
                 }
 
             };
-            synchronized(this) {
-                cancellationSubscriptions.put(streamId, s);
-            }
+            cancellationSubscriptions.put(streamId, s);
             child.onSubscribe(s);
 
         };
@@ -702,22 +863,24 @@ public class Responder {
 
     private Publisher<Frame> handleRequestChannel(Frame requestFrame,
             RequestHandler requestHandler,
-            Int2ObjectHashMap<UnicastSubject<Payload>> channels,
-            Int2ObjectHashMap<Subscription> cancellationSubscriptions,
-            Int2ObjectHashMap<SubscriptionArbiter> inFlight) {
+            StreamTable<UnicastSubject<Payload>> channels,
+            StreamTable<Subscription> cancellationSubscriptions,
+            StreamTable<SubscriptionArbiter> inFlight,
+            StreamTable<DeferredRequest> deferredRequests) {
 
-        UnicastSubject<Payload> channelSubject;
         final int streamId = requestFrame.getStreamId();
-        synchronized(this) {
-            channelSubject = channels.get(streamId);
-        }
+        final UnicastSubject<Payload> channelSubject = channels.get(streamId);
         if (channelSubject == null) {
+            final long initialRequestN = Frame.Request.initialRequestN(requestFrame);
+            // the handler is called, and the request emitted as the first input, once the response is requested,
+            // possibly after the frame's callback returned
+            final DeferredRequest deferred = new DeferredRequest(requestFrame, 2, deferredRequests);
             return child -> {
                 Subscription s = new Subscription() {
 
                     final AtomicBoolean started = new AtomicBoolean(false);
                     final AtomicReference<Subscription> parent = new AtomicReference<>();
-                    final SubscriptionArbiter arbiter = new SubscriptionArbiter();
+                    final SubscriptionArbiter arbiter = new SubscriptionArbiter(child);
 
                     @Override
                     public void request(long n) {
@@ -732,76 +895,93 @@ public class Responder {
                                 UnicastSubject.create((s, rn) -> {
                                     // after we are first subscribed to then send
                                     // the initial frame
-                                    s.onNext(requestFrame);
+                                    final Frame first = deferred.acquire();
+                                    if (first != null) {
+                                        try {
+                                            s.onNext(first);
+                                        } finally {
+                                            deferred.done();
+                                        }
+                                    }
                                     if (rn.intValue() > 0) {
                                         // initial requestN back to the requester (subtract 1
                                         // for the initial frame which was already sent)
-                                        child.onNext(Frame.RequestN.from(streamId, Math.min(Integer.MAX_VALUE, rn.intValue() - 1)));
+                                        arbiter.emit(Frame.RequestN.from(streamId, Math.min(Integer.MAX_VALUE, rn.intValue() - 1)));
                                     }
                                 }, r -> {
                                     // requested
-                                    child.onNext(Frame.RequestN.from(streamId, Math.min(Integer.MAX_VALUE, r.intValue())));
+                                    arbiter.emit(Frame.RequestN.from(streamId, Math.min(Integer.MAX_VALUE, r.intValue())));
                                 });
-                            synchronized(Responder.this) {
-                                if(channels.get(streamId) != null) {
-                                    // TODO validate that this correctly defends
-                                    // against this issue, this means we received a
-                                    // followup request that raced and that the requester
-                                    // didn't correct wait for REQUEST_N before sending
-                                    // more frames
-                                    RuntimeException exc = new RuntimeException(
-                                        name() + " sent more than 1 requestChannel " +
-                                            "frame before permitted.");
-                                    child.onNext(Frame.Error.from(streamId, exc));
-                                    child.onComplete();
-                                    cleanup();
-                                    return;
-                                }
-                                channels.put(streamId, channelRequests);
+                            if (channels.putIfAbsent(streamId, channelRequests) != null) {
+                                // TODO validate that this correctly defends
+                                // against this issue, this means we received a
+                                // followup request that raced and that the requester
+                                // didn't correct wait for REQUEST_N before sending
+                                // more frames
+                                deferred.discard();
+                                RuntimeException exc = new RuntimeException(
+                                    name() + " sent more than 1 requestChannel " +
+                                        "frame before permitted.");
+                                arbiter.emit(Frame.Error.from(streamId, exc));
+                                arbiter.complete();
+                                cleanup();
+                                return;
                             }
 
                             try {
-                                Publisher<Payload> responses = requestHandler.handleChannel(requestFrame, channelRequests);
-                                responses.subscribe(new Subscriber<Payload>() {
-                                    @Override
-                                    public void onSubscribe(Subscription s) {
-                                        if (parent.compareAndSet(null, s)) {
-                                            inFlight.put(streamId, arbiter);
-                                            long n = Frame.Request.initialRequestN(requestFrame);
-                                            arbiter.addApplicationRequest(n);
-                                            arbiter.addApplicationProducer(s);
-                                        } else {
-                                            s.cancel();
-                                            cleanup();
+                                final Frame request = deferred.acquire();
+                                if (request == null) {
+                                    // the connection terminated before the response was requested
+                                    return;
+                                }
+                                try {
+                                    Publisher<Payload> responses = requestHandler.handleChannel(request, channelRequests);
+                                    responses.subscribe(new Subscriber<Payload>() {
+                                        @Override
+                                        public void onSubscribe(Subscription s) {
+                                            if (parent.compareAndSet(null, s)) {
+                                                inFlight.put(streamId, arbiter);
+                                                arbiter.addApplicationRequest(initialRequestN);
+                                                arbiter.addApplicationProducer(s);
+                                            } else {
+                                                s.cancel();
+                                                cleanup();
+                                            }
                                         }
-                                    }
 
-                                    @Override
-                                    public void onNext(Payload v) {
-                                        Frame nextFrame = Frame.Response.from(
-                                                streamId, FrameType.NEXT, v);
-                                        child.onNext(nextFrame);
-                                    }
+                                        @Override
+                                        public void onNext(Payload v) {
+                                            try {
+                                                writeResponse(arbiter, streamId, v, false);
+                                                arbiter.onPayload();
+                                            } catch (Throwable e) {
+                                                onError(e);
+                                            }
+                                        }
 
-                                    @Override
-                                    public void onError(Throwable t) {
-                                        child.onNext(Frame.Error.from(streamId, t));
-                                        child.onComplete();
-                                        cleanup();
-                                    }
+                                        @Override
+                                        public void onError(Throwable t) {
+                                            arbiter.emit(Frame.Error.from(streamId, t));
+                                            arbiter.complete();
+                                            cleanup();
+                                        }
 
-                                    @Override
-                                    public void onComplete() {
-                                        Frame completeFrame = Frame.Response.from(
-                                                streamId, FrameType.COMPLETE);
-                                        child.onNext(completeFrame);
-                                        child.onComplete();
-                                        cleanup();
-                                    }
-                                });
+                                        @Override
+                                        public void onComplete() {
+                                            Frame completeFrame = Frame.Response.from(
+                                                    streamId, FrameType.COMPLETE);
+                                            arbiter.emit(completeFrame);
+                                            arbiter.complete();
+                                            cleanup();
+                                        }
+                                    });
+                                } finally {
+                                    // after subscribing, so that a handler may take its own reference to the request as it is subscribed to
+                                    deferred.done();
+                                }
                             } catch (Throwable t) {
-                                child.onNext(Frame.Error.from(streamId, t));
-                                child.onComplete();
+                                arbiter.emit(Frame.Error.from(streamId, t));
+                                arbiter.complete();
                                 cleanup();
                             }
                         } else {
@@ -811,6 +991,11 @@ public class Responder {
 
                     @Override
                     public void cancel() {
+                        if (started.compareAndSet(false, true)) {
+                            // cancelled before the handler was called
+                            deferred.discard();
+                        }
+                        arbiter.cancel();
                         if (!parent.compareAndSet(null, EmptySubscription.INSTANCE)) {
                             parent.get().cancel();
                             cleanup();
@@ -818,16 +1003,14 @@ public class Responder {
                     }
 
                     private void cleanup() {
-                        synchronized(Responder.this) {
-                            inFlight.remove(streamId);
-                            cancellationSubscriptions.remove(streamId);
-                        }
+                        inFlight.remove(streamId);
+                        cancellationSubscriptions.remove(streamId);
+                        // the input will not be emitted once the channel is over
+                        deferred.discard();
                     }
 
                 };
-                synchronized(this) {
-                    cancellationSubscriptions.put(streamId, s);
-                }
+                cancellationSubscriptions.put(streamId, s);
                 child.onSubscribe(s);
 
             };
@@ -856,6 +1039,36 @@ public class Responder {
         }
     }
 
+    /*
+     * Queue the frame for a response payload, or its fragments when the payload does not fit the MTU. Every frame is
+     * charged against the transport's demand as it is queued.
+     */
+    private void writeResponse(SubscriptionArbiter out, int streamId, Payload payload, boolean complete) {
+        final int metadataMtu = this.metadataMtu;
+        final int dataMtu = this.dataMtu;
+
+        if (PayloadFragmenter.requiresFragmenting(metadataMtu, dataMtu, payload)) {
+            final PayloadFragmenter fragmenter = new PayloadFragmenter(metadataMtu, dataMtu);
+            if (complete) {
+                fragmenter.resetForResponseComplete(streamId, payload);
+            } else {
+                fragmenter.resetForResponse(streamId, payload);
+            }
+
+            for (Frame fragment : fragmenter) {
+                out.enqueue(fragment);
+            }
+            return;
+        }
+
+        if (complete) {
+            out.enqueue(Frame.Response.from(
+                streamId, FrameType.RESPONSE, payload.getMetadata(), payload.getData(), FrameHeaderFlyweight.FLAGS_RESPONSE_C));
+        } else {
+            out.enqueue(Frame.Response.from(streamId, FrameType.NEXT, payload));
+        }
+    }
+
     private String name() {
         if (isServer) {
             return "ServerResponder";
@@ -864,15 +1077,38 @@ public class Responder {
         }
     }
 
+    /**
+     * Output of a response stream. Frames are queued and handed to the transport only as it requests them, and
+     * payloads are requested from the application's producer only while both the requester and the transport have
+     * demand for them.
+     * <p>
+     * Transport demand counts frames, while a payload takes several frames when it is fragmented. The frames of a
+     * payload are charged against the transport's demand when they are queued, before more payloads are requested,
+     * and a payload is only requested while the transport has credit left for at least one frame per payload
+     * outstanding. Fragments beyond the transport's demand stay queued until it requests more.
+     */
     private static class SubscriptionArbiter {
+        private final Subscriber<? super Frame> child;
+        private final ArrayDeque<Frame> frames = new ArrayDeque<>();
         private Subscription applicationProducer;
         private long appRequested;
-        private long transportRequested;
         private long requestedToProducer;
+        private long receivedFromProducer;
+        // frames requested by the transport and not charged yet, negative while queued fragments exceed its demand
+        private long transportCredits;
+        // frames requested by the transport and not emitted yet
+        private long transportDemand;
+        private boolean completed;
+        private boolean terminated;
+        private boolean emitting;
+
+        public SubscriptionArbiter(Subscriber<? super Frame> child) {
+            this.child = child;
+        }
 
         public void addApplicationRequest(long n) {
             synchronized(this) {
-                appRequested += n;
+                appRequested = addCap(appRequested, n);
             }
             tryRequest();
         }
@@ -886,26 +1122,219 @@ public class Responder {
 
         public void addTransportRequest(long n) {
             synchronized(this) {
-                transportRequested += n;
+                transportCredits = addCap(transportCredits, n);
+                transportDemand = addCap(transportDemand, n);
             }
+            drain();
             tryRequest();
         }
 
+        /**
+         * Queues a frame of the stream, it is emitted once the transport requests it.
+         */
+        public void enqueue(Frame frame) {
+            synchronized(this) {
+                if (!terminated) {
+                    frames.offer(frame);
+                    if (transportCredits != Long.MAX_VALUE) {
+                        transportCredits--;
+                    }
+                    return;
+                }
+            }
+            frame.release();
+        }
+
+        /**
+         * Called once all frames of a payload from the application's producer are queued.
+         */
+        public void onPayload() {
+            synchronized(this) {
+                receivedFromProducer++;
+            }
+            drain();
+            tryRequest();
+        }
+
+        /**
+         * Queues and emits a frame not produced by the application, e.g. ERROR, COMPLETE or REQUEST_N.
+         */
+        public void emit(Frame frame) {
+            enqueue(frame);
+            drain();
+        }
+
+        /**
+         * Completes the transport's subscription once all queued frames have been emitted.
+         */
+        public void complete() {
+            synchronized(this) {
+                completed = true;
+            }
+            drain();
+        }
+
+        public void cancel() {
+            synchronized(this) {
+                terminated = true;
+                Frame frame;
+                while ((frame = frames.poll()) != null) {
+                    frame.release();
+                }
+            }
+        }
+
         private void tryRequest() {
             long toRequest;
             synchronized(this) {
-                if(applicationProducer == null) {
+                if(applicationProducer == null || completed) {
+                    return;
+                }
+                final long outstanding = requestedToProducer - receivedFromProducer;
+                toRequest = Math.min(appRequested - requestedToProducer, transportCredits - outstanding);
+                if (toRequest <= 0) {
                     return;
                 }
-                long minToRequest = Math.min(appRequested, transportRequested);
-                toRequest = minToRequest - requestedToProducer;
                 requestedToProducer += toRequest;
             }
-            if(toRequest > 0) {
-                applicationProducer.request(toRequest);
+            applicationProducer.request(toRequest);
+        }
+
+        /**
+         * Emits queued frames while the transport has demand, on one thread at a time.
+         */
+        private void drain() {
+            synchronized(this) {
+                if (emitting) {
+                    // the emitting thread checks the queue, the demand and completion again before it stops
+                    return;
+                }
+                emitting = true;
+            }
+            try {
+                for (;;) {
+                    Frame frame = null;
+                    synchronized(this) {
+                        if (terminated) {
+                            emitting = false;
+                            return;
+                        }
+                        if (transportDemand > 0 && !frames.isEmpty()) {
+                            frame = frames.poll();
+                            if (transportDemand != Long.MAX_VALUE) {
+                                transportDemand--;
+                            }
+                        } else if (completed && frames.isEmpty()) {
+                            terminated = true;
+                        } else {
+                            emitting = false;
+                            return;
+                        }
+                    }
+                    if (frame != null) {
+                        child.onNext(frame);
+                    } else {
+                        child.onComplete();
+                    }
+                }
+            } catch (Throwable t) {
+                synchronized(this) {
+                    emitting = false;
+                }
+                throw t;
             }
         }
 
+        private static long addCap(long a, long b) {
+            final long r = a + b;
+            return b > 0 && r < a ? Long.MAX_VALUE : r;
+        }
     }
 
+    /**
+     * Request frame of a stream whose handler is only called once the response is requested, and of a channel whose
+     * first input is only emitted once the input is subscribed to.
+     * <p>
+     * The frame is valid for the inbound callback it was received in. It is retained, which copies a frame that wraps
+     * a transport owned buffer, only when a use outlives that callback: one that has not started by the time the
+     * callback returns, or one that starts on another thread while the callback is in progress. Uses that run within
+     * the callback, the common case when the transport requests the response as it is added, never retain it.
+     */
+    private static final class DeferredRequest {
+        private final Frame frame;
+        private final int streamId;
+        private final StreamTable<DeferredRequest> table;
+        private final Thread inboundThread = Thread.currentThread();
+        // uses not done yet, and those of them that have started
+        private int uses;
+        private int active;
+        private boolean inbound = true;
+        private boolean retained;
+
+        private DeferredRequest(Frame frame, int uses, StreamTable<DeferredRequest> table) {
+            this.frame = frame;
+            this.streamId = frame.getStreamId();
+            this.uses = uses;
+            this.table = table;
+            table.put(streamId, this);
+        }
+
+        /*
+         * Start a use of the frame, ended with done().
+         *
+         * @return the frame, or null if the uses that had not started were discarded
+         */
+        private synchronized Frame acquire() {
+            if (uses == active) {
+                return null;
+            }
+            active++;
+            if (inbound && !retained && Thread.currentThread() != inboundThread) {
+                // the inbound callback cannot return while this holds the lock, so the frame is still valid
+                frame.retain();
+                retained = true;
+            }
+            return frame;
+        }
+
+        private synchronized void done() {
+            active--;
+            if (0 == --uses) {
+                free();
+            }
+        }
+
+        /*
+         * Drop the uses that have not started, e.g. the response was cancelled or never subscribed to.
+         */
+        private synchronized void discard() {
+            if (active < uses) {
+                uses = active;
+                if (0 == uses) {
+                    free();
+                }
+            }
+        }
+
+        /*
+         * Called before the inbound callback returns.
+         */
+        private synchronized void leaveInbound() {
+            if (inbound) {
+                inbound = false;
+                if (0 < uses && !retained) {
+                    frame.retain();
+                    retained = true;
+                }
+            }
+        }
+
+        private void free() {
+            table.remove(streamId);
+            if (retained) {
+                retained = false;
+                frame.release();
+            }
+        }
+    }
 }
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+package io.reactivesocket.internal;
+
+import org.agrona.BitUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent map of stream id to stream state for the {@link Requester} and {@link Responder}.
+ * <p>
+ * Lookups, done for every frame received, are lock-free. Updates, done as streams start and terminate, lock one of a
+ * fixed number of stripes, so threads starting streams on the same connection rarely contend. Each stripe is an
+ * open-addressing table with linear probing over immutable entries. A removed entry stays in its slot with a null
+ * value until the stripe is rehashed, so a concurrent lookup never skips a key that is still mapped.
+ *
+ * @param <V> stream state, never null
+ */
+public class StreamTable<V> {
+    private static final int DEFAULT_STRIPES = 16;
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    private final Stripe<V>[] stripes;
+    private final int stripeMask;
+    private final int stripeShift;
+
+    public StreamTable() {
+        this(DEFAULT_STRIPES);
+    }
+
+    @SuppressWarnings("unchecked")
+    public StreamTable(final int stripeCount) {
+        if (stripeCount <= 0 || !BitUtil.isPowerOfTwo(stripeCount)) {
+            throw new IllegalArgumentException("Stripe count must be a positive power of 2: " + stripeCount);
+        }
+
+        stripes = new Stripe[stripeCount];
+        stripeMask = stripeCount - 1;
+        stripeShift = Integer.numberOfTrailingZeros(stripeCount);
+
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(stripeShift);
+        }
+    }
+
+    public V get(final int streamId) {
+        final int hash = hash(streamId);
+        return stripes[hash & stripeMask].get(streamId, hash >>> stripeShift);
+    }
+
+    /**
+     * @return the previous value, or null
+     */
+    public V put(final int streamId, final V value) {
+        final int hash = hash(streamId);
+        return stripes[hash & stripeMask].put(streamId, hash >>> stripeShift, requireValue(value), false);
+    }
+
+    /**
+     * @return the current value if there is one, in which case the map is left unchanged, or null
+     */
+    public V putIfAbsent(final int streamId, final V value) {
+        final int hash = hash(streamId);
+        return stripes[hash & stripeMask].put(streamId, hash >>> stripeShift, requireValue(value), true);
+    }
+
+    /**
+     * @return the removed value, or null
+     */
+    public V remove(final int streamId) {
+        final int hash = hash(streamId);
+        return stripes[hash & stripeMask].remove(streamId, hash >>> stripeShift);
+    }
+
+    /**
+     * Return a snapshot of the values, streams started or terminated while it is taken may or may not be included.
+     *
+     * @return values at the time of the call
+     */
+    public Collection<V> values() {
+        final ArrayList<V> values = new ArrayList<>();
+        for (final Stripe<V> stripe : stripes) {
+            stripe.collect(values);
+        }
+
+        return values;
+    }
+
+    public int size() {
+        int size = 0;
+        for (final Stripe<V> stripe : stripes) {
+            size += stripe.size;
+        }
+
+        return size;
+    }
+
+    private static <V> V requireValue(final V value) {
+        if (null == value) {
+            throw new NullPointerException("value");
+        }
+
+        return value;
+    }
+
+    /*
+     * Stream ids of one side are consecutive odd or even numbers, spread them over stripes and slots.
+     */
+    private static int hash(final int streamId) {
+        final int h = streamId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Entry<V> {
+        private final int key;
+        // null once removed
+        private final V value;
+
+        private Entry(final int key, final V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Stripe<V> {
+        private final int shift;
+        private volatile AtomicReferenceArray<Entry<V>> slots = new AtomicReferenceArray<>(INITIAL_STRIPE_CAPACITY);
+        private volatile int size;
+        // slots holding an entry, including removed ones, guarded by this
+        private int used;
+
+        private Stripe(final int shift) {
+            this.shift = shift;
+        }
+
+        private V get(final int key, final int hash) {
+            final AtomicReferenceArray<Entry<V>> slots = this.slots;
+            final int mask = slots.length() - 1;
+            int index = hash & mask;
+
+            for (;;) {
+                final Entry<V> entry = slots.get(index);
+                if (null == entry) {
+                    return null;
+                }
+                if (key == entry.key && null != entry.value) {
+                    return entry.value;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        private synchronized V put(final int key, final int hash, final V value, final boolean onlyIfAbsent) {
+            AtomicReferenceArray<Entry<V>> slots = this.slots;
+            int mask = slots.length() - 1;
+            int index = hash & mask;
+            int removedIndex = -1;
+
+            for (;;) {
+                final Entry<V> entry = slots.get(index);
+                if (null == entry) {
+                    break;
+                }
+                if (null == entry.value) {
+                    if (removedIndex < 0) {
+                        removedIndex = index;
+                    }
+                } else if (key == entry.key) {
+                    if (!onlyIfAbsent) {
+                        slots.set(index, new Entry<>(key, value));
+                    }
+                    return entry.value;
+                }
+                index = (index + 1) & mask;
+            }
+
+            if (removedIndex >= 0) {
+                slots.set(removedIndex, new Entry<>(key, value));
+            } else {
+                // keep the load under 3/4 so lookups always reach an empty slot
+                if (used + 1 > (slots.length() >> 1) + (slots.length() >> 2)) {
+                    slots = rehash(slots, size + 1);
+                    mask = slots.length() - 1;
+                    index = hash & mask;
+                    while (null != slots.get(index)) {
+                        index = (index + 1) & mask;
+                    }
+                }
+                slots.set(index, new Entry<>(key, value));
+                used++;
+            }
+
+            size++;
+            return null;
+        }
+
+        private synchronized V remove(final int key, final int hash) {
+            final AtomicReferenceArray<Entry<V>> slots = this.slots;
+            final int mask = slots.length() - 1;
+            int index = hash & mask;
+
+            for (;;) {
+                final Entry<V> entry = slots.get(index);
+                if (null == entry) {
+                    return null;
+                }
+                if (key == entry.key && null != entry.value) {
+                    slots.set(index, new Entry<>(key, null));
+                    size--;
+                    return entry.value;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        private void collect(final Collection<V> values) {
+            final AtomicReferenceArray<Entry<V>> slots = this.slots;
+            for (int i = 0; i < slots.length(); i++) {
+                final Entry<V> entry = slots.get(i);
+                if (null != entry && null != entry.value) {
+                    values.add(entry.value);
+                }
+            }
+        }
+
+        /*
+         * Copy the live entries to a new table, growing it if they would fill more than half of it, and publish it.
+         * The old table is left untouched for lookups still in progress.
+         */
+        private AtomicReferenceArray<Entry<V>> rehash(final AtomicReferenceArray<Entry<V>> old, final int required) {
+            int capacity = old.length();
+            while (required > capacity >> 1) {
+                capacity <<= 1;
+            }
+
+            final AtomicReferenceArray<Entry<V>> slots = new AtomicReferenceArray<>(capacity);
+            final int mask = capacity - 1;
+            int used = 0;
+
+            for (int i = 0; i < old.length(); i++) {
+                final Entry<V> entry = old.get(i);
+                if (null != entry && null != entry.value) {
+                    int index = (hash(entry.key) >>> shift) & mask;
+                    while (null != slots.get(index)) {
+                        index = (index + 1) & mask;
+                    }
+                    slots.set(index, entry);
+                    used++;
+                }
+            }
+
+            this.used = used;
+            this.slots = slots;
+            return slots;
+        }
+    }
+}
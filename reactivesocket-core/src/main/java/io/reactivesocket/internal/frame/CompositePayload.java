@@ -0,0 +1,186 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.internal.frame;
+
+import io.reactivesocket.Frame;
+import io.reactivesocket.Payload;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Read-only {@link Payload} over the fragments of a reassembled payload. The fragments are referenced rather than
+ * copied: {@link #metadataFragments()} and {@link #dataFragments()} give a view over each of them, and
+ * {@link #getMetadata()} and {@link #getData()} only copy, once, when the field spans more than one fragment.
+ * <p>
+ * Reference counted like a {@link Frame}, the fragments are released when the count reaches 0.
+ */
+public class CompositePayload implements Payload {
+    private static final ByteBuffer[] NO_VIEWS = new ByteBuffer[0];
+    private static final AtomicIntegerFieldUpdater<CompositePayload> REF_CNT_UPDATER =
+        AtomicIntegerFieldUpdater.newUpdater(CompositePayload.class, "refCnt");
+
+    private final Frame[] fragments;
+    private final int metadataLength;
+    private final int dataLength;
+    private volatile int refCnt = 1;
+    private volatile ByteBuffer metadata;
+    private volatile ByteBuffer data;
+
+    /**
+     * @param fragments in the order they were received, each holding a reference that passes to this payload
+     */
+    public CompositePayload(final List<Frame> fragments) {
+        this.fragments = fragments.toArray(new Frame[fragments.size()]);
+
+        int metadataLength = 0;
+        int dataLength = 0;
+        for (final Frame fragment : this.fragments) {
+            metadataLength += fragment.metadataLength();
+            dataLength += fragment.dataLength();
+        }
+
+        this.metadataLength = metadataLength;
+        this.dataLength = dataLength;
+    }
+
+    public int fragmentCount() {
+        return fragments.length;
+    }
+
+    public int metadataLength() {
+        return metadataLength;
+    }
+
+    public int dataLength() {
+        return dataLength;
+    }
+
+    /**
+     * Return a read-only view over the metadata of each fragment that carries some, without copying.
+     *
+     * @return metadata views, in order
+     */
+    public ByteBuffer[] metadataFragments() {
+        return views(true);
+    }
+
+    /**
+     * Return a read-only view over the data of each fragment that carries some, without copying.
+     *
+     * @return data views, in order
+     */
+    public ByteBuffer[] dataFragments() {
+        return views(false);
+    }
+
+    @Override
+    public ByteBuffer getMetadata() {
+        ByteBuffer result = metadata;
+        if (null == result) {
+            result = join(views(true), metadataLength);
+            metadata = result;
+        }
+
+        return result.slice();
+    }
+
+    @Override
+    public ByteBuffer getData() {
+        ByteBuffer result = data;
+        if (null == result) {
+            result = join(views(false), dataLength);
+            data = result;
+        }
+
+        return result.slice();
+    }
+
+    @Override
+    public CompositePayload retain() {
+        for (;;) {
+            final int current = refCnt;
+            if (current <= 0) {
+                throw new IllegalStateException("Payload already released, refCnt: " + current);
+            }
+            if (REF_CNT_UPDATER.compareAndSet(this, current, current + 1)) {
+                return this;
+            }
+        }
+    }
+
+    @Override
+    public boolean release() {
+        for (;;) {
+            final int current = refCnt;
+            if (current <= 0) {
+                throw new IllegalStateException("Payload already released, refCnt: " + current);
+            }
+            if (REF_CNT_UPDATER.compareAndSet(this, current, current - 1)) {
+                if (current == 1) {
+                    for (final Frame fragment : fragments) {
+                        fragment.release();
+                    }
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+
+    private ByteBuffer[] views(final boolean ofMetadata) {
+        int count = 0;
+        for (final Frame fragment : fragments) {
+            if (0 < (ofMetadata ? fragment.metadataLength() : fragment.dataLength())) {
+                count++;
+            }
+        }
+
+        if (0 == count) {
+            return NO_VIEWS;
+        }
+
+        final ByteBuffer[] views = new ByteBuffer[count];
+        int i = 0;
+        for (final Frame fragment : fragments) {
+            if (0 < (ofMetadata ? fragment.metadataLength() : fragment.dataLength())) {
+                final ByteBuffer view = ofMetadata ? fragment.getMetadata() : fragment.getData();
+                views[i++] = view.asReadOnlyBuffer();
+            }
+        }
+
+        return views;
+    }
+
+    private static ByteBuffer join(final ByteBuffer[] views, final int length) {
+        if (0 == views.length) {
+            return Frame.NULL_BYTEBUFFER.asReadOnlyBuffer();
+        }
+
+        if (1 == views.length) {
+            return views[0];
+        }
+
+        final ByteBuffer joined = ByteBuffer.allocate(length);
+        for (final ByteBuffer view : views) {
+            joined.put(view);
+        }
+        joined.flip();
+
+        return joined.asReadOnlyBuffer();
+    }
+}
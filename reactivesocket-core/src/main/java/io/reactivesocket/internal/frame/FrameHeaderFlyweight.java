@@ -56,10 +56,15 @@ public class FrameHeaderFlyweight {
 
     public static final int FLAGS_KEEPALIVE_R = 0b0010_0000_0000_0000;
 
-    public static final int FLAGS_RESPONSE_F = 0b0010_0000_0000_0000;
+    /**
+     * Follows flag of request and response frames, set on every fragment of a payload but the last.
+     */
+    public static final int FLAGS_F = 0b0010_0000_0000_0000;
+
+    public static final int FLAGS_RESPONSE_F = FLAGS_F;
     public static final int FLAGS_RESPONSE_C = 0b0001_0000_0000_0000;
 
-    public static final int FLAGS_REQUEST_CHANNEL_F = 0b0010_0000_0000_0000;
+    public static final int FLAGS_REQUEST_CHANNEL_F = FLAGS_F;
 
     static {
         if (INCLUDE_FRAME_LENGTH) {
@@ -105,8 +110,25 @@ public class FrameHeaderFlyweight {
         final int metadataOffset,
         final ByteBuffer metadata
     ) {
-        int length = 0;
         final int metadataLength = metadata.remaining();
+        int length = encodeMetadataLength(mutableDirectBuffer, frameHeaderStartOffset, metadataOffset, metadataLength);
+
+        if (0 < metadataLength) {
+            mutableDirectBuffer.putBytes(metadataOffset + length, metadata, metadataLength);
+            length += metadataLength;
+        }
+
+        return length;
+    }
+
+    // sets the M flag and writes the metadata length field, the metadata itself goes right after
+    public static int encodeMetadataLength(
+        final MutableDirectBuffer mutableDirectBuffer,
+        final int frameHeaderStartOffset,
+        final int metadataOffset,
+        final int metadataLength
+    ) {
+        int length = 0;
 
         if (0 < metadataLength) {
             int flags = mutableDirectBuffer.getShort(frameHeaderStartOffset + FLAGS_FIELD_OFFSET, ByteOrder.BIG_ENDIAN);
@@ -114,8 +136,6 @@ public class FrameHeaderFlyweight {
             mutableDirectBuffer.putShort(frameHeaderStartOffset + FLAGS_FIELD_OFFSET, (short)flags, ByteOrder.BIG_ENDIAN);
             mutableDirectBuffer.putInt(metadataOffset, metadataLength + BitUtil.SIZE_OF_INT, ByteOrder.BIG_ENDIAN);
             length += BitUtil.SIZE_OF_INT;
-            mutableDirectBuffer.putBytes(metadataOffset + length, metadata, metadataLength);
-            length += metadataLength;
         }
 
         return length;
@@ -147,7 +167,34 @@ public class FrameHeaderFlyweight {
         final ByteBuffer metadata,
         final ByteBuffer data
     ) {
-        final int frameLength = computeFrameHeaderLength(frameType, metadata.remaining(), data.remaining());
+        final int metadataLength = metadata.remaining();
+        int length = encodeHeader(mutableDirectBuffer, offset, streamId, flags, frameType, metadataLength, data.remaining());
+
+        if (0 < metadataLength) {
+            mutableDirectBuffer.putBytes(offset + length, metadata, metadataLength);
+            length += metadataLength;
+        }
+        length += FrameHeaderFlyweight.encodeData(mutableDirectBuffer, offset + length, data);
+
+        return length;
+    }
+
+    /**
+     * Encode everything up to the metadata bytes of a frame as {@link #encode} would, so that metadata and data can
+     * be sent from their own buffers by a gathering write.
+     *
+     * @return number of bytes written, the metadata starts right after
+     */
+    public static int encodeHeader(
+        final MutableDirectBuffer mutableDirectBuffer,
+        final int offset,
+        final int streamId,
+        int flags,
+        final FrameType frameType,
+        final int metadataLength,
+        final int dataLength
+    ) {
+        final int frameLength = computeFrameHeaderLength(frameType, metadataLength, dataLength);
 
         final FrameType outFrameType;
 
@@ -166,8 +213,7 @@ public class FrameHeaderFlyweight {
 
         int length = FrameHeaderFlyweight.encodeFrameHeader(mutableDirectBuffer, offset, frameLength, flags, outFrameType, streamId);
 
-        length += FrameHeaderFlyweight.encodeMetadata(mutableDirectBuffer, offset, offset + length, metadata);
-        length += FrameHeaderFlyweight.encodeData(mutableDirectBuffer, offset + length, data);
+        length += FrameHeaderFlyweight.encodeMetadataLength(mutableDirectBuffer, offset, offset + length, metadataLength);
 
         return length;
     }
@@ -181,7 +227,8 @@ public class FrameHeaderFlyweight {
 
         if (FrameType.RESPONSE == result) {
             final int flags = flags(directBuffer, offset);
-            final int dataLength = dataLength(directBuffer, offset, 0);
+            // RESPONSE has no extra header fields, so the payload starts right after the frame header
+            final int dataLength = frameLength(directBuffer, offset, 0) - metadataFieldLength(directBuffer, offset) - PAYLOAD_OFFSET;
 
             boolean complete = FLAGS_RESPONSE_C == (flags & FLAGS_RESPONSE_C);
             if (complete && 0 < dataLength) {
@@ -200,6 +247,41 @@ public class FrameHeaderFlyweight {
         return directBuffer.getInt(offset + STREAM_ID_FIELD_OFFSET, ByteOrder.BIG_ENDIAN);
     }
 
+    /**
+     * Offset of the metadata bytes, after the metadata length field, within the buffer.
+     */
+    public static int frameMetadataOffset(final DirectBuffer directBuffer, final int offset) {
+        return metadataOffset(directBuffer, offset) + BitUtil.SIZE_OF_INT;
+    }
+
+    /**
+     * Length of the metadata bytes, 0 if the frame carries no metadata.
+     */
+    public static int frameMetadataLength(final DirectBuffer directBuffer, final int offset) {
+        return Math.max(0, metadataFieldLength(directBuffer, offset) - BitUtil.SIZE_OF_INT);
+    }
+
+    /**
+     * Offset of the data bytes within the buffer.
+     */
+    public static int frameDataOffset(final DirectBuffer directBuffer, final int offset) {
+        return dataOffset(directBuffer, offset);
+    }
+
+    /**
+     * Length of the data bytes, 0 if the frame carries no data.
+     */
+    public static int frameDataLength(final DirectBuffer directBuffer, final int offset, final int length) {
+        return Math.max(0, dataLength(directBuffer, offset, length));
+    }
+
+    /**
+     * Encoded length of the frame, read from its frame length field.
+     */
+    public static int frameLength(final DirectBuffer directBuffer, final int offset) {
+        return frameLength(directBuffer, offset, 0);
+    }
+
     public static ByteBuffer sliceFrameData(final DirectBuffer directBuffer, final int offset, final int length) {
         final int dataLength = dataLength(directBuffer, offset, length);
         final int dataOffset = dataOffset(directBuffer, offset);
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.internal.frame;
+
+import io.reactivesocket.Frame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detects {@link Frame}s that are garbage collected without having been released back to the {@link FramePool}.
+ * <p>
+ * Enabled with the system property {@code io.reactivesocket.FramePool.leakDetection=true}. Every acquired frame is
+ * tracked through a {@link WeakReference} recording the allocation site, so this is meant for tests and debugging
+ * rather than production.
+ */
+public class FrameLeakDetector {
+    private static final Logger logger = LoggerFactory.getLogger(FrameLeakDetector.class);
+
+    private static final boolean ENABLED = Boolean.getBoolean("io.reactivesocket.FramePool.leakDetection");
+
+    private final ReferenceQueue<Frame> referenceQueue = new ReferenceQueue<>();
+    private final Set<Tracker> trackers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Start tracking an acquired frame. The returned {@link Tracker} must be closed when the frame is released.
+     *
+     * @param frame that was acquired
+     * @return tracker for the frame
+     */
+    public Tracker track(final Frame frame) {
+        reportLeaks();
+
+        final Tracker tracker = new Tracker(frame, referenceQueue);
+        trackers.add(tracker);
+        return tracker;
+    }
+
+    /**
+     * Report frames that were collected without being released.
+     *
+     * @return number of leaks found by this call
+     */
+    public int reportLeaks() {
+        int leaks = 0;
+        Tracker tracker;
+
+        while (null != (tracker = (Tracker) referenceQueue.poll())) {
+            if (trackers.remove(tracker)) {
+                leaks++;
+                leakCount.incrementAndGet();
+                logger.error("LEAK: Frame was garbage collected without being released", tracker.allocationSite);
+            }
+        }
+
+        return leaks;
+    }
+
+    /**
+     * @return number of leaks reported since this detector was created
+     */
+    public long leakCount() {
+        return leakCount.get();
+    }
+
+    /**
+     * @return number of frames acquired and not yet released
+     */
+    public int outstanding() {
+        return trackers.size();
+    }
+
+    public final class Tracker extends WeakReference<Frame> {
+        private final Throwable allocationSite;
+
+        private Tracker(final Frame frame, final ReferenceQueue<Frame> referenceQueue) {
+            super(frame, referenceQueue);
+            allocationSite = new Throwable("Frame acquired at");
+        }
+
+        public void close() {
+            trackers.remove(this);
+            clear();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.internal.frame;
+
+import io.reactivesocket.Frame;
+import org.agrona.BitUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.ManyToManyConcurrentArrayQueue;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global {@link FramePool} of direct buffers in power of two size classes.
+ * <p>
+ * Each thread acquires from and releases to its own magazine per size class. When a magazine runs empty it is swapped
+ * for a full one from a shared lock-free depot, and when it fills up it is handed to the depot, so buffers acquired on
+ * one thread (e.g. a Netty event loop) and released on another (e.g. an application thread) flow back to the acquiring
+ * thread. Requests above {@link #MAX_SIZE_CLASS} bytes are allocated on demand and not pooled.
+ * <p>
+ * Select with {@code -Dio.reactivesocket.FramePool=io.reactivesocket.internal.frame.MagazineFramePool}. Magazine
+ * size and depot capacity can be tuned with {@code io.reactivesocket.FramePool.magazineSize} and
+ * {@code io.reactivesocket.FramePool.depotMagazines}.
+ */
+public class MagazineFramePool implements FramePool {
+    public static final int MIN_SIZE_CLASS = 64;
+    public static final int MAX_SIZE_CLASS = 1024 * 1024;
+
+    private static final int MIN_SIZE_CLASS_SHIFT = Integer.numberOfTrailingZeros(MIN_SIZE_CLASS);
+    private static final int SIZE_CLASSES = Integer.numberOfTrailingZeros(MAX_SIZE_CLASS) - MIN_SIZE_CLASS_SHIFT + 1;
+    // large size classes get smaller magazines so a single thread does not sit on too much memory
+    private static final int MAX_MAGAZINE_BYTES = 256 * 1024;
+
+    private static final int MAGAZINE_SIZE = Integer.getInteger("io.reactivesocket.FramePool.magazineSize", 32);
+    private static final int DEPOT_MAGAZINES = Integer.getInteger("io.reactivesocket.FramePool.depotMagazines", 32);
+
+    // index SIZE_CLASSES holds the depot for Frame instances
+    private final Depot[] depots;
+    private final ThreadLocal<ThreadCache> threadCache = ThreadLocal.withInitial(ThreadCache::new);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesOutstanding = new LongAdder();
+
+    public MagazineFramePool() {
+        this(MAGAZINE_SIZE, DEPOT_MAGAZINES);
+    }
+
+    public MagazineFramePool(final int magazineSize, final int depotMagazines) {
+        depots = new Depot[SIZE_CLASSES + 1];
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            final int classMagazineSize = Math.max(1, Math.min(magazineSize, MAX_MAGAZINE_BYTES / sizeOfClass(i)));
+            depots[i] = new Depot(classMagazineSize, depotMagazines);
+        }
+        depots[SIZE_CLASSES] = new Depot(magazineSize, depotMagazines);
+    }
+
+    public Frame acquireFrame(int size) {
+        return acquireFrame(acquireMutableDirectBuffer(size));
+    }
+
+    public Frame acquireFrame(ByteBuffer byteBuffer) {
+        return acquireFrame(new UnsafeBuffer(byteBuffer));
+    }
+
+    public Frame acquireFrame(MutableDirectBuffer mutableDirectBuffer) {
+        Frame frame = (Frame) poll(SIZE_CLASSES);
+        if (null == frame) {
+            frame = Frame.allocate(mutableDirectBuffer);
+        } else {
+            frame.wrap(mutableDirectBuffer, 0);
+        }
+
+        return frame;
+    }
+
+    public MutableDirectBuffer acquireMutableDirectBuffer(ByteBuffer byteBuffer) {
+        // a view over a caller owned buffer, never handed back to the pool
+        return new UnsafeBuffer(byteBuffer);
+    }
+
+    public MutableDirectBuffer acquireMutableDirectBuffer(int size) {
+        UnsafeBuffer directBuffer;
+        if (size > MAX_SIZE_CLASS) {
+            misses.increment();
+            directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(size));
+        } else {
+            final int sizeClass = sizeClass(size);
+            directBuffer = (UnsafeBuffer) poll(sizeClass);
+            if (null == directBuffer) {
+                directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(sizeOfClass(sizeClass)));
+            }
+        }
+
+        // the frame is the first size bytes, transports use the ByteBuffer limit to find its end
+        directBuffer.byteBuffer().limit(size).position(0);
+        bytesOutstanding.add(directBuffer.capacity());
+
+        return directBuffer;
+    }
+
+    public void release(Frame frame) {
+        threadCache.get().offer(SIZE_CLASSES, frame);
+    }
+
+    public void release(MutableDirectBuffer mutableDirectBuffer) {
+        final ByteBuffer byteBuffer = mutableDirectBuffer.byteBuffer();
+        if (null == byteBuffer || !byteBuffer.isDirect()) {
+            return;
+        }
+
+        final int capacity = mutableDirectBuffer.capacity();
+        bytesOutstanding.add(-capacity);
+
+        if (capacity >= MIN_SIZE_CLASS && capacity <= MAX_SIZE_CLASS && BitUtil.isPowerOfTwo(capacity)) {
+            threadCache.get().offer(sizeClass(capacity), mutableDirectBuffer);
+        }
+    }
+
+    /**
+     * @return number of acquisitions served from a cached frame or buffer
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of acquisitions that had to allocate a frame or buffer
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return capacity in bytes of buffers acquired and not yet released
+     */
+    public long bytesOutstanding() {
+        return bytesOutstanding.sum();
+    }
+
+    static int sizeClass(final int size) {
+        if (size <= MIN_SIZE_CLASS) {
+            return 0;
+        }
+
+        return Integer.numberOfTrailingZeros(BitUtil.findNextPositivePowerOfTwo(size)) - MIN_SIZE_CLASS_SHIFT;
+    }
+
+    static int sizeOfClass(final int sizeClass) {
+        return 1 << (sizeClass + MIN_SIZE_CLASS_SHIFT);
+    }
+
+    private Object poll(final int index) {
+        final Object element = threadCache.get().poll(index);
+        if (null == element) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+
+        return element;
+    }
+
+    /*
+     * Shared store of full magazines, and of empty ones to avoid allocating a new array on every spill.
+     */
+    private static final class Depot {
+        private final int magazineSize;
+        private final ManyToManyConcurrentArrayQueue<Object[]> full;
+        private final ManyToManyConcurrentArrayQueue<Object[]> empty;
+
+        private Depot(final int magazineSize, final int capacity) {
+            this.magazineSize = magazineSize;
+            this.full = new ManyToManyConcurrentArrayQueue<>(capacity);
+            this.empty = new ManyToManyConcurrentArrayQueue<>(capacity);
+        }
+    }
+
+    /*
+     * Per thread magazines, one per depot. Only ever touched by the owning thread.
+     */
+    private final class ThreadCache {
+        private final Object[][] magazines = new Object[depots.length][];
+        private final int[] sizes = new int[depots.length];
+
+        private ThreadCache() {
+            for (int i = 0; i < depots.length; i++) {
+                magazines[i] = new Object[depots[i].magazineSize];
+            }
+        }
+
+        private Object poll(final int index) {
+            int size = sizes[index];
+            if (0 == size) {
+                final Depot depot = depots[index];
+                final Object[] full = depot.full.poll();
+                if (null == full) {
+                    return null;
+                }
+
+                depot.empty.offer(magazines[index]);
+                magazines[index] = full;
+                size = full.length;
+            }
+
+            final Object[] magazine = magazines[index];
+            final Object element = magazine[--size];
+            magazine[size] = null;
+            sizes[index] = size;
+
+            return element;
+        }
+
+        private void offer(final int index, final Object element) {
+            Object[] magazine = magazines[index];
+            int size = sizes[index];
+            if (size == magazine.length) {
+                final Depot depot = depots[index];
+                if (!depot.full.offer(magazine)) {
+                    // depot is full, let the element be collected
+                    return;
+                }
+
+                magazine = depot.empty.poll();
+                if (null == magazine) {
+                    magazine = new Object[depot.magazineSize];
+                }
+                magazines[index] = magazine;
+                size = 0;
+            }
+
+            magazine[size] = element;
+            sizes[index] = size + 1;
+        }
+    }
+}
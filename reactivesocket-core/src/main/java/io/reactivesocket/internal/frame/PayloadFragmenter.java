@@ -29,7 +29,7 @@ import java.util.Iterator;
  */
 public class PayloadFragmenter implements Iterable<Frame>, Iterator<Frame> {
     private enum Type {
-        RESPONSE, RESPONSE_COMPLETE, REQUEST_CHANNEL
+        RESPONSE, RESPONSE_COMPLETE, REQUEST
     }
 
     private final int metadataMtu;
@@ -37,6 +37,7 @@ public class PayloadFragmenter implements Iterable<Frame>, Iterator<Frame> {
     private ByteBuffer metadata;
     private ByteBuffer data;
     private Type type;
+    private FrameType requestType;
     private int metadataOffset;
     private int dataOffset;
     private int streamId;
@@ -58,8 +59,19 @@ public class PayloadFragmenter implements Iterable<Frame>, Iterator<Frame> {
     }
 
     public void resetForRequestChannel(final int streamId, final Payload payload, final int initialRequestN) {
+        resetForRequest(streamId, FrameType.REQUEST_CHANNEL, payload, initialRequestN);
+    }
+
+    /**
+     * Fragment a request of the given type. Every fragment carries the request type, only the first one carries the
+     * initial request n.
+     */
+    public void resetForRequest(
+        final int streamId, final FrameType requestType, final Payload payload, final int initialRequestN
+    ) {
         reset(streamId, payload);
-        type = Type.REQUEST_CHANNEL;
+        type = Type.REQUEST;
+        this.requestType = requestType;
         this.initialRequestN = initialRequestN;
     }
 
@@ -67,7 +79,7 @@ public class PayloadFragmenter implements Iterable<Frame>, Iterator<Frame> {
         final ByteBuffer metadata = payload.getMetadata();
         final ByteBuffer data = payload.getData();
 
-        return metadata.remaining() > metadataMtu || data.remaining() > dataMtu;
+        return (null != metadata && metadata.remaining() > metadataMtu) || (null != data && data.remaining() > dataMtu);
     }
 
     public Iterator<Frame> iterator() {
@@ -98,23 +110,24 @@ public class PayloadFragmenter implements Iterable<Frame>, Iterator<Frame> {
 
         if (Type.RESPONSE == type) {
             if (isMoreFollowing) {
-                flags |= FrameHeaderFlyweight.FLAGS_RESPONSE_F;
+                flags |= FrameHeaderFlyweight.FLAGS_F;
             }
 
             result = Frame.Response.from(streamId, FrameType.NEXT, metadataBuffer, dataBuffer, flags);
-        }
-        if (Type.RESPONSE_COMPLETE == type) {
+        } else if (Type.RESPONSE_COMPLETE == type) {
+            // only the last fragment may complete the stream, the earlier ones are plain NEXT
             if (isMoreFollowing) {
-                flags |= FrameHeaderFlyweight.FLAGS_RESPONSE_F;
+                flags |= FrameHeaderFlyweight.FLAGS_F;
+                result = Frame.Response.from(streamId, FrameType.NEXT, metadataBuffer, dataBuffer, flags);
+            } else {
+                result = Frame.Response.from(streamId, FrameType.NEXT_COMPLETE, metadataBuffer, dataBuffer, flags);
             }
-
-            result = Frame.Response.from(streamId, FrameType.NEXT_COMPLETE, metadataBuffer, dataBuffer, flags);
-        } else if (Type.REQUEST_CHANNEL == type) {
+        } else if (Type.REQUEST == type) {
             if (isMoreFollowing) {
-                flags |= FrameHeaderFlyweight.FLAGS_REQUEST_CHANNEL_F;
+                flags |= FrameHeaderFlyweight.FLAGS_F;
             }
 
-            result = Frame.Request.from(streamId, FrameType.REQUEST_CHANNEL, metadataBuffer, dataBuffer, initialRequestN, flags);
+            result = Frame.Request.from(streamId, requestType, metadataBuffer, dataBuffer, initialRequestN, flags);
             initialRequestN = 0;
         }
 
@@ -122,8 +135,9 @@ public class PayloadFragmenter implements Iterable<Frame>, Iterator<Frame> {
     }
 
     private void reset(final int streamId, final Payload payload) {
-        data = payload.getData();
-        metadata = payload.getMetadata();
+        // slice so fragment offsets are relative to the payload position and the caller's buffers are left alone
+        data = null != payload.getData() ? payload.getData().slice() : Frame.NULL_BYTEBUFFER;
+        metadata = null != payload.getMetadata() ? payload.getMetadata().slice() : Frame.NULL_BYTEBUFFER;
         metadataOffset = 0;
         dataOffset = 0;
         this.streamId = streamId;
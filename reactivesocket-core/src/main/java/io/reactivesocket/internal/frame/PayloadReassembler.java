@@ -16,26 +16,120 @@
 package io.reactivesocket.internal.frame;
 
 import io.reactivesocket.Frame;
+import io.reactivesocket.FrameType;
 import io.reactivesocket.Payload;
+import io.reactivesocket.exceptions.RejectedException;
 import org.agrona.collections.Int2ObjectHashMap;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
+import java.util.ArrayList;
 
+/**
+ * Reassembles payloads split by {@link PayloadFragmenter}, per stream.
+ * <p>
+ * Fragments are held until the last one arrives, see {@link Frame#retainOrCopy()}: a fragment backed by pooled memory
+ * or by a transport buffer with a releaser is retained, one that wraps a reused transport buffer is copied once. The
+ * bytes held are bounded by a {@link ReassemblyBudget}. A payload that outgrows it is dropped and fails with a
+ * {@link RejectedException}.
+ * <p>
+ * Not thread-safe, frames must be passed in the order they were received.
+ */
 public class PayloadReassembler implements Subscriber<Frame> {
+    // returned by collect() for frames that are not part of a fragmented payload
+    private static final Fragments UNFRAGMENTED = new Fragments(FrameType.UNDEFINED, 0);
+
     private final Subscriber<? super Payload> child;
-    private final Int2ObjectHashMap<PayloadBuilder> payloadByStreamId = new Int2ObjectHashMap<>();
+    private final ReassemblyBudget budget;
+    private final Int2ObjectHashMap<Fragments> payloadByStreamId = new Int2ObjectHashMap<>();
 
-    private PayloadReassembler(final Subscriber<? super Payload> child) {
+    private PayloadReassembler(final Subscriber<? super Payload> child, final ReassemblyBudget budget) {
         this.child = child;
+        this.budget = budget;
     }
 
+    /**
+     * Create a reassembler that passes payloads on to the child. A reassembled payload is a {@link CompositePayload}
+     * over the fragments, which like a received frame is only valid during {@link Subscriber#onNext(Object)} unless
+     * retained.
+     */
     public static PayloadReassembler with(final Subscriber<? super Payload> child) {
-        return new PayloadReassembler(child);
+        return with(child, new ReassemblyBudget());
+    }
+
+    public static PayloadReassembler with(final Subscriber<? super Payload> child, final ReassemblyBudget budget) {
+        return new PayloadReassembler(child, budget);
+    }
+
+    /**
+     * Create a reassembler that is only driven through {@link #reassemble(Frame)}.
+     */
+    public static PayloadReassembler create() {
+        return create(new ReassemblyBudget());
+    }
+
+    public static PayloadReassembler create(final ReassemblyBudget budget) {
+        return new PayloadReassembler(null, budget);
+    }
+
+    /**
+     * Bytes held for payloads of this reassembler that are not complete yet. {@link ReassemblyBudget#pendingBytes()}
+     * gives the total of the connection.
+     *
+     * @return bytes pending reassembly
+     */
+    public long pendingBytes() {
+        long pendingBytes = 0;
+        for (final Fragments fragments : payloadByStreamId.values()) {
+            pendingBytes += fragments.bytes;
+        }
+
+        return pendingBytes;
     }
 
     public void resetStream(final int streamId) {
-        payloadByStreamId.remove(streamId);
+        final Fragments fragments = payloadByStreamId.remove(streamId);
+        if (null != fragments) {
+            fragments.discard(budget);
+        }
+    }
+
+    /**
+     * Drop the fragments of all streams, e.g. once the connection is closed.
+     */
+    public void clear() {
+        for (final Fragments fragments : payloadByStreamId.values()) {
+            fragments.discard(budget);
+        }
+        payloadByStreamId.clear();
+    }
+
+    /**
+     * Pass on a received frame.
+     *
+     * @param frame received
+     * @return the frame itself if it was not fragmented, null if more fragments are expected, or a new frame with the
+     * type of the first fragment that is a view over the {@link CompositePayload} of all fragments, nothing is copied
+     * or encoded again. A new frame belongs to the caller, which must release it once dispatched, the fragments are
+     * released with it.
+     * @throws RejectedException if the payload outgrew the {@link ReassemblyBudget}, its fragments are dropped
+     */
+    public Frame reassemble(final Frame frame) {
+        final Fragments fragments = collect(frame);
+
+        if (UNFRAGMENTED == fragments) {
+            return frame;
+        } else if (null == fragments) {
+            return null;
+        }
+
+        final CompositePayload payload = fragments.payload();
+        try {
+            return fragments.reassembled(frame.getStreamId(), frame.getType(), payload);
+        } catch (Throwable t) {
+            payload.release();
+            throw t;
+        }
     }
 
     public void onSubscribe(Subscription s) {
@@ -43,37 +137,127 @@ public class PayloadReassembler implements Subscriber<Frame> {
     }
 
     public void onNext(Frame frame) {
-        // if frame has no F bit and no waiting payload, then simply pass on
+        final Fragments fragments;
+        try {
+            fragments = collect(frame);
+        } catch (RejectedException e) {
+            child.onError(e);
+            return;
+        }
+
+        if (UNFRAGMENTED == fragments) {
+            child.onNext(frame);
+        } else if (null != fragments) {
+            final CompositePayload payload = fragments.payload();
+            try {
+                child.onNext(payload);
+            } finally {
+                payload.release();
+            }
+        }
+    }
+
+    public void onError(Throwable t) {
+        // reset and pass through
+    }
+
+    public void onComplete() {
+        // reset and pass through
+    }
+
+    /*
+     * Returns UNFRAGMENTED, null while more fragments are expected, or the complete fragments of the payload.
+     */
+    private Fragments collect(final Frame frame) {
         final int streamId = frame.getStreamId();
-        PayloadBuilder payloadBuilder = payloadByStreamId.get(streamId);
+        final FrameType type = frame.getType();
+
+        if (!canBeFragmented(type)) {
+            if (FrameType.ERROR == type || FrameType.CANCEL == type) {
+                // the stream is over, drop whatever was received of it
+                resetStream(streamId);
+            }
+            return UNFRAGMENTED;
+        }
 
-        if (FrameHeaderFlyweight.FLAGS_RESPONSE_F != (frame.flags() & FrameHeaderFlyweight.FLAGS_RESPONSE_F)) {
-            Payload deliveryPayload = frame;
+        final boolean follows =
+            FrameHeaderFlyweight.FLAGS_F == (frame.flags() & FrameHeaderFlyweight.FLAGS_F);
+        Fragments fragments = payloadByStreamId.get(streamId);
 
-            // terminal frame
-            if (null != payloadBuilder) {
-                payloadBuilder.append(frame);
-                deliveryPayload = payloadBuilder.payload();
-                payloadByStreamId.remove(streamId);
+        if (null == fragments) {
+            if (!follows) {
+                return UNFRAGMENTED;
             }
 
-            child.onNext(deliveryPayload);
+            final int initialRequestN = type.hasInitialRequestN() ? (int) Frame.Request.initialRequestN(frame) : 0;
+            fragments = new Fragments(type, initialRequestN);
+            payloadByStreamId.put(streamId, fragments);
+        }
+
+        final int bytes = frame.metadataLength() + frame.dataLength();
+        if ((long) fragments.bytes + bytes > budget.maxStreamBytes() || !budget.tryReserve(bytes)) {
+            resetStream(streamId);
+            throw new RejectedException("Payload on stream " + streamId + " exceeds the reassembly limit of "
+                + budget.maxStreamBytes() + " bytes per stream and " + budget.maxConnectionBytes()
+                + " per connection");
         }
-        else {
-            if (null == payloadBuilder) {
-                payloadBuilder = new PayloadBuilder();
-                payloadByStreamId.put(streamId, payloadBuilder);
-            }
 
-            payloadBuilder.append(frame);
+        fragments.bytes += bytes;
+        fragments.frames.add(frame.retainOrCopy());
+
+        if (follows) {
+            return null;
         }
+
+        // terminal frame
+        payloadByStreamId.remove(streamId);
+        budget.release(fragments.bytes);
+
+        return fragments;
     }
 
-    public void onError(Throwable t) {
-        // reset and pass through
+    private static boolean canBeFragmented(final FrameType type) {
+        return type.isRequestType()
+            || FrameType.NEXT == type
+            || FrameType.NEXT_COMPLETE == type
+            || FrameType.COMPLETE == type;
     }
 
-    public void onComplete() {
-        // reset and pass through
+    private static final class Fragments {
+        private final ArrayList<Frame> frames = new ArrayList<>(4);
+        private final FrameType firstType;
+        private final int initialRequestN;
+        private int bytes;
+
+        private Fragments(final FrameType firstType, final int initialRequestN) {
+            this.firstType = firstType;
+            this.initialRequestN = initialRequestN;
+        }
+
+        private CompositePayload payload() {
+            return new CompositePayload(frames);
+        }
+
+        private void discard(final ReassemblyBudget budget) {
+            for (final Frame frame : frames) {
+                frame.release();
+            }
+            frames.clear();
+            budget.release(bytes);
+        }
+
+        /*
+         * The frame takes over the reference to the payload.
+         */
+        private Frame reassembled(final int streamId, final FrameType lastType, final CompositePayload payload) {
+            if (firstType.isRequestType()) {
+                return Frame.Request.view(
+                    streamId, firstType, payload, payload.metadataLength(), payload.dataLength(), initialRequestN);
+            }
+
+            // a last fragment without data decodes as COMPLETE, the payload it completes is still there
+            final FrameType responseType = FrameType.NEXT == lastType ? FrameType.NEXT : FrameType.NEXT_COMPLETE;
+            return Frame.Response.view(streamId, responseType, payload, payload.metadataLength(), payload.dataLength());
+        }
     }
 }
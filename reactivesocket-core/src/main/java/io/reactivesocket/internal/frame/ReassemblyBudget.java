@@ -0,0 +1,87 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.internal.frame;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the bytes a connection holds in {@link PayloadReassembler}s while fragmented payloads are incomplete, so a
+ * peer that sends the first fragments of many large payloads, or never sends the last one, cannot exhaust memory.
+ * <p>
+ * The limits default to {@code -Dio.reactivesocket.reassembly.maxStreamBytes} (16 MiB) per stream and
+ * {@code -Dio.reactivesocket.reassembly.maxConnectionBytes} (64 MiB) per connection.
+ * <p>
+ * Thread-safe, the requester and responder side of a connection share one budget.
+ */
+public class ReassemblyBudget {
+    public static final int DEFAULT_MAX_STREAM_BYTES =
+        Integer.getInteger("io.reactivesocket.reassembly.maxStreamBytes", 16 * 1024 * 1024);
+    public static final long DEFAULT_MAX_CONNECTION_BYTES =
+        Long.getLong("io.reactivesocket.reassembly.maxConnectionBytes", 64L * 1024 * 1024);
+
+    private final int maxStreamBytes;
+    private final long maxConnectionBytes;
+    private final AtomicLong pendingBytes = new AtomicLong();
+
+    public ReassemblyBudget() {
+        this(DEFAULT_MAX_STREAM_BYTES, DEFAULT_MAX_CONNECTION_BYTES);
+    }
+
+    public ReassemblyBudget(final int maxStreamBytes, final long maxConnectionBytes) {
+        if (maxStreamBytes <= 0 || maxConnectionBytes <= 0) {
+            throw new IllegalArgumentException(
+                "Reassembly limits must be positive: maxStreamBytes=" + maxStreamBytes +
+                " maxConnectionBytes=" + maxConnectionBytes);
+        }
+
+        this.maxStreamBytes = maxStreamBytes;
+        this.maxConnectionBytes = maxConnectionBytes;
+    }
+
+    public int maxStreamBytes() {
+        return maxStreamBytes;
+    }
+
+    public long maxConnectionBytes() {
+        return maxConnectionBytes;
+    }
+
+    /**
+     * Bytes of fragments received on the connection whose payload is not complete yet.
+     *
+     * @return bytes pending reassembly
+     */
+    public long pendingBytes() {
+        return pendingBytes.get();
+    }
+
+    boolean tryReserve(final int bytes) {
+        for (;;) {
+            final long current = pendingBytes.get();
+            final long next = current + bytes;
+            if (next > maxConnectionBytes) {
+                return false;
+            }
+            if (pendingBytes.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    void release(final long bytes) {
+        pendingBytes.addAndGet(-bytes);
+    }
+}
@@ -53,7 +53,35 @@ public class RequestFrameFlyweight {
         final ByteBuffer metadata,
         final ByteBuffer data
     ) {
-        final int frameLength = computeFrameLength(type, metadata.remaining(), data.remaining());
+        final int metadataLength = metadata.remaining();
+        int length = encodeHeader(
+            mutableDirectBuffer, offset, streamId, flags, type, initialRequestN, metadataLength, data.remaining());
+
+        if (0 < metadataLength) {
+            mutableDirectBuffer.putBytes(offset + length, metadata, metadataLength);
+            length += metadataLength;
+        }
+        length += FrameHeaderFlyweight.encodeData(mutableDirectBuffer, offset + length, data);
+
+        return length;
+    }
+
+    /**
+     * Encode everything up to the metadata bytes of a request carrying an initial request n, for gathering writes.
+     *
+     * @return number of bytes written, the metadata starts right after
+     */
+    public static int encodeHeader(
+        final MutableDirectBuffer mutableDirectBuffer,
+        final int offset,
+        final int streamId,
+        int flags,
+        final FrameType type,
+        final int initialRequestN,
+        final int metadataLength,
+        final int dataLength
+    ) {
+        final int frameLength = computeFrameLength(type, metadataLength, dataLength);
 
         flags |= FLAGS_REQUEST_CHANNEL_N;
         int length = FrameHeaderFlyweight.encodeFrameHeader(mutableDirectBuffer, offset, frameLength, flags, type, streamId);
@@ -61,8 +89,7 @@ public class RequestFrameFlyweight {
         mutableDirectBuffer.putInt(offset + INITIAL_REQUEST_N_FIELD_OFFSET, initialRequestN, ByteOrder.BIG_ENDIAN);
         length += BitUtil.SIZE_OF_INT;
 
-        length += FrameHeaderFlyweight.encodeMetadata(mutableDirectBuffer, offset, offset + length, metadata);
-        length += FrameHeaderFlyweight.encodeData(mutableDirectBuffer, offset + length, data);
+        length += FrameHeaderFlyweight.encodeMetadataLength(mutableDirectBuffer, offset, offset + length, metadataLength);
 
         return length;
     }
@@ -37,13 +37,15 @@ public class ThreadLocalFramePool implements FramePool {
         Frame frame = pollFrame();
         if (null == frame) {
             frame = Frame.allocate(directBuffer);
+        } else {
+            frame.wrap(directBuffer, 0);
         }
 
         return frame;
     }
 
     public Frame acquireFrame(ByteBuffer byteBuffer) {
-        return Frame.allocate(new UnsafeBuffer(byteBuffer));
+        return acquireFrame(new UnsafeBuffer(byteBuffer));
     }
 
     public void release(Frame frame)
@@ -55,6 +57,8 @@ public class ThreadLocalFramePool implements FramePool {
         Frame frame = pollFrame();
         if (null == frame) {
             frame = Frame.allocate(mutableDirectBuffer);
+        } else {
+            frame.wrap(mutableDirectBuffer, 0);
         }
 
         return frame;
@@ -64,6 +68,8 @@ public class ThreadLocalFramePool implements FramePool {
         MutableDirectBuffer directBuffer = pollMutableDirectBuffer();
         if (null == directBuffer) {
             directBuffer = new UnsafeBuffer(byteBuffer);
+        } else {
+            directBuffer.wrap(byteBuffer);
         }
 
         return directBuffer;
@@ -43,19 +43,23 @@ public class ThreadSafeFramePool implements FramePool {
         Frame frame = pollFrame();
         if (null == frame) {
             frame = Frame.allocate(directBuffer);
+        } else {
+            frame.wrap(directBuffer, 0);
         }
 
         return frame;
     }
 
     public Frame acquireFrame(ByteBuffer byteBuffer) {
-        return Frame.allocate(new UnsafeBuffer(byteBuffer));
+        return acquireFrame(new UnsafeBuffer(byteBuffer));
     }
 
     public Frame acquireFrame(MutableDirectBuffer mutableDirectBuffer) {
         Frame frame = pollFrame();
         if (null == frame) {
             frame = Frame.allocate(mutableDirectBuffer);
+        } else {
+            frame.wrap(mutableDirectBuffer, 0);
         }
 
         return frame;
@@ -65,6 +69,8 @@ public class ThreadSafeFramePool implements FramePool {
         MutableDirectBuffer directBuffer = pollMutableDirectBuffer();
         if (null == directBuffer) {
             directBuffer = new UnsafeBuffer(byteBuffer);
+        } else {
+            directBuffer.wrap(byteBuffer);
         }
 
         return directBuffer;
@@ -0,0 +1,267 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.util;
+
+import io.reactivesocket.ConnectionSetupHandler;
+import io.reactivesocket.Payload;
+import io.reactivesocket.RequestHandler;
+import io.reactivesocket.exceptions.RejectedException;
+import io.reactivesocket.internal.rx.EmptySubscription;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Invokes {@link RequestHandler}s on an {@link Executor} instead of the thread that read the request, which for
+ * network transports is an I/O event loop shared by many connections.
+ * <p>
+ * {@link #wrap(ConnectionSetupHandler)} gives every connection its own queue of handler invocations on the shared
+ * executor:
+ * <ul>
+ *     <li>Handlers of a connection are invoked one at a time, in the order the requests arrived.</li>
+ *     <li>A connection with {@code maxQueuedPerConnection} invocations waiting has further requests rejected with
+ *     {@link RejectedException}, the requester sees an error it may retry elsewhere.</li>
+ *     <li>A connection hands the executor thread back after {@link #DRAIN_LIMIT} invocations, so a busy one does not
+ *     starve the others.</li>
+ * </ul>
+ * Only the handler invocation is offloaded, the returned publishers emit on whichever threads they choose. The
+ * request payload is retained from the subscription to the returned publisher until the handler has been invoked
+ * with it.
+ */
+public class RequestHandlerExecutor {
+
+    /**
+     * Most handler invocations of a connection run before the connection yields the executor thread.
+     */
+    public static final int DRAIN_LIMIT = 64;
+
+    private final Executor executor;
+    private final int maxQueuedPerConnection;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public RequestHandlerExecutor(Executor executor, int maxQueuedPerConnection) {
+        if (maxQueuedPerConnection <= 0) {
+            throw new IllegalArgumentException("Max queued per connection must be positive: "
+                                               + maxQueuedPerConnection);
+        }
+        this.executor = executor;
+        this.maxQueuedPerConnection = maxQueuedPerConnection;
+    }
+
+    /**
+     * Offloads the handlers of every connection set up by {@code setupHandler}. Connection setup itself still runs
+     * on the calling thread.
+     *
+     * @param setupHandler creating the handler of every connection
+     * @return setup handler whose request handlers run on the executor
+     */
+    public ConnectionSetupHandler wrap(ConnectionSetupHandler setupHandler) {
+        return (setupPayload, reactiveSocket) -> wrap(setupHandler.apply(setupPayload, reactiveSocket));
+    }
+
+    /**
+     * Offloads the invocations of {@code handler}, in order, as one connection.
+     *
+     * @param handler to invoke on the executor
+     * @return handler that queues the invocations of {@code handler}
+     */
+    public RequestHandler wrap(RequestHandler handler) {
+        return new OffloadingRequestHandler(handler, new ConnectionQueue());
+    }
+
+    /**
+     * @return handler invocations waiting for an executor thread, across all connections
+     */
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * @return requests rejected because the queue of their connection was full
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private interface Invocation {
+        void run();
+
+        void reject(Throwable cause);
+    }
+
+    /**
+     * Invocations of one connection, run one at a time on the executor.
+     */
+    private final class ConnectionQueue implements Runnable {
+        private final Queue<Invocation> invocations = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private void offer(Invocation invocation) {
+            if (size.incrementAndGet() > maxQueuedPerConnection) {
+                size.decrementAndGet();
+                rejected.incrementAndGet();
+                invocation.reject(new RejectedException("Request handler queue of the connection is full"));
+                return;
+            }
+            queueDepth.incrementAndGet();
+            invocations.offer(invocation);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    rejectAll(e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < DRAIN_LIMIT; i++) {
+                Invocation invocation = invocations.poll();
+                if (invocation == null) {
+                    scheduled.set(false);
+                    // an invocation offered after the poll may have found this still scheduled
+                    if (invocations.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                size.decrementAndGet();
+                queueDepth.decrementAndGet();
+                try {
+                    invocation.run();
+                } catch (Throwable t) {
+                    // keep draining, the remaining invocations of the connection would never run otherwise
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+                }
+            }
+            // let other connections have the thread
+            scheduled.set(false);
+            if (!invocations.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void rejectAll(Throwable cause) {
+            Invocation invocation;
+            while ((invocation = invocations.poll()) != null) {
+                size.decrementAndGet();
+                queueDepth.decrementAndGet();
+                rejected.incrementAndGet();
+                invocation.reject(new RejectedException("Request handler executor rejected the request: " + cause));
+            }
+        }
+    }
+
+    private static final class OffloadingRequestHandler implements RequestHandler {
+        private final RequestHandler handler;
+        private final ConnectionQueue queue;
+
+        private OffloadingRequestHandler(RequestHandler handler, ConnectionQueue queue) {
+            this.handler = handler;
+            this.queue = queue;
+        }
+
+        @Override
+        public Publisher<Payload> handleRequestResponse(Payload payload) {
+            return offload(payload, () -> handler.handleRequestResponse(payload));
+        }
+
+        @Override
+        public Publisher<Payload> handleRequestStream(Payload payload) {
+            return offload(payload, () -> handler.handleRequestStream(payload));
+        }
+
+        @Override
+        public Publisher<Payload> handleSubscription(Payload payload) {
+            return offload(payload, () -> handler.handleSubscription(payload));
+        }
+
+        @Override
+        public Publisher<Void> handleFireAndForget(Payload payload) {
+            return offload(payload, () -> handler.handleFireAndForget(payload));
+        }
+
+        @Override
+        public Publisher<Payload> handleChannel(Payload initialPayload, Publisher<Payload> inputs) {
+            return offload(initialPayload, () -> handler.handleChannel(initialPayload, inputs));
+        }
+
+        @Override
+        public Publisher<Void> handleMetadataPush(Payload payload) {
+            return offload(payload, () -> handler.handleMetadataPush(payload));
+        }
+
+        /**
+         * The payload is retained when the returned publisher is subscribed to, and released once the handler has been
+         * invoked. A publisher that is never subscribed to holds no reference. The responder subscribes before it
+         * lets go of the request frame, also when the response is requested after the inbound callback returned.
+         */
+        private <T> Publisher<T> offload(Payload payload, Supplier<Publisher<T>> invocation) {
+            return s -> {
+                try {
+                    // the caller releases the payload once the publisher is subscribed to
+                    payload.retain();
+                } catch (Throwable t) {
+                    error(s, t);
+                    return;
+                }
+                queue.offer(new Invocation() {
+                    @Override
+                    public void run() {
+                        Publisher<T> publisher;
+                        try {
+                            publisher = invocation.get();
+                        } catch (Throwable t) {
+                            error(s, t);
+                            return;
+                        } finally {
+                            payload.release();
+                        }
+                        publisher.subscribe(s);
+                    }
+
+                    @Override
+                    public void reject(Throwable cause) {
+                        payload.release();
+                        error(s, cause);
+                    }
+                });
+            };
+        }
+
+        private static void error(Subscriber<?> s, Throwable cause) {
+            s.onSubscribe(EmptySubscription.INSTANCE);
+            s.onError(cause);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.agrona.collections.Int2ObjectHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Contention of the stream registry when many application threads start streams on one connection while the
+ * transport thread looks up every frame received. Compares {@link StreamTable} with the monitor guarded
+ * {@link Int2ObjectHashMap} it replaced in the {@link Requester} and {@link Responder}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class StreamTablePerf {
+
+	private static final int STREAMS_IN_FLIGHT = 1024;
+
+	@State(Scope.Benchmark)
+	public static class Tables {
+		final StreamTable<Object> streamTable = new StreamTable<>();
+		final Int2ObjectHashMap<Object> synchronizedMap = new Int2ObjectHashMap<>();
+		final AtomicInteger threads = new AtomicInteger();
+		final Object value = new Object();
+
+		@Setup
+		public void setup() {
+			// streams that stay in flight for the whole run, as on a busy connection
+			for (int streamId = 1; streamId <= STREAMS_IN_FLIGHT * 2; streamId += 2) {
+				streamTable.put(streamId, value);
+				synchronizedMap.put(streamId, value);
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class StreamIds {
+		int next;
+		int step;
+
+		@Setup
+		public void setup(Tables tables) {
+			// disjoint even ids per thread, like a requester handing out stream ids
+			final int thread = tables.threads.getAndIncrement();
+			next = (thread + 1) * 2;
+			step = 64 * 2;
+		}
+
+		int nextStreamId() {
+			next += step;
+			if (next < 0) {
+				next = 2;
+			}
+			return next;
+		}
+
+		int inFlightStreamId() {
+			next += step;
+			return (next % (STREAMS_IN_FLIGHT * 2)) | 1;
+		}
+	}
+
+	/**
+	 * A stream started, receiving its response and terminating, as for every requestResponse.
+	 */
+	@Benchmark
+	public Object startLookUpAndTerminateStreamTable(Tables tables, StreamIds ids) {
+		final int streamId = ids.nextStreamId();
+		tables.streamTable.put(streamId, tables.value);
+		final Object value = tables.streamTable.get(streamId);
+		tables.streamTable.remove(streamId);
+		return value;
+	}
+
+	@Benchmark
+	public Object startLookUpAndTerminateSynchronizedMap(Tables tables, StreamIds ids) {
+		final int streamId = ids.nextStreamId();
+		final Int2ObjectHashMap<Object> map = tables.synchronizedMap;
+		synchronized (map) {
+			map.put(streamId, tables.value);
+		}
+		final Object value;
+		synchronized (map) {
+			value = map.get(streamId);
+		}
+		synchronized (map) {
+			map.remove(streamId);
+		}
+		return value;
+	}
+
+	/**
+	 * A frame received for one of the streams in flight.
+	 */
+	@Benchmark
+	public Object lookUpStreamTable(Tables tables, StreamIds ids) {
+		return tables.streamTable.get(ids.inFlightStreamId());
+	}
+
+	@Benchmark
+	public Object lookUpSynchronizedMap(Tables tables, StreamIds ids) {
+		final Int2ObjectHashMap<Object> map = tables.synchronizedMap;
+		synchronized (map) {
+			return map.get(ids.inFlightStreamId());
+		}
+	}
+}
@@ -18,6 +18,8 @@ package io.reactivesocket;
 import io.netty.buffer.ByteBufUtil;
 import io.reactivesocket.exceptions.Exceptions;
 import io.reactivesocket.exceptions.RejectedException;
+import io.reactivesocket.internal.frame.FrameHeaderFlyweight;
+import io.reactivesocket.internal.frame.RequestFrameFlyweight;
 import io.reactivesocket.internal.frame.SetupFrameFlyweight;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Test;
@@ -32,6 +34,7 @@ import java.util.concurrent.TimeUnit;
 import static io.reactivesocket.internal.frame.ErrorFrameFlyweight.REJECTED;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 @RunWith(Theories.class)
 public class FrameTest {
@@ -129,6 +132,82 @@ public class FrameTest {
                 ByteBufUtil.hexDump(encodedFrame.getByteBuffer().array(), 0, 12));
     }
 
+    @Test
+    @Theory
+    public void shouldEncodeIntoProvidedBuffer(final int offset) {
+        final ByteBuffer responseData = TestUtil.byteBufferFromUtf8String("response data");
+        final ByteBuffer responseMetadata = TestUtil.byteBufferFromUtf8String("response metadata");
+        final Payload payload = createPayload(responseMetadata, responseData);
+
+        Frame frame = Frame.Response.from(3, FrameType.NEXT, payload);
+        final UnsafeBuffer transportBuffer = new UnsafeBuffer(ByteBuffer.allocate(1024));
+
+        assertEquals(frame.length(), frame.encode(transportBuffer, offset));
+        reusableFrame.wrap(transportBuffer, offset);
+
+        assertEquals(FrameType.NEXT, reusableFrame.getType());
+        assertEquals(3, reusableFrame.getStreamId());
+        assertEquals("response data", TestUtil.byteToString(reusableFrame.getData()));
+        assertEquals("response metadata", TestUtil.byteToString(reusableFrame.getMetadata()));
+    }
+
+    @Test
+    public void shouldEncodeHeaderForGatheringWrite() {
+        final ByteBuffer data = TestUtil.byteBufferFromUtf8String("stream data");
+        final ByteBuffer metadata = TestUtil.byteBufferFromUtf8String("stream metadata");
+        final UnsafeBuffer expected = new UnsafeBuffer(ByteBuffer.allocate(256));
+        final UnsafeBuffer gathered = new UnsafeBuffer(ByteBuffer.allocate(256));
+
+        final int length = RequestFrameFlyweight.encode(
+            expected, 0, 5, 0, FrameType.REQUEST_STREAM, 16, metadata.duplicate(), data.duplicate());
+
+        int gatheredLength = RequestFrameFlyweight.encodeHeader(
+            gathered, 0, 5, 0, FrameType.REQUEST_STREAM, 16, metadata.remaining(), data.remaining());
+        gathered.putBytes(gatheredLength, metadata, metadata.position(), metadata.remaining());
+        gatheredLength += metadata.remaining();
+        gathered.putBytes(gatheredLength, data, data.position(), data.remaining());
+        gatheredLength += data.remaining();
+
+        assertEquals(length, gatheredLength);
+        assertEquals(
+            ByteBufUtil.hexDump(expected.byteArray(), 0, length),
+            ByteBufUtil.hexDump(gathered.byteArray(), 0, gatheredLength));
+    }
+
+    @Test
+    @Theory
+    public void shouldWrapPayloadViewsWithoutSlicing(final int offset) {
+        final ByteBuffer requestData = TestUtil.byteBufferFromUtf8String("request data");
+        final ByteBuffer requestMetadata = TestUtil.byteBufferFromUtf8String("request metadata");
+        final Payload payload = createPayload(requestMetadata, requestData);
+
+        Frame encodedFrame = Frame.Request.from(1, FrameType.REQUEST_STREAM, payload, 128);
+        TestUtil.copyFrame(reusableMutableDirectBuffer, offset, encodedFrame);
+        reusableFrame.wrap(reusableMutableDirectBuffer, offset);
+
+        final UnsafeBuffer view = new UnsafeBuffer(new byte[0]);
+        assertEquals("request metadata".length(), reusableFrame.metadataLength());
+        assertEquals("request metadata", reusableFrame.wrapMetadata(view).getStringWithoutLengthUtf8(0, view.capacity()));
+        assertEquals("request data".length(), reusableFrame.dataLength());
+        assertEquals("request data", reusableFrame.wrapData(view).getStringWithoutLengthUtf8(0, view.capacity()));
+        assertEquals(
+            "request data",
+            reusableMutableDirectBuffer.getStringWithoutLengthUtf8(reusableFrame.dataOffset(), reusableFrame.dataLength()));
+        assertEquals(FrameHeaderFlyweight.FLAGS_M, reusableFrame.flags() & FrameHeaderFlyweight.FLAGS_M);
+
+        Frame emptyFrame = Frame.RequestN.from(2, 10);
+        assertEquals(0, emptyFrame.metadataLength());
+        assertEquals(0, emptyFrame.dataLength());
+        assertEquals(0, emptyFrame.wrapData(view).capacity());
+    }
+
+    @Test
+    public void shouldReturnUndefinedForUnknownFrameTypeId() {
+        assertEquals(FrameType.UNDEFINED, FrameType.from(-1));
+        assertEquals(FrameType.UNDEFINED, FrameType.from(Short.MAX_VALUE));
+        assertEquals(FrameType.REQUEST_STREAM, FrameType.from(FrameType.REQUEST_STREAM.getEncodedType()));
+    }
+
     @Test
     @Theory
     public void shouldReturnCorrectDataPlusMetadataForFireAndForget(final int offset) {
@@ -547,4 +626,23 @@ public class FrameTest {
         assertEquals(Frame.NULL_BYTEBUFFER, reusableFrame.getData());
         assertEquals("lease metadata", TestUtil.byteToString(reusableFrame.getMetadata()));
     }
+
+    @Test
+    public void shouldReadHeaderOfDeferredFrameWithoutEncoding() {
+        final ByteBuffer metadata = TestUtil.byteBufferFromUtf8String("request metadata");
+        final ByteBuffer data = TestUtil.byteBufferFromUtf8String("request data");
+        final Frame deferred = Frame.Request.view(
+            1, FrameType.REQUEST_CHANNEL, createPayload(metadata, data), metadata.remaining(), data.remaining(), 128);
+        final Frame encoded = Frame.Request.from(
+            1, FrameType.REQUEST_CHANNEL, createPayload(metadata.duplicate(), data.duplicate()), 128);
+
+        assertEquals(FrameType.REQUEST_CHANNEL, deferred.getType());
+        assertEquals(1, deferred.getStreamId());
+        assertEquals(encoded.flags(), deferred.flags());
+        assertEquals(128, Frame.Request.initialRequestN(deferred));
+        assertEquals(false, Frame.Request.isRequestChannelComplete(deferred));
+        assertEquals(metadata.remaining(), deferred.metadataLength());
+        assertEquals(data.remaining(), deferred.dataLength());
+        assertFalse(deferred.isEncoded());
+    }
 }
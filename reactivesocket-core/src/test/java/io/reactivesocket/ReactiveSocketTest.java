@@ -15,6 +15,7 @@
  */
 package io.reactivesocket;
 
+import io.reactivesocket.exceptions.ConnectionException;
 import io.reactivesocket.internal.Publishers;
 import io.reactivesocket.lease.FairLeaseGovernor;
 import io.reactivex.disposables.Disposable;
@@ -82,6 +83,8 @@ public class ReactiveSocketTest {
 				if ("hello".equals(request)) {
 					System.out.println("********************************************************************************************** respond hello");
 					return just(utf8EncodedPayload("hello world", null));
+				} else if (request.startsWith("echo ")) {
+					return just(utf8EncodedPayload(request, null));
 				} else {
 					return error(new RuntimeException("Not Found"));
 				}
@@ -214,9 +217,13 @@ public class ReactiveSocketTest {
 		} else if (setupFlag == HONOR_LEASE) {
 			System.out.println("Reactivesocket configured with: HONOR_LEASE");
 		}
+		startSockets(ConnectionSetupPayload.create("UTF-8", "UTF-8", setupFlag), handler);
+	}
+
+	private void startSockets(ConnectionSetupPayload setup, RequestHandler handler) throws InterruptedException {
 		socketClient = DefaultReactiveSocket.fromClientConnection(
 			clientConnection,
-			ConnectionSetupPayload.create("UTF-8", "UTF-8", setupFlag),
+			setup,
 			handler, 
 			err -> err.printStackTrace()
 		);
@@ -305,6 +312,41 @@ public class ReactiveSocketTest {
 		ts.assertValue(TestUtil.utf8EncodedPayload("hello world", null));
 	}
 
+	@Test(timeout=2000)
+	public void testConnectionErrorOnStreamZeroFailsStreams() throws InterruptedException {
+		startSockets(NO_FLAGS);
+
+		TestSubscriber<Payload> ts = new TestSubscriber<>();
+		socketClient.requestSubscription(TestUtil.utf8EncodedPayload("hello", null)).subscribe(ts);
+		while (!helloSubscriptionRunning.get()) {
+			Thread.sleep(10);
+		}
+
+		// used to be dropped before reaching the requester
+		clientConnection.toInput.send(Frame.Error.from(0, new ConnectionException("going away")));
+
+		ts.awaitTerminalEvent();
+		ts.assertError(ConnectionException.class);
+	}
+
+	@Test(timeout=2000)
+	public void testRequestResponseWithFragmentedPayloads() throws InterruptedException {
+		// the client sends in 1k fragments, the server answers in fragments of the default MTU
+		startSockets(ConnectionSetupPayload.create("UTF-8", "UTF-8", NO_FLAGS, 1024), null);
+
+		final StringBuilder request = new StringBuilder("echo ");
+		while (request.length() < Frame.DATA_MTU * 3) {
+			request.append("fragmented payload ");
+		}
+
+		Publisher<Payload> response = socketClient.requestResponse(TestUtil.utf8EncodedPayload(request.toString(), null));
+		TestSubscriber<Payload> ts = new TestSubscriber<>();
+		response.subscribe(ts);
+		ts.awaitTerminalEvent();
+		ts.assertNoErrors();
+		ts.assertValue(TestUtil.utf8EncodedPayload(request.toString(), null));
+	}
+
 	@Test(timeout=2000, expected=IllegalStateException.class)
 	public void testRequestResponsePremature() throws InterruptedException {
 		socketClient = DefaultReactiveSocket.fromClientConnection(
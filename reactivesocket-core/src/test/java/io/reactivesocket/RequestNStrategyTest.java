@@ -0,0 +1,129 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RequestNStrategyTest
+{
+    private static final long RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    public void defaultShouldKeepFixedWindow()
+    {
+        final RequestNStrategy.Window window = RequestNStrategy.DEFAULT.newWindow();
+
+        window.onRequested(1024, 0);
+        deliver(window, RTT_NANOS, 1, 1024);
+
+        assertEquals(1024, window.batch());
+        assertEquals(256, window.threshold());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fixedShouldRejectThresholdAboveBatch()
+    {
+        RequestNStrategy.fixed(16, 16);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void adaptiveShouldRejectInvertedBounds()
+    {
+        RequestNStrategy.adaptive(64, 32);
+    }
+
+    @Test
+    public void adaptiveShouldStartAtMinimum()
+    {
+        final RequestNStrategy.Window window = RequestNStrategy.adaptive(32, 4096).newWindow();
+
+        assertEquals(32, window.batch());
+        assertEquals(16, window.threshold());
+    }
+
+    @Test
+    public void adaptiveShouldGrowForFastConsumerOnSlowLink()
+    {
+        final RequestNStrategy.Window window = RequestNStrategy.adaptive(32, 4096).newWindow();
+        final long drainNanos = TimeUnit.MICROSECONDS.toNanos(100);
+
+        // 200 items drain per round-trip
+        window.onRequested(32, 0);
+        deliver(window, RTT_NANOS, drainNanos, 32);
+
+        assertEquals(400, window.batch());
+        assertEquals(200, window.threshold());
+    }
+
+    @Test
+    public void adaptiveShouldStayBoundedByMaximum()
+    {
+        final RequestNStrategy.Window window = RequestNStrategy.adaptive(32, 256).newWindow();
+
+        window.onRequested(32, 0);
+        deliver(window, RTT_NANOS, TimeUnit.MICROSECONDS.toNanos(1), 32);
+
+        assertEquals(256, window.batch());
+        assertTrue(window.threshold() <= 128);
+    }
+
+    @Test
+    public void adaptiveShouldStayAtMinimumForSlowConsumer()
+    {
+        final RequestNStrategy.Window window = RequestNStrategy.adaptive(32, 4096).newWindow();
+
+        window.onRequested(32, 0);
+        deliver(window, RTT_NANOS, TimeUnit.MILLISECONDS.toNanos(10), 32);
+
+        assertEquals(32, window.batch());
+        assertEquals(2, window.threshold());
+    }
+
+    @Test
+    public void adaptiveShouldNotTakeOverlappedRequestAsRoundTrip()
+    {
+        final RequestNStrategy.Window window = RequestNStrategy.adaptive(32, 4096).newWindow();
+        final long drainNanos = TimeUnit.MICROSECONDS.toNanos(100);
+
+        window.onRequested(32, 0);
+        long now = deliver(window, RTT_NANOS, drainNanos, 16);
+        final long batch = window.batch();
+
+        // refill while 16 are still outstanding, its first item follows them without a gap
+        window.onRequested(400, now);
+        deliver(window, now + drainNanos, drainNanos, 416);
+
+        assertEquals(batch, window.batch());
+    }
+
+    private static long deliver(
+        final RequestNStrategy.Window window, final long firstNanos, final long drainNanos, final int count)
+    {
+        long now = firstNanos;
+        for (int i = 0; i < count; i++)
+        {
+            window.onDelivered(now);
+            now += drainNanos;
+        }
+
+        return now - drainNanos;
+    }
+}
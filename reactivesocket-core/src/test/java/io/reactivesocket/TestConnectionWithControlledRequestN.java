@@ -36,6 +36,20 @@ public class TestConnectionWithControlledRequestN extends TestConnection {
 	public List<Subscription> subscriptions = Collections.synchronizedList(new ArrayList<Subscription>());
 	public AtomicLong emitted = new AtomicLong();
 	public AtomicLong requested = new AtomicLong();
+	// frames emitted to an output beyond what it requested
+	public AtomicLong overflow = new AtomicLong();
+	private final boolean requestOneAtATime;
+
+	public TestConnectionWithControlledRequestN() {
+		this(false);
+	}
+
+	/**
+	 * @param requestOneAtATime if true every output is requested one more frame after each frame it emits
+	 */
+	public TestConnectionWithControlledRequestN(boolean requestOneAtATime) {
+		this.requestOneAtATime = requestOneAtATime;
+	}
 
 	@Override
 	public void addOutput(Publisher<Frame> o, Completable callback) {
@@ -44,6 +58,7 @@ public class TestConnectionWithControlledRequestN extends TestConnection {
 
 			volatile Subscription _s = null;
 			public AtomicLong sEmitted = new AtomicLong();
+			public AtomicLong sRequested = new AtomicLong();
 
 			@Override
 			public void onSubscribe(Subscription s) {
@@ -52,6 +67,7 @@ public class TestConnectionWithControlledRequestN extends TestConnection {
 					@Override
 					public void request(long n) {
 						requested.addAndGet(n);
+						sRequested.addAndGet(n);
 						s.request(n);
 					}
 
@@ -69,8 +85,13 @@ public class TestConnectionWithControlledRequestN extends TestConnection {
 			@Override
 			public void onNext(Frame t) {
 				emitted.incrementAndGet();
-				sEmitted.incrementAndGet();
+				if (sEmitted.incrementAndGet() > sRequested.get()) {
+					overflow.incrementAndGet();
+				}
 				write.send(t);
+				if (requestOneAtATime) {
+					_s.request(1);
+				}
 			}
 
 			@Override
@@ -30,12 +30,14 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static io.reactivesocket.TestUtil.byteToString;
 import static io.reactivesocket.TestUtil.utf8EncodedPayload;
 import static io.reactivex.Observable.error;
 import static io.reactivex.Observable.fromPublisher;
 import static io.reactivex.Observable.interval;
 import static io.reactivex.Observable.just;
 import static io.reactivex.Observable.range;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 /**
@@ -118,6 +120,28 @@ public class TestTransportRequestN {
 		}
 	}
 	
+	@Test(timeout = 3000)
+	public void testFragmentedResponsesWithOneFrameRequestedAtATime() throws InterruptedException {
+		clientConnection = new TestConnectionWithControlledRequestN(true);
+		serverConnection = new TestConnectionWithControlledRequestN(true);
+		setup(clientConnection, serverConnection, ConnectionSetupPayload.create("UTF-8", "UTF-8", ConnectionSetupPayload.NO_FLAGS, 1024));
+
+		TestSubscriber<Payload> response = new TestSubscriber<>();
+		fromPublisher(socketClient.requestResponse(utf8EncodedPayload(LARGE_REQUEST, null))).subscribe(response);
+		response.awaitTerminalEvent();
+		response.assertNoErrors();
+		response.assertValue(utf8EncodedPayload(LARGE_REQUEST, null));
+
+		TestSubscriber<Payload> stream = new TestSubscriber<>();
+		fromPublisher(socketClient.requestStream(utf8EncodedPayload(LARGE_REQUEST, null))).subscribe(stream);
+		stream.awaitTerminalEvent();
+		stream.assertNoErrors();
+		stream.assertValueCount(5);
+
+		// every response payload takes 4 fragments, none of them may be emitted before the transport requested it
+		assertEquals(0, serverConnection.overflow.get());
+	}
+
 	// TODO come back after some other work (Ben)
 	@Ignore
 	@Test(timeout = 3000)
@@ -162,6 +186,16 @@ public class TestTransportRequestN {
 		}
 	}
 
+	private static final String LARGE_REQUEST;
+
+	static {
+		StringBuilder request = new StringBuilder();
+		while (request.length() < 3500) {
+			request.append("fragmented payload ");
+		}
+		LARGE_REQUEST = request.substring(0, 3500);
+	}
+
 	private TestConnectionWithControlledRequestN serverConnection;
 	private TestConnectionWithControlledRequestN clientConnection;
 	private ReactiveSocket socketServer;
@@ -171,6 +205,11 @@ public class TestTransportRequestN {
 	private CountDownLatch lastServerErrorCountDown;
 
 	public void setup(TestConnectionWithControlledRequestN clientConnection, TestConnectionWithControlledRequestN serverConnection) throws InterruptedException {
+		setup(clientConnection, serverConnection, ConnectionSetupPayload.create("UTF-8", "UTF-8", ConnectionSetupPayload.NO_FLAGS));
+	}
+
+	public void setup(TestConnectionWithControlledRequestN clientConnection, TestConnectionWithControlledRequestN serverConnection,
+					  ConnectionSetupPayload setupPayload) throws InterruptedException {
 		clientConnection.connectToServerConnection(serverConnection, false);
 		lastServerErrorCountDown = new CountDownLatch(1);
 
@@ -178,11 +217,17 @@ public class TestTransportRequestN {
 
 			@Override
 			public Publisher<Payload> handleRequestResponse(Payload payload) {
+				if (LARGE_REQUEST.equals(byteToString(payload.getData()))) {
+					return just(utf8EncodedPayload(LARGE_REQUEST, null));
+				}
 				return just(utf8EncodedPayload("request_response", null));
 			}
 
 			@Override
 			public Publisher<Payload> handleRequestStream(Payload payload) {
+				if (LARGE_REQUEST.equals(byteToString(payload.getData()))) {
+					return range(0, 5).map(i -> utf8EncodedPayload(LARGE_REQUEST, null));
+				}
 				return range(0, 10000).map(i -> "stream_response_" + i).map(n -> utf8EncodedPayload(n, null));
 			}
 
@@ -222,7 +267,7 @@ public class TestTransportRequestN {
 
 		socketClient = DefaultReactiveSocket.fromClientConnection(
 				clientConnection,
-				ConnectionSetupPayload.create("UTF-8", "UTF-8", ConnectionSetupPayload.NO_FLAGS),
+				setupPayload,
 				err -> err.printStackTrace());
 
 		// start both the server and client and monitor for errors
@@ -16,6 +16,7 @@
 package io.reactivesocket.internal;
 
 import io.reactivesocket.Frame;
+import io.reactivesocket.FrameType;
 import io.reactivesocket.Payload;
 import io.reactivesocket.TestUtil;
 import io.reactivesocket.internal.frame.FrameHeaderFlyweight;
@@ -200,4 +201,57 @@ public class FragmenterTest
         assertEquals(0, (frame2.flags() & FrameHeaderFlyweight.FLAGS_REQUEST_CHANNEL_F));
         assertFalse(fragmenter.hasNext());
     }
+
+    @Test
+    public void shouldOnlyCompleteOnLastFragmentOfResponseComplete()
+    {
+        final String responseData0 = "response ";
+        final String responseData1 = "data";
+        final PayloadFragmenter fragmenter = new PayloadFragmenter(METADATA_MTU, responseData0.length());
+        final Payload payload = TestUtil.utf8EncodedPayload(responseData0 + responseData1, null);
+
+        fragmenter.resetForResponseComplete(STREAM_ID, payload);
+
+        assertTrue(fragmenter.hasNext());
+        final Frame frame1 = fragmenter.next();
+
+        assertEquals(FrameType.NEXT, frame1.getType());
+        assertEquals(responseData0, TestUtil.byteToString(frame1.getData()));
+        assertEquals(FrameHeaderFlyweight.FLAGS_RESPONSE_F, (frame1.flags() & FrameHeaderFlyweight.FLAGS_RESPONSE_F));
+
+        assertTrue(fragmenter.hasNext());
+        final Frame frame2 = fragmenter.next();
+
+        assertEquals(FrameType.NEXT_COMPLETE, frame2.getType());
+        assertEquals(responseData1, TestUtil.byteToString(frame2.getData()));
+        assertEquals(0, (frame2.flags() & FrameHeaderFlyweight.FLAGS_RESPONSE_F));
+        assertFalse(fragmenter.hasNext());
+    }
+
+    @Test
+    public void shouldHandleFragmentedRequestStreamData()
+    {
+        final String requestData0 = "request ";
+        final String requestData1 = "data";
+        final PayloadFragmenter fragmenter = new PayloadFragmenter(METADATA_MTU, requestData0.length());
+        final Payload payload = TestUtil.utf8EncodedPayload(requestData0 + requestData1, null);
+
+        fragmenter.resetForRequest(STREAM_ID, FrameType.REQUEST_STREAM, payload, REQUEST_N);
+
+        assertTrue(fragmenter.hasNext());
+        final Frame frame1 = fragmenter.next();
+
+        assertEquals(FrameType.REQUEST_STREAM, frame1.getType());
+        assertEquals(requestData0, TestUtil.byteToString(frame1.getData()));
+        assertEquals(REQUEST_N, Frame.Request.initialRequestN(frame1));
+        assertEquals(FrameHeaderFlyweight.FLAGS_F, (frame1.flags() & FrameHeaderFlyweight.FLAGS_F));
+
+        assertTrue(fragmenter.hasNext());
+        final Frame frame2 = fragmenter.next();
+
+        assertEquals(FrameType.REQUEST_STREAM, frame2.getType());
+        assertEquals(requestData1, TestUtil.byteToString(frame2.getData()));
+        assertEquals(0, (frame2.flags() & FrameHeaderFlyweight.FLAGS_F));
+        assertFalse(fragmenter.hasNext());
+    }
 }
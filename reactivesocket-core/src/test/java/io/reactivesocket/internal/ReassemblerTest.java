@@ -19,14 +19,22 @@ import io.reactivesocket.Frame;
 import io.reactivesocket.FrameType;
 import io.reactivesocket.Payload;
 import io.reactivesocket.TestUtil;
+import io.reactivesocket.exceptions.RejectedException;
+import io.reactivesocket.internal.frame.CompositePayload;
 import io.reactivesocket.internal.frame.FrameHeaderFlyweight;
 import io.reactivesocket.internal.frame.PayloadReassembler;
+import io.reactivesocket.internal.frame.ReassemblyBudget;
 import io.reactivex.subjects.ReplaySubject;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ReassemblerTest
 {
@@ -157,4 +165,158 @@ public class ReassemblerTest
         assertEquals(metadata, TestUtil.byteToString(replaySubject.getValue().getMetadata()));
     }
 
+    @Test
+    public void shouldReassembleRequestWithInitialRequestNOfFirstFragment()
+    {
+        final PayloadReassembler reassembler = PayloadReassembler.create();
+        final String data0 = "data0";
+        final String data1 = "d1";
+        final ByteBuffer data0Buffer = TestUtil.byteBufferFromUtf8String(data0);
+        final ByteBuffer data1Buffer = TestUtil.byteBufferFromUtf8String(data1);
+
+        final Frame fragment0 = Frame.Request.from(
+            STREAM_ID, FrameType.REQUEST_STREAM, Frame.NULL_BYTEBUFFER, data0Buffer, 16, FrameHeaderFlyweight.FLAGS_F);
+        final Frame fragment1 = Frame.Request.from(
+            STREAM_ID, FrameType.REQUEST_STREAM, Frame.NULL_BYTEBUFFER, data1Buffer, 0, 0);
+
+        assertNull(reassembler.reassemble(fragment0));
+        final Frame request = reassembler.reassemble(fragment1);
+
+        assertEquals(FrameType.REQUEST_STREAM, request.getType());
+        assertEquals(STREAM_ID, request.getStreamId());
+        assertEquals(16, Frame.Request.initialRequestN(request));
+        assertEquals(data0 + data1, TestUtil.byteToString(request.getData()));
+    }
+
+    @Test
+    public void shouldReassembleIntoViewOverFragments()
+    {
+        final PayloadReassembler reassembler = PayloadReassembler.create();
+        final Frame fragment0 = Frame.Response.from(
+            STREAM_ID, FrameType.NEXT, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("data0"),
+            FrameHeaderFlyweight.FLAGS_RESPONSE_F);
+        final Frame fragment1 = Frame.Response.from(
+            STREAM_ID, FrameType.NEXT_COMPLETE, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("d1"), 0);
+
+        assertNull(reassembler.reassemble(fragment0));
+        final Frame response = reassembler.reassemble(fragment1);
+
+        // the fragments are referenced, not copied into a new frame
+        assertFalse(response.isEncoded());
+        assertEquals(2, fragment0.refCnt());
+        assertEquals(2, fragment1.refCnt());
+        assertEquals(FrameType.NEXT_COMPLETE, response.getType());
+        assertEquals("data0d1", TestUtil.byteToString(response.getData()));
+
+        assertTrue(response.release());
+        assertEquals(1, fragment0.refCnt());
+        assertEquals(1, fragment1.refCnt());
+    }
+
+    @Test
+    public void shouldDropFragmentsOfStreamOnError()
+    {
+        final PayloadReassembler reassembler = PayloadReassembler.create();
+        final ByteBuffer dataBuffer = TestUtil.byteBufferFromUtf8String("data");
+
+        assertNull(reassembler.reassemble(
+            Frame.Response.from(STREAM_ID, FrameType.NEXT, Frame.NULL_BYTEBUFFER, dataBuffer, FrameHeaderFlyweight.FLAGS_RESPONSE_F)));
+        reassembler.reassemble(TestUtil.utf8EncodedErrorFrame(STREAM_ID, "error"));
+
+        final Frame next = Frame.Response.from(STREAM_ID, FrameType.NEXT, Frame.NULL_BYTEBUFFER, dataBuffer.duplicate(), 0);
+        assertSame(next, reassembler.reassemble(next));
+    }
+
+    @Test
+    public void shouldReferenceFragmentsOfReassembledPayload()
+    {
+        final ReplaySubject<Payload> replaySubject = ReplaySubject.create();
+        final PayloadReassembler reassembler = PayloadReassembler.with(replaySubject);
+        final Frame fragment0 = Frame.Response.from(
+            STREAM_ID, FrameType.NEXT, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("data0"), FrameHeaderFlyweight.FLAGS_RESPONSE_F);
+        final Frame fragment1 = Frame.Response.from(
+            STREAM_ID, FrameType.NEXT, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("d1"), 0);
+
+        reassembler.onNext(fragment0);
+        assertEquals(2, fragment0.refCnt());
+        reassembler.onNext(fragment1);
+
+        final CompositePayload payload = (CompositePayload) replaySubject.getValue();
+        final ByteBuffer[] dataFragments = payload.dataFragments();
+        assertEquals(2, dataFragments.length);
+        assertEquals("data0", TestUtil.byteToString(dataFragments[0]));
+        assertEquals("d1", TestUtil.byteToString(dataFragments[1]));
+        assertTrue(dataFragments[0].isReadOnly());
+        assertEquals(7, payload.dataLength());
+        assertEquals(0, payload.metadataFragments().length);
+        // the fragments were handed back once onNext returned
+        assertEquals(1, fragment0.refCnt());
+        assertEquals(1, fragment1.refCnt());
+    }
+
+    @Test
+    public void shouldCountBytesPendingReassemblyPerConnection()
+    {
+        final ReassemblyBudget budget = new ReassemblyBudget();
+        final PayloadReassembler requesterReassembler = PayloadReassembler.create(budget);
+        final PayloadReassembler responderReassembler = PayloadReassembler.create(budget);
+
+        assertNull(requesterReassembler.reassemble(Frame.Response.from(
+            STREAM_ID, FrameType.NEXT, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("data0"), FrameHeaderFlyweight.FLAGS_RESPONSE_F)));
+        assertNull(responderReassembler.reassemble(Frame.Request.from(
+            STREAM_ID + 1, FrameType.REQUEST_RESPONSE, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("d1"), 0, FrameHeaderFlyweight.FLAGS_F)));
+
+        assertEquals(7, budget.pendingBytes());
+        assertEquals(5, requesterReassembler.pendingBytes());
+
+        requesterReassembler.reassemble(Frame.Response.from(
+            STREAM_ID, FrameType.NEXT, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("d2"), 0)).release();
+        assertEquals(2, budget.pendingBytes());
+
+        responderReassembler.clear();
+        assertEquals(0, budget.pendingBytes());
+    }
+
+    @Test
+    public void shouldRejectPayloadOverStreamLimit()
+    {
+        final ReassemblyBudget budget = new ReassemblyBudget(8, 1024);
+        final PayloadReassembler reassembler = PayloadReassembler.create(budget);
+
+        assertNull(reassembler.reassemble(Frame.Response.from(
+            STREAM_ID, FrameType.NEXT, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("data0"), FrameHeaderFlyweight.FLAGS_RESPONSE_F)));
+
+        try {
+            reassembler.reassemble(Frame.Response.from(
+                STREAM_ID, FrameType.NEXT, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("data1"), FrameHeaderFlyweight.FLAGS_RESPONSE_F));
+            fail("expected the payload to be rejected");
+        } catch (RejectedException e) {
+            // expected
+        }
+
+        assertEquals(0, budget.pendingBytes());
+        final Frame next = Frame.Response.from(STREAM_ID, FrameType.NEXT, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("d2"), 0);
+        assertSame(next, reassembler.reassemble(next));
+    }
+
+    @Test
+    public void shouldRejectPayloadOverConnectionLimit()
+    {
+        final ReassemblyBudget budget = new ReassemblyBudget(1024, 8);
+        final PayloadReassembler reassembler = PayloadReassembler.create(budget);
+
+        assertNull(reassembler.reassemble(Frame.Response.from(
+            STREAM_ID, FrameType.NEXT, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("data0"), FrameHeaderFlyweight.FLAGS_RESPONSE_F)));
+
+        try {
+            reassembler.reassemble(Frame.Response.from(
+                STREAM_ID + 2, FrameType.NEXT, Frame.NULL_BYTEBUFFER, TestUtil.byteBufferFromUtf8String("data1"), FrameHeaderFlyweight.FLAGS_RESPONSE_F));
+            fail("expected the payload to be rejected");
+        } catch (RejectedException e) {
+            // expected
+        }
+
+        // the first stream is unaffected
+        assertEquals(5, budget.pendingBytes());
+    }
 }
@@ -22,17 +22,26 @@ import io.reactivesocket.Payload;
 import io.reactivesocket.ReactiveSocket;
 import io.reactivesocket.RequestHandler;
 import io.reactivesocket.TestConnection;
+import io.reactivesocket.rx.Completable;
+import io.reactivesocket.rx.Observer;
+import io.reactivesocket.util.RequestHandlerExecutor;
 import io.reactivex.Observable;
 import io.reactivex.schedulers.Schedulers;
 import io.reactivex.schedulers.TestScheduler;
 import io.reactivex.subjects.ReplaySubject;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscription;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import static io.reactivesocket.LeaseGovernor.NULL_LEASE_GOVERNOR;
@@ -303,6 +312,142 @@ public class ResponderTest
         assertEquals("3_requestB", byteToString(frames.get(6).getData()));
     }
 
+	@Test(timeout=2000)
+    public void testRequestHandledWithinCallbackIsNotRetained() throws InterruptedException {
+        ReactiveSocket reactiveSocket = Mockito.mock(ReactiveSocket.class);
+        TestConnection conn = establishConnection();
+        LatchedCompletable lc = new LatchedCompletable(1);
+        Responder.createServerResponder(conn, (setup, rs) -> new RequestHandler.Builder()
+            .withRequestResponse(request -> just(utf8EncodedPayload(byteToString(request.getData()) + " world", null)))
+            .build(),
+            NULL_LEASE_GOVERNOR, ERROR_HANDLER, lc, reactiveSocket);
+        lc.await();
+
+        ReplaySubject<Frame> cachedResponses = captureResponses(conn);
+        sendSetupFrame(conn);
+
+        // a frame wrapping a buffer the transport owns, which retain() would copy to offset 0 of a pooled buffer
+        final Frame encoded = utf8EncodedRequestFrame(1, FrameType.REQUEST_RESPONSE, "hello", 128);
+        final UnsafeBuffer transportBuffer = new UnsafeBuffer(new byte[16 + encoded.length()]);
+        encoded.encode(transportBuffer, 16);
+        final Frame request = Frame.from(transportBuffer, 16, encoded.length());
+
+        conn.toInput.send(request);
+
+        Frame response = cachedResponses.take(1).toList().toBlocking().first().get(0);
+        assertEquals("hello world", byteToString(response.getData()));
+        assertEquals(16, request.offset());
+        assertEquals(1, request.refCnt());
+    }
+
+	@Test(timeout=2000)
+    public void testRequestOfResponseNeverSubscribedIsReleased() throws InterruptedException {
+        ReactiveSocket reactiveSocket = Mockito.mock(ReactiveSocket.class);
+        AtomicReference<Observer<Frame>> input = new AtomicReference<>();
+        List<Publisher<Frame>> outputs = new ArrayList<>();
+        TestConnection conn = new TestConnection() {
+            @Override
+            public void addOutput(Publisher<Frame> o, Completable callback) {
+                // never subscribed
+                outputs.add(o);
+            }
+
+            @Override
+            public io.reactivesocket.rx.Observable<Frame> getInput() {
+                return o -> {
+                    input.set(o);
+                    o.onSubscribe(() -> {});
+                };
+            }
+        };
+        LatchedCompletable lc = new LatchedCompletable(1);
+        Responder.createServerResponder(conn, (setup, rs) -> new RequestHandler.Builder()
+            .withRequestResponse(request -> just(utf8EncodedPayload("world", null)))
+            .build(),
+            NULL_LEASE_GOVERNOR, ERROR_HANDLER, lc, reactiveSocket);
+        lc.await();
+
+        input.get().onNext(Frame.Setup.from(0, 0, 0, "UTF-8", "UTF-8", utf8EncodedPayload("", "")));
+        final Frame request = utf8EncodedRequestFrame(1, FrameType.REQUEST_RESPONSE, "hello", 128);
+        input.get().onNext(request);
+
+        // the handler was not called before the callback returned
+        assertEquals(1, outputs.size());
+        assertEquals(2, request.refCnt());
+
+        input.get().onComplete();
+        assertEquals(1, request.refCnt());
+    }
+
+	@Test(timeout=2000)
+    public void testOffloadedRequestOfResponseRequestedAfterCallbackIsReleasedOnce() throws InterruptedException {
+        ReactiveSocket reactiveSocket = Mockito.mock(ReactiveSocket.class);
+        AtomicReference<Observer<Frame>> input = new AtomicReference<>();
+        List<Publisher<Frame>> outputs = new ArrayList<>();
+        TestConnection conn = new TestConnection() {
+            @Override
+            public void addOutput(Publisher<Frame> o, Completable callback) {
+                // subscribed later, e.g. once a congested output resumes
+                outputs.add(o);
+            }
+
+            @Override
+            public io.reactivesocket.rx.Observable<Frame> getInput() {
+                return o -> {
+                    input.set(o);
+                    o.onSubscribe(() -> {});
+                };
+            }
+        };
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        RequestHandler handler = new RequestHandlerExecutor(tasks::add, 16).wrap(new RequestHandler.Builder()
+            .withRequestResponse(request -> just(utf8EncodedPayload(byteToString(request.getData()) + " world", null)))
+            .build());
+        LatchedCompletable lc = new LatchedCompletable(1);
+        Responder.createServerResponder(conn, (setup, rs) -> handler,
+            NULL_LEASE_GOVERNOR, ERROR_HANDLER, lc, reactiveSocket);
+        lc.await();
+
+        input.get().onNext(Frame.Setup.from(0, 0, 0, "UTF-8", "UTF-8", utf8EncodedPayload("", "")));
+        final Frame request = utf8EncodedRequestFrame(1, FrameType.REQUEST_RESPONSE, "hello", 128);
+        input.get().onNext(request);
+        // the transport is done with the frame once the callback returns
+        request.release();
+        assertEquals(1, request.refCnt());
+
+        List<String> responses = new ArrayList<>();
+        outputs.get(0).subscribe(new org.reactivestreams.Subscriber<Frame>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Frame frame) {
+                responses.add(byteToString(frame.getData()));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                responses.add(t.toString());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        // held by the offloaded invocation until the handler has run
+        assertEquals(1, request.refCnt());
+
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+        assertEquals(1, responses.size());
+        assertEquals("hello world", responses.get(0));
+        assertEquals(0, request.refCnt());
+    }
+
     /* **********************************************************************************************/
 
     private ReplaySubject<Frame> captureResponses(TestConnection conn) {
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.internal;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class StreamTableTest
+{
+    @Test
+    public void shouldPutGetAndRemove()
+    {
+        final StreamTable<String> table = new StreamTable<>();
+
+        assertNull(table.put(2, "two"));
+        assertNull(table.put(4, "four"));
+        assertEquals("two", table.get(2));
+        assertEquals("four", table.get(4));
+        assertNull(table.get(6));
+
+        assertEquals("two", table.put(2, "TWO"));
+        assertEquals("TWO", table.get(2));
+        assertEquals("TWO", table.putIfAbsent(2, "ignored"));
+        assertEquals("TWO", table.get(2));
+
+        assertEquals("TWO", table.remove(2));
+        assertNull(table.get(2));
+        assertNull(table.remove(2));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void shouldFindKeysProbedPastRemovedEntries()
+    {
+        // a single stripe makes every key collide into the same table
+        final StreamTable<Integer> table = new StreamTable<>(1);
+
+        for (int streamId = 1; streamId < 10_000; streamId += 2) {
+            table.put(streamId, streamId);
+            if (streamId > 100) {
+                table.remove(streamId - 100);
+            }
+        }
+
+        assertEquals(50, table.size());
+        assertEquals(50, table.values().size());
+        for (int streamId = 9_901; streamId < 10_000; streamId += 2) {
+            assertEquals(Integer.valueOf(streamId), table.get(streamId));
+        }
+        assertNull(table.get(9_797));
+    }
+
+    @Test(timeout = 10_000)
+    public void shouldLookUpWhileOtherThreadsStartAndTerminateStreams() throws Exception
+    {
+        final StreamTable<Integer> table = new StreamTable<>();
+        final int threads = 4;
+        final int streamsPerThread = 20_000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        // always mapped, lookups must never miss it whatever is rehashed around it
+        table.put(0, 0);
+
+        for (int t = 0; t < threads; t++) {
+            final int first = t;
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < streamsPerThread; i++) {
+                        final int streamId = first + i * threads + 1;
+                        table.put(streamId, streamId);
+                        if (!Integer.valueOf(streamId).equals(table.get(streamId))) {
+                            throw new AssertionError("missing stream " + streamId);
+                        }
+                        table.remove(streamId);
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        while (done.getCount() > 0) {
+            assertEquals(Integer.valueOf(0), table.get(0));
+        }
+
+        assertNull(failure.get());
+        assertEquals(Collections.singletonList(0), new ArrayList<>(table.values()));
+    }
+}
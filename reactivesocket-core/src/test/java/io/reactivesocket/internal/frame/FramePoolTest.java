@@ -0,0 +1,364 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.internal.frame;
+
+import io.reactivesocket.ConnectionSetupPayload;
+import io.reactivesocket.DefaultReactiveSocket;
+import io.reactivesocket.DuplexConnection;
+import io.reactivesocket.Frame;
+import io.reactivesocket.Payload;
+import io.reactivesocket.ReactiveSocket;
+import io.reactivesocket.RequestHandler;
+import io.reactivesocket.TestUtil;
+import io.reactivesocket.internal.Publishers;
+import io.reactivesocket.rx.Completable;
+import io.reactivesocket.rx.Observable;
+import io.reactivesocket.rx.Observer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class FramePoolTest {
+
+    @Test
+    public void shouldReleaseFrameWhenReferenceCountReachesZero() {
+        final Frame frame = Frame.RequestN.from(1, 128);
+        assertEquals(1, frame.refCnt());
+
+        assertSame(frame, frame.retain());
+        assertEquals(2, frame.refCnt());
+
+        assertFalse(frame.release());
+        assertEquals(1, frame.refCnt());
+
+        assertTrue(frame.release());
+        assertEquals(0, frame.refCnt());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailToReleaseReleasedFrame() {
+        final Frame frame = Frame.Cancel.from(1);
+        frame.release();
+        frame.release();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailToRetainReleasedFrame() {
+        final Frame frame = Frame.Cancel.from(1);
+        frame.release();
+        frame.retain();
+    }
+
+    @Test
+    public void threadSafePoolShouldReuseReleasedFrameAndBuffer() {
+        assertReuse(new ThreadSafeFramePool());
+    }
+
+    @Test
+    public void threadLocalPoolShouldReuseReleasedFrameAndBuffer() {
+        assertReuse(new ThreadLocalFramePool());
+    }
+
+    @Test
+    public void recycledFrameShouldWrapGivenBuffer() {
+        final FramePool pool = new ThreadSafeFramePool();
+        final Frame first = pool.acquireFrame(ByteBuffer.allocate(32));
+        pool.release(first);
+
+        final ByteBuffer second = ByteBuffer.allocate(32);
+        final Frame recycled = pool.acquireFrame(second);
+
+        assertSame(first, recycled);
+        assertSame(second, recycled.getByteBuffer());
+    }
+
+    @Test
+    public void shouldRetainTransportBufferUntilFinalRelease() {
+        final Frame source = Frame.RequestN.from(1, 128);
+        final UnsafeBuffer received = new UnsafeBuffer(ByteBuffer.allocate(source.length()));
+        received.putBytes(0, source.getByteBuffer(), source.length());
+        source.release();
+
+        final AtomicInteger released = new AtomicInteger();
+        final Frame frame = Frame.from(received, 0, received.capacity(), released::incrementAndGet);
+
+        // escaping the read retains the frame and its buffer instead of copying it
+        final Frame escaped = frame.retainOrCopy();
+        assertSame(frame, escaped);
+
+        frame.release();
+        assertEquals(0, released.get());
+        assertEquals(128, Frame.RequestN.requestN(escaped));
+
+        assertTrue(escaped.release());
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void shouldCopyTransportOwnedFrameOnRetain() {
+        final Frame source = Frame.RequestN.from(1, 128);
+        final UnsafeBuffer received = new UnsafeBuffer(ByteBuffer.allocate(source.length()));
+        received.putBytes(0, source.getByteBuffer(), source.length());
+        source.release();
+
+        final Frame frame = Frame.from(received, 0, received.capacity());
+        assertSame(frame, frame.retain());
+        assertEquals(2, frame.refCnt());
+
+        // the transport reuses its buffer once the callback returns
+        received.setMemory(0, received.capacity(), (byte) 0);
+        assertEquals(1, frame.getStreamId());
+        assertEquals(128, Frame.RequestN.requestN(frame));
+
+        assertFalse(frame.release());
+        assertTrue(frame.release());
+    }
+
+    @Test
+    public void shouldReportFrameCollectedWithoutRelease() throws Exception {
+        final FrameLeakDetector detector = new FrameLeakDetector();
+        trackAndDrop(detector);
+        assertEquals(1, detector.outstanding());
+
+        int leaks = 0;
+        for (int i = 0; i < 50 && leaks == 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+            leaks = detector.reportLeaks();
+        }
+
+        assertEquals(1, leaks);
+        assertEquals(1, detector.leakCount());
+        assertEquals(0, detector.outstanding());
+    }
+
+    @Test
+    public void shouldNotReportClosedTracker() throws Exception {
+        final FrameLeakDetector detector = new FrameLeakDetector();
+        detector.track(Frame.allocate(new UnsafeBuffer(ByteBuffer.allocate(16)))).close();
+        assertEquals(0, detector.outstanding());
+
+        System.gc();
+        Thread.sleep(10);
+        assertEquals(0, detector.reportLeaks());
+    }
+
+    /**
+     * Runs with the pool selected by {@code -Dio.reactivesocket.FramePool}, see the {@code pooledFrameTest} task.
+     */
+    @Test
+    public void requestResponseRoundTripShouldReuseFramesOfConfiguredPool() {
+        assumeTrue(Frame.framePool() instanceof MagazineFramePool);
+        final MagazineFramePool pool = (MagazineFramePool) Frame.framePool();
+
+        final Queue<Runnable> wire = new ArrayDeque<>();
+        final QueuedConnection clientConnection = new QueuedConnection(wire);
+        final QueuedConnection serverConnection = new QueuedConnection(wire);
+        clientConnection.peer = serverConnection;
+        serverConnection.peer = clientConnection;
+
+        final ReactiveSocket server = DefaultReactiveSocket.fromServerConnection(serverConnection, (setup, rs) ->
+            new RequestHandler.Builder()
+                .withRequestResponse(payload ->
+                    Publishers.just(TestUtil.utf8EncodedPayload(TestUtil.byteToString(payload.getData()), null)))
+                .build());
+        final ReactiveSocket client = DefaultReactiveSocket.fromClientConnection(
+            clientConnection, ConnectionSetupPayload.create("UTF-8", "UTF-8"), Throwable::printStackTrace);
+        final AtomicInteger started = new AtomicInteger();
+        server.start(new CountingCompletable(started));
+        client.start(new CountingCompletable(started));
+        drain(wire);
+        assertEquals(2, started.get());
+
+        // warm up the caches of the pool with the same round trips as measured
+        final int roundTrips = 100;
+        for (int i = 0; i < roundTrips; i++) {
+            assertEquals("hello " + i, requestResponse(client, wire, "hello " + i));
+        }
+
+        // counters from here on, the cumulative ones are read as deltas
+        final long hits = pool.hits();
+        final long misses = pool.misses();
+        final long bytesOutstanding = pool.bytesOutstanding();
+        for (int i = 0; i < roundTrips; i++) {
+            assertEquals("hello " + i, requestResponse(client, wire, "hello " + i));
+        }
+
+        // every round trip acquires a request and a response frame, all of them from the caches once warmed up
+        assertTrue(pool.hits() - hits >= 2 * roundTrips);
+        assertEquals(0, pool.misses() - misses);
+        assertEquals(bytesOutstanding, pool.bytesOutstanding());
+    }
+
+    private static String requestResponse(final ReactiveSocket client, final Queue<Runnable> wire, final String data) {
+        final AtomicReference<String> response = new AtomicReference<>();
+        client.requestResponse(TestUtil.utf8EncodedPayload(data, null)).subscribe(new Subscriber<Payload>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                s.request(1);
+            }
+
+            @Override
+            public void onNext(Payload payload) {
+                // only valid during onNext, the transport releases the frame afterwards
+                response.set(TestUtil.byteToString(payload.getData()));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                response.set(t.toString());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        drain(wire);
+        return response.get();
+    }
+
+    private static void drain(final Queue<Runnable> wire) {
+        Runnable delivery;
+        while ((delivery = wire.poll()) != null) {
+            delivery.run();
+        }
+    }
+
+    private static void trackAndDrop(final FrameLeakDetector detector) {
+        detector.track(Frame.allocate(new UnsafeBuffer(ByteBuffer.allocate(16))));
+    }
+
+    /**
+     * One side of an in-memory connection that hands written frames to the peer when the test drains the wire, and
+     * releases them once delivered, as a transport does once they are on the wire.
+     */
+    private static final class QueuedConnection implements DuplexConnection {
+        private final Queue<Runnable> wire;
+        private final List<Observer<Frame>> observers = new CopyOnWriteArrayList<>();
+        private QueuedConnection peer;
+
+        private QueuedConnection(final Queue<Runnable> wire) {
+            this.wire = wire;
+        }
+
+        @Override
+        public Observable<Frame> getInput() {
+            return o -> {
+                observers.add(o);
+                o.onSubscribe(() -> observers.remove(o));
+            };
+        }
+
+        @Override
+        public void addOutput(final Publisher<Frame> o, final Completable callback) {
+            o.subscribe(new Subscriber<Frame>() {
+                @Override
+                public void onSubscribe(final Subscription s) {
+                    s.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(final Frame frame) {
+                    wire.offer(() -> {
+                        try {
+                            peer.observers.forEach(observer -> observer.onNext(frame));
+                        } finally {
+                            frame.release();
+                        }
+                    });
+                }
+
+                @Override
+                public void onError(final Throwable t) {
+                    callback.error(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    callback.success();
+                }
+            });
+        }
+
+        @Override
+        public double availability() {
+            return 1.0;
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return Subscriber::onComplete;
+        }
+
+        @Override
+        public Publisher<Void> onClose() {
+            return s -> {};
+        }
+    }
+
+    private static final class CountingCompletable implements Completable {
+        private final AtomicInteger count;
+
+        private CountingCompletable(final AtomicInteger count) {
+            this.count = count;
+        }
+
+        @Override
+        public void success() {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void error(final Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void assertReuse(final FramePool pool) {
+        final MutableDirectBuffer buffer = pool.acquireMutableDirectBuffer(64);
+        final Frame frame = pool.acquireFrame(buffer);
+        pool.release(buffer);
+        pool.release(frame);
+
+        // steady state: acquire after release hands back the same instances, nothing is allocated
+        for (int i = 0; i < 100; i++) {
+            final MutableDirectBuffer recycledBuffer = pool.acquireMutableDirectBuffer(64);
+            final Frame recycled = pool.acquireFrame(recycledBuffer);
+            assertSame(buffer, recycledBuffer);
+            assertSame(frame, recycled);
+            assertSame(buffer.byteBuffer(), recycled.getByteBuffer());
+            pool.release(recycledBuffer);
+            pool.release(recycled);
+        }
+    }
+}
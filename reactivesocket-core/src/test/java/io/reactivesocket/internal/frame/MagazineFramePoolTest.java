@@ -0,0 +1,107 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.internal.frame;
+
+import io.reactivesocket.Frame;
+import org.agrona.MutableDirectBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MagazineFramePoolTest {
+
+    @Test
+    public void shouldRoundSizesUpToPowerOfTwoClasses() {
+        assertEquals(0, MagazineFramePool.sizeClass(0));
+        assertEquals(0, MagazineFramePool.sizeClass(MagazineFramePool.MIN_SIZE_CLASS));
+        assertEquals(1, MagazineFramePool.sizeClass(MagazineFramePool.MIN_SIZE_CLASS + 1));
+        assertEquals(128, MagazineFramePool.sizeOfClass(MagazineFramePool.sizeClass(100)));
+        assertEquals(MagazineFramePool.MAX_SIZE_CLASS,
+                     MagazineFramePool.sizeOfClass(MagazineFramePool.sizeClass(MagazineFramePool.MAX_SIZE_CLASS)));
+    }
+
+    @Test
+    public void shouldAcquireDirectBufferLimitedToRequestedSize() {
+        final MagazineFramePool pool = new MagazineFramePool();
+        final MutableDirectBuffer buffer = pool.acquireMutableDirectBuffer(100);
+
+        assertTrue(buffer.byteBuffer().isDirect());
+        assertEquals(128, buffer.capacity());
+        assertEquals(100, buffer.byteBuffer().remaining());
+        assertEquals(128, pool.bytesOutstanding());
+
+        pool.release(buffer);
+        assertEquals(0, pool.bytesOutstanding());
+    }
+
+    @Test
+    public void shouldReuseBufferOnSameThread() {
+        final MagazineFramePool pool = new MagazineFramePool();
+        final Frame frame = pool.acquireFrame(200);
+        final MutableDirectBuffer buffer = pool.acquireMutableDirectBuffer(256);
+        pool.release(buffer);
+        pool.release(frame);
+
+        final long misses = pool.misses();
+        assertSame(buffer, pool.acquireMutableDirectBuffer(250));
+        assertSame(frame, pool.acquireFrame(buffer));
+        assertEquals(misses, pool.misses());
+        assertEquals(2, pool.hits());
+    }
+
+    @Test
+    public void shouldNotPoolBuffersAboveLargestSizeClass() {
+        final MagazineFramePool pool = new MagazineFramePool();
+        final MutableDirectBuffer buffer = pool.acquireMutableDirectBuffer(MagazineFramePool.MAX_SIZE_CLASS + 1);
+        pool.release(buffer);
+
+        final MutableDirectBuffer next = pool.acquireMutableDirectBuffer(MagazineFramePool.MAX_SIZE_CLASS + 1);
+        assertTrue(buffer != next);
+        assertEquals(2, pool.misses());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldReturnBuffersReleasedOnAnotherThread() throws Exception {
+        final int magazineSize = 4;
+        final MagazineFramePool pool = new MagazineFramePool(magazineSize, 8);
+
+        final List<MutableDirectBuffer> acquired = new ArrayList<>();
+        for (int i = 0; i < magazineSize * 3; i++) {
+            acquired.add(pool.acquireMutableDirectBuffer(64));
+        }
+
+        final Thread releaser = new Thread(() -> acquired.forEach(pool::release));
+        releaser.start();
+        releaser.join();
+
+        // the releasing thread spilled its full magazines to the depot, the rest is stuck in its own magazine
+        final Set<MutableDirectBuffer> reacquired = new HashSet<>();
+        final long hitsBefore = pool.hits();
+        for (int i = 0; i < magazineSize * 2; i++) {
+            reacquired.add(pool.acquireMutableDirectBuffer(64));
+        }
+
+        assertEquals(magazineSize * 2, pool.hits() - hitsBefore);
+        assertTrue(acquired.containsAll(reacquired));
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.util;
+
+import io.reactivesocket.Frame;
+import io.reactivesocket.FrameType;
+import io.reactivesocket.Payload;
+import io.reactivesocket.RequestHandler;
+import io.reactivesocket.TestUtil;
+import io.reactivesocket.exceptions.RejectedException;
+import io.reactivesocket.internal.Publishers;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RequestHandlerExecutorTest
+{
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final List<String> invoked = new ArrayList<>();
+    private final RequestHandler echo = new RequestHandler.Builder()
+        .withRequestResponse(payload ->
+        {
+            invoked.add(TestUtil.byteToString(payload.getData().duplicate()));
+            return Publishers.just(payload);
+        })
+        .build();
+
+    @Test
+    public void shouldInvokeHandlerOnExecutor()
+    {
+        final RequestHandlerExecutor executor = new RequestHandlerExecutor(tasks::add, 16);
+        final RequestHandler handler = executor.wrap(echo);
+
+        final Payload request = TestUtil.utf8EncodedPayload("hello", null);
+        final TestSubscriber<Payload> ts = new TestSubscriber<>();
+        handler.handleRequestResponse(request).subscribe(ts);
+
+        assertTrue(invoked.isEmpty());
+        assertEquals(1, executor.getQueueDepth());
+
+        runTasks();
+        ts.assertNoErrors();
+        ts.assertValue(request);
+        assertEquals(0, executor.getQueueDepth());
+    }
+
+    @Test
+    public void shouldInvokeHandlersOfConnectionInOrder()
+    {
+        final RequestHandler handler = new RequestHandlerExecutor(tasks::add, 16).wrap(echo);
+
+        for (final String request : Arrays.asList("a", "b", "c"))
+        {
+            handler.handleRequestResponse(TestUtil.utf8EncodedPayload(request, null))
+                .subscribe(new TestSubscriber<>());
+        }
+        // one task per connection, however many requests it has queued
+        assertEquals(1, tasks.size());
+
+        runTasks();
+        assertEquals(Arrays.asList("a", "b", "c"), invoked);
+    }
+
+    @Test
+    public void shouldRejectWhenConnectionQueueIsFull()
+    {
+        final RequestHandlerExecutor executor = new RequestHandlerExecutor(tasks::add, 1);
+        final RequestHandler handler = executor.wrap(echo);
+
+        handler.handleRequestResponse(TestUtil.utf8EncodedPayload("a", null)).subscribe(new TestSubscriber<>());
+        final TestSubscriber<Payload> rejected = new TestSubscriber<>();
+        handler.handleRequestResponse(TestUtil.utf8EncodedPayload("b", null)).subscribe(rejected);
+
+        rejected.assertError(RejectedException.class);
+        assertEquals(1, executor.getRejected());
+
+        runTasks();
+        assertEquals(Arrays.asList("a"), invoked);
+    }
+
+    @Test
+    public void shouldQueueConnectionsIndependently()
+    {
+        final RequestHandlerExecutor executor = new RequestHandlerExecutor(tasks::add, 1);
+
+        executor.wrap(echo).handleRequestResponse(TestUtil.utf8EncodedPayload("a", null))
+            .subscribe(new TestSubscriber<>());
+        final TestSubscriber<Payload> ts = new TestSubscriber<>();
+        executor.wrap(echo).handleRequestResponse(TestUtil.utf8EncodedPayload("b", null)).subscribe(ts);
+
+        assertEquals(2, executor.getQueueDepth());
+        runTasks();
+        ts.assertNoErrors();
+        assertEquals(Arrays.asList("a", "b"), invoked);
+    }
+
+    @Test
+    public void shouldNotRetainRequestOfPublisherNeverSubscribed()
+    {
+        final RequestHandler handler = new RequestHandlerExecutor(tasks::add, 16).wrap(echo);
+        final Frame request = TestUtil.utf8EncodedRequestFrame(1, FrameType.REQUEST_RESPONSE, "a", 1);
+
+        handler.handleRequestResponse(request);
+        assertEquals(1, request.refCnt());
+        assertTrue(tasks.isEmpty());
+        request.release();
+    }
+
+    @Test
+    public void shouldRetainRequestFromSubscriptionUntilHandlerIsInvoked()
+    {
+        final RequestHandler handler = new RequestHandlerExecutor(tasks::add, 16).wrap(echo);
+        final Frame request = TestUtil.utf8EncodedRequestFrame(1, FrameType.REQUEST_RESPONSE, "a", 1);
+
+        handler.handleRequestResponse(request).subscribe(new TestSubscriber<>());
+        assertEquals(2, request.refCnt());
+
+        runTasks();
+        assertEquals(1, request.refCnt());
+        request.release();
+    }
+
+    private void runTasks()
+    {
+        Runnable task;
+        while ((task = tasks.poll()) != null)
+        {
+            task.run();
+        }
+    }
+}
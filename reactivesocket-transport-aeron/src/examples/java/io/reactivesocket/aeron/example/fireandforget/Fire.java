@@ -22,7 +22,6 @@ import io.reactivesocket.Payload;
 import io.reactivesocket.ReactiveSocket;
 import io.reactivesocket.aeron.client.AeronClientDuplexConnection;
 import io.reactivesocket.aeron.client.AeronClientDuplexConnectionFactory;
-import io.reactivesocket.aeron.client.FrameHolder;
 import io.reactivesocket.util.Unsafe;
 import org.HdrHistogram.Recorder;
 import org.reactivestreams.Publisher;
@@ -75,10 +74,6 @@ public class Fire {
             .computation()
             .createWorker()
             .schedulePeriodically(() -> {
-                System.out.println("---- FRAME HOLDER HISTO ----");
-                FrameHolder.histogram.getIntervalHistogram().outputPercentileDistribution(System.out, 5, 1000.0, false);
-                System.out.println("---- FRAME HOLDER HISTO ----");
-
                 System.out.println("---- Fire / Forget HISTO ----");
                 histogram.getIntervalHistogram().outputPercentileDistribution(System.out, 5, 1000.0, false);
                 System.out.println("---- Fire / Forget HISTO ----");
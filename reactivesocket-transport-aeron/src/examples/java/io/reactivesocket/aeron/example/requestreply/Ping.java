@@ -21,7 +21,6 @@ import io.reactivesocket.Payload;
 import io.reactivesocket.ReactiveSocket;
 import io.reactivesocket.aeron.client.AeronClientDuplexConnection;
 import io.reactivesocket.aeron.client.AeronClientDuplexConnectionFactory;
-import io.reactivesocket.aeron.client.FrameHolder;
 import io.reactivesocket.util.Unsafe;
 import org.HdrHistogram.Recorder;
 import org.reactivestreams.Publisher;
@@ -77,10 +76,6 @@ public class Ping {
             .computation()
             .createWorker()
             .schedulePeriodically(() -> {
-                System.out.println("---- FRAME HOLDER HISTO ----");
-                FrameHolder.histogram.getIntervalHistogram().outputPercentileDistribution(System.out, 5, 1000.0, false);
-                System.out.println("---- FRAME HOLDER HISTO ----");
-
                 System.out.println("---- PING/ PONG HISTO ----");
                 histogram.getIntervalHistogram().outputPercentileDistribution(System.out, 5, 1000.0, false);
                 System.out.println("---- PING/ PONG HISTO ----");
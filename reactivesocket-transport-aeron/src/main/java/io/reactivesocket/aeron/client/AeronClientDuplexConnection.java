@@ -18,34 +18,77 @@ package io.reactivesocket.aeron.client;
 import io.aeron.Publication;
 import io.reactivesocket.DuplexConnection;
 import io.reactivesocket.Frame;
+import io.reactivesocket.aeron.internal.AeronUtil;
+import io.reactivesocket.aeron.internal.FrameBatch;
 import io.reactivesocket.aeron.internal.Loggable;
+import io.reactivesocket.aeron.internal.MessageType;
 import io.reactivesocket.aeron.internal.NotConnectedException;
 import io.reactivesocket.exceptions.TransportException;
 import io.reactivesocket.internal.EmptySubject;
 import io.reactivesocket.rx.Completable;
-import io.reactivesocket.rx.Disposable;
 import io.reactivesocket.rx.Observable;
 import io.reactivesocket.rx.Observer;
-import org.agrona.concurrent.AbstractConcurrentArrayQueue;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * A client connection over Aeron.
+ * <p>
+ * Outputs are sent by the client poller thread. Every output publisher is requested at most {@link #OUTPUT_BATCH}
+ * frames at a time, and more only as its frames are accepted by the publication. While the publication is back
+ * pressured the frames stay queued on the output and no more are requested, so the subscription is only ever asked
+ * for what Aeron can take and application threads never wait for the publication.
+ * <p>
+ * Every stream writes through an output of its own, so the frames of all outputs of the connection that are ready to
+ * send are gathered into one {@link FrameBatch} when batching, see {@link #send()}.
+ * <p>
+ * The input supports a single observer, frames are dispatched to it from the poller thread and wrap the polled
+ * buffer, see {@link DuplexConnection#getInput()}.
+ */
 public class AeronClientDuplexConnection implements DuplexConnection, Loggable {
 
+    /**
+     * Most frames requested from an output publisher at once.
+     */
+    public static final int OUTPUT_BATCH = 32;
+
+    /*
+     * Most frames sent in one claim, a batch of the smallest frames, e.g. REQUEST_N or CANCEL, stops here before
+     * reaching FrameBatch.MAX_LENGTH
+     */
+    private static final int MAX_BATCH_FRAMES = 4 * OUTPUT_BATCH;
+
     private final Publication publication;
-    private final CopyOnWriteArrayList<Observer<Frame>> subjects;
-    private final AbstractConcurrentArrayQueue<FrameHolder> frameSendQueue;
+    private final Queue<OutputSubscriber> readyOutputs;
+    private final AtomicReference<Observer<Frame>> input = new AtomicReference<>();
     private final EmptySubject closeSubject = new EmptySubject();
 
-    public AeronClientDuplexConnection(
-        Publication publication,
-        AbstractConcurrentArrayQueue<FrameHolder> frameSendQueue) {
+    // only accessed by the poller: outputs handed over to send, and frames taken from them and not accepted by the
+    // publication yet
+    private final ArrayDeque<OutputSubscriber> sending = new ArrayDeque<>();
+    private final Frame[] unsent = new Frame[MAX_BATCH_FRAMES];
+    private final OutputSubscriber[] unsentOutputs = new OutputSubscriber[MAX_BATCH_FRAMES];
+    private int unsentCount;
+    private final AeronUtil.BufferFiller unsentEncoder = this::encodeUnsent;
+
+    /**
+     * @param readyOutputs where outputs with frames to send are queued for the poller, which hands them back with
+     * {@link #addSending(OutputSubscriber)}
+     */
+    public AeronClientDuplexConnection(Publication publication, Queue<OutputSubscriber> readyOutputs) {
         this.publication = publication;
-        this.subjects = new CopyOnWriteArrayList<>();
-        this.frameSendQueue = frameSendQueue;
+        this.readyOutputs = readyOutputs;
     }
 
     @Override
@@ -54,65 +97,42 @@ public class AeronClientDuplexConnection implements DuplexConnection, Loggable {
             trace("getting input for publication session id {} ", publication.sessionId());
         }
 
-        return new Observable<Frame>() {
-            public void subscribe(Observer<Frame> o) {
-                o.onSubscribe(new Disposable() {
-                    @Override
-                    public void dispose() {
-                        if (isTraceEnabled()) {
-                            trace("removing Observer for publication with session id {} ", publication.sessionId());
-                        }
-
-                        subjects.removeIf(s -> s == o);
-                    }
-                });
-
-                subjects.add(o);
+        return o -> {
+            if (!input.compareAndSet(null, o)) {
+                o.onError(new IllegalStateException("The input of an Aeron connection supports one observer only"));
+                return;
             }
-        };
-    }
-
-    @Override
-    public void addOutput(Publisher<Frame> o, Completable callback) {
-        o
-            .subscribe(new Subscriber<Frame>() {
-                private Subscription subscription;
-
-                @Override
-                public void onSubscribe(Subscription s) {
-                    this.subscription = s;
-                    s.request(128);
 
+            o.onSubscribe(() -> {
+                if (isTraceEnabled()) {
+                    trace("removing Observer for publication with session id {} ", publication.sessionId());
                 }
 
-                @Override
-                public void onNext(Frame frame) {
-                    if (isTraceEnabled()) {
-                        trace("onNext subscription => {} and frame => {}", subscription.toString(), frame.toString());
-                    }
+                input.compareAndSet(o, null);
+            });
+        };
+    }
 
-                    final FrameHolder fh = FrameHolder.get(frame, publication, subscription);
-                    boolean offer;
-                    do {
-                        offer = frameSendQueue.offer(fh);
-                    } while (!offer);
-                }
+    /**
+     * Dispatches a frame polled for this connection to the input observer, the frame is only valid during the call.
+     */
+    void onFrame(DirectBuffer buffer, int offset, int length) {
+        final Observer<Frame> o = input.get();
+        if (o == null) {
+            return;
+        }
 
-                @Override
-                public void onError(Throwable t) {
-                    if (t instanceof NotConnectedException) {
-                        callback.error(new TransportException(t));
-                        subscription.cancel();
-                    } else {
-                        callback.error(t);
-                    }
-                }
+        final Frame frame = Frame.from(buffer, offset, length);
+        try {
+            o.onNext(frame);
+        } finally {
+            frame.release();
+        }
+    }
 
-                @Override
-                public void onComplete() {
-                    callback.success();
-                }
-            });
+    @Override
+    public void addOutput(Publisher<Frame> o, Completable callback) {
+        o.subscribe(new OutputSubscriber(callback));
     }
 
     @Override
@@ -133,10 +153,6 @@ public class AeronClientDuplexConnection implements DuplexConnection, Loggable {
         return closeSubject;
     }
 
-    public CopyOnWriteArrayList<Observer<Frame>> getSubjects() {
-        return subjects;
-    }
-
     public String toString() {
         if (publication == null) {
             return  getClass().getName() + ":publication=null";
@@ -147,4 +163,277 @@ public class AeronClientDuplexConnection implements DuplexConnection, Loggable {
             "streamId=" + publication.streamId() + "," +
             "sessionId=" + publication.sessionId() + "]";
     }
+
+    /**
+     * Hands over an output taken from the ready outputs. Called by the poller.
+     *
+     * @return true if the connection had no outputs to send yet, it is then to be {@link #send() sent}
+     */
+    boolean addSending(OutputSubscriber output) {
+        sending.offer(output);
+        return sending.size() == 1;
+    }
+
+    /**
+     * Sends the pending frames of the outputs handed over, batching frames of different outputs into one claim, until
+     * the publication is back pressured. Called by the poller.
+     *
+     * @return false if frames are left to send, the outputs stay with the connection and it is to be sent again later
+     */
+    boolean send() {
+        try {
+            while (unsentCount > 0 || takeUnsent()) {
+                final long result = sendUnsent();
+                if (result >= 0) {
+                    releaseUnsent();
+                } else if (Publication.BACK_PRESSURED == result || Publication.ADMIN_ACTION == result) {
+                    for (OutputSubscriber output : sending) {
+                        if (output.error == null) {
+                            output.requestMore();
+                        }
+                    }
+                    return false;
+                } else {
+                    failSending(new TransportException(new NotConnectedException()));
+                }
+            }
+        } catch (Throwable t) {
+            // neither the poller nor the outputs may be left broken by a failing publication or publisher
+            failSending(t);
+        }
+
+        OutputSubscriber output;
+        while ((output = sending.poll()) != null) {
+            output.finishSend();
+        }
+        return true;
+    }
+
+    private void failSending(Throwable t) {
+        releaseUnsent();
+        for (OutputSubscriber output : sending) {
+            if (output.error == null) {
+                output.error = t;
+            }
+        }
+    }
+
+    /**
+     * Takes the frames to send next from the pending ones of the outputs, as many as fit in a batch if batching and
+     * one otherwise.
+     *
+     * @return false if there are none
+     */
+    private boolean takeUnsent() {
+        int batchLength = FrameBatch.HEADER_LENGTH;
+        for (OutputSubscriber output : sending) {
+            if (output.done || output.error != null) {
+                continue;
+            }
+            Frame frame;
+            while ((frame = output.pending.peek()) != null) {
+                batchLength += FrameBatch.encodedLength(frame);
+                if (unsentCount > 0
+                    && (!FrameBatch.ENABLED || batchLength > FrameBatch.MAX_LENGTH || unsentCount == unsent.length)) {
+                    return true;
+                }
+                unsent[unsentCount] = output.pending.poll();
+                unsentOutputs[unsentCount++] = output;
+                output.unsentCount++;
+            }
+        }
+        return unsentCount > 0;
+    }
+
+    private long sendUnsent() {
+        if (publication.isClosed()) {
+            return Publication.NOT_CONNECTED;
+        }
+
+        int length = BitUtil.SIZE_OF_INT + unsent[0].length();
+        if (unsentCount > 1) {
+            length = FrameBatch.HEADER_LENGTH;
+            for (int i = 0; i < unsentCount; i++) {
+                length += FrameBatch.encodedLength(unsent[i]);
+            }
+        }
+        return AeronUtil.tryClaimOrOfferOnce(publication, unsentEncoder, length);
+    }
+
+    private void encodeUnsent(int offset, MutableDirectBuffer buffer) {
+        if (isTraceEnabled()) {
+            for (int i = 0; i < unsentCount; i++) {
+                trace("Sending Frame => {} on Aeron", unsent[i].toString());
+            }
+        }
+
+        if (unsentCount == 1) {
+            buffer.putShort(offset, (short) 0);
+            buffer.putShort(offset + BitUtil.SIZE_OF_SHORT, (short) MessageType.FRAME.getEncodedType());
+            unsent[0].encode(buffer, offset + BitUtil.SIZE_OF_INT);
+        } else {
+            FrameBatch.encodeHeader(buffer, offset, unsentCount);
+            int frameOffset = offset + FrameBatch.HEADER_LENGTH;
+            for (int i = 0; i < unsentCount; i++) {
+                frameOffset = FrameBatch.encodeFrame(buffer, frameOffset, unsent[i]);
+            }
+        }
+    }
+
+    private void releaseUnsent() {
+        for (int i = 0; i < unsentCount; i++) {
+            unsent[i].release();
+            unsent[i] = null;
+            unsentOutputs[i].unsentCount--;
+            unsentOutputs[i] = null;
+        }
+        unsentCount = 0;
+    }
+
+    /**
+     * Queues the frames of an output until the poller sends them with those of the other outputs of the connection.
+     * The publisher only calls into it to hand over frames and to terminate it, everything else happens on the poller
+     * thread.
+     */
+    final class OutputSubscriber implements Subscriber<Frame> {
+        private final Completable callback;
+        // frames received and not sent yet, never more than requested
+        private final OneToOneConcurrentArrayQueue<Frame> pending = new OneToOneConcurrentArrayQueue<>(OUTPUT_BATCH);
+        // frames requested and not received yet
+        private final AtomicInteger outstanding = new AtomicInteger();
+        // true while queued on, or being sent by, the poller
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+        // only accessed by the poller, frames taken from pending and not accepted by the publication yet
+        private int unsentCount;
+        private boolean done;
+
+        private OutputSubscriber(Completable callback) {
+            this.callback = callback;
+        }
+
+        AeronClientDuplexConnection connection() {
+            return AeronClientDuplexConnection.this;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            outstanding.set(OUTPUT_BATCH);
+            s.request(OUTPUT_BATCH);
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            if (isTraceEnabled()) {
+                trace("onNext subscription => {} and frame => {}", subscription.toString(), frame.toString());
+            }
+
+            if (!pending.offer(frame)) {
+                frame.release();
+                error = new IllegalStateException("Received more frames than requested");
+            }
+            outstanding.decrementAndGet();
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t instanceof NotConnectedException ? new TransportException(t) : t;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true) && !readyOutputs.offer(this)) {
+                // stays scheduled, so the poller never sees this output again
+                Frame frame;
+                while ((frame = pending.poll()) != null) {
+                    frame.release();
+                }
+                subscription.cancel();
+                callback.error(new IllegalStateException("Too many outputs to send, increase "
+                                                         + "reactivesocket.aeron.framesSendQueueSize"));
+            }
+        }
+
+        /**
+         * Terminates the output, or requests more, once the connection has sent its pending frames. Called by the
+         * poller.
+         */
+        private void finishSend() {
+            if (!done) {
+                try {
+                    final Throwable e = error;
+                    if (e != null) {
+                        terminate();
+                        callback.error(e);
+                    } else if (completed && pending.isEmpty()) {
+                        terminate();
+                        callback.success();
+                    } else {
+                        requestMore();
+                    }
+                } catch (Throwable t) {
+                    // the poller may not be left broken by a failing publisher or callback
+                    fail(t);
+                }
+            }
+
+            scheduled.set(false);
+            // frames or signals that arrived after the last check have seen this as scheduled and left it to us
+            if (hasWork()) {
+                schedule();
+            }
+        }
+
+        private void fail(Throwable t) {
+            if (done) {
+                // failed while terminating, the callback may have been called already
+                error("Output failed while terminating", t);
+                return;
+            }
+
+            error = t;
+            try {
+                terminate();
+                callback.error(t);
+            } catch (Throwable e) {
+                error("Failed to terminate output", e);
+            }
+        }
+
+        private boolean hasWork() {
+            return !done && (!pending.isEmpty() || completed || error != null);
+        }
+
+        /**
+         * Grants the publisher the credits freed by frames sent, once they make up at least half a batch.
+         */
+        private void requestMore() {
+            final int credits = OUTPUT_BATCH - outstanding.get() - pending.size() - unsentCount;
+            if (credits >= OUTPUT_BATCH / 2) {
+                outstanding.addAndGet(credits);
+                subscription.request(credits);
+            }
+        }
+
+        private void terminate() {
+            done = true;
+            Frame frame;
+            while ((frame = pending.poll()) != null) {
+                frame.release();
+            }
+            if (error != null && subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
 }
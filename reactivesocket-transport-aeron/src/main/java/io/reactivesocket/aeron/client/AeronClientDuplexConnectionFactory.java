@@ -15,13 +15,12 @@
  */
 package io.reactivesocket.aeron.client;
 
-import io.reactivesocket.Frame;
 import io.reactivesocket.aeron.internal.AeronUtil;
 import io.reactivesocket.aeron.internal.Constants;
+import io.reactivesocket.aeron.internal.FrameBatch;
 import io.reactivesocket.aeron.internal.Loggable;
 import io.reactivesocket.aeron.internal.MessageType;
 import io.reactivesocket.internal.Publishers;
-import io.reactivesocket.rx.Observer;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import io.aeron.Publication;
@@ -29,15 +28,18 @@ import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import org.agrona.BitUtil;
 import org.agrona.DirectBuffer;
-import org.agrona.concurrent.ManyToManyConcurrentArrayQueue;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
 import org.agrona.concurrent.UnsafeBuffer;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import static io.reactivesocket.aeron.internal.Constants.SERVER_STREAM_ID;
@@ -45,14 +47,24 @@ import static io.reactivesocket.aeron.internal.Constants.SERVER_STREAM_ID;
 public final class AeronClientDuplexConnectionFactory implements Loggable {
     private static final AeronClientDuplexConnectionFactory instance = new AeronClientDuplexConnectionFactory();
 
+    private static final int MAX_IPC_STREAM_ID_ATTEMPTS = 16;
+
     private static ThreadLocal<UnsafeBuffer> buffers = ThreadLocal.withInitial(() -> new UnsafeBuffer(Constants.EMTPY));
 
     private final ConcurrentSkipListMap<Integer, AeronClientDuplexConnection> connections;
 
-    private final ManyToManyConcurrentArrayQueue<FrameHolder> frameSendQueue = new ManyToManyConcurrentArrayQueue<>(Constants.QUEUE_SIZE);
+    // outputs with frames to send, each queued once until the poller has sent them
+    private final ManyToOneConcurrentArrayQueue<AeronClientDuplexConnection.OutputSubscriber> readyOutputs
+        = new ManyToOneConcurrentArrayQueue<>(Constants.QUEUE_SIZE);
+
+    // connections with outputs to send, including those held back by their publication, only accessed by the poller
+    private final ArrayDeque<AeronClientDuplexConnection> sendingConnections = new ArrayDeque<>();
 
     private final ConcurrentHashMap<Integer, EstablishConnectionHolder> establishConnectionHolders;
 
+    // stream ids the IPC connections of this client send on
+    private final Set<Integer> ipcStreamIds = ConcurrentHashMap.newKeySet();
+
     private final ClientAeronManager manager;
 
     private AeronClientDuplexConnectionFactory() {
@@ -60,32 +72,33 @@ public final class AeronClientDuplexConnectionFactory implements Loggable {
         establishConnectionHolders = new ConcurrentHashMap<>();
         manager = ClientAeronManager.getInstance();
 
-        manager.addClientAction(() -> {
-            final boolean traceEnabled = isTraceEnabled();
-            frameSendQueue
-                .drain(fh -> {
-                    final Frame frame = fh.getFrame();
-                    final ByteBuffer byteBuffer = frame.getByteBuffer();
-                    final Publication publication = fh.getPublication();
-                    final int length = frame.length() + BitUtil.SIZE_OF_INT;
-
-                    // Can release the FrameHolder at this point as we got everything we need
-                    fh.release();
-
-                    if (!publication.isClosed()) {
-                        AeronUtil
-                                .tryClaimOrOffer(publication, (offset, buffer) -> {
-                                    if (traceEnabled) {
-                                        trace("Sending Frame => {} on Aeron", frame.toString());
-                                    }
-
-                                    buffer.putShort(offset, (short) 0);
-                                    buffer.putShort(offset + BitUtil.SIZE_OF_SHORT, (short) MessageType.FRAME.getEncodedType());
-                                    buffer.putBytes(offset + BitUtil.SIZE_OF_INT, byteBuffer, frame.offset(), frame.length());
-                                }, length);
-                    }
-                });
-        });
+        manager.addClientAction(this::sendOutputs);
+    }
+
+    /**
+     * Sends the frames of the outputs that have any, each connection batching those of all its outputs. Connections
+     * whose publication is back pressured are retried on the next call. Called by the poller.
+     */
+    private int sendOutputs() {
+        int workCount = 0;
+        AeronClientDuplexConnection.OutputSubscriber output;
+        while ((output = readyOutputs.poll()) != null) {
+            workCount++;
+            AeronClientDuplexConnection connection = output.connection();
+            if (connection.addSending(output)) {
+                sendingConnections.offer(connection);
+            }
+        }
+
+        for (int i = sendingConnections.size(); i > 0; i--) {
+            AeronClientDuplexConnection connection = sendingConnections.poll();
+            if (connection.send()) {
+                workCount++;
+            } else {
+                sendingConnections.offer(connection);
+            }
+        }
+        return workCount;
     }
 
     public static AeronClientDuplexConnectionFactory getInstance() {
@@ -120,7 +133,9 @@ public final class AeronClientDuplexConnectionFactory implements Loggable {
     }
 
     public Publisher<AeronClientDuplexConnection> createAeronClientDuplexConnection(SocketAddress socketAddress) {
-        if (socketAddress instanceof InetSocketAddress) {
+        if (socketAddress instanceof AeronIpcAddress) {
+            return createIpcConnection();
+        } else if (socketAddress instanceof InetSocketAddress) {
             return createUDPConnection((InetSocketAddress) socketAddress);
         } else {
             throw new RuntimeException("unknown socket address type => " + socketAddress.getClass());
@@ -141,6 +156,94 @@ public final class AeronClientDuplexConnectionFactory implements Loggable {
         };
     }
 
+    /**
+     * Connects through the IPC log buffers of the media driver. IPC publications to a stream share one session, so
+     * unlike over UDP the session id cannot tell connections apart on the server's stream. Every connection sends on
+     * a stream of its own instead, which the server is asked to subscribe to, and receives on the stream above it.
+     */
+    Publisher<AeronClientDuplexConnection> createIpcConnection() {
+        final Publication publication = addIpcPublication();
+        final int requestStreamId = publication.streamId();
+        final int responseStreamId = requestStreamId + 1;
+        manager.addSubscription(Constants.IPC_CHANNEL, responseStreamId, this::fragmentHandler);
+
+        return subscriber -> {
+            EstablishConnectionHolder establishConnectionHolder = new EstablishConnectionHolder(publication, subscriber);
+            establishConnectionHolders.putIfAbsent(publication.sessionId(), establishConnectionHolder);
+
+            try {
+                requestIpcStream(requestStreamId);
+                establishConnection(publication);
+            } catch (Throwable t) {
+                establishConnectionHolders.remove(publication.sessionId());
+                manager.removeSubscription(Constants.IPC_CHANNEL, responseStreamId);
+                publication.close();
+                ipcStreamIds.remove(requestStreamId);
+                subscriber.onError(t);
+            }
+        };
+    }
+
+    /**
+     * Adds a publication on a stream that no other IPC connection sends on. Stream ids in use by this client are
+     * skipped, and a publication that has already advanced was sent on by a client in another process.
+     */
+    private Publication addIpcPublication() {
+        for (int attempt = 0; attempt < MAX_IPC_STREAM_ID_ATTEMPTS; attempt++) {
+            final int requestStreamId = nextIpcStreamId();
+            if (!ipcStreamIds.add(requestStreamId)) {
+                continue;
+            }
+
+            debug("Creating a publication to channel => {} and stream id => {}", Constants.IPC_CHANNEL, requestStreamId);
+            final Publication publication = manager.getAeron().addPublication(Constants.IPC_CHANNEL, requestStreamId);
+            if (publication.position() == 0) {
+                return publication;
+            }
+
+            debug("Stream id => {} is in use by another client", requestStreamId);
+            publication.close();
+            ipcStreamIds.remove(requestStreamId);
+        }
+
+        throw new RuntimeException("No free IPC stream id found after " + MAX_IPC_STREAM_ID_ATTEMPTS + " attempts");
+    }
+
+    private static int nextIpcStreamId() {
+        // even, so the response stream above it is free as well
+        return ThreadLocalRandom.current().nextInt(Constants.IPC_CONNECTION_MIN_STREAM_ID, Integer.MAX_VALUE) & ~1;
+    }
+
+    /**
+     * Asks the server on the IPC stream it subscribes to to subscribe to {@code requestStreamId}. Until the
+     * publication is connected to the server's subscription, or while it is back pressured, the calling thread idles
+     * between attempts rather than spinning.
+     */
+    private void requestIpcStream(int requestStreamId) {
+        try (Publication serverPublication = manager.getAeron().addPublication(Constants.IPC_CHANNEL, SERVER_STREAM_ID)) {
+            final IdleStrategy idleStrategy = new BackoffIdleStrategy(10, 10, TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(1));
+            final long start = System.nanoTime();
+            for (;;) {
+                final long result = AeronUtil.tryClaimOrOfferOnce(serverPublication, (offset, buffer) -> {
+                    buffer.putShort(offset, (short) 0);
+                    buffer.putShort(offset + BitUtil.SIZE_OF_SHORT, (short) MessageType.IPC_CONNECT_REQUEST.getEncodedType());
+                    buffer.putInt(offset + BitUtil.SIZE_OF_INT, requestStreamId);
+                }, 2 * BitUtil.SIZE_OF_INT);
+                if (result >= 0) {
+                    return;
+                } else if (result == Publication.CLOSED) {
+                    throw new RuntimeException("The publication to the IPC server on stream id => " + SERVER_STREAM_ID + " is closed");
+                }
+
+                // the publication is connected once the driver has told it about the server's subscription
+                if (System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(Constants.CLIENT_ESTABLISH_CONNECT_TIMEOUT_MS)) {
+                    throw new RuntimeException("No IPC server found on stream id => " + SERVER_STREAM_ID);
+                }
+                idleStrategy.idle(0);
+            }
+        }
+    }
+
     /**
      * Establishes a connection between the client and server. Waits for 30 seconds before throwing a exception.
      */
@@ -187,21 +290,14 @@ public final class AeronClientDuplexConnectionFactory implements Loggable {
             if (messageType == MessageType.FRAME) {
                 AeronClientDuplexConnection aeronClientDuplexConnection = connections.get(header.sessionId());
                 if (aeronClientDuplexConnection != null) {
-                    CopyOnWriteArrayList<Observer<Frame>> subjects = aeronClientDuplexConnection.getSubjects();
-                    if (!subjects.isEmpty()) {
-                        //TODO think about how to recycle these, hard because could be handed to another thread I think?
-                        final ByteBuffer bytes = ByteBuffer.allocate(length);
-                        buffer.getBytes(BitUtil.SIZE_OF_INT + offset, bytes, length);
-                        final Frame frame = Frame.from(bytes);
-                        int i = 0;
-                        final int size = subjects.size();
-                        do {
-                            Observer<Frame> frameObserver = subjects.get(i);
-                            frameObserver.onNext(frame);
-
-                            i++;
-                        } while (i < size);
-                    }
+                    aeronClientDuplexConnection.onFrame(buffer, offset + BitUtil.SIZE_OF_INT, length - BitUtil.SIZE_OF_INT);
+                } else {
+                    debug("no connection found for Aeron Session Id {}", header.sessionId());
+                }
+            } else if (messageType == MessageType.FRAME_BATCH) {
+                AeronClientDuplexConnection aeronClientDuplexConnection = connections.get(header.sessionId());
+                if (aeronClientDuplexConnection != null) {
+                    FrameBatch.forEachFrame(buffer, offset, aeronClientDuplexConnection::onFrame);
                 } else {
                     debug("no connection found for Aeron Session Id {}", header.sessionId());
                 }
@@ -212,9 +308,13 @@ public final class AeronClientDuplexConnectionFactory implements Loggable {
                     try {
                         final Publication publication = establishConnectionHolder.getPublication();
                         AeronClientDuplexConnection aeronClientDuplexConnection
-                            = new AeronClientDuplexConnection(publication, frameSendQueue);
+                            = new AeronClientDuplexConnection(publication, readyOutputs);
                         Publishers.afterTerminate(aeronClientDuplexConnection.onClose(), () -> {
                             connections.remove(publication.sessionId());
+                            if (Constants.IPC_CHANNEL.equals(publication.channel())) {
+                                manager.removeSubscription(Constants.IPC_CHANNEL, publication.streamId() + 1);
+                                ipcStreamIds.remove(publication.streamId());
+                            }
 
                             // Send a message to the server that the connection is closed and that it needs to clean-up resources on it's side
                             if (publication != null && !publication.isClosed()) {
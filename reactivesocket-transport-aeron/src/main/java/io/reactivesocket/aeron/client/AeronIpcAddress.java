@@ -0,0 +1,42 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.aeron.client;
+
+import io.reactivesocket.aeron.internal.Constants;
+
+import java.net.SocketAddress;
+
+/**
+ * Address of a {@link io.reactivesocket.aeron.server.ReactiveSocketAeronServer#createIpc IPC server}, reached through
+ * the shared memory log buffers of the media driver on this host rather than over the network. There is one per media
+ * driver, connect with {@link #INSTANCE}.
+ */
+public final class AeronIpcAddress extends SocketAddress {
+    private static final long serialVersionUID = 1L;
+
+    public static final AeronIpcAddress INSTANCE = new AeronIpcAddress();
+
+    private AeronIpcAddress() {}
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
+    @Override
+    public String toString() {
+        return Constants.IPC_CHANNEL;
+    }
+}
@@ -61,6 +61,20 @@ public class AeronReactiveSocketConnector implements ReactiveSocketConnector<Soc
         }
     }
 
+    private AeronReactiveSocketConnector(Consumer<Throwable> errorStream, ConnectionSetupPayload connectionSetupPayload) {
+        this.connectionSetupPayload = connectionSetupPayload;
+        this.errorStream = errorStream;
+    }
+
+    /**
+     * Creates a connector for servers on this host created with
+     * {@link io.reactivesocket.aeron.server.ReactiveSocketAeronServer#createIpc}, connect to
+     * {@link AeronIpcAddress#INSTANCE}. It does not listen for UDP responses.
+     */
+    public static AeronReactiveSocketConnector ipc(ConnectionSetupPayload connectionSetupPayload, Consumer<Throwable> errorStream) {
+        return new AeronReactiveSocketConnector(errorStream, connectionSetupPayload);
+    }
+
     @Override
     public Publisher<ReactiveSocket> connect(SocketAddress address) {
         Publisher<AeronClientDuplexConnection> connection
@@ -25,11 +25,13 @@ import io.aeron.logbuffer.FragmentHandler;
 import io.reactivesocket.aeron.internal.Constants;
 import io.reactivesocket.aeron.internal.Loggable;
 import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.SleepingIdleStrategy;
-import rx.Scheduler;
-import rx.schedulers.Schedulers;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -62,11 +64,15 @@ public class ClientAeronManager implements Loggable {
 
     private final Aeron aeron;
 
-    private final Scheduler.Worker worker;
+    // closed by the poller, once it no longer polls them
+    private final Queue<Subscription> closingSubscriptions = new ConcurrentLinkedQueue<>();
+
+    private final Thread pollerThread;
 
     private ClientAeronManager() {
         this.clientActions = new CopyOnWriteArrayList<>();
         this.subscriptionGroups = new CopyOnWriteArrayList<>();
+        this.clientActions.add(this::closeRemovedSubscriptions);
 
         final Aeron.Context ctx = new Aeron.Context();
         ctx.errorHandler(t -> error("an exception occurred", t));
@@ -75,7 +81,7 @@ public class ClientAeronManager implements Loggable {
         );
 
         aeron = Aeron.connect(ctx);
-        worker = Schedulers.computation().createWorker();
+        pollerThread = newPollerThread(new PollingAction(subscriptionGroups, clientActions), Constants.newClientIdleStrategy());
         poll();
     }
 
@@ -99,6 +105,12 @@ public class ClientAeronManager implements Loggable {
             .anyMatch(sg -> sg.getChannel().equals(subscriptionChannel));
     }
 
+    public boolean hasSubscription(String subscriptionChannel, int streamId) {
+        return subscriptionGroups
+            .stream()
+            .anyMatch(sg -> sg.getChannel().equals(subscriptionChannel) && sg.getSubscription().streamId() == streamId);
+    }
+
     public Aeron getAeron() {
         return aeron;
     }
@@ -111,7 +123,7 @@ public class ClientAeronManager implements Loggable {
      * @param fragmentHandler fragment handler that is aware of the thread that is call it.
      */
     public void addSubscription(String subscriptionChannel, int streamId, FragmentHandler fragmentHandler) {
-        if (!hasSubscriptionForChannel(subscriptionChannel)) {
+        if (!hasSubscription(subscriptionChannel, streamId)) {
 
             debug("Creating a subscriptions to channel => {}", subscriptionChannel);
             Subscription subscription = aeron.addSubscription(subscriptionChannel, streamId);
@@ -125,14 +137,68 @@ public class ClientAeronManager implements Loggable {
         }
     }
 
+    /**
+     * Stops polling and closes the subscription to a channel and stream id.
+     *
+     * @param subscriptionChannel the channel of the subscription
+     * @param streamId the stream id of the subscription
+     */
+    public void removeSubscription(String subscriptionChannel, int streamId) {
+        for (SubscriptionGroup sg : subscriptionGroups) {
+            if (sg.getChannel().equals(subscriptionChannel) && sg.getSubscription().streamId() == streamId) {
+                debug("Removing subscription to channel => {} and stream id => {}", subscriptionChannel, streamId);
+                subscriptionGroups.remove(sg);
+                closingSubscriptions.offer(sg.getSubscription());
+            }
+        }
+    }
+
+    private int closeRemovedSubscriptions() {
+        int closed = 0;
+        Subscription subscription;
+        while ((subscription = closingSubscriptions.poll()) != null) {
+            subscription.close();
+            closed++;
+        }
+        return closed;
+    }
+
     /*
      * Starts polling for the Aeron client. Will run registered client actions and will automatically start polling
      * subscriptions
      */
     void poll() {
         info("ReactiveSocket Aeron Client poll");
-        worker.schedulePeriodically(new PollingAction(subscriptionGroups, clientActions),
-            0, 20, TimeUnit.MICROSECONDS);
+        pollerThread.start();
+    }
+
+    /**
+     * The poller gets a thread of its own rather than one of the application's schedulers, idling between cycles that
+     * found no work as {@link Constants#newClientIdleStrategy()} configures. The thread is created by the
+     * {@link ThreadFactory} named by {@code -Dreactivesocket.aeron.clientPollerThreadFactory}, if any, e.g. one that
+     * pins it to an isolated core.
+     */
+    private Thread newPollerThread(PollingAction pollingAction, IdleStrategy idleStrategy) {
+        final Runnable dutyCycle = () -> {
+            for (; ; ) {
+                idleStrategy.idle(pollingAction.doWork());
+            }
+        };
+
+        Thread thread;
+        if (Constants.CLIENT_POLLER_THREAD_FACTORY != null) {
+            try {
+                ThreadFactory threadFactory = (ThreadFactory) Class.forName(Constants.CLIENT_POLLER_THREAD_FACTORY).newInstance();
+                thread = threadFactory.newThread(dutyCycle);
+            } catch (Exception e) {
+                throw new IllegalStateException("unable to create the client poller thread with " + Constants.CLIENT_POLLER_THREAD_FACTORY, e);
+            }
+        } else {
+            thread = new Thread(dutyCycle);
+        }
+        thread.setName("reactive-socket-aeron-client");
+        thread.setDaemon(true);
+        return thread;
     }
 
     /*
@@ -177,6 +243,9 @@ public class ClientAeronManager implements Loggable {
 
     @FunctionalInterface
     public interface ClientAction {
-        void call();
+        /**
+         * @return amount of work done, 0 if there was nothing to do, lets the poller idle
+         */
+        int call();
     }
 }
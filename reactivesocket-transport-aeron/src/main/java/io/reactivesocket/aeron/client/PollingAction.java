@@ -16,45 +16,72 @@
 package io.reactivesocket.aeron.client;
 
 import io.aeron.Subscription;
+import io.reactivesocket.aeron.internal.Constants;
 import io.reactivesocket.aeron.internal.Loggable;
 import rx.functions.Action0;
 
 import java.util.List;
 
+/**
+ * One cycle of the client poller, polls every subscription once and runs the client actions.
+ */
 class PollingAction implements Action0, Loggable {
     private final List<ClientAeronManager.SubscriptionGroup> subscriptionGroups;
     private final List<ClientAeronManager.ClientAction> clientActions;
+    private final int fragmentLimit;
 
     public PollingAction(
             List<ClientAeronManager.SubscriptionGroup> subscriptionGroups,
             List<ClientAeronManager.ClientAction> clientActions) {
+        this(subscriptionGroups, clientActions, Constants.CLIENT_POLL_FRAGMENT_LIMIT);
+    }
+
+    /**
+     * @param fragmentLimit most fragments polled from a subscription per cycle, so a busy one does not hold up the
+     * others or the client actions
+     */
+    public PollingAction(
+            List<ClientAeronManager.SubscriptionGroup> subscriptionGroups,
+            List<ClientAeronManager.ClientAction> clientActions,
+            int fragmentLimit) {
         this.subscriptionGroups = subscriptionGroups;
         this.clientActions = clientActions;
+        this.fragmentLimit = fragmentLimit;
     }
 
     @Override
     public void call() {
+        doWork();
+    }
+
+    /**
+     * @return fragments polled plus work done by the client actions, 0 if there was nothing to do
+     */
+    public int doWork() {
+        int workCount = 0;
         try {
             for (ClientAeronManager.SubscriptionGroup sg : subscriptionGroups) {
                 try {
-                    int poll = 0;
-                    do {
-                        Subscription subscription = sg.getSubscription();
-                        if (!subscription.isClosed()) {
-                            poll = subscription.poll(sg.getFragmentAssembler(), Integer.MAX_VALUE);
-                        }
-                    } while (poll > 0);
-
-                    for (ClientAeronManager.ClientAction action : clientActions) {
-                        action.call();
+                    Subscription subscription = sg.getSubscription();
+                    if (!subscription.isClosed()) {
+                        workCount += subscription.poll(sg.getFragmentAssembler(), fragmentLimit);
                     }
                 } catch (Throwable t) {
                     error("error polling aeron subscription", t);
                 }
             }
 
+            for (ClientAeronManager.ClientAction action : clientActions) {
+                try {
+                    workCount += action.call();
+                } catch (Throwable t) {
+                    error("error running client action", t);
+                }
+            }
         } catch (Throwable t) {
             error("error in client polling loop", t);
         }
+
+        return workCount;
     }
 }
@@ -130,6 +130,40 @@ public class AeronUtil implements Loggable {
         }
     }
 
+    /**
+     * Makes a single attempt to send the data, using tryClaim if it fits the largest payload of a single Aeron
+     * message, see {@link Publication#maxPayloadLength()}, and offer otherwise. Unlike {@link #tryClaimOrOffer(Publication, BufferFiller, int)} it never waits for the publication,
+     * the caller decides what to do if it is back pressured.
+     *
+     * @param publication publication to send the message on
+     * @param fillBuffer  closure passed in to fill a {@link MutableDirectBuffer}
+     *                    that is send over Aeron
+     * @param length      the length of data
+     * @return the new position of the publication if the data was sent, otherwise the negative result of the attempt,
+     * e.g. {@link Publication#BACK_PRESSURED} or {@link Publication#NOT_CONNECTED}
+     */
+    public static long tryClaimOrOfferOnce(Publication publication, BufferFiller fillBuffer, int length) {
+        if (length <= publication.maxPayloadLength()) {
+            final BufferClaim bufferClaim = bufferClaims.get();
+            final long result = publication.tryClaim(length, bufferClaim);
+            if (result >= 0) {
+                try {
+                    fillBuffer.fill(bufferClaim.offset(), bufferClaim.buffer());
+                } finally {
+                    bufferClaim.commit();
+                }
+            }
+            return result;
+        } else {
+            final MutableDirectBuffer buffer = getDirectBuffer(length);
+            try {
+                fillBuffer.fill(0, buffer);
+                return publication.offer(buffer, 0, length);
+            } finally {
+                recycleDirectBuffer(buffer);
+            }
+        }
+    }
 
     /**
      * Try to get a MutableDirectBuffer from a thread-safe pool for a given length. If the buffer found
@@ -17,9 +17,11 @@ package io.reactivesocket.aeron.internal;
 
 
 import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.BusySpinIdleStrategy;
 import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.NoOpIdleStrategy;
 import org.agrona.concurrent.SleepingIdleStrategy;
+import org.agrona.concurrent.YieldingIdleStrategy;
 
 import java.util.concurrent.TimeUnit;
 
@@ -27,6 +29,9 @@ public final class Constants {
 
     public static final int SERVER_STREAM_ID = 1;
     public static final int CLIENT_STREAM_ID = 2;
+    public static final String IPC_CHANNEL = "aeron:ipc";
+    // IPC connections pick an even stream id to send on from here up, and receive on the one above it
+    public static final int IPC_CONNECTION_MIN_STREAM_ID = 1 << 16;
     public static final byte[] EMTPY = new byte[0];
     public static final int QUEUE_SIZE = Integer.getInteger("reactivesocket.aeron.framesSendQueueSize", 262144);
     public static final IdleStrategy SERVER_IDLE_STRATEGY;
@@ -40,16 +45,49 @@ public final class Constants {
     public static final int SERVER_TIMER_WHEEL_BUCKETS = 128;
     public static final int DEFAULT_OFFER_TO_AERON_TIMEOUT_MS = 30_000;
     public static final boolean CLIENT_EMBEDDED_AERON_DRIVER = Boolean.getBoolean("reactivesocket.aeron.clientEmbeddedDriver");
+    public static final int SERVER_DUTY_CYCLE_SHARDS = Integer.getInteger("reactivesocket.aeron.serverDutyCycleShards", 1);
+    public static final int CLIENT_POLL_FRAGMENT_LIMIT = Integer.getInteger("reactivesocket.aeron.clientPollFragmentLimit", 64);
+    public static final String CLIENT_POLLER_THREAD_FACTORY = System.getProperty("reactivesocket.aeron.clientPollerThreadFactory");
 
     static {
+        SERVER_IDLE_STRATEGY = newServerIdleStrategy();
+    }
+
+    /**
+     * Creates the idle strategy selected with {@code -DidleStrategy}. Idle strategies keep state between calls, so
+     * every polling thread needs its own.
+     */
+    public static IdleStrategy newServerIdleStrategy() {
         String idlStrategy = System.getProperty("idleStrategy");
 
         if (NoOpIdleStrategy.class.getName().equalsIgnoreCase(idlStrategy)) {
-            SERVER_IDLE_STRATEGY = new NoOpIdleStrategy();
+            return new NoOpIdleStrategy();
         } else if (SleepingIdleStrategy.class.getName().equalsIgnoreCase(idlStrategy)) {
-            SERVER_IDLE_STRATEGY = new SleepingIdleStrategy(TimeUnit.MILLISECONDS.toNanos(250));
+            return new SleepingIdleStrategy(TimeUnit.MILLISECONDS.toNanos(250));
+        } else {
+            return new BackoffIdleStrategy(1, 10, 100, 1000);
+        }
+    }
+
+    /**
+     * Creates the idle strategy of the client poller selected with {@code -Dreactivesocket.aeron.clientIdleStrategy},
+     * the class name of one of {@link BusySpinIdleStrategy}, {@link YieldingIdleStrategy}, {@link NoOpIdleStrategy},
+     * {@link SleepingIdleStrategy} or {@link BackoffIdleStrategy}, the default. Backing off parks for at most 20
+     * microseconds, busy spinning gives the lowest latency at the cost of a core.
+     */
+    public static IdleStrategy newClientIdleStrategy() {
+        String idleStrategy = System.getProperty("reactivesocket.aeron.clientIdleStrategy");
+
+        if (BusySpinIdleStrategy.class.getName().equalsIgnoreCase(idleStrategy)) {
+            return new BusySpinIdleStrategy();
+        } else if (YieldingIdleStrategy.class.getName().equalsIgnoreCase(idleStrategy)) {
+            return new YieldingIdleStrategy();
+        } else if (NoOpIdleStrategy.class.getName().equalsIgnoreCase(idleStrategy)) {
+            return new NoOpIdleStrategy();
+        } else if (SleepingIdleStrategy.class.getName().equalsIgnoreCase(idleStrategy)) {
+            return new SleepingIdleStrategy(TimeUnit.MICROSECONDS.toNanos(20));
         } else {
-            SERVER_IDLE_STRATEGY = new BackoffIdleStrategy(1, 10, 100, 1000);
+            return new BackoffIdleStrategy(100, 10, TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MICROSECONDS.toNanos(20));
         }
     }
 
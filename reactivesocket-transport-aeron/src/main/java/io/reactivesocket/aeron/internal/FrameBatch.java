@@ -0,0 +1,90 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.aeron.internal;
+
+import io.aeron.protocol.DataHeaderFlyweight;
+import io.reactivesocket.Frame;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Encoding of several frames in one Aeron message of type {@link MessageType#FRAME_BATCH}, so chatty connections
+ * with many small frames, e.g. REQUEST_N, CANCEL or KEEPALIVE, pay the cost of a claim on the publication and of a
+ * message in the media driver once per batch rather than once per frame.
+ * <p>
+ * After the usual message header a batch holds the number of frames it contains, then every frame prefixed with its
+ * length. Receivers always accept batches, senders batch with {@code -Dreactivesocket.aeron.batchFrames=true}.
+ */
+public final class FrameBatch {
+
+    public static final boolean ENABLED = Boolean.getBoolean("reactivesocket.aeron.batchFrames");
+
+    /**
+     * Length of the message header and the frame count.
+     */
+    public static final int HEADER_LENGTH = 2 * BitUtil.SIZE_OF_INT;
+
+    /**
+     * Most bytes of a batch, it is always sent in one claim of the publication.
+     */
+    public static final int MAX_LENGTH = Constants.AERON_MTU_SIZE - DataHeaderFlyweight.HEADER_LENGTH;
+
+    private FrameBatch() {}
+
+    /**
+     * @return the bytes {@code frame} takes in a batch
+     */
+    public static int encodedLength(Frame frame) {
+        return BitUtil.SIZE_OF_INT + frame.length();
+    }
+
+    public static void encodeHeader(MutableDirectBuffer buffer, int offset, int frameCount) {
+        buffer.putShort(offset, (short) 0);
+        buffer.putShort(offset + BitUtil.SIZE_OF_SHORT, (short) MessageType.FRAME_BATCH.getEncodedType());
+        buffer.putInt(offset + BitUtil.SIZE_OF_INT, frameCount);
+    }
+
+    /**
+     * @return the offset following the frame
+     */
+    public static int encodeFrame(MutableDirectBuffer buffer, int offset, Frame frame) {
+        final int length = frame.length();
+        buffer.putInt(offset, length);
+        frame.encode(buffer, offset + BitUtil.SIZE_OF_INT);
+        return offset + BitUtil.SIZE_OF_INT + length;
+    }
+
+    /**
+     * Hands every frame of the batch at {@code offset} to {@code handler}, in order.
+     */
+    public static void forEachFrame(DirectBuffer buffer, int offset, FrameHandler handler) {
+        final int frameCount = buffer.getInt(offset + BitUtil.SIZE_OF_INT);
+        int frameOffset = offset + HEADER_LENGTH;
+        for (int i = 0; i < frameCount; i++) {
+            final int length = buffer.getInt(frameOffset);
+            handler.onFrame(buffer, frameOffset + BitUtil.SIZE_OF_INT, length);
+            frameOffset += BitUtil.SIZE_OF_INT + length;
+        }
+    }
+
+    /**
+     * Receives the encoded frames of a batch, which are only valid during the call.
+     */
+    public interface FrameHandler {
+        void onFrame(DirectBuffer buffer, int offset, int length);
+    }
+}
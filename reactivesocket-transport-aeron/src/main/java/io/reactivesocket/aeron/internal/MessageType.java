@@ -22,7 +22,16 @@ public enum MessageType {
     ESTABLISH_CONNECTION_REQUEST(0x01),
     ESTABLISH_CONNECTION_RESPONSE(0x02),
     CONNECTION_DISCONNECT(0x3),
-    FRAME(0x04);
+    FRAME(0x04),
+    /**
+     * Asks an IPC server to subscribe to the stream id that follows the header, which the client sends the messages
+     * of a new connection on.
+     */
+    IPC_CONNECT_REQUEST(0x05),
+    /**
+     * Several frames in one message, see {@link FrameBatch}.
+     */
+    FRAME_BATCH(0x06);
 
     private static MessageType[] typesById;
 
@@ -16,7 +16,6 @@
 package io.reactivesocket.aeron.server;
 
 import io.aeron.Aeron;
-import io.aeron.FragmentAssembler;
 import io.aeron.Image;
 import io.aeron.Publication;
 import io.aeron.Subscription;
@@ -26,16 +25,17 @@ import io.reactivesocket.DefaultReactiveSocket;
 import io.reactivesocket.Frame;
 import io.reactivesocket.LeaseGovernor;
 import io.reactivesocket.ReactiveSocket;
+import io.reactivesocket.aeron.internal.Constants;
+import io.reactivesocket.aeron.internal.FrameBatch;
 import io.reactivesocket.aeron.internal.Loggable;
 import io.reactivesocket.aeron.internal.MessageType;
 import io.reactivesocket.rx.Observer;
 import io.reactivesocket.util.Unsafe;
 import org.agrona.BitUtil;
 import org.agrona.DirectBuffer;
-import org.agrona.concurrent.UnsafeBuffer;
 
-import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -45,9 +45,13 @@ import static io.reactivesocket.aeron.internal.Constants.SERVER_ESTABLISH_CONNEC
 import static io.reactivesocket.aeron.internal.Constants.SERVER_STREAM_ID;
 
 public class ReactiveSocketAeronServer implements AutoCloseable, Loggable {
-    private static final UnsafeBuffer BUFFER = new UnsafeBuffer(ByteBuffer.allocate(0));
     private static final ServerAeronManager manager = ServerAeronManager.getInstance();
     private final int port;
+    private final boolean ipc;
+    // IPC connections by the stream id they send on, and those stream ids by session id
+    private final Set<Integer> ipcRequestStreamIds = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Integer, Subscription> ipcSubscriptions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Integer> ipcStreamIds = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<Integer, AeronServerDuplexConnection> connections = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<Integer, ReactiveSocket> sockets = new ConcurrentHashMap<>();
     private final Subscription subscription;
@@ -55,7 +59,12 @@ public class ReactiveSocketAeronServer implements AutoCloseable, Loggable {
     private final LeaseGovernor leaseGovernor;
 
     private ReactiveSocketAeronServer(String host, int port, ConnectionSetupHandler connectionSetupHandler, LeaseGovernor leaseGovernor) {
+        this("udp://" + host + ":" + port, port, connectionSetupHandler, leaseGovernor);
+    }
+
+    private ReactiveSocketAeronServer(String serverChannel, int port, ConnectionSetupHandler connectionSetupHandler, LeaseGovernor leaseGovernor) {
         this.port = port;
+        this.ipc = Constants.IPC_CHANNEL.equals(serverChannel);
         this.connectionSetupHandler = connectionSetupHandler;
         this.leaseGovernor = leaseGovernor;
 
@@ -64,12 +73,10 @@ public class ReactiveSocketAeronServer implements AutoCloseable, Loggable {
 
         Aeron aeron = manager.getAeron();
 
-        final String serverChannel =  "udp://" + host + ":" + port;
         info("Starting new ReactiveSocketAeronServer on channel {}", serverChannel);
         subscription = aeron.addSubscription(serverChannel, SERVER_STREAM_ID);
 
-        FragmentAssembler fragmentAssembler = new FragmentAssembler(this::fragmentHandler);
-        manager.addSubscription(subscription, fragmentAssembler);
+        manager.addSubscription(subscription, this::fragmentHandler);
     }
 
     /*
@@ -99,6 +106,19 @@ public class ReactiveSocketAeronServer implements AutoCloseable, Loggable {
         return create(39790, connectionSetupHandler, LeaseGovernor.UNLIMITED_LEASE_GOVERNOR);
     }
 
+    /**
+     * Creates a server that clients on the same host reach through the IPC log buffers of the media driver they share,
+     * by connecting to {@link io.reactivesocket.aeron.client.AeronIpcAddress#INSTANCE}. There can be one IPC server
+     * per media driver.
+     */
+    public static ReactiveSocketAeronServer createIpc(ConnectionSetupHandler connectionSetupHandler, LeaseGovernor leaseGovernor) {
+        return new ReactiveSocketAeronServer(Constants.IPC_CHANNEL, 0, connectionSetupHandler, leaseGovernor);
+    }
+
+    public static ReactiveSocketAeronServer createIpc(ConnectionSetupHandler connectionSetupHandler) {
+        return createIpc(connectionSetupHandler, LeaseGovernor.UNLIMITED_LEASE_GOVERNOR);
+    }
+
     void fragmentHandler(DirectBuffer buffer, int offset, int length, Header header) {
             final int sessionId = header.sessionId();
 
@@ -106,28 +126,9 @@ public class ReactiveSocketAeronServer implements AutoCloseable, Loggable {
             MessageType type = MessageType.from(messageTypeInt);
 
             if (MessageType.FRAME == type) {
-                AeronServerDuplexConnection connection = connections.get(sessionId);
-                if (connection != null && !connection.isClosed()) {
-                    List<? extends Observer<Frame>> subscribers = connection.getSubscriber();
-
-                    ByteBuffer bb = ByteBuffer.allocate(length);
-                    BUFFER.wrap(bb);
-                    buffer.getBytes(offset, BUFFER, 0, length);
-
-                    final Frame frame = Frame.from(BUFFER, BitUtil.SIZE_OF_INT, length - BitUtil.SIZE_OF_INT);
-
-                    if (isTraceEnabled()) {
-                        trace("server received frame payload {} on session id {}", frame.getData(), sessionId);
-                    }
-
-                    subscribers.forEach(s -> {
-                        try {
-                            s.onNext(frame);
-                        } catch (Throwable t) {
-                            s.onError(t);
-                        }
-                    });
-                }
+                onFrame(sessionId, buffer, offset + BitUtil.SIZE_OF_INT, length - BitUtil.SIZE_OF_INT);
+            } else if (MessageType.FRAME_BATCH == type) {
+                FrameBatch.forEachFrame(buffer, offset, (b, o, l) -> onFrame(sessionId, b, o, l));
             } else if (MessageType.ESTABLISH_CONNECTION_REQUEST == type) {
                 final long start = System.nanoTime();
                 AeronServerDuplexConnection connection = null;
@@ -145,43 +146,100 @@ public class ReactiveSocketAeronServer implements AutoCloseable, Loggable {
                 connection.ackEstablishConnection(sessionId);
             } else if (MessageType.CONNECTION_DISCONNECT == type) {
                 closeReactiveSocket(sessionId);
+            } else if (MessageType.IPC_CONNECT_REQUEST == type && ipc) {
+                subscribeToIpcConnection(buffer.getInt(offset + BitUtil.SIZE_OF_INT));
             }
 
     }
 
-    void availableImageHandler(Image image) {
-        final int streamId = subscription.streamId();
-        final int sessionId = image.sessionId();
-        if (SERVER_STREAM_ID == streamId) {
-            debug("Handling new image for session id => {} and stream id => {}", streamId, sessionId);
-            final AeronServerDuplexConnection connection = connections.computeIfAbsent(sessionId, (_s) -> {
-                final String responseChannel = "udp://" + image.sourceIdentity().substring(0, image.sourceIdentity().indexOf(':')) + ":" + port;
-                Publication publication = manager.getAeron().addPublication(responseChannel, CLIENT_STREAM_ID);
-                int responseSessionId = publication.sessionId();
-                debug("Creating new connection for responseChannel => {}, streamId => {}, and sessionId => {}", responseChannel, streamId, responseSessionId);
-                return new AeronServerDuplexConnection(publication);
+    private void onFrame(int sessionId, DirectBuffer buffer, int offset, int length) {
+        AeronServerDuplexConnection connection = connections.get(sessionId);
+        if (connection != null && !connection.isClosed()) {
+            List<? extends Observer<Frame>> subscribers = connection.getSubscriber();
+
+            // runs on the duty cycle shard of the session, the frame wraps the polled buffer and is copied
+            // only if retained past this callback
+            final Frame frame = Frame.from(buffer, offset, length);
+
+            if (isTraceEnabled()) {
+                trace("server received frame payload {} on session id {}", frame.getData(), sessionId);
+            }
+
+            subscribers.forEach(s -> {
+                try {
+                    s.onNext(frame);
+                } catch (Throwable t) {
+                    s.onError(t);
+                }
             });
-            debug("Accepting ReactiveSocket connection");
-            ReactiveSocket socket = DefaultReactiveSocket.fromServerConnection(
-                connection,
-                connectionSetupHandler,
-                leaseGovernor,
-                new Consumer<Throwable>() {
-                    @Override
-                    public void accept(Throwable throwable) {
-                        error(String.format("Error creating ReactiveSocket for Aeron session id => %d and stream id => %d", streamId, sessionId), throwable);
-                    }
-                });
 
-            sockets.put(sessionId, socket);
+            frame.release();
+        }
+    }
+
+    /**
+     * Subscribes to the stream an IPC client sends the messages of a new connection on, the connection is accepted
+     * once its image is available. The stream id is recorded before subscribing, as the image can become available
+     * before {@code addSubscription} returns.
+     */
+    private void subscribeToIpcConnection(int requestStreamId) {
+        if (requestStreamId < Constants.IPC_CONNECTION_MIN_STREAM_ID || !ipcRequestStreamIds.add(requestStreamId)) {
+            return;
+        }
 
-            try {
-                Unsafe.startAndWait(socket);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+        debug("Subscribing to IPC connection on stream id => {}", requestStreamId);
+        Subscription ipcSubscription = manager.getAeron().addSubscription(Constants.IPC_CHANNEL, requestStreamId);
+        ipcSubscriptions.put(requestStreamId, ipcSubscription);
+        manager.addSubscription(ipcSubscription, this::fragmentHandler);
+    }
+
+    void availableImageHandler(Image image) {
+        final Subscription imageSubscription = image.subscription();
+        final int streamId = imageSubscription.streamId();
+        final int sessionId = image.sessionId();
+        final String responseChannel;
+        final int responseStreamId;
+        if (ipc) {
+            // the server's own IPC stream only carries connect requests, all clients share its image
+            if (!ipcRequestStreamIds.contains(streamId)) {
+                return;
             }
+            responseChannel = Constants.IPC_CHANNEL;
+            responseStreamId = streamId + 1;
+            ipcStreamIds.put(sessionId, streamId);
+        } else if (imageSubscription == subscription && SERVER_STREAM_ID == streamId) {
+            responseChannel = "udp://" + image.sourceIdentity().substring(0, image.sourceIdentity().indexOf(':')) + ":" + port;
+            responseStreamId = CLIENT_STREAM_ID;
         } else {
             debug("Unsupported stream id {}", streamId);
+            return;
+        }
+
+        debug("Handling new image for session id => {} and stream id => {}", streamId, sessionId);
+        final AeronServerDuplexConnection connection = connections.computeIfAbsent(sessionId, (_s) -> {
+            Publication publication = manager.getAeron().addPublication(responseChannel, responseStreamId);
+            int responseSessionId = publication.sessionId();
+            debug("Creating new connection for responseChannel => {}, streamId => {}, and sessionId => {}", responseChannel, streamId, responseSessionId);
+            return new AeronServerDuplexConnection(publication);
+        });
+        debug("Accepting ReactiveSocket connection");
+        ReactiveSocket socket = DefaultReactiveSocket.fromServerConnection(
+            connection,
+            connectionSetupHandler,
+            leaseGovernor,
+            new Consumer<Throwable>() {
+                @Override
+                public void accept(Throwable throwable) {
+                    error(String.format("Error creating ReactiveSocket for Aeron session id => %d and stream id => %d", streamId, sessionId), throwable);
+                }
+            });
+
+        sockets.put(sessionId, socket);
+
+        try {
+            Unsafe.startAndWait(socket);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
         }
     }
 
@@ -190,10 +248,15 @@ public class ReactiveSocketAeronServer implements AutoCloseable, Loggable {
     }
 
     private void closeReactiveSocket(int sessionId) {
-        ServerAeronManager.getInstance().getTimerWheel().newTimeout(200, TimeUnit.MILLISECONDS, () -> {
+        manager.threadSafeTimeout(sessionId, 200, TimeUnit.MILLISECONDS, () -> {
             debug("closing connection for session id => " + sessionId);
             ReactiveSocket socket = sockets.remove(sessionId);
             connections.remove(sessionId);
+            Integer ipcStreamId = ipcStreamIds.remove(sessionId);
+            if (ipcStreamId != null) {
+                closeIpcSubscription(ipcSubscriptions.remove(ipcStreamId));
+                ipcRequestStreamIds.remove(ipcStreamId);
+            }
 
             if (socket != null) {
                 try {
@@ -209,9 +272,19 @@ public class ReactiveSocketAeronServer implements AutoCloseable, Loggable {
         return !connections.isEmpty();
     }
 
+    private void closeIpcSubscription(Subscription ipcSubscription) {
+        if (ipcSubscription != null) {
+            manager.removeSubscription(ipcSubscription);
+            ipcSubscription.close();
+        }
+    }
+
     @Override
     public void close() throws Exception {
         manager.removeSubscription(subscription);
+        ipcSubscriptions.values().forEach(this::closeIpcSubscription);
+        ipcSubscriptions.clear();
+        ipcRequestStreamIds.clear();
     }
 
 }
@@ -21,9 +21,11 @@ import io.aeron.FragmentAssembler;
 import io.aeron.Image;
 import io.aeron.Subscription;
 import io.aeron.UnavailableImageHandler;
+import io.aeron.logbuffer.FragmentHandler;
 import io.reactivesocket.aeron.internal.Constants;
 import io.reactivesocket.aeron.internal.Loggable;
 import org.agrona.TimerWheel;
+import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
 import rx.Observable;
 import rx.Scheduler;
@@ -32,16 +34,24 @@ import rx.functions.Action0;
 import rx.functions.Func0;
 import rx.schedulers.Schedulers;
 
+import java.util.Arrays;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
-
-import static io.reactivesocket.aeron.internal.Constants.SERVER_IDLE_STRATEGY;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
- * Class that manages the Aeron instance and the server's polling thread. Lets you register more
+ * Class that manages the Aeron instance and the server's polling threads. Lets you register more
  * than one NewImageHandler to Aeron after the it's the Aeron instance has started
+ * <p>
+ * The duty cycle is split into {@link Constants#SERVER_DUTY_CYCLE_SHARDS} shards, set with
+ * {@code -Dreactivesocket.aeron.serverDutyCycleShards}, each on its own thread with its own action queue and
+ * {@link TimerWheel}. A connection belongs to the shard its Aeron session id maps to, which polls its image and runs
+ * the actions and timeouts submitted for it, so the work of a connection stays on one thread. Actions and timeouts
+ * submitted without a session id, and {@link #getTimerWheel()}, belong to the first shard.
  */
 public class ServerAeronManager implements Loggable {
+    private static final Image[] NO_IMAGES = new Image[0];
+
     private static final ServerAeronManager INSTANCE = new ServerAeronManager();
 
     private final Aeron aeron;
@@ -52,11 +62,7 @@ public class ServerAeronManager implements Loggable {
 
     private final CopyOnWriteArrayList<FragmentAssemblerHolder> fragmentAssemblerHolders = new CopyOnWriteArrayList<>();
 
-    private final ManyToOneConcurrentArrayQueue<Action0> actions = new ManyToOneConcurrentArrayQueue<>(1024);
-
-    private final TimerWheel timerWheel;
-
-    private final Thread dutyThread;
+    private final DutyCycleShard[] shards;
 
     private ServerAeronManager() {
         final Aeron.Context ctx = new Aeron.Context();
@@ -66,42 +72,14 @@ public class ServerAeronManager implements Loggable {
 
         aeron = Aeron.connect(ctx);
 
-        this.timerWheel = new TimerWheel(Constants.SERVER_TIMER_WHEEL_TICK_DURATION_MS, TimeUnit.MILLISECONDS, Constants.SERVER_TIMER_WHEEL_BUCKETS);
-
-        dutyThread = new Thread(() -> {
-            for (; ; ) {
-                try {
-                    int poll = 0;
-                    for (FragmentAssemblerHolder sh : fragmentAssemblerHolders) {
-                        try {
-                            if (sh.subscription.isClosed()) {
-                                continue;
-                            }
-
-                            poll += sh.subscription.poll(sh.fragmentAssembler, Integer.MAX_VALUE);
-                        } catch (Throwable t) {
-                            t.printStackTrace();
-                        }
-                    }
-
-                    poll += actions.drain(Action0::call);
-
-                    if (timerWheel.computeDelayInMs() < 0) {
-                        poll += timerWheel.expireTimers();
-                    }
-
-                    SERVER_IDLE_STRATEGY.idle(poll);
-
-                } catch (Throwable t) {
-                    t.printStackTrace();
-                }
-
-            }
-
-        });
-        dutyThread.setName("reactive-socket-aeron-server");
-        dutyThread.setDaemon(true);
-        dutyThread.start();
+        final int shardCount = Math.max(1, Constants.SERVER_DUTY_CYCLE_SHARDS);
+        shards = new DutyCycleShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new DutyCycleShard(i, shardCount == 1 ? "reactive-socket-aeron-server" : "reactive-socket-aeron-server-" + i);
+        }
+        for (DutyCycleShard shard : shards) {
+            shard.dutyThread.start();
+        }
     }
 
     public static ServerAeronManager getInstance() {
@@ -116,9 +94,18 @@ public class ServerAeronManager implements Loggable {
         unavailableImageHandlers.add(handler);
     }
 
-    public void addSubscription(Subscription subscription, FragmentAssembler fragmentAssembler) {
+    /**
+     * Polls {@code subscription} on the duty cycle, every shard polls the images of its sessions.
+     *
+     * @param subscription to poll
+     * @param fragmentHandler receiving reassembled messages, on the thread of the shard the session belongs to
+     */
+    public void addSubscription(Subscription subscription, FragmentHandler fragmentHandler) {
         debug("Adding subscription with session id {}", subscription.streamId());
-        fragmentAssemblerHolders.add(new FragmentAssemblerHolder(subscription, fragmentAssembler));
+        FragmentAssemblerHolder holder = new FragmentAssemblerHolder(subscription, fragmentHandler, shards.length);
+        fragmentAssemblerHolders.add(holder);
+        // images that became available before the holder was added, later ones are added by the image handler
+        subscription.images().forEach(holder::addImage);
     }
 
     public void removeSubscription(Subscription subscription) {
@@ -127,11 +114,23 @@ public class ServerAeronManager implements Loggable {
     }
 
     private void availableImageHandler(Image image) {
+        for (FragmentAssemblerHolder holder : fragmentAssemblerHolders) {
+            if (holder.subscription == image.subscription()) {
+                holder.addImage(image);
+            }
+        }
+
         availableImageHandlers
                 .forEach(handler -> handler.onAvailableImage(image));
     }
 
     private void unavailableImage(Image image) {
+        for (FragmentAssemblerHolder holder : fragmentAssemblerHolders) {
+            if (holder.subscription == image.subscription()) {
+                holder.removeImage(image);
+            }
+        }
+
         unavailableImageHandlers
                 .forEach(handler -> handler.onUnavailableImage(image));
     }
@@ -140,25 +139,45 @@ public class ServerAeronManager implements Loggable {
         return aeron;
     }
 
+    /**
+     * @return the {@link TimerWheel} of the first shard, only to be used on its thread
+     */
     public TimerWheel getTimerWheel() {
-        return timerWheel;
+        return shards[0].timerWheel;
+    }
+
+    /**
+     * @param sessionId Aeron session id of a connection
+     * @return the {@link TimerWheel} of the shard the session belongs to, only to be used on its thread
+     */
+    public TimerWheel getTimerWheel(int sessionId) {
+        return shardOf(sessionId).timerWheel;
+    }
+
+    /**
+     * @return number of duty cycle threads
+     */
+    public int getShardCount() {
+        return shards.length;
     }
 
     /**
-     * Submits an Action0 to be run but the duty thread.
+     * Submits an Action0 to be run but the duty thread of the first shard.
      * @param action the action to be executed
      * @return true if it was successfully submitted
      */
     public boolean submitAction(Action0 action) {
-        boolean submitted = true;
-        Thread currentThread = Thread.currentThread();
-        if (currentThread.equals(dutyThread)) {
-            action.call();
-        } else {
-            submitted = actions.offer(action);
-        }
+        return shards[0].submitAction(action);
+    }
 
-        return submitted;
+    /**
+     * Submits an Action0 to be run by the duty thread of the shard the session belongs to.
+     * @param sessionId Aeron session id of the connection the action is for
+     * @param action the action to be executed
+     * @return true if it was successfully submitted
+     */
+    public boolean submitAction(int sessionId, Action0 action) {
+        return shardOf(sessionId).submitAction(action);
     }
 
     /**
@@ -211,24 +230,156 @@ public class ServerAeronManager implements Loggable {
      * @return true if it was successfully scheduled, otherwise false.
      */
     public boolean threadSafeTimeout(long delayTime, TimeUnit unit, Action0 action) {
-        boolean scheduled = true;
-        Thread currentThread = Thread.currentThread();
-        if (currentThread.equals(dutyThread)) {
-            timerWheel.newTimeout(delayTime, unit, action::call);
-        } else {
-            scheduled = actions.offer(() -> timerWheel.newTimeout(delayTime, unit, action::call));
+        return shards[0].threadSafeTimeout(delayTime, unit, action);
+    }
+
+    /**
+     * Schedules timeout on the TimerWheel of the shard the session belongs to in a thread-safe manner
+     * @param sessionId Aeron session id of the connection the timeout is for
+     * @param delayTime
+     * @param unit
+     * @param action
+     * @return true if it was successfully scheduled, otherwise false.
+     */
+    public boolean threadSafeTimeout(int sessionId, long delayTime, TimeUnit unit, Action0 action) {
+        return shardOf(sessionId).threadSafeTimeout(delayTime, unit, action);
+    }
+
+    private DutyCycleShard shardOf(int sessionId) {
+        return shards[SessionShards.shardIndex(sessionId, shards.length)];
+    }
+
+    /**
+     * One duty cycle thread, polling the images of its sessions and running their actions and timeouts.
+     */
+    private class DutyCycleShard {
+        private final int index;
+        private final ManyToOneConcurrentArrayQueue<Action0> actions = new ManyToOneConcurrentArrayQueue<>(1024);
+        private final TimerWheel timerWheel;
+        private final IdleStrategy idleStrategy = Constants.newServerIdleStrategy();
+        private final Thread dutyThread;
+
+        private DutyCycleShard(int index, String threadName) {
+            this.index = index;
+            this.timerWheel = new TimerWheel(Constants.SERVER_TIMER_WHEEL_TICK_DURATION_MS, TimeUnit.MILLISECONDS, Constants.SERVER_TIMER_WHEEL_BUCKETS);
+
+            dutyThread = new Thread(() -> {
+                for (; ; ) {
+                    try {
+                        idleStrategy.idle(doWork());
+                    } catch (Throwable t) {
+                        error("an exception occurred on the server duty cycle", t);
+                    }
+                }
+            });
+            dutyThread.setName(threadName);
+            dutyThread.setDaemon(true);
         }
 
-        return scheduled;
+        private int doWork() {
+            int poll = 0;
+            for (FragmentAssemblerHolder sh : fragmentAssemblerHolders) {
+                try {
+                    if (sh.subscription.isClosed()) {
+                        continue;
+                    }
+
+                    poll += sh.poll(this);
+                } catch (Throwable t) {
+                    error("an exception occurred polling subscription " + sh.subscription.channel(), t);
+                }
+            }
+
+            poll += actions.drain(Action0::call);
+
+            if (timerWheel.computeDelayInMs() < 0) {
+                poll += timerWheel.expireTimers();
+            }
+
+            return poll;
+        }
+
+        private boolean submitAction(Action0 action) {
+            boolean submitted = true;
+            Thread currentThread = Thread.currentThread();
+            if (currentThread.equals(dutyThread)) {
+                action.call();
+            } else {
+                submitted = actions.offer(action);
+            }
+
+            return submitted;
+        }
+
+        private boolean threadSafeTimeout(long delayTime, TimeUnit unit, Action0 action) {
+            boolean scheduled = true;
+            Thread currentThread = Thread.currentThread();
+            if (currentThread.equals(dutyThread)) {
+                timerWheel.newTimeout(delayTime, unit, action::call);
+            } else {
+                scheduled = actions.offer(() -> timerWheel.newTimeout(delayTime, unit, action::call));
+            }
+
+            return scheduled;
+        }
     }
 
     private class FragmentAssemblerHolder {
-        private Subscription subscription;
-        private FragmentAssembler fragmentAssembler;
+        private final Subscription subscription;
+        // a FragmentAssembler keeps partial messages per session, so every shard has its own
+        private final FragmentAssembler[] fragmentAssemblers;
+        // images of the subscription by shard, copied on the rare image changes so polls need not allocate
+        private final AtomicReferenceArray<Image[]> shardImages;
 
-        public FragmentAssemblerHolder(Subscription subscription, FragmentAssembler fragmentAssembler) {
+        public FragmentAssemblerHolder(Subscription subscription, FragmentHandler fragmentHandler, int shardCount) {
             this.subscription = subscription;
-            this.fragmentAssembler = fragmentAssembler;
+            this.fragmentAssemblers = new FragmentAssembler[shardCount];
+            this.shardImages = new AtomicReferenceArray<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                fragmentAssemblers[i] = new FragmentAssembler(fragmentHandler);
+                shardImages.set(i, NO_IMAGES);
+            }
+        }
+
+        private synchronized void addImage(Image image) {
+            final int index = SessionShards.shardIndex(image.sessionId(), shardImages.length());
+            final Image[] images = shardImages.get(index);
+            for (Image existing : images) {
+                if (existing == image) {
+                    return;
+                }
+            }
+
+            final Image[] added = Arrays.copyOf(images, images.length + 1);
+            added[images.length] = image;
+            shardImages.set(index, added);
+        }
+
+        private synchronized void removeImage(Image image) {
+            final int index = SessionShards.shardIndex(image.sessionId(), shardImages.length());
+            final Image[] images = shardImages.get(index);
+            for (int i = 0; i < images.length; i++) {
+                if (images[i] == image) {
+                    final Image[] removed = new Image[images.length - 1];
+                    System.arraycopy(images, 0, removed, 0, i);
+                    System.arraycopy(images, i + 1, removed, i, removed.length - i);
+                    shardImages.set(index, removed);
+                    return;
+                }
+            }
+        }
+
+        private int poll(DutyCycleShard shard) {
+            final FragmentAssembler fragmentAssembler = fragmentAssemblers[shard.index];
+            if (fragmentAssemblers.length == 1) {
+                return subscription.poll(fragmentAssembler, Integer.MAX_VALUE);
+            }
+
+            int poll = 0;
+            for (Image image : shardImages.get(shard.index)) {
+                poll += image.poll(fragmentAssembler, Integer.MAX_VALUE);
+            }
+            return poll;
         }
     }
 }
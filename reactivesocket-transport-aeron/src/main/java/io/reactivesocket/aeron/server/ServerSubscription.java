@@ -25,7 +25,6 @@ import org.agrona.BitUtil;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
-import java.nio.ByteBuffer;
 
 /**
  * Subscription used by the AeronServerDuplexConnection to handle incoming frames and send them
@@ -61,14 +60,13 @@ class ServerSubscription implements Subscriber<Frame>, Loggable {
             trace("Server with publication session id {} sending frame => {}", publication.sessionId(), frame.toString());
         }
 
-        final ByteBuffer byteBuffer = frame.getByteBuffer();
         final int length = frame.length() + BitUtil.SIZE_OF_INT;
 
         try {
             AeronUtil.tryClaimOrOffer(publication, (offset, buffer) -> {
                 buffer.putShort(offset, getCount());
                 buffer.putShort(offset + BitUtil.SIZE_OF_SHORT, (short) MessageType.FRAME.getEncodedType());
-                buffer.putBytes(offset + BitUtil.SIZE_OF_INT, byteBuffer, frame.offset(), frame.length());
+                frame.encode(buffer, offset + BitUtil.SIZE_OF_INT);
             }, length);
         } catch (Throwable t) {
             onError(t);
@@ -78,6 +76,7 @@ class ServerSubscription implements Subscriber<Frame>, Loggable {
             trace("Server with publication session id {} sent frame  with ReactiveSocket stream id => {}", publication.sessionId(), frame.getStreamId());
         }
 
+        frame.release();
 
     }
 
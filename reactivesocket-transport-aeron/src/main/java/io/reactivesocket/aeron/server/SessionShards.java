@@ -0,0 +1,33 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.aeron.server;
+
+/**
+ * Maps Aeron session ids to the duty cycle shards of {@link ServerAeronManager}.
+ */
+final class SessionShards {
+    private SessionShards() {
+    }
+
+    /**
+     * @param sessionId Aeron session id of a connection, which may be negative
+     * @param shardCount number of shards
+     * @return index of the shard the session belongs to, in {@code [0, shardCount)}
+     */
+    static int shardIndex(int sessionId, int shardCount) {
+        return Math.floorMod(sessionId, shardCount);
+    }
+}
@@ -72,7 +72,9 @@ public class TimerWheelFairLeaseGovernor implements LeaseGovernor, Runnable {
                             extraTicketsLeft--;
                         }
                         Responder responder = responders.get(i);
-                        leaseCount.put(responder.hashCode(), amountToSend);
+                        synchronized (leaseCount) {
+                            leaseCount.put(responder.hashCode(), amountToSend);
+                        }
                         responder.sendLease(ttlMs, amountToSend);
                     }
 
@@ -123,10 +125,14 @@ public class TimerWheelFairLeaseGovernor implements LeaseGovernor, Runnable {
 
     @Override
     public boolean accept(Responder responder, Frame frame) {
-        int count = leaseCount.get(responder.hashCode()) - 1;
+        int count;
+        // called on the duty cycle shard of the responder's connection, leases are sent from the first shard
+        synchronized (leaseCount) {
+            count = leaseCount.get(responder.hashCode()) - 1;
 
-        if (count >= 0) {
-            leaseCount.put(responder.hashCode(), count);
+            if (count >= 0) {
+                leaseCount.put(responder.hashCode(), count);
+            }
         }
 
         return count > 0;
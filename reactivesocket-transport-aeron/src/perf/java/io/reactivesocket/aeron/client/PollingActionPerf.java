@@ -15,81 +15,162 @@
  */
 package io.reactivesocket.aeron.client;
 
+import io.aeron.DummySubscription;
+import io.aeron.driver.MediaDriver;
+import io.reactivesocket.ConnectionSetupPayload;
+import io.reactivesocket.DefaultReactiveSocket;
+import io.reactivesocket.Payload;
+import io.reactivesocket.ReactiveSocket;
+import io.reactivesocket.RequestHandler;
+import io.reactivesocket.aeron.server.ReactiveSocketAeronServer;
+import io.reactivesocket.util.PayloadImpl;
+import io.reactivesocket.util.Unsafe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import rx.Observable;
 
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static rx.RxReactiveStreams.toObservable;
+import static rx.RxReactiveStreams.toPublisher;
+
+/**
+ * Cost of one cycle of the client poller, and the end-to-end latency of request-response with the poller idling by
+ * busy spinning or backing off.
+ * <p>
+ * The round trip benchmarks launch a media driver and a server in the benchmark JVM, so they measure the way through
+ * the driver without a network in between. They report the latency distribution, the percentiles of the sampled
+ * round trips.
+ */
 public class PollingActionPerf {
-/*
+
     @State(Scope.Benchmark)
-    public static class TestState {
+    public static class PollState {
         PollingAction pa;
 
-        AtomicLong counter = new AtomicLong();
-
         @Setup
         public void init() {
-            ClientAeronManager.SubscriptionGroup sg
-                = new ClientAeronManager
-                .SubscriptionGroup("foo",
-                new Subscription[]{new DummySubscription()}, new Func1<Integer, ClientAeronManager.ThreadIdAwareFragmentHandler>() {
-                @Override
-                public ClientAeronManager.ThreadIdAwareFragmentHandler call(Integer integer) {
-                    return new ClientAeronManager.ThreadIdAwareFragmentHandler(0) {
-                        @Override
-                        public void onFragment(DirectBuffer buffer, int offset, int length, Header header) {
-                            counter.getAndIncrement();
-                        }
-                    };
-                }
-            });
+            List<ClientAeronManager.SubscriptionGroup> groups = new CopyOnWriteArrayList<>();
+            groups.add(new ClientAeronManager.SubscriptionGroup("foo", new DummySubscription(),
+                                                                (buffer, offset, length, header) -> {}));
 
             // 5 connections ....
+            List<ClientAeronManager.ClientAction> clientActions = new CopyOnWriteArrayList<>();
             for (int i = 0; i < 5; i++) {
-                sg.getClientActions().add(new ClientAeronManager.ClientAction(0) {
-                    @Override
-                    void call(int threadId) {
-                        counter.getAndIncrement();
-                    }
+                clientActions.add(() -> 0);
+            }
 
-                    @Override
-                    public void close() throws Exception {
+            pa = new PollingAction(groups, clientActions);
+        }
+    }
 
-                    }
-                });
-            }
+    @State(Scope.Benchmark)
+    public static class RoundTripState {
+        MediaDriver mediaDriver;
+        ReactiveSocketAeronServer server;
+        ReactiveSocket client;
+        Payload request;
+
+        @Setup(Level.Trial)
+        public void init() throws Exception {
+            final MediaDriver.Context context = new MediaDriver.Context();
+            context.dirsDeleteOnStart(true);
+            mediaDriver = MediaDriver.launch(context);
 
-            List<ClientAeronManager.SubscriptionGroup> group = new CopyOnWriteArrayList<>();
-            group.add(sg);
+            RequestHandler handler = new RequestHandler.Builder()
+                .withRequestResponse(payload -> toPublisher(Observable.just(new PayloadImpl("pong"))))
+                .build();
+            server = ReactiveSocketAeronServer.create("localhost", 39790, (setupPayload, rs) -> handler);
 
-            pa = new PollingAction(0, new ReentrantLock(), new ReentrantLock(), group);
+            AeronClientDuplexConnectionFactory cf = AeronClientDuplexConnectionFactory.getInstance();
+            cf.addSocketAddressToHandleResponses(new InetSocketAddress("localhost", 39790));
+            AeronClientDuplexConnection connection =
+                toObservable(cf.createAeronClientDuplexConnection(new InetSocketAddress("localhost", 39790)))
+                    .toBlocking()
+                    .single();
+            client = DefaultReactiveSocket.fromClientConnection(connection, ConnectionSetupPayload.create("UTF-8", "UTF-8"));
+            Unsafe.startAndWait(client);
+
+            request = new PayloadImpl("ping");
         }
-    }
 
-    @Benchmark
-    @BenchmarkMode(Mode.Throughput)
-    @Threads(1)
-    public void call1(TestState state) {
-        state.pa.call();
+        @TearDown(Level.Trial)
+        public void teardown() throws Exception {
+            toObservable(client.close()).toBlocking().lastOrDefault(null);
+            server.close();
+            mediaDriver.close();
+        }
+
+        /**
+         * Spins for the response, parking would add the wake up of this thread to every round trip.
+         */
+        Payload roundTrip() {
+            AtomicReference<Object> result = new AtomicReference<>();
+            client.requestResponse(request).subscribe(new Subscriber<Payload>() {
+                @Override
+                public void onSubscribe(Subscription s) {
+                    s.request(1);
+                }
+
+                @Override
+                public void onNext(Payload payload) {
+                    result.set(payload);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    result.set(t);
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+
+            Object response;
+            while ((response = result.get()) == null) {
+                // spin
+            }
+            if (response instanceof Throwable) {
+                throw new IllegalStateException((Throwable) response);
+            }
+            return (Payload) response;
+        }
     }
 
     @Benchmark
     @BenchmarkMode(Mode.Throughput)
-    @Threads(2)
-    public void call2(TestState state) {
-        state.pa.call();
+    public int pollCycle(PollState state) {
+        return state.pa.doWork();
     }
 
     @Benchmark
-    @BenchmarkMode(Mode.Throughput)
-    @Threads(3)
-    public void call3(TestState state) {
-        state.pa.call();
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Fork(value = 1, jvmArgsAppend = "-Dreactivesocket.aeron.clientIdleStrategy=org.agrona.concurrent.BusySpinIdleStrategy")
+    public Payload requestResponseBusySpin(RoundTripState state) {
+        return state.roundTrip();
     }
 
     @Benchmark
-    @BenchmarkMode(Mode.Throughput)
-    @Threads(4)
-    public void call4(TestState state) {
-        state.pa.call();
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Fork(value = 1, jvmArgsAppend = "-Dreactivesocket.aeron.clientIdleStrategy=org.agrona.concurrent.BackoffIdleStrategy")
+    public Payload requestResponseBackoff(RoundTripState state) {
+        return state.roundTrip();
     }
-    */
-
 }
@@ -0,0 +1,198 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.aeron.client;
+
+import io.aeron.Publication;
+import io.aeron.logbuffer.BufferClaim;
+import io.aeron.protocol.DataHeaderFlyweight;
+import io.reactivesocket.Frame;
+import io.reactivesocket.aeron.internal.FrameBatch;
+import io.reactivesocket.aeron.internal.MessageType;
+import io.reactivesocket.rx.Completable;
+import org.agrona.BitUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AeronClientDuplexConnectionTest {
+    private Publication publication;
+    private Queue<AeronClientDuplexConnection.OutputSubscriber> readyOutputs;
+    private AeronClientDuplexConnection connection;
+
+    @Before
+    public void setUp() {
+        publication = mock(Publication.class);
+        when(publication.maxPayloadLength()).thenReturn(1376);
+        readyOutputs = new ConcurrentLinkedQueue<>();
+        connection = new AeronClientDuplexConnection(publication, readyOutputs);
+    }
+
+    @Test
+    public void testStopsRequestingWhileBackPressuredAndResumes() {
+        when(publication.tryClaim(anyInt(), any(BufferClaim.class))).thenReturn(Publication.BACK_PRESSURED);
+
+        FramePublisher frames = new FramePublisher();
+        RecordingCompletable callback = new RecordingCompletable();
+        connection.addOutput(frames, callback);
+
+        assertEquals(AeronClientDuplexConnection.OUTPUT_BATCH, frames.requested.get());
+        frames.emit(AeronClientDuplexConnection.OUTPUT_BATCH);
+
+        AeronClientDuplexConnection.OutputSubscriber output = readyOutputs.poll();
+        assertNotNull(output);
+        assertTrue(connection.addSending(output));
+        assertFalse(connection.send());
+        assertFalse(connection.send());
+        // nothing was sent, so nothing more is requested
+        assertEquals(AeronClientDuplexConnection.OUTPUT_BATCH, frames.requested.get());
+
+        when(publication.tryClaim(anyInt(), any(BufferClaim.class))).thenAnswer(invocation -> {
+            int length = (Integer) invocation.getArguments()[0];
+            BufferClaim claim = (BufferClaim) invocation.getArguments()[1];
+            int frameLength = DataHeaderFlyweight.HEADER_LENGTH + length;
+            claim.wrap(new UnsafeBuffer(new byte[frameLength]), 0, frameLength);
+            return 1L;
+        });
+
+        assertTrue(connection.send());
+        assertEquals(2 * AeronClientDuplexConnection.OUTPUT_BATCH, frames.requested.get());
+        assertFalse(callback.failed.get());
+    }
+
+    @Test
+    public void testFailsOutputWhenPublicationThrows() {
+        when(publication.tryClaim(anyInt(), any(BufferClaim.class))).thenThrow(new IllegalStateException("boom"));
+
+        FramePublisher frames = new FramePublisher();
+        RecordingCompletable callback = new RecordingCompletable();
+        connection.addOutput(frames, callback);
+        frames.emit(1);
+
+        AeronClientDuplexConnection.OutputSubscriber output = readyOutputs.poll();
+        assertNotNull(output);
+        assertTrue(connection.addSending(output));
+        assertTrue(connection.send());
+        assertTrue(callback.failed.get());
+        assertTrue(frames.cancelled.get());
+        // not left scheduled, so the poller is not handed the output again
+        assertTrue(readyOutputs.isEmpty());
+    }
+
+    @Test
+    public void testBatchesFramesOfDifferentOutputsInOneClaim() {
+        // -Dreactivesocket.aeron.batchFrames=true, set by the test task
+        assumeTrue(FrameBatch.ENABLED);
+        List<UnsafeBuffer> claimed = new ArrayList<>();
+        when(publication.tryClaim(anyInt(), any(BufferClaim.class))).thenAnswer(invocation -> {
+            int length = (Integer) invocation.getArguments()[0];
+            BufferClaim claim = (BufferClaim) invocation.getArguments()[1];
+            int frameLength = DataHeaderFlyweight.HEADER_LENGTH + length;
+            UnsafeBuffer buffer = new UnsafeBuffer(new byte[frameLength]);
+            claimed.add(buffer);
+            claim.wrap(buffer, 0, frameLength);
+            return 1L;
+        });
+
+        // one output per stream, as the requester and responder write them
+        FramePublisher first = new FramePublisher();
+        FramePublisher second = new FramePublisher();
+        second.streamId = 100;
+        connection.addOutput(first, new RecordingCompletable());
+        connection.addOutput(second, new RecordingCompletable());
+        first.emit(1);
+        second.emit(1);
+
+        assertTrue(connection.addSending(readyOutputs.poll()));
+        assertFalse(connection.addSending(readyOutputs.poll()));
+        assertTrue(readyOutputs.isEmpty());
+        assertTrue(connection.send());
+
+        assertEquals(1, claimed.size());
+        List<Integer> streamIds = new ArrayList<>();
+        FrameBatch.forEachFrame(claimed.get(0), DataHeaderFlyweight.HEADER_LENGTH, (buffer, offset, length) -> {
+            Frame frame = Frame.from(buffer, offset, length);
+            streamIds.add(frame.getStreamId());
+            frame.release();
+        });
+        assertEquals(MessageType.FRAME_BATCH,
+                     MessageType.from(claimed.get(0).getShort(DataHeaderFlyweight.HEADER_LENGTH + BitUtil.SIZE_OF_SHORT)));
+        assertEquals(Arrays.asList(1, 101), streamIds);
+    }
+
+    private static class FramePublisher implements Publisher<Frame> {
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicReference<Subscriber<? super Frame>> subscriber = new AtomicReference<>();
+        private int streamId;
+
+        @Override
+        public void subscribe(Subscriber<? super Frame> s) {
+            subscriber.set(s);
+            s.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled.set(true);
+                }
+            });
+        }
+
+        private void emit(int count) {
+            for (int i = 0; i < count; i++) {
+                subscriber.get().onNext(Frame.RequestN.from(++streamId, 1));
+            }
+        }
+    }
+
+    private static class RecordingCompletable implements Completable {
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        @Override
+        public void success() {
+        }
+
+        @Override
+        public void error(Throwable e) {
+            failed.set(true);
+        }
+    }
+}
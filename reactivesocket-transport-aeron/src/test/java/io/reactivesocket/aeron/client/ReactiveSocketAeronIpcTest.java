@@ -0,0 +1,90 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.aeron.client;
+
+import io.aeron.driver.MediaDriver;
+import io.reactivesocket.ConnectionSetupPayload;
+import io.reactivesocket.Payload;
+import io.reactivesocket.ReactiveSocket;
+import io.reactivesocket.RequestHandler;
+import io.reactivesocket.aeron.server.ReactiveSocketAeronServer;
+import io.reactivesocket.test.TestUtil;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import rx.Observable;
+import rx.RxReactiveStreams;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Round trips over IPC through an embedded media driver.
+ */
+public class ReactiveSocketAeronIpcTest {
+    private static MediaDriver mediaDriver;
+    private static ReactiveSocketAeronServer server;
+
+    @BeforeClass
+    public static void init() {
+        final MediaDriver.Context context = new MediaDriver.Context();
+        context.dirsDeleteOnStart(true);
+        mediaDriver = MediaDriver.launch(context);
+
+        server = ReactiveSocketAeronServer.createIpc((setupPayload, rs) ->
+            new RequestHandler.Builder()
+                .withRequestResponse(payload -> {
+                    String s = TestUtil.byteToString(payload.getData());
+                    Observable<Payload> pong = Observable.just(TestUtil.utf8EncodedPayload(s + "_response", "server_metadata"));
+                    return RxReactiveStreams.toPublisher(pong);
+                })
+                .build());
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        server.close();
+        mediaDriver.close();
+    }
+
+    @Test(timeout = 30_000)
+    public void testRequestResponse() {
+        ReactiveSocket reactiveSocket = connect();
+
+        Payload response = requestResponse(reactiveSocket, "client_request");
+        assertEquals("client_request_response", TestUtil.byteToString(response.getData()));
+        assertEquals("server_metadata", TestUtil.byteToString(response.getMetadata()));
+    }
+
+    @Test(timeout = 30_000)
+    public void testConnectionsSendOnStreamsOfTheirOwn() {
+        ReactiveSocket first = connect();
+        ReactiveSocket second = connect();
+
+        assertEquals("first_response", TestUtil.byteToString(requestResponse(first, "first").getData()));
+        assertEquals("second_response", TestUtil.byteToString(requestResponse(second, "second").getData()));
+    }
+
+    private static ReactiveSocket connect() {
+        ConnectionSetupPayload setupPayload = ConnectionSetupPayload.create("UTF-8", "UTF-8", ConnectionSetupPayload.NO_FLAGS);
+        AeronReactiveSocketConnector connector = AeronReactiveSocketConnector.ipc(setupPayload, Throwable::printStackTrace);
+        return RxReactiveStreams.toObservable(connector.connect(AeronIpcAddress.INSTANCE)).toBlocking().single();
+    }
+
+    private static Payload requestResponse(ReactiveSocket reactiveSocket, String data) {
+        Payload payload = TestUtil.utf8EncodedPayload(data, "client_metadata");
+        return RxReactiveStreams.toObservable(reactiveSocket.requestResponse(payload)).toBlocking().single();
+    }
+}
@@ -22,12 +22,19 @@ import org.junit.Test;
 
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 public class AeronUtilTest {
+    private static final int MAX_PAYLOAD_LENGTH = 1376;
 
     @Test(expected = TimedOutException.class)
     public void testOfferShouldTimeOut() {
@@ -53,4 +60,36 @@ public class AeronUtilTest {
             .tryClaim(publication, bufferFiller, 1, 100, TimeUnit.MILLISECONDS);
 
     }
+
+    @Test
+    public void testTryClaimOrOfferOnceReturnsBackPressure() {
+        Publication publication = mock(Publication.class);
+        AeronUtil.BufferFiller bufferFiller = mock(AeronUtil.BufferFiller.class);
+
+        when(publication.maxPayloadLength()).thenReturn(MAX_PAYLOAD_LENGTH);
+        when(publication.tryClaim(anyInt(), any(BufferClaim.class)))
+            .thenReturn(Publication.BACK_PRESSURED);
+
+        long result = AeronUtil.tryClaimOrOfferOnce(publication, bufferFiller, 1);
+
+        assertEquals(Publication.BACK_PRESSURED, result);
+        verify(publication, times(1)).tryClaim(anyInt(), any(BufferClaim.class));
+        verifyZeroInteractions(bufferFiller);
+    }
+
+    @Test
+    public void testTryClaimOrOfferOnceOffersLargeMessages() {
+        Publication publication = mock(Publication.class);
+        AeronUtil.BufferFiller bufferFiller = mock(AeronUtil.BufferFiller.class);
+
+        when(publication.maxPayloadLength()).thenReturn(MAX_PAYLOAD_LENGTH);
+        when(publication.offer(any(DirectBuffer.class), anyInt(), anyInt()))
+            .thenReturn(Publication.BACK_PRESSURED);
+
+        long result = AeronUtil.tryClaimOrOfferOnce(publication, bufferFiller, MAX_PAYLOAD_LENGTH + 1);
+
+        assertEquals(Publication.BACK_PRESSURED, result);
+        verify(publication, times(1)).offer(any(DirectBuffer.class), eq(0), eq(MAX_PAYLOAD_LENGTH + 1));
+        verify(publication, never()).tryClaim(anyInt(), any(BufferClaim.class));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.aeron.internal;
+
+import io.reactivesocket.Frame;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class FrameBatchTest {
+
+    @Test
+    public void testFramesAreDecodedInOrder() {
+        UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocate(FrameBatch.MAX_LENGTH));
+        int offset = 8;
+
+        FrameBatch.encodeHeader(buffer, offset, 3);
+        int frameOffset = offset + FrameBatch.HEADER_LENGTH;
+        for (int streamId = 1; streamId <= 3; streamId++) {
+            frameOffset = FrameBatch.encodeFrame(buffer, frameOffset, Frame.RequestN.from(streamId, streamId * 10));
+        }
+
+        assertEquals(MessageType.FRAME_BATCH, MessageType.from(buffer.getShort(offset + 2)));
+
+        List<Integer> streamIds = new ArrayList<>();
+        List<Integer> requestN = new ArrayList<>();
+        FrameBatch.forEachFrame(buffer, offset, (b, o, l) -> {
+            Frame frame = Frame.from(b, o, l);
+            streamIds.add(frame.getStreamId());
+            requestN.add(Frame.RequestN.requestN(frame));
+        });
+
+        assertEquals(Arrays.asList(1, 2, 3), streamIds);
+        assertEquals(Arrays.asList(10, 20, 30), requestN);
+    }
+}
@@ -16,6 +16,7 @@
 package io.reactivesocket.aeron.server;
 
 import io.aeron.driver.MediaDriver;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -27,6 +28,7 @@ import rx.observers.TestSubscriber;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 @Ignore
 public class ServerAeronManagerTest {
@@ -47,6 +49,24 @@ public class ServerAeronManagerTest {
         latch.await();
     }
 
+    @Test(timeout = 2_000)
+    public void testSubmitActionsOfSessionOnSameThread() throws Exception {
+        ServerAeronManager instance = ServerAeronManager.getInstance();
+        int sessionId = -7;
+        Thread[] threads = new Thread[2];
+        CountDownLatch latch = new CountDownLatch(2);
+        instance.submitAction(sessionId, () -> {
+            threads[0] = Thread.currentThread();
+            latch.countDown();
+        });
+        instance.threadSafeTimeout(sessionId, 1, TimeUnit.MILLISECONDS, () -> {
+            threads[1] = Thread.currentThread();
+            latch.countDown();
+        });
+        latch.await();
+        Assert.assertSame(threads[0], threads[1]);
+    }
+
     @Test(timeout = 2_000)
     public void testSubmitTask() {
         ServerAeronManager instance = ServerAeronManager.getInstance();
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.aeron.server;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SessionShardsTest {
+    private static final int SHARDS = 4;
+
+    @Test
+    public void testSessionsSharingAShardAreShardCountApart() {
+        for (int sessionId = -100; sessionId <= 100; sessionId++) {
+            int index = SessionShards.shardIndex(sessionId, SHARDS);
+            assertEquals(index, SessionShards.shardIndex(sessionId + SHARDS, SHARDS));
+            assertTrue(index != SessionShards.shardIndex(sessionId + 1, SHARDS));
+        }
+    }
+
+    @Test
+    public void testNegativeSessionIdsMapIntoRange() {
+        int[] sessionIds = { -1, -7, -SHARDS, Integer.MIN_VALUE, Integer.MIN_VALUE + 1 };
+        for (int sessionId : sessionIds) {
+            int index = SessionShards.shardIndex(sessionId, SHARDS);
+            assertTrue("session " + sessionId + " => " + index, index >= 0 && index < SHARDS);
+        }
+        assertEquals(SHARDS - 1, SessionShards.shardIndex(-1, SHARDS));
+    }
+
+    @Test
+    public void testConsecutiveSessionsSpreadEvenlyOverShards() {
+        int[] sessionsPerShard = new int[SHARDS];
+        // the driver hands out session ids in sequence from a random start
+        int first = 1_234_567_891;
+        for (int i = 0; i < 100 * SHARDS; i++) {
+            sessionsPerShard[SessionShards.shardIndex(first + i, SHARDS)]++;
+        }
+        for (int count : sessionsPerShard) {
+            assertEquals(100, count);
+        }
+    }
+
+    @Test
+    public void testSingleShardTakesAllSessions() {
+        assertEquals(0, SessionShards.shardIndex(42, 1));
+        assertEquals(0, SessionShards.shardIndex(-42, 1));
+        assertEquals(0, SessionShards.shardIndex(Integer.MIN_VALUE, 1));
+    }
+}
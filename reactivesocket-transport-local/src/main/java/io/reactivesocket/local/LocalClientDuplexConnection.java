@@ -22,8 +22,6 @@ import io.reactivesocket.rx.Completable;
 import io.reactivesocket.rx.Observable;
 import io.reactivesocket.rx.Observer;
 import org.reactivestreams.Publisher;
-import org.reactivestreams.Subscriber;
-import org.reactivestreams.Subscription;
 
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -31,11 +29,14 @@ class LocalClientDuplexConnection implements DuplexConnection {
     private final String name;
 
     private final CopyOnWriteArrayList<Observer<Frame>> subjects;
+    // written to by the outputs of the server connection of the same name
+    final LocalFrameQueue input;
     private final EmptySubject closeSubject = new EmptySubject();
 
     public LocalClientDuplexConnection(String name) {
         this.name = name;
         this.subjects = new CopyOnWriteArrayList<>();
+        this.input = new LocalFrameQueue(subjects);
     }
 
     @Override
@@ -48,36 +49,11 @@ class LocalClientDuplexConnection implements DuplexConnection {
 
     @Override
     public void addOutput(Publisher<Frame> o, Completable callback) {
-        o
-            .subscribe(new Subscriber<Frame>() {
-
-                @Override
-                public void onSubscribe(Subscription s) {
-                    s.request(Long.MAX_VALUE);
-                }
-
-                @Override
-                public void onNext(Frame frame) {
-                    try {
-                        LocalReactiveSocketManager
-                            .getInstance()
-                            .getServerConnection(name)
-                            .write(frame);
-                    } catch (Throwable t) {
-                        onError(t);
-                    }
-                }
-
-                @Override
-                public void onError(Throwable t) {
-                    callback.error(t);
-                }
-
-                @Override
-                public void onComplete() {
-                    callback.success();
-                }
-            });
+        LocalReactiveSocketManager
+            .getInstance()
+            .getServerConnection(name)
+            .input
+            .addOutput(o, callback);
     }
 
     @Override
@@ -85,11 +61,6 @@ class LocalClientDuplexConnection implements DuplexConnection {
         return 1.0;
     }
 
-    void write(Frame frame) {
-        subjects
-            .forEach(o -> o.onNext(frame));
-    }
-
     @Override
     public Publisher<Void> close() {
         return s -> {
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+package io.reactivesocket.local;
+
+import io.reactivesocket.Frame;
+import io.reactivesocket.rx.Completable;
+import io.reactivesocket.rx.Observer;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The input of a local connection, a bounded lock-free queue that the outputs of the peer write into.
+ * <p>
+ * <ul>
+ *     <li>By default frames are passed by reference, the peer's frame instances are handed to the input without
+ *     being encoded or copied. With {@code -Dio.reactivesocket.local.passByReference=false} they are copied into a
+ *     ring buffer instead, so neither side sees the other's buffers, as over a network transport.</li>
+ *     <li>Every output is requested at most {@link #OUTPUT_BATCH} frames at a time. An output whose frame finds the
+ *     queue full stops requesting and resumes once the input has been drained, so a slow consumer holds back its
+ *     producers rather than buffering without bound.</li>
+ *     <li>No thread is dedicated to the input, whichever thread offers a frame while nobody else is dispatching
+ *     dispatches everything queued. Frames written while dispatching, e.g. requests issued from a response, are
+ *     queued and dispatched after the current frame, not recursively.</li>
+ * </ul>
+ * The queue is many-to-one as the outputs of all streams of a connection write into it concurrently, the dispatching
+ * side is single threaded.
+ */
+class LocalFrameQueue {
+
+    /**
+     * Most frames requested from an output publisher at once.
+     */
+    static final int OUTPUT_BATCH = 32;
+
+    private static final boolean PASS_BY_REFERENCE =
+        Boolean.parseBoolean(System.getProperty("io.reactivesocket.local.passByReference", "true"));
+    // frames queued when passing by reference
+    private static final int QUEUE_CAPACITY = Integer.getInteger("io.reactivesocket.local.queueCapacity", 1024);
+    // bytes queued when copying, a power of two, frames may be up to an eighth of it
+    private static final int RING_BUFFER_CAPACITY =
+        Integer.getInteger("io.reactivesocket.local.ringBufferCapacity", 1024 * 1024);
+
+    private final CopyOnWriteArrayList<Observer<Frame>> subjects;
+    private final FramePipe pipe;
+    private final Queue<Output> congested = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    LocalFrameQueue(CopyOnWriteArrayList<Observer<Frame>> subjects) {
+        this(subjects, PASS_BY_REFERENCE, PASS_BY_REFERENCE ? QUEUE_CAPACITY : RING_BUFFER_CAPACITY);
+    }
+
+    /**
+     * @param capacity in frames when passing by reference, in bytes otherwise
+     */
+    LocalFrameQueue(CopyOnWriteArrayList<Observer<Frame>> subjects, boolean passByReference, int capacity) {
+        this.subjects = subjects;
+        this.pipe = passByReference ? new ReferencePipe(capacity, this::dispatch)
+                                    : new RingBufferPipe(capacity, this::dispatch);
+    }
+
+    /**
+     * Writes all frames of {@code o} to this input, see
+     * {@link io.reactivesocket.DuplexConnection#addOutput(Publisher, Completable)}.
+     */
+    void addOutput(Publisher<Frame> o, Completable callback) {
+        o.subscribe(new Output(callback));
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        try {
+            do {
+                pipe.drain();
+                resumeOutputs();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        } catch (Throwable t) {
+            // don't wedge the input, whoever offers next dispatches what is still queued
+            wip.set(0);
+            throw t;
+        }
+    }
+
+    private void resumeOutputs() {
+        // an output that is still congested parks again, so only resume those parked so far
+        for (int i = congested.size(); i > 0; i--) {
+            Output output = congested.poll();
+            if (output == null) {
+                return;
+            }
+            output.transfer();
+        }
+    }
+
+    private void dispatch(Frame frame) {
+        try {
+            for (Observer<Frame> o : subjects) {
+                try {
+                    o.onNext(frame);
+                } catch (Throwable t) {
+                    // the observer is done, the others and the frames queued behind this one are still dispatched
+                    subjects.remove(o);
+                    o.onError(t);
+                }
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    private interface FramePipe {
+        /**
+         * @return true if the frame was queued, the pipe then owns it
+         */
+        boolean offer(Frame frame);
+
+        /**
+         * Dispatches all queued frames.
+         */
+        void drain();
+    }
+
+    private static final class ReferencePipe implements FramePipe {
+        private final ManyToOneConcurrentArrayQueue<Frame> frames;
+        private final Consumer<Frame> dispatcher;
+
+        private ReferencePipe(int capacity, Consumer<Frame> dispatcher) {
+            this.frames = new ManyToOneConcurrentArrayQueue<>(capacity);
+            this.dispatcher = dispatcher;
+        }
+
+        @Override
+        public boolean offer(Frame frame) {
+            return frames.offer(frame);
+        }
+
+        @Override
+        public void drain() {
+            Frame frame;
+            while ((frame = frames.poll()) != null) {
+                dispatcher.accept(frame);
+            }
+        }
+    }
+
+    private static final class RingBufferPipe implements FramePipe {
+        private static final int FRAME_MSG_TYPE_ID = 1;
+        private static final int DRAIN_LIMIT = 64;
+
+        private final ManyToOneRingBuffer ringBuffer;
+        // frames are encoded here before they are written to the ring buffer
+        private final ThreadLocal<UnsafeBuffer> encodeBuffers;
+        // the frame only wraps the ring buffer, it is copied if retained past dispatch
+        private final MessageHandler handler;
+
+        private RingBufferPipe(int capacity, Consumer<Frame> dispatcher) {
+            handler = (msgTypeId, buffer, index, length) -> dispatcher.accept(Frame.from(buffer, index, length));
+            ringBuffer = new ManyToOneRingBuffer(
+                new UnsafeBuffer(ByteBuffer.allocateDirect(capacity + RingBufferDescriptor.TRAILER_LENGTH)));
+            int maxFrameLength = ringBuffer.maxMsgLength();
+            encodeBuffers = ThreadLocal.withInitial(() -> new UnsafeBuffer(ByteBuffer.allocateDirect(maxFrameLength)));
+        }
+
+        @Override
+        public boolean offer(Frame frame) {
+            int length = frame.length();
+            if (length > ringBuffer.maxMsgLength()) {
+                throw new IllegalArgumentException("Frame of " + length + " bytes exceeds the maximum of "
+                                                   + ringBuffer.maxMsgLength() + ", increase "
+                                                   + "io.reactivesocket.local.ringBufferCapacity");
+            }
+            UnsafeBuffer encodeBuffer = encodeBuffers.get();
+            frame.encode(encodeBuffer, 0);
+            if (!ringBuffer.write(FRAME_MSG_TYPE_ID, encodeBuffer, 0, length)) {
+                return false;
+            }
+            frame.release();
+            return true;
+        }
+
+        @Override
+        public void drain() {
+            int read;
+            do {
+                read = ringBuffer.read(handler, DRAIN_LIMIT);
+            } while (read > 0);
+        }
+    }
+
+    private final class Output implements Subscriber<Frame> {
+        private final Completable callback;
+        // frames received and not queued yet, never more than requested
+        private final OneToOneConcurrentArrayQueue<Frame> pending = new OneToOneConcurrentArrayQueue<>(OUTPUT_BATCH);
+        // frames requested and not received yet
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+        // only accessed by transfer()
+        private boolean done;
+
+        private Output(Completable callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            transfer();
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            outstanding.decrementAndGet();
+            if (!pending.offer(frame)) {
+                frame.release();
+                error = new IllegalStateException("Received more frames than requested");
+            }
+            transfer();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+            transfer();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            transfer();
+        }
+
+        /**
+         * Moves pending frames to the input and requests more once all are queued. Runs on one thread at a time,
+         * whichever of the publisher and the dispatching thread of the input calls it.
+         */
+        private void transfer() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            boolean queued = false;
+            boolean parked = false;
+            int missed = 1;
+            do {
+                if (done) {
+                    releasePending();
+                } else {
+                    try {
+                        Frame frame;
+                        while ((frame = pending.peek()) != null && error == null) {
+                            if (!pipe.offer(frame)) {
+                                parked = true;
+                                congested.offer(this);
+                                break;
+                            }
+                            pending.poll();
+                            queued = true;
+                        }
+                    } catch (Throwable t) {
+                        error = t;
+                    }
+
+                    Throwable e = error;
+                    if (e != null) {
+                        done = true;
+                        releasePending();
+                        if (subscription != null) {
+                            subscription.cancel();
+                        }
+                        callback.error(e);
+                    } else if (pending.isEmpty()) {
+                        if (completed) {
+                            done = true;
+                            callback.success();
+                        } else {
+                            requestMore();
+                        }
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+
+            if (queued || parked) {
+                // dispatches the queued frames, or resumes this if the input was drained in the meantime
+                drain();
+            }
+        }
+
+        private void requestMore() {
+            Subscription s = subscription;
+            if (s == null) {
+                return;
+            }
+            int current;
+            while ((current = outstanding.get()) <= OUTPUT_BATCH / 2) {
+                if (outstanding.compareAndSet(current, OUTPUT_BATCH)) {
+                    s.request(OUTPUT_BATCH - current);
+                    return;
+                }
+            }
+        }
+
+        private void releasePending() {
+            Frame frame;
+            while ((frame = pending.poll()) != null) {
+                frame.release();
+            }
+        }
+    }
+}
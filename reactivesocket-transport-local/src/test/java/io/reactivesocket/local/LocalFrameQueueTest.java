@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+package io.reactivesocket.local;
+
+import io.reactivesocket.Frame;
+import io.reactivesocket.rx.Completable;
+import io.reactivesocket.rx.Disposable;
+import io.reactivesocket.rx.Observer;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import rx.Observable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static rx.RxReactiveStreams.toPublisher;
+
+public class LocalFrameQueueTest {
+
+    @Test
+    public void testCopiesFramesInOrder() {
+        List<Integer> received = new ArrayList<>();
+        LocalFrameQueue queue = newQueue(false, 1024, frame -> received.add(frame.getStreamId()));
+
+        RecordingCompletable callback = new RecordingCompletable();
+        queue.addOutput(frames(1, 100), callback);
+
+        assertEquals(range(1, 100), received);
+        assertTrue(callback.succeeded);
+    }
+
+    @Test
+    public void testParksOutputWhileQueueIsFull() {
+        List<Integer> received = new ArrayList<>();
+        RecordingCompletable nested = new RecordingCompletable();
+        LocalFrameQueue[] queue = new LocalFrameQueue[1];
+        queue[0] = newQueue(true, 4, frame -> {
+            received.add(frame.getStreamId());
+            if (frame.getStreamId() == 0) {
+                // queued behind this frame, more than fit until it has been dispatched
+                queue[0].addOutput(frames(1, 100), nested);
+            }
+        });
+
+        RecordingCompletable callback = new RecordingCompletable();
+        queue[0].addOutput(frames(0, 1), callback);
+
+        assertEquals(range(0, 101), received);
+        assertTrue(callback.succeeded);
+        assertTrue(nested.succeeded);
+    }
+
+    @Test
+    public void testRequestsInBatches() {
+        AtomicLong maxRequested = new AtomicLong();
+        LocalFrameQueue queue = newQueue(true, 1024, frame -> {});
+
+        RecordingCompletable callback = new RecordingCompletable();
+        queue.addOutput(toPublisher(Observable.range(1, 1000)
+                                              .map(i -> Frame.RequestN.from(i, 1))
+                                              .doOnRequest(n -> maxRequested.accumulateAndGet(n, Math::max))),
+                        callback);
+
+        assertTrue(callback.succeeded);
+        assertTrue("requested " + maxRequested.get(), maxRequested.get() <= LocalFrameQueue.OUTPUT_BATCH);
+    }
+
+    @Test
+    public void testFailingObserverDoesNotStopDispatch() {
+        List<Integer> received = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        CopyOnWriteArrayList<Observer<Frame>> subjects = new CopyOnWriteArrayList<>();
+        subjects.add(observer(frame -> {
+            if (frame.getStreamId() == 3) {
+                throw new IllegalStateException("boom");
+            }
+        }, errors::add));
+        subjects.add(observer(frame -> received.add(frame.getStreamId()), e -> {}));
+        LocalFrameQueue queue = new LocalFrameQueue(subjects, true, 1024);
+
+        RecordingCompletable callback = new RecordingCompletable();
+        queue.addOutput(frames(1, 10), callback);
+        RecordingCompletable next = new RecordingCompletable();
+        queue.addOutput(frames(11, 10), next);
+
+        assertEquals(range(1, 20), received);
+        assertEquals(1, errors.size());
+        assertEquals(1, subjects.size());
+        assertTrue(callback.succeeded);
+        assertTrue(next.succeeded);
+    }
+
+    private static LocalFrameQueue newQueue(boolean passByReference, int capacity, Consumer<Frame> onNext) {
+        CopyOnWriteArrayList<Observer<Frame>> subjects = new CopyOnWriteArrayList<>();
+        subjects.add(observer(onNext, e -> {}));
+        return new LocalFrameQueue(subjects, passByReference, capacity);
+    }
+
+    private static Observer<Frame> observer(Consumer<Frame> onNext, Consumer<Throwable> onError) {
+        return new Observer<Frame>() {
+            @Override
+            public void onNext(Frame frame) {
+                onNext.accept(frame);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                onError.accept(e);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+
+            @Override
+            public void onSubscribe(Disposable d) {
+            }
+        };
+    }
+
+    private static Publisher<Frame> frames(int firstStreamId, int count) {
+        return toPublisher(Observable.range(firstStreamId, count).map(i -> Frame.RequestN.from(i, 1)));
+    }
+
+    private static List<Integer> range(int start, int count) {
+        List<Integer> range = new ArrayList<>();
+        for (int i = start; i < start + count; i++) {
+            range.add(i);
+        }
+        return range;
+    }
+
+    private static class RecordingCompletable implements Completable {
+        private volatile boolean succeeded;
+
+        @Override
+        public void success() {
+            succeeded = true;
+        }
+
+        @Override
+        public void error(Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactivesocket.transport.tcp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactivesocket.Frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes {@link Frame}s into Netty {@link ByteBuf}s.
+ * <p>
+ * A frame is written once, straight into an {@link ByteBufAllocator#ioBuffer(int) I/O buffer} of the channel's
+ * allocator, a pooled direct buffer with Netty's default {@link io.netty.buffer.PooledByteBufAllocator}. A
+ * {@link Frame#isGathering() gathering} frame becomes a {@link CompositeByteBuf} of a small header buffer and the caller's metadata and data,
+ * so the payload is never copied before it reaches the socket. That composite references the frame's buffers, so it
+ * owns the frame and releases it when it is itself released, i.e. once the write has completed.
+ * <p>
+ * Not thread-safe, use one instance per channel or writer.
+ */
+public class ByteBufFrameEncoder {
+
+    private final MutableDirectByteBuf buffer = new MutableDirectByteBuf(Unpooled.EMPTY_BUFFER);
+
+    /**
+     * Encode a frame, taking ownership of it. The frame is released once it is encoded or, for a gathering frame, once
+     * the returned buffer is released. It is also released if encoding fails.
+     *
+     * @param alloc to allocate from
+     * @param frame to encode
+     * @return buffer with the encoded frame, owned by the caller
+     */
+    public ByteBuf encode(ByteBufAllocator alloc, Frame frame) {
+        if (!frame.isGathering()) {
+            try {
+                return encode(alloc.ioBuffer(frame.length()), frame, false);
+            } finally {
+                frame.release();
+            }
+        }
+
+        ByteBuf header;
+        try {
+            header = encode(alloc.ioBuffer(frame.headerLength()), frame, true);
+        } catch (Throwable t) {
+            frame.release();
+            throw t;
+        }
+        CompositeByteBuf composite = new FrameOwningCompositeByteBuf(alloc, frame);
+        try {
+            composite.addComponent(header);
+            addComponent(composite, frame.getMetadata());
+            addComponent(composite, frame.getData());
+            composite.writerIndex(frame.length());
+        } catch (Throwable t) {
+            // releases the header and the frame
+            composite.release();
+            throw t;
+        }
+
+        return composite;
+    }
+
+    private ByteBuf encode(ByteBuf byteBuf, Frame frame, boolean headerOnly) {
+        try {
+            buffer.wrap(byteBuf);
+            byteBuf.writerIndex(headerOnly ? frame.encodeHeader(buffer, 0) : frame.encode(buffer, 0));
+        } catch (Throwable t) {
+            byteBuf.release();
+            throw t;
+        } finally {
+            buffer.wrap(Unpooled.EMPTY_BUFFER);
+        }
+
+        return byteBuf;
+    }
+
+    private static void addComponent(CompositeByteBuf composite, ByteBuffer byteBuffer) {
+        if (byteBuffer.hasRemaining()) {
+            composite.addComponent(Unpooled.wrappedBuffer(byteBuffer));
+        }
+    }
+
+    /**
+     * Composite of a gathering frame's header and payload, which releases the frame along with its components.
+     */
+    private static final class FrameOwningCompositeByteBuf extends CompositeByteBuf {
+        private final Frame frame;
+
+        private FrameOwningCompositeByteBuf(ByteBufAllocator alloc, Frame frame) {
+            super(alloc, true, 3);
+            this.frame = frame;
+        }
+
+        @Override
+        protected void deallocate() {
+            try {
+                super.deallocate();
+            } finally {
+                frame.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactivesocket.transport.tcp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.reactivesocket.Frame;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces the flush that {@link TcpDuplexConnection} requests after every frame, so frames written by all streams
+ * of a connection go out in one flush, and usually one syscall, instead of one each.
+ * <p>
+ * Pending frames are flushed at the earliest of:
+ * <ul>
+ *     <li>{@code maxFrames} frames or {@code maxBytes} bytes written since the last flush,</li>
+ *     <li>the end of the read batch, for frames written while handling input (REQUEST_N, responses),</li>
+ *     <li>the end of the current event loop turn when {@code maxDelayNanos} is 0, otherwise {@code maxDelayNanos}
+ *     after the first pending flush.</li>
+ * </ul>
+ * Closing the channel flushes first. Must be added after {@link ReactiveSocketFrameCodec}, closer to the tail, so
+ * it sees the frames and flushes of the connection. Not sharable, use one instance per channel.
+ */
+public class FlushCoalescingHandler extends ChannelDuplexHandler {
+
+    public static final int DEFAULT_MAX_FRAMES = 256;
+    public static final int DEFAULT_MAX_BYTES = 64 * 1024;
+
+    private final int maxFrames;
+    private final int maxBytes;
+    private final long maxDelayNanos;
+    private final Runnable flushTask = this::scheduledFlush;
+
+    // all state is only touched from the event loop of the channel
+    private ChannelHandlerContext ctx;
+    private int pendingFrames;
+    private long pendingBytes;
+    private boolean flushPending;
+    private boolean flushScheduled;
+    private boolean reading;
+
+    public FlushCoalescingHandler() {
+        this(DEFAULT_MAX_FRAMES, DEFAULT_MAX_BYTES, 0, TimeUnit.NANOSECONDS);
+    }
+
+    public FlushCoalescingHandler(int maxFrames, int maxBytes, long maxDelay, TimeUnit unit) {
+        if (maxFrames <= 0 || maxBytes <= 0 || maxDelay < 0) {
+            throw new IllegalArgumentException("Invalid flush limits: maxFrames=" + maxFrames +
+                                               " maxBytes=" + maxBytes + " maxDelay=" + maxDelay);
+        }
+        this.maxFrames = maxFrames;
+        this.maxBytes = maxBytes;
+        maxDelayNanos = unit.toNanos(maxDelay);
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        flushIfPending(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        reading = true;
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        reading = false;
+        flushIfPending(ctx);
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof Frame) {
+            pendingBytes += ((Frame) msg).length();
+        } else if (msg instanceof ByteBuf) {
+            pendingBytes += ((ByteBuf) msg).readableBytes();
+        }
+        pendingFrames++;
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (pendingFrames >= maxFrames || pendingBytes >= maxBytes) {
+            flushNow(ctx);
+            return;
+        }
+
+        flushPending = true;
+        if (!reading && !flushScheduled) {
+            // channelReadComplete flushes what is written while reading
+            flushScheduled = true;
+            if (maxDelayNanos == 0) {
+                ctx.executor().execute(flushTask);
+            } else {
+                ctx.executor().schedule(flushTask, maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfPending(ctx);
+        ctx.close(promise);
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfPending(ctx);
+        ctx.disconnect(promise);
+    }
+
+    private void scheduledFlush() {
+        if (flushScheduled) {
+            flushIfPending(ctx);
+        }
+    }
+
+    private void flushIfPending(ChannelHandlerContext ctx) {
+        if (flushPending) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        pendingFrames = 0;
+        pendingBytes = 0;
+        flushPending = false;
+        // a task already scheduled finds nothing pending
+        flushScheduled = false;
+        ctx.flush();
+    }
+}
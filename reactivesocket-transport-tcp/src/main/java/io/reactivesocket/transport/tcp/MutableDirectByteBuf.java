@@ -152,21 +152,41 @@ public class MutableDirectByteBuf implements MutableDirectBuffer
     @Override
     public void putBytes(int index, ByteBuffer srcBuffer, int length)
     {
-        final ByteBuffer sliceBuffer = slice(srcBuffer, 0, length);
-        byteBuf.setBytes(index, sliceBuffer);
+        // same contract as UnsafeBuffer, copy from the current position and advance it
+        final int srcIndex = srcBuffer.position();
+        putBytes(index, srcBuffer, srcIndex, length);
+        srcBuffer.position(srcIndex + length);
     }
 
     @Override
     public void putBytes(int index, ByteBuffer srcBuffer, int srcIndex, int length)
     {
-        final ByteBuffer sliceBuffer = slice(srcBuffer, srcIndex, srcIndex + length);
-        byteBuf.setBytes(index, sliceBuffer);
+        if (srcBuffer.hasArray())
+        {
+            byteBuf.setBytes(index, srcBuffer.array(), srcBuffer.arrayOffset() + srcIndex, length);
+        }
+        else
+        {
+            final ByteBuffer sliceBuffer = slice(srcBuffer, srcIndex, srcIndex + length);
+            byteBuf.setBytes(index, sliceBuffer);
+        }
     }
 
     @Override
     public void putBytes(int index, DirectBuffer srcBuffer, int srcIndex, int length)
     {
-        throw new UnsupportedOperationException("putBytes(DirectBuffer) not supported");
+        final ByteBuffer srcByteBuffer = srcBuffer.byteBuffer();
+        if (null != srcByteBuffer)
+        {
+            putBytes(index, srcByteBuffer, srcIndex, length);
+        }
+        else
+        {
+            for (int i = 0; i < length; i++)
+            {
+                byteBuf.setByte(index + i, srcBuffer.getByte(srcIndex + i));
+            }
+        }
     }
 
     @Override
@@ -18,32 +18,42 @@
 package io.reactivesocket.transport.tcp;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.util.ReferenceCountUtil;
 import io.reactivesocket.Frame;
 
-import java.nio.ByteBuffer;
-
 /**
  * A Codec that aids reading and writing of ReactiveSocket {@link Frame}s.
+ * <p>
+ * Every received frame is backed by the {@link ByteBuf} it arrived in, which is released with the frame. A frame
+ * that is not retained is released right after {@link ChannelHandlerContext#fireChannelRead(Object)}, one that
+ * escapes the read with {@link Frame#retainOrCopy()} keeps its buffer instead of being copied.
+ * <p>
+ * Written frames are encoded straight into buffers of the channel's allocator, see {@link ByteBufFrameEncoder}.
  */
 public class ReactiveSocketFrameCodec extends ChannelDuplexHandler {
 
-    private final MutableDirectByteBuf buffer = new MutableDirectByteBuf(Unpooled.buffer(0));
-    private final Frame frame = Frame.allocate(buffer);
+    private final ByteBufFrameEncoder encoder = new ByteBufFrameEncoder();
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         if (msg instanceof ByteBuf) {
+            ByteBuf byteBuf = (ByteBuf) msg;
+            Frame frame;
+            try {
+                frame = Frame.from(new MutableDirectByteBuf(byteBuf), byteBuf.readerIndex(), byteBuf.readableBytes(),
+                                   byteBuf::release);
+            } catch (Throwable t) {
+                ReferenceCountUtil.release(msg);
+                throw t;
+            }
             try {
-                buffer.wrap((ByteBuf) msg);
-                frame.wrap(buffer, 0);
                 ctx.fireChannelRead(frame);
             } finally {
-                ReferenceCountUtil.release(msg);
+                // releases the buffer too, unless the frame was retained
+                frame.release();
             }
         } else {
             super.channelRead(ctx, msg);
@@ -53,9 +63,8 @@ public class ReactiveSocketFrameCodec extends ChannelDuplexHandler {
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
         if (msg instanceof Frame) {
-            ByteBuffer src = ((Frame)msg).getByteBuffer();
-            ByteBuf toWrite = ctx.alloc().buffer(src.remaining()).writeBytes(src);
-            ctx.write(toWrite, promise);
+            // the encoder releases the frame, once written if the encoded buffer references its payload
+            ctx.write(encoder.encode(ctx.alloc(), (Frame) msg), promise);
         } else {
             super.write(ctx, msg, promise);
         }
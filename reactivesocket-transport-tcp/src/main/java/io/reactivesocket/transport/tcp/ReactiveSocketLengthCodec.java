@@ -20,9 +20,23 @@ package io.reactivesocket.transport.tcp;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import org.agrona.BitUtil;
 
+/**
+ * Splits the inbound byte stream into frames, rejecting frames longer than a maximum length.
+ * <p>
+ * Payloads above the MTU negotiated at setup are fragmented by the sender, so only frames that are not fragmented
+ * (e.g. SETUP) can come anywhere near the default of 16 MiB. It can be changed with
+ * {@code -Dio.reactivesocket.transport.tcp.maxFrameLength}.
+ */
 public class ReactiveSocketLengthCodec extends LengthFieldBasedFrameDecoder {
 
+    public static final int DEFAULT_MAX_FRAME_LENGTH =
+        Integer.getInteger("io.reactivesocket.transport.tcp.maxFrameLength", 16 * 1024 * 1024);
+
     public ReactiveSocketLengthCodec() {
-        super(Integer.MAX_VALUE, 0, BitUtil.SIZE_OF_INT, -1 * BitUtil.SIZE_OF_INT, 0);
+        this(DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    public ReactiveSocketLengthCodec(int maxFrameLength) {
+        super(maxFrameLength, 0, BitUtil.SIZE_OF_INT, -1 * BitUtil.SIZE_OF_INT, 0);
     }
 }
@@ -12,6 +12,10 @@
  */
 package io.reactivesocket.transport.tcp;
 
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.reactivesocket.DuplexConnection;
 import io.reactivesocket.Frame;
 import io.reactivesocket.internal.rx.BooleanDisposable;
@@ -20,23 +24,78 @@ import io.reactivesocket.rx.Observable;
 import io.reactivesocket.util.ObserverSubscriber;
 import io.reactivex.netty.channel.Connection;
 import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
 import rx.RxReactiveStreams;
 import rx.Subscriber;
 
-import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * A {@link DuplexConnection} over a TCP {@link Connection}.
+ * <p>
+ * Outputs are backpressured by the socket: every output publisher is requested at most {@link #OUTPUT_BATCH} frames
+ * at a time, and more only while the channel {@link Channel#isWritable() is writable}, per the write buffer water
+ * marks of the channel, and fewer than {@code maxPendingBytes} written bytes wait for the socket. Outputs that find
+ * the connection congested resume once it drains, so a slow peer holds back its producers instead of filling the
+ * outbound buffer. {@link #availability()} drops while the connection is congested.
+ */
 public class TcpDuplexConnection implements DuplexConnection {
 
-    private final Connection<Frame, Frame> connection;
+    public static final int DEFAULT_MAX_PENDING_BYTES =
+            Integer.getInteger("io.reactivesocket.tcp.maxPendingBytes", 1024 * 1024);
+
+    /**
+     * Most frames requested from an output publisher at once.
+     */
+    public static final int OUTPUT_BATCH = 32;
+
+    // availability of a connection that is not accepting writes, low but not 0 which marks it as dead
+    private static final double CONGESTED_AVAILABILITY = 0.1;
+
+    private final Channel channel;
     private final rx.Observable<Frame> input;
     private final Publisher<Void> closeNotifier;
     private final Publisher<Void> close;
+    private final int maxPendingBytes;
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final Queue<OutputSubscriber> congested = new ConcurrentLinkedQueue<>();
 
     public TcpDuplexConnection(Connection<Frame, Frame> connection) {
-        this.connection = connection;
-        closeNotifier = RxReactiveStreams.toPublisher(connection.closeListener());
-        close = RxReactiveStreams.toPublisher(connection.close());
-        input = connection.getInput().publish().refCount();
+        this(connection, DEFAULT_MAX_PENDING_BYTES);
+    }
+
+    /**
+     * @param connection Connection to read from and write to.
+     * @param maxPendingBytes Written bytes waiting for the socket above which outputs are not requested more frames.
+     */
+    public TcpDuplexConnection(Connection<Frame, Frame> connection, int maxPendingBytes) {
+        this(connection.unsafeNettyChannel(), connection.getInput(), connection.closeListener(), connection.close(),
+             maxPendingBytes);
+    }
+
+    TcpDuplexConnection(Channel channel, rx.Observable<Frame> input, rx.Observable<Void> closeListener,
+                        rx.Observable<Void> close, int maxPendingBytes) {
+        if (maxPendingBytes <= 0) {
+            throw new IllegalArgumentException("Max pending bytes must be positive: " + maxPendingBytes);
+        }
+        this.maxPendingBytes = maxPendingBytes;
+        this.channel = channel;
+        closeNotifier = RxReactiveStreams.toPublisher(closeListener);
+        this.close = RxReactiveStreams.toPublisher(close);
+        this.input = input.publish().refCount();
+        channel.pipeline().addFirst("writability-listener", new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+                if (ctx.channel().isWritable()) {
+                    resumeOutputs();
+                }
+                ctx.fireChannelWritabilityChanged();
+            }
+        });
     }
 
     @Override
@@ -50,28 +109,25 @@ public class TcpDuplexConnection implements DuplexConnection {
 
     @Override
     public void addOutput(Publisher<Frame> o, Completable callback) {
-        connection.writeAndFlushOnEach(RxReactiveStreams.toObservable(o))
-            .subscribe(new Subscriber<Void>() {
-                @Override
-                public void onCompleted() {
-                    callback.success();
-                }
-
-                @Override
-                public void onError(Throwable e) {
-                    callback.error(e);
-                }
-
-                @Override
-                public void onNext(Void aVoid) {
-                    // No Op.
-                }
-            });
+        o.subscribe(new OutputSubscriber(callback));
     }
 
     @Override
     public double availability() {
-        return connection.unsafeNettyChannel().isActive() ? 1.0 : 0.0;
+        if (!channel.isActive()) {
+            return 0.0;
+        }
+        if (!isWritable()) {
+            return CONGESTED_AVAILABILITY;
+        }
+        return 1.0 - (1.0 - CONGESTED_AVAILABILITY) * pendingBytes.get() / maxPendingBytes;
+    }
+
+    /**
+     * @return Bytes written to the channel that have not reached the socket yet.
+     */
+    public long getPendingBytes() {
+        return pendingBytes.get();
     }
 
     @Override
@@ -85,6 +141,142 @@ public class TcpDuplexConnection implements DuplexConnection {
     }
 
     public String toString() {
-        return connection.unsafeNettyChannel().toString();
+        return channel.toString();
+    }
+
+    private boolean isWritable() {
+        return channel.isWritable() && pendingBytes.get() < maxPendingBytes;
+    }
+
+    private void onWritten(int length) {
+        long pending = pendingBytes.addAndGet(-length);
+        if (pending < maxPendingBytes && pending + length >= maxPendingBytes) {
+            resumeOutputs();
+        }
+    }
+
+    private void resumeOutputs() {
+        OutputSubscriber output;
+        while (isWritable() && (output = congested.poll()) != null) {
+            output.resume();
+        }
+    }
+
+    private final class OutputSubscriber implements org.reactivestreams.Subscriber<Frame> {
+
+        private final Completable callback;
+        // frames requested and not received yet
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicBoolean parked = new AtomicBoolean();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile Subscription subscription;
+        // only written from onNext, which the publisher serializes
+        private volatile ChannelFuture lastWrite;
+
+        private OutputSubscriber(Completable callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            requestIfWritable();
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            if (done.get()) {
+                frame.release();
+                return;
+            }
+            outstanding.decrementAndGet();
+
+            // the frame codec releases the frame once encoded
+            final int length = frame.length();
+            pendingBytes.addAndGet(length);
+            ChannelFuture write = channel.writeAndFlush(frame);
+            lastWrite = write;
+            write.addListener(f -> {
+                onWritten(length);
+                if (!f.isSuccess()) {
+                    onWriteFailed(f.cause());
+                }
+            });
+
+            requestIfWritable();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done.compareAndSet(false, true)) {
+                congested.remove(this);
+                callback.error(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            congested.remove(this);
+            ChannelFuture last = lastWrite;
+            if (last == null) {
+                complete();
+            } else {
+                // writes of a channel complete in order
+                last.addListener(f -> {
+                    if (f.isSuccess()) {
+                        complete();
+                    } else {
+                        onWriteFailed(f.cause());
+                    }
+                });
+            }
+        }
+
+        private void complete() {
+            if (done.compareAndSet(false, true)) {
+                callback.success();
+            }
+        }
+
+        private void onWriteFailed(Throwable cause) {
+            if (done.compareAndSet(false, true)) {
+                congested.remove(this);
+                subscription.cancel();
+                callback.error(cause);
+            }
+        }
+
+        private void resume() {
+            parked.set(false);
+            requestIfWritable();
+        }
+
+        private void requestIfWritable() {
+            if (done.get()) {
+                return;
+            }
+            if (!isWritable()) {
+                park();
+                return;
+            }
+
+            int current;
+            while ((current = outstanding.get()) <= OUTPUT_BATCH / 2) {
+                if (outstanding.compareAndSet(current, OUTPUT_BATCH)) {
+                    subscription.request(OUTPUT_BATCH - current);
+                    return;
+                }
+            }
+        }
+
+        private void park() {
+            if (parked.compareAndSet(false, true)) {
+                congested.offer(this);
+            }
+            // the connection may have drained before this was queued
+            if (isWritable()) {
+                resumeOutputs();
+            }
+        }
     }
 }
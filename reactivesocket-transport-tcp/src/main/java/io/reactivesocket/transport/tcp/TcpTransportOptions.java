@@ -0,0 +1,283 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivesocket.transport.tcp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.reactivex.netty.protocol.tcp.client.TcpClient;
+import io.reactivex.netty.protocol.tcp.server.TcpServer;
+
+/**
+ * Socket and event loop options of the TCP transport, see
+ * {@code TcpReactiveSocketServer.create(SocketAddress, TcpTransportOptions)} and
+ * {@code TcpReactiveSocketConnector.create(ConnectionSetupPayload, Consumer, TcpTransportOptions)}.
+ * <p>
+ * With {@link Builder#epoll(boolean)} connections run on Netty's native epoll transport when it is available, on
+ * Linux, and on NIO otherwise. Only epoll supports {@code SO_REUSEPORT}, which lets the server bind one listener per
+ * accept loop on the same port so the kernel spreads new connections across them, and {@code TCP_QUICKACK}.
+ * <p>
+ * The epoll transport is an optional dependency. Applications that want it add the native library for their
+ * platform, e.g. {@code io.netty:netty-transport-native-epoll:4.1.0.Final:linux-x86_64}. Without it, connections
+ * run on NIO.
+ */
+public final class TcpTransportOptions {
+
+    public static final TcpTransportOptions DEFAULT = new Builder().build();
+
+    private final boolean epoll;
+    private final boolean tcpNoDelay;
+    private final boolean reusePort;
+    private final boolean quickAck;
+    private final int acceptLoops;
+    private final int eventLoopThreads;
+    private final int writeBufferLowWaterMark;
+    private final int writeBufferHighWaterMark;
+
+    private TcpTransportOptions(Builder builder) {
+        epoll = builder.epoll && isEpollAvailable();
+        tcpNoDelay = builder.tcpNoDelay;
+        reusePort = epoll && builder.reusePort;
+        quickAck = epoll && builder.quickAck;
+        acceptLoops = reusePort ? builder.acceptLoops : 1;
+        eventLoopThreads = builder.eventLoopThreads;
+        writeBufferLowWaterMark = builder.writeBufferLowWaterMark;
+        writeBufferHighWaterMark = builder.writeBufferHighWaterMark;
+    }
+
+    /**
+     * @return {@code true} if connections run on the native epoll transport, {@code false} if epoll was not asked
+     * for or is not available and they run on NIO.
+     */
+    public boolean isEpoll() {
+        return epoll;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public boolean isReusePort() {
+        return reusePort;
+    }
+
+    public boolean isQuickAck() {
+        return quickAck;
+    }
+
+    /**
+     * @return Listeners the server binds on its port, each with its own accept loop. Always 1 without
+     * {@code SO_REUSEPORT}.
+     */
+    public int getAcceptLoops() {
+        return acceptLoops;
+    }
+
+    public int getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    /**
+     * Creates an event loop group of the configured transport. The caller owns it and shuts it down.
+     *
+     * @param threads Threads of the group, 0 for Netty's default of twice the available processors.
+     * @param name Prefix of the thread names.
+     *
+     * @return New event loop group.
+     */
+    public EventLoopGroup newEventLoopGroup(int threads, String name) {
+        DefaultThreadFactory threadFactory = new DefaultThreadFactory(name, true);
+        if (epoll) {
+            return new EpollEventLoopGroup(threads, threadFactory);
+        }
+        return new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    public Class<? extends ServerChannel> getServerChannelClass() {
+        if (epoll) {
+            return EpollServerSocketChannel.class;
+        }
+        return NioServerSocketChannel.class;
+    }
+
+    /**
+     * @return Channel class of client connections, to use with an event loop group from
+     * {@link #newEventLoopGroup(int, String)}.
+     */
+    public Class<? extends Channel> getClientChannelClass() {
+        if (epoll) {
+            return EpollSocketChannel.class;
+        }
+        return NioSocketChannel.class;
+    }
+
+    /**
+     * Applies the listener and accepted connection options to {@code server}.
+     *
+     * @param server Server to configure.
+     *
+     * @return Configured server.
+     */
+    public TcpServer<ByteBuf, ByteBuf> configure(TcpServer<ByteBuf, ByteBuf> server) {
+        TcpServer<ByteBuf, ByteBuf> s =
+                server.clientChannelOption(ChannelOption.TCP_NODELAY, tcpNoDelay)
+                      .clientChannelOption(ChannelOption.WRITE_BUFFER_WATER_MARK, newWaterMark());
+        if (reusePort) {
+            s = s.channelOption(EpollChannelOption.SO_REUSEPORT, true);
+        }
+        if (quickAck) {
+            s = s.clientChannelOption(EpollChannelOption.TCP_QUICKACK, true);
+        }
+        return s;
+    }
+
+    /**
+     * Applies the connection options to {@code client}.
+     *
+     * @param client Client to configure.
+     *
+     * @return Configured client.
+     */
+    public TcpClient<ByteBuf, ByteBuf> configure(TcpClient<ByteBuf, ByteBuf> client) {
+        TcpClient<ByteBuf, ByteBuf> c =
+                client.channelOption(ChannelOption.TCP_NODELAY, tcpNoDelay)
+                      .channelOption(ChannelOption.WRITE_BUFFER_WATER_MARK, newWaterMark());
+        if (quickAck) {
+            c = c.channelOption(EpollChannelOption.TCP_QUICKACK, true);
+        }
+        return c;
+    }
+
+    private WriteBufferWaterMark newWaterMark() {
+        return new WriteBufferWaterMark(writeBufferLowWaterMark, writeBufferHighWaterMark);
+    }
+
+    @Override
+    public String toString() {
+        return "TcpTransportOptions{" +
+               "epoll=" + epoll +
+               ", tcpNoDelay=" + tcpNoDelay +
+               ", reusePort=" + reusePort +
+               ", quickAck=" + quickAck +
+               ", acceptLoops=" + acceptLoops +
+               ", eventLoopThreads=" + eventLoopThreads +
+               ", writeBufferLowWaterMark=" + writeBufferLowWaterMark +
+               ", writeBufferHighWaterMark=" + writeBufferHighWaterMark +
+               '}';
+    }
+
+    /**
+     * @return {@code true} if the native epoll transport is on the classpath and can be loaded on this host.
+     */
+    public static boolean isEpollAvailable() {
+        try {
+            return Epoll.isAvailable();
+        } catch (LinkageError e) {
+            // netty-transport-native-epoll is not on the classpath
+            return false;
+        }
+    }
+
+    public static class Builder {
+        private boolean epoll;
+        private boolean tcpNoDelay = true;
+        private boolean reusePort;
+        private boolean quickAck;
+        private int acceptLoops = 1;
+        private int eventLoopThreads;
+        private int writeBufferLowWaterMark = 32 * 1024;
+        private int writeBufferHighWaterMark = 64 * 1024;
+
+        /**
+         * Runs connections on the native epoll transport when it is available, NIO otherwise.
+         */
+        public Builder epoll(boolean epoll) {
+            this.epoll = epoll;
+            return this;
+        }
+
+        public Builder tcpNoDelay(boolean tcpNoDelay) {
+            this.tcpNoDelay = tcpNoDelay;
+            return this;
+        }
+
+        /**
+         * Binds {@code acceptLoops} listeners on the server port with {@code SO_REUSEPORT}. Epoll only, ignored on NIO.
+         */
+        public Builder reusePort(int acceptLoops) {
+            if (acceptLoops <= 0) {
+                throw new IllegalArgumentException("Accept loops must be positive: " + acceptLoops);
+            }
+            reusePort = true;
+            this.acceptLoops = acceptLoops;
+            return this;
+        }
+
+        /**
+         * Sets {@code TCP_QUICKACK} on connections. Epoll only, ignored on NIO.
+         */
+        public Builder quickAck(boolean quickAck) {
+            this.quickAck = quickAck;
+            return this;
+        }
+
+        /**
+         * Threads of the event loop group serving connections, 0 for Netty's default of twice the available
+         * processors.
+         */
+        public Builder eventLoopThreads(int eventLoopThreads) {
+            if (eventLoopThreads < 0) {
+                throw new IllegalArgumentException("Event loop threads must not be negative: " + eventLoopThreads);
+            }
+            this.eventLoopThreads = eventLoopThreads;
+            return this;
+        }
+
+        /**
+         * A connection turns unwritable above {@code high} buffered bytes and writable again below {@code low}.
+         */
+        public Builder writeBufferWaterMark(int low, int high) {
+            if (low < 0 || high < low) {
+                throw new IllegalArgumentException("Invalid write buffer water mark: low=" + low + " high=" + high);
+            }
+            writeBufferLowWaterMark = low;
+            writeBufferHighWaterMark = high;
+            return this;
+        }
+
+        public TcpTransportOptions build() {
+            return new TcpTransportOptions(this);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivesocket.transport.tcp.client;
+
+import io.reactivesocket.Payload;
+import io.reactivesocket.ReactiveSocket;
+import io.reactivesocket.rx.Completable;
+import org.reactivestreams.Publisher;
+import rx.Observable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static rx.RxReactiveStreams.toObservable;
+import static rx.RxReactiveStreams.toPublisher;
+
+/**
+ * A {@link ReactiveSocket} over several connections to the same endpoint, so a single client-server pair can use as
+ * many event loops on each side as it has connections.
+ * <p>
+ * Every request goes to the available connection with the fewest outstanding requests, ties are broken from a random
+ * connection so idle connections share new work. {@link #availability()} is the mean availability of the
+ * connections. The socket is closed once all its connections are.
+ */
+public class StripedReactiveSocket implements ReactiveSocket {
+
+    private final Stripe[] stripes;
+
+    public StripedReactiveSocket(List<ReactiveSocket> sockets) {
+        if (sockets.isEmpty()) {
+            throw new IllegalArgumentException("At least one socket is required.");
+        }
+        stripes = new Stripe[sockets.size()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(sockets.get(i));
+        }
+    }
+
+    @Override
+    public Publisher<Void> fireAndForget(Payload payload) {
+        return onLeastLoaded(socket -> socket.fireAndForget(payload));
+    }
+
+    @Override
+    public Publisher<Payload> requestResponse(Payload payload) {
+        return onLeastLoaded(socket -> socket.requestResponse(payload));
+    }
+
+    @Override
+    public Publisher<Payload> requestStream(Payload payload) {
+        return onLeastLoaded(socket -> socket.requestStream(payload));
+    }
+
+    @Override
+    public Publisher<Payload> requestSubscription(Payload payload) {
+        return onLeastLoaded(socket -> socket.requestSubscription(payload));
+    }
+
+    @Override
+    public Publisher<Payload> requestChannel(Publisher<Payload> payloads) {
+        return onLeastLoaded(socket -> socket.requestChannel(payloads));
+    }
+
+    @Override
+    public Publisher<Void> metadataPush(Payload payload) {
+        return onLeastLoaded(socket -> socket.metadataPush(payload));
+    }
+
+    @Override
+    public double availability() {
+        double sum = 0.0;
+        for (Stripe stripe : stripes) {
+            sum += stripe.socket.availability();
+        }
+        return sum / stripes.length;
+    }
+
+    @Override
+    public Publisher<Void> close() {
+        return toPublisher(Observable.merge(map(ReactiveSocket::close)));
+    }
+
+    @Override
+    public Publisher<Void> onClose() {
+        return toPublisher(Observable.merge(map(ReactiveSocket::onClose)));
+    }
+
+    @Override
+    public void start(Completable c) {
+        onAll(ReactiveSocket::start, c);
+    }
+
+    @Override
+    public void onRequestReady(Consumer<Throwable> c) {
+        onRequestReady(new Completable() {
+            @Override
+            public void success() {
+                c.accept(null);
+            }
+
+            @Override
+            public void error(Throwable e) {
+                c.accept(e);
+            }
+        });
+    }
+
+    @Override
+    public void onRequestReady(Completable c) {
+        onAll(ReactiveSocket::onRequestReady, c);
+    }
+
+    @Override
+    public void sendLease(int ttl, int numberOfRequests) {
+        for (Stripe stripe : stripes) {
+            stripe.socket.sendLease(ttl, numberOfRequests);
+        }
+    }
+
+    /**
+     * @return Outstanding requests of every connection, in the order of the sockets passed to the constructor.
+     */
+    public int[] getOutstanding() {
+        int[] outstanding = new int[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            outstanding[i] = stripes[i].outstanding.get();
+        }
+        return outstanding;
+    }
+
+    @Override
+    public String toString() {
+        return "StripedReactiveSocket(" + stripes.length + " connections)->" + stripes[0].socket;
+    }
+
+    private <T> Publisher<T> onLeastLoaded(Function<ReactiveSocket, Publisher<T>> request) {
+        return toPublisher(Observable.defer(() -> {
+            Stripe stripe = select();
+            Runnable release = stripe.acquire();
+            return toObservable(request.apply(stripe.socket))
+                    .doOnTerminate(release::run)
+                    .doOnUnsubscribe(release::run);
+        }));
+    }
+
+    private Stripe select() {
+        final int start = ThreadLocalRandom.current().nextInt(stripes.length);
+        Stripe selected = null;
+        boolean selectedAvailable = false;
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[(start + i) % stripes.length];
+            boolean available = stripe.socket.availability() > 0.0;
+            // an available connection always wins over an unavailable one
+            if (selected == null || available && !selectedAvailable
+                || available == selectedAvailable && stripe.outstanding.get() < selected.outstanding.get()) {
+                selected = stripe;
+                selectedAvailable = available;
+            }
+        }
+        return selected;
+    }
+
+    private <T> List<Observable<T>> map(Function<ReactiveSocket, Publisher<T>> f) {
+        List<Observable<T>> result = new ArrayList<>(stripes.length);
+        for (Stripe stripe : stripes) {
+            result.add(toObservable(f.apply(stripe.socket)));
+        }
+        return result;
+    }
+
+    private void onAll(BiConsumer<ReactiveSocket, Completable> action, Completable c) {
+        AtomicInteger remaining = new AtomicInteger(stripes.length);
+        AtomicBoolean failed = new AtomicBoolean();
+        for (Stripe stripe : stripes) {
+            action.accept(stripe.socket, new Completable() {
+                @Override
+                public void success() {
+                    if (remaining.decrementAndGet() == 0 && !failed.get()) {
+                        c.success();
+                    }
+                }
+
+                @Override
+                public void error(Throwable e) {
+                    if (failed.compareAndSet(false, true)) {
+                        c.error(e);
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class Stripe {
+        private final ReactiveSocket socket;
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private Stripe(ReactiveSocket socket) {
+            this.socket = socket;
+        }
+
+        private Runnable acquire() {
+            outstanding.incrementAndGet();
+            AtomicBoolean released = new AtomicBoolean();
+            return () -> {
+                if (released.compareAndSet(false, true)) {
+                    outstanding.decrementAndGet();
+                }
+            };
+        }
+    }
+}
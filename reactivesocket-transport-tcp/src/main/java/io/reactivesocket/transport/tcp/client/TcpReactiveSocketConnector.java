@@ -14,17 +14,21 @@
 package io.reactivesocket.transport.tcp.client;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoopGroup;
 import io.reactivesocket.ConnectionSetupPayload;
 import io.reactivesocket.Frame;
 import io.reactivesocket.ReactiveSocket;
 import io.reactivesocket.ReactiveSocketConnector;
 import io.reactivesocket.rx.Completable;
+import io.reactivesocket.transport.tcp.FlushCoalescingHandler;
 import io.reactivesocket.transport.tcp.ReactiveSocketFrameCodec;
 import io.reactivesocket.transport.tcp.ReactiveSocketLengthCodec;
 import io.reactivesocket.transport.tcp.TcpDuplexConnection;
+import io.reactivesocket.transport.tcp.TcpTransportOptions;
 import io.reactivex.netty.channel.Connection;
 import io.reactivex.netty.protocol.tcp.client.TcpClient;
 import org.reactivestreams.Publisher;
+import rx.Observable;
 import rx.RxReactiveStreams;
 import rx.Single;
 import rx.Single.OnSubscribe;
@@ -32,8 +36,12 @@ import rx.SingleSubscriber;
 import rx.Subscriber;
 
 import java.net.SocketAddress;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -45,20 +53,29 @@ public class TcpReactiveSocketConnector implements ReactiveSocketConnector<Socke
     private final ConnectionSetupPayload setupPayload;
     private final Consumer<Throwable> errorStream;
     private final Function<SocketAddress, TcpClient<Frame, Frame>> clientFactory;
+    private final int connectionsPerEndpoint;
 
     private TcpReactiveSocketConnector(ConnectionSetupPayload setupPayload, Consumer<Throwable> errorStream,
                                        Function<SocketAddress, TcpClient<Frame, Frame>> clientFactory) {
+        this(setupPayload, errorStream, clientFactory, 1);
+    }
+
+    private TcpReactiveSocketConnector(ConnectionSetupPayload setupPayload, Consumer<Throwable> errorStream,
+                                       Function<SocketAddress, TcpClient<Frame, Frame>> clientFactory,
+                                       int connectionsPerEndpoint) {
         this.setupPayload = setupPayload;
         this.errorStream = errorStream;
         this.clientFactory = clientFactory;
+        this.connectionsPerEndpoint = connectionsPerEndpoint;
         socketFactories = new ConcurrentHashMap<>();
     }
 
     @Override
     public Publisher<ReactiveSocket> connect(SocketAddress address) {
-        return _connect(socketFactories.computeIfAbsent(address, socketAddress -> {
+        TcpClient<Frame, Frame> client = socketFactories.computeIfAbsent(address, socketAddress -> {
             return clientFactory.apply(socketAddress);
-        }));
+        });
+        return connectionsPerEndpoint == 1 ? _connect(client) : _connectStriped(client);
     }
 
     /**
@@ -72,7 +89,49 @@ public class TcpReactiveSocketConnector implements ReactiveSocketConnector<Socke
             Function<TcpClient<Frame, Frame>, TcpClient<Frame, Frame>> configurator) {
         return new TcpReactiveSocketConnector(setupPayload, errorStream, socketAddress -> {
             return configurator.apply(clientFactory.apply(socketAddress));
-        });
+        }, connectionsPerEndpoint);
+    }
+
+    /**
+     * Opens {@code connections} connections on every {@link #connect(SocketAddress)} and exposes them as one
+     * {@link StripedReactiveSocket}, which sends every request on the connection with the fewest outstanding ones.
+     * Connections are spread over the event loops of the client, so one endpoint can use more than one of them.
+     *
+     * @param connections Connections per endpoint, 1 for a plain socket over a single connection.
+     *
+     * @return A new {@link TcpReactiveSocketConnector}
+     */
+    public TcpReactiveSocketConnector stripeConnections(int connections) {
+        if (connections <= 0) {
+            throw new IllegalArgumentException("Connections must be positive: " + connections);
+        }
+        return new TcpReactiveSocketConnector(setupPayload, errorStream, clientFactory, connections);
+    }
+
+    /**
+     * Coalesces flushes of every connection with {@link FlushCoalescingHandler} defaults, frames are flushed once per
+     * event loop turn instead of once each.
+     *
+     * @return A new {@link TcpReactiveSocketConnector}
+     */
+    public TcpReactiveSocketConnector coalesceFlushes() {
+        return configureClient(c -> c.addChannelHandlerLast("flush-coalescer", FlushCoalescingHandler::new));
+    }
+
+    /**
+     * Coalesces flushes of every connection, see {@link FlushCoalescingHandler}.
+     *
+     * @param maxFrames Frames written before a flush is forced.
+     * @param maxBytes Bytes written before a flush is forced.
+     * @param maxDelay Longest a written frame waits for a flush, 0 to flush at the end of the event loop turn.
+     * @param unit Unit of {@code maxDelay}.
+     *
+     * @return A new {@link TcpReactiveSocketConnector}
+     */
+    public TcpReactiveSocketConnector coalesceFlushes(int maxFrames, int maxBytes, long maxDelay, TimeUnit unit) {
+        return configureClient(c -> c.addChannelHandlerLast("flush-coalescer",
+                                                            () -> new FlushCoalescingHandler(maxFrames, maxBytes,
+                                                                                             maxDelay, unit)));
     }
 
     private Publisher<ReactiveSocket> _connect(TcpClient<Frame, Frame> client) {
@@ -100,11 +159,17 @@ public class TcpReactiveSocketConnector implements ReactiveSocketConnector<Socke
                               rs.start(new Completable() {
                                   @Override
                                   public void success() {
-                                      s.onSuccess(rs);
+                                      if (s.isUnsubscribed()) {
+                                          // nobody takes the socket any more, do not leak its connection
+                                          close(rs);
+                                      } else {
+                                          s.onSuccess(rs);
+                                      }
                                   }
 
                                   @Override
                                   public void error(Throwable e) {
+                                      close(rs);
                                       s.onError(e);
                                   }
                               });
@@ -115,6 +180,27 @@ public class TcpReactiveSocketConnector implements ReactiveSocketConnector<Socke
         return RxReactiveStreams.toPublisher(r.toObservable());
     }
 
+    private Publisher<ReactiveSocket> _connectStriped(TcpClient<Frame, Frame> client) {
+        return RxReactiveStreams.toPublisher(Observable.defer(() -> {
+            Queue<ReactiveSocket> connected = new ConcurrentLinkedQueue<>();
+            // errors are delayed until every connect has finished, so no connection is still in flight when the
+            // established ones are closed
+            return Observable.mergeDelayError(Observable.range(0, connectionsPerEndpoint)
+                                                        .map(i -> RxReactiveStreams.toObservable(_connect(client))))
+                             .doOnNext(connected::add)
+                             .toList()
+                             .<ReactiveSocket>map(StripedReactiveSocket::new)
+                             .doOnError(e -> {
+                                 // do not leak the connections that did get established
+                                 connected.forEach(this::close);
+                             });
+        }));
+    }
+
+    private void close(ReactiveSocket rs) {
+        RxReactiveStreams.toObservable(rs.close()).subscribe(v -> {}, errorStream::accept);
+    }
+
     @Override
     public String toString() {
         return "TcpReactiveSocketConnector";
@@ -134,6 +220,59 @@ public class TcpReactiveSocketConnector implements ReactiveSocketConnector<Socke
         });
     }
 
+    /**
+     * Creates a connector whose connections are configured by {@code options}. They run on an event loop group of
+     * the connector's own, of the transport and size the options ask for, which is created with the first connection.
+     * Its threads are daemon threads. Use {@link #create(ConnectionSetupPayload, Consumer, TcpTransportOptions,
+     * EventLoopGroup)} to shut the event loops down.
+     *
+     * @param setupPayload Setup payload of every connection.
+     * @param errorStream Consumer of connection errors.
+     * @param options Transport options.
+     *
+     * @return A new {@link TcpReactiveSocketConnector}
+     */
+    public static TcpReactiveSocketConnector create(ConnectionSetupPayload setupPayload,
+                                                    Consumer<Throwable> errorStream,
+                                                    TcpTransportOptions options) {
+        AtomicReference<EventLoopGroup> eventLoopGroup = new AtomicReference<>();
+        return create(setupPayload, errorStream, socketAddress -> {
+            EventLoopGroup group = eventLoopGroup.get();
+            if (group == null) {
+                synchronized (eventLoopGroup) {
+                    group = eventLoopGroup.get();
+                    if (group == null) {
+                        group = options.newEventLoopGroup(options.getEventLoopThreads(), "rs-tcp-client");
+                        eventLoopGroup.set(group);
+                    }
+                }
+            }
+            return options.configure(TcpClient.newClient(group, options.getClientChannelClass(), socketAddress));
+        });
+    }
+
+    /**
+     * Creates a connector whose connections are configured by {@code options} and run on {@code eventLoopGroup},
+     * which must be of the transport the options select, see {@link TcpTransportOptions#newEventLoopGroup(int, String)}.
+     * The caller owns the group and shuts it down.
+     *
+     * @param setupPayload Setup payload of every connection.
+     * @param errorStream Consumer of connection errors.
+     * @param options Transport options.
+     * @param eventLoopGroup Event loops of the connections.
+     *
+     * @return A new {@link TcpReactiveSocketConnector}
+     */
+    public static TcpReactiveSocketConnector create(ConnectionSetupPayload setupPayload,
+                                                    Consumer<Throwable> errorStream,
+                                                    TcpTransportOptions options,
+                                                    EventLoopGroup eventLoopGroup) {
+        return create(setupPayload, errorStream, socketAddress -> {
+            return options.configure(TcpClient.newClient(eventLoopGroup, options.getClientChannelClass(),
+                                                         socketAddress));
+        });
+    }
+
     private static TcpClient<Frame, Frame> _configureClient(TcpClient<ByteBuf, ByteBuf> client) {
         return client.addChannelHandlerLast("length-codec", ReactiveSocketLengthCodec::new)
                      .addChannelHandlerLast("frame-codec", ReactiveSocketFrameCodec::new);
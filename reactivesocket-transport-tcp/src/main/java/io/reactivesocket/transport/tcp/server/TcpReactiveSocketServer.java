@@ -14,6 +14,7 @@
 package io.reactivesocket.transport.tcp.server;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoopGroup;
 import io.reactivesocket.ConnectionSetupHandler;
 import io.reactivesocket.DefaultReactiveSocket;
 import io.reactivesocket.Frame;
@@ -22,32 +23,68 @@ import io.reactivesocket.ReactiveSocket;
 import io.reactivesocket.internal.EmptySubject;
 import io.reactivesocket.internal.Publishers;
 import io.reactivesocket.rx.Completable;
+import io.reactivesocket.transport.tcp.FlushCoalescingHandler;
 import io.reactivesocket.transport.tcp.ReactiveSocketFrameCodec;
 import io.reactivesocket.transport.tcp.ReactiveSocketLengthCodec;
 import io.reactivesocket.transport.tcp.TcpDuplexConnection;
+import io.reactivesocket.transport.tcp.TcpTransportOptions;
+import io.reactivesocket.util.RequestHandlerExecutor;
 import io.reactivex.netty.channel.Connection;
 import io.reactivex.netty.protocol.tcp.server.ConnectionHandler;
 import io.reactivex.netty.protocol.tcp.server.TcpServer;
 import rx.Observable;
 import rx.RxReactiveStreams;
 
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 
 public class TcpReactiveSocketServer {
 
     private final TcpServer<Frame, Frame> server;
+    // further listeners bound with SO_REUSEPORT on the port of server, by port
+    private final IntFunction<TcpServer<Frame, Frame>> acceptorFactory;
+    private final int acceptLoops;
+    private final Runnable onShutdown;
 
     private TcpReactiveSocketServer(TcpServer<Frame, Frame> server) {
+        this(server, null, 1, () -> {});
+    }
+
+    private TcpReactiveSocketServer(TcpServer<Frame, Frame> server,
+                                    IntFunction<TcpServer<Frame, Frame>> acceptorFactory, int acceptLoops,
+                                    Runnable onShutdown) {
         this.server = server;
+        this.acceptorFactory = acceptorFactory;
+        this.acceptLoops = acceptLoops;
+        this.onShutdown = onShutdown;
     }
 
     public StartedServer start(ConnectionSetupHandler setupHandler) {
         return start(setupHandler, LeaseGovernor.UNLIMITED_LEASE_GOVERNOR);
     }
 
+    /**
+     * Starts the server, invoking the request handlers of every connection on {@code handlerExecutor} rather than on
+     * the event loop of the connection.
+     *
+     * @param setupHandler Handler for connection setup.
+     * @param leaseGovernor Lease governor of all connections.
+     * @param handlerExecutor Executor of request handler invocations.
+     *
+     * @return Started server.
+     */
+    public StartedServer start(ConnectionSetupHandler setupHandler, LeaseGovernor leaseGovernor,
+                               RequestHandlerExecutor handlerExecutor) {
+        return start(handlerExecutor.wrap(setupHandler), leaseGovernor);
+    }
+
     public StartedServer start(ConnectionSetupHandler setupHandler, LeaseGovernor leaseGovernor) {
-        server.start(new ConnectionHandler<Frame, Frame>() {
+        ConnectionHandler<Frame, Frame> handler = new ConnectionHandler<Frame, Frame>() {
             @Override
             public Observable<Void> handle(Connection<Frame, Frame> newConnection) {
                 TcpDuplexConnection c = new TcpDuplexConnection(newConnection);
@@ -67,9 +104,18 @@ public class TcpReactiveSocketServer {
                 });
                 return RxReactiveStreams.toObservable(Publishers.concatEmpty(startNotifier, rs.onClose()));
             }
-        });
+        };
+
+        server.start(handler);
+        List<TcpServer<Frame, Frame>> acceptors = new ArrayList<>(acceptLoops - 1);
+        for (int i = 1; i < acceptLoops; i++) {
+            // bound after the first listener so an ephemeral port is shared
+            TcpServer<Frame, Frame> acceptor = acceptorFactory.apply(server.getServerPort());
+            acceptor.start(handler);
+            acceptors.add(acceptor);
+        }
 
-        return new StartedServer();
+        return new StartedServer(acceptors);
     }
 
     /**
@@ -81,7 +127,35 @@ public class TcpReactiveSocketServer {
      */
     public TcpReactiveSocketServer configureServer(
             Function<TcpServer<Frame, Frame>, TcpServer<Frame, Frame>> configurator) {
-        return new TcpReactiveSocketServer(configurator.apply(server));
+        IntFunction<TcpServer<Frame, Frame>> f = acceptorFactory == null
+                ? null : port -> configurator.apply(acceptorFactory.apply(port));
+        return new TcpReactiveSocketServer(configurator.apply(server), f, acceptLoops, onShutdown);
+    }
+
+    /**
+     * Coalesces flushes of every accepted connection with {@link FlushCoalescingHandler} defaults, frames are flushed
+     * once per event loop turn instead of once each.
+     *
+     * @return New instance of {@code TcpReactiveSocketServer}.
+     */
+    public TcpReactiveSocketServer coalesceFlushes() {
+        return configureServer(s -> s.addChannelHandlerLast("flush-coalescer", FlushCoalescingHandler::new));
+    }
+
+    /**
+     * Coalesces flushes of every accepted connection, see {@link FlushCoalescingHandler}.
+     *
+     * @param maxFrames Frames written before a flush is forced.
+     * @param maxBytes Bytes written before a flush is forced.
+     * @param maxDelay Longest a written frame waits for a flush, 0 to flush at the end of the event loop turn.
+     * @param unit Unit of {@code maxDelay}.
+     *
+     * @return New instance of {@code TcpReactiveSocketServer}.
+     */
+    public TcpReactiveSocketServer coalesceFlushes(int maxFrames, int maxBytes, long maxDelay, TimeUnit unit) {
+        return configureServer(s -> s.addChannelHandlerLast("flush-coalescer",
+                                                            () -> new FlushCoalescingHandler(maxFrames, maxBytes,
+                                                                                             maxDelay, unit)));
     }
 
     public static TcpReactiveSocketServer create() {
@@ -100,6 +174,47 @@ public class TcpReactiveSocketServer {
         return new TcpReactiveSocketServer(configure(rxNettyServer));
     }
 
+    /**
+     * Creates a server on its own event loops, configured by {@code options}. With {@code SO_REUSEPORT} it binds
+     * {@link TcpTransportOptions#getAcceptLoops()} listeners on the port of {@code address}, each with its own accept
+     * thread, all serving connections on one shared event loop group. The event loops are shut down with the server.
+     *
+     * @param address Address to bind.
+     * @param options Transport options.
+     *
+     * @return New instance of {@code TcpReactiveSocketServer}.
+     */
+    public static TcpReactiveSocketServer create(SocketAddress address, TcpTransportOptions options) {
+        EventLoopGroup workers = options.newEventLoopGroup(options.getEventLoopThreads(), "rs-tcp-server");
+        List<EventLoopGroup> groups = new ArrayList<>();
+        groups.add(workers);
+
+        Function<SocketAddress, TcpServer<Frame, Frame>> listener = a -> {
+            EventLoopGroup acceptor = options.newEventLoopGroup(1, "rs-tcp-accept");
+            synchronized (groups) {
+                groups.add(acceptor);
+            }
+            TcpServer<ByteBuf, ByteBuf> s =
+                    TcpServer.newServer(a, acceptor, workers, options.getServerChannelClass());
+            return configure(options.configure(s));
+        };
+
+        int acceptLoops = address instanceof InetSocketAddress ? options.getAcceptLoops() : 1;
+        IntFunction<TcpServer<Frame, Frame>> acceptorFactory = acceptLoops == 1 ? null : port -> {
+            return listener.apply(new InetSocketAddress(((InetSocketAddress) address).getAddress(), port));
+        };
+        Runnable onShutdown = () -> {
+            synchronized (groups) {
+                groups.forEach(EventLoopGroup::shutdownGracefully);
+            }
+        };
+        return new TcpReactiveSocketServer(listener.apply(address), acceptorFactory, acceptLoops, onShutdown);
+    }
+
+    public static TcpReactiveSocketServer create(int port, TcpTransportOptions options) {
+        return create(new InetSocketAddress(port), options);
+    }
+
     private static TcpServer<Frame, Frame> configure(TcpServer<ByteBuf, ByteBuf> rxNettyServer) {
         return rxNettyServer.addChannelHandlerLast("line-codec", ReactiveSocketLengthCodec::new)
                             .addChannelHandlerLast("frame-codec", ReactiveSocketFrameCodec::new);
@@ -107,6 +222,12 @@ public class TcpReactiveSocketServer {
 
     public final class StartedServer {
 
+        private final List<TcpServer<Frame, Frame>> acceptors;
+
+        private StartedServer(List<TcpServer<Frame, Frame>> acceptors) {
+            this.acceptors = acceptors;
+        }
+
         public SocketAddress getServerAddress() {
             return server.getServerAddress();
         }
@@ -121,6 +242,8 @@ public class TcpReactiveSocketServer {
 
         public void shutdown() {
             server.shutdown();
+            acceptors.forEach(TcpServer::shutdown);
+            onShutdown.run();
         }
     }
 }
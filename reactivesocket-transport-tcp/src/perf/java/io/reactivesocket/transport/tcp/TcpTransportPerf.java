@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+package io.reactivesocket.transport.tcp;
+
+import io.reactivesocket.ConnectionSetupPayload;
+import io.reactivesocket.Payload;
+import io.reactivesocket.ReactiveSocket;
+import io.reactivesocket.RequestHandler;
+import io.reactivesocket.transport.tcp.client.TcpReactiveSocketConnector;
+import io.reactivesocket.transport.tcp.server.TcpReactiveSocketServer;
+import io.reactivesocket.transport.tcp.server.TcpReactiveSocketServer.StartedServer;
+import io.reactivesocket.util.PayloadImpl;
+import io.reactivex.netty.RxNetty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static rx.RxReactiveStreams.toObservable;
+import static rx.RxReactiveStreams.toPublisher;
+
+/**
+ * Request-response latency and stream throughput over a loopback TCP connection on NIO against the native epoll
+ * transport, see {@link TcpTransportOptions}. Epoll trials run on NIO where epoll is not available.
+ * <p>
+ * Run with {@code -bm sample} for the latency distribution, p99 included, of {@link #requestResponse}. An operation
+ * of {@link #requestStream} is {@link #ITEMS_PER_STREAM} items.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TcpTransportPerf {
+
+	static final int ITEMS_PER_STREAM = 1_000;
+
+	@Benchmark
+	public void requestResponse(Input input) {
+		input.bh.consume(toObservable(input.client.requestResponse(input.request)).toBlocking().last());
+	}
+
+	@Benchmark
+	public void requestStream(Input input) {
+		toObservable(input.client.requestStream(input.request)).toBlocking().forEach(input.bh::consume);
+	}
+
+	@State(Scope.Benchmark)
+	public static class Input {
+
+		@Param({ "nio", "epoll" })
+		public String transport;
+
+		public Blackhole bh;
+		Payload request;
+		StartedServer server;
+		ReactiveSocket client;
+
+		@Setup(Level.Trial)
+		public void setup(Blackhole bh) {
+			this.bh = bh;
+			byte[] item = new byte[32];
+			ThreadLocalRandom.current().nextBytes(item);
+			request = new PayloadImpl("hello");
+
+			RequestHandler handler = new RequestHandler.Builder()
+				.withRequestResponse(payload -> toPublisher(Observable.just(new PayloadImpl(item))))
+				.withRequestStream(payload -> toPublisher(Observable.range(0, ITEMS_PER_STREAM)
+																	.map(i -> new PayloadImpl(item))))
+				.build();
+
+			boolean epoll = "epoll".equals(transport);
+			if (!epoll) {
+				RxNetty.disableNativeTransport();
+			}
+			TcpTransportOptions options = new TcpTransportOptions.Builder()
+				.epoll(epoll)
+				.quickAck(epoll)
+				.build();
+
+			server = TcpReactiveSocketServer.create(0, options).start((setup, rs) -> handler);
+			TcpReactiveSocketConnector connector =
+				TcpReactiveSocketConnector.create(ConnectionSetupPayload.create("", ""), Throwable::printStackTrace,
+												  options);
+			InetSocketAddress address = new InetSocketAddress("localhost", server.getServerPort());
+			client = toObservable(connector.connect(address)).toSingle().toBlocking().value();
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			toObservable(client.close()).toBlocking().lastOrDefault(null);
+			server.shutdown();
+		}
+	}
+}
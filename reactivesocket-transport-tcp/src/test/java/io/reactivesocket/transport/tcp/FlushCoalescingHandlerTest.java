@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+package io.reactivesocket.transport.tcp;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlushCoalescingHandlerTest {
+
+    @Test
+    public void testFlushesOncePerEventLoopTurn() {
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCoalescingHandler());
+        for (int i = 0; i < 3; i++) {
+            channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[16]));
+        }
+        assertEquals(0, channel.outboundMessages().size());
+
+        channel.runPendingTasks();
+        assertEquals(3, channel.outboundMessages().size());
+        channel.finish();
+    }
+
+    @Test
+    public void testFlushesWhenFrameLimitIsReached() {
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCoalescingHandler(2, 1024, 0, TimeUnit.NANOSECONDS));
+        channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[16]));
+        assertEquals(0, channel.outboundMessages().size());
+
+        channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[16]));
+        assertEquals(2, channel.outboundMessages().size());
+        channel.finish();
+    }
+
+    @Test
+    public void testFlushesWhenByteLimitIsReached() {
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCoalescingHandler(256, 64, 0, TimeUnit.NANOSECONDS));
+        channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[64]));
+        assertEquals(1, channel.outboundMessages().size());
+        channel.finish();
+    }
+
+    @Test
+    public void testFlushesWritesFromReadAtReadComplete() {
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCoalescingHandler());
+        channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                ctx.writeAndFlush(msg);
+            }
+        });
+
+        channel.writeInbound(Unpooled.wrappedBuffer(new byte[16]), Unpooled.wrappedBuffer(new byte[16]));
+        assertEquals(2, channel.outboundMessages().size());
+        channel.finish();
+    }
+
+    @Test
+    public void testFlushesBeforeClose() {
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCoalescingHandler());
+        channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[16]));
+        channel.close();
+        assertEquals(1, channel.outboundMessages().size());
+        channel.finish();
+    }
+}
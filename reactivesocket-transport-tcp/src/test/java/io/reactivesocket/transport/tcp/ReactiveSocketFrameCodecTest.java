@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+package io.reactivesocket.transport.tcp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.reactivesocket.Frame;
+import io.reactivesocket.FrameType;
+import io.reactivesocket.Payload;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ReactiveSocketFrameCodecTest {
+
+    @Test
+    public void testGatheringFrameIsReleasedOnceWritten() {
+        // above the -Dio.reactivesocket.Frame.gatheringThreshold the test task sets
+        byte[] data = new byte[4096];
+        Arrays.fill(data, (byte) 'a');
+        RecycledPayload payload = new RecycledPayload(data);
+        Frame frame = Frame.Response.view(1, FrameType.NEXT, payload, 0, data.length);
+        assumeTrue(frame.isGathering());
+
+        EmbeddedChannel channel = new EmbeddedChannel(new ReactiveSocketFrameCodec());
+        channel.writeOutbound(frame);
+        ByteBuf written = channel.readOutbound();
+        // still referenced by the buffer the socket has yet to write
+        assertFalse(payload.released.get());
+
+        Frame decoded = Frame.from(written.nioBuffer());
+        assertEquals(1, decoded.getStreamId());
+        ByteBuffer decodedData = decoded.getData();
+        byte[] bytes = new byte[decodedData.remaining()];
+        decodedData.get(bytes);
+        assertArrayEquals(data, bytes);
+        decoded.release();
+
+        assertTrue(written.release());
+        assertTrue(payload.released.get());
+        channel.finish();
+    }
+
+    @Test
+    public void testEncodedFrameIsReleasedOnWrite() {
+        Frame frame = Frame.RequestN.from(1, 1);
+
+        EmbeddedChannel channel = new EmbeddedChannel(new ReactiveSocketFrameCodec());
+        channel.writeOutbound(frame);
+        assertEquals(0, frame.refCnt());
+
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * Stands in for the pooled fragments of a reassembled payload, whose memory is reused once released.
+     */
+    private static class RecycledPayload implements Payload {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final ByteBuffer data;
+
+        private RecycledPayload(byte[] data) {
+            this.data = ByteBuffer.wrap(data);
+        }
+
+        @Override
+        public ByteBuffer getData() {
+            return data.duplicate();
+        }
+
+        @Override
+        public ByteBuffer getMetadata() {
+            return Frame.NULL_BYTEBUFFER;
+        }
+
+        @Override
+        public boolean release() {
+            if (released.compareAndSet(false, true)) {
+                Arrays.fill(data.array(), (byte) 0);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+package io.reactivesocket.transport.tcp;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.reactivesocket.Frame;
+import io.reactivesocket.rx.Completable;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import rx.Observable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TcpDuplexConnectionTest {
+
+    @Test
+    public void testRequestsOnlyWhileWritableAndResumes() {
+        HeldFlush heldFlush = new HeldFlush();
+        EmbeddedChannel channel = new EmbeddedChannel(heldFlush);
+        // unwritable with any write pending, writable again once all are flushed
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1, 2));
+        TcpDuplexConnection connection = new TcpDuplexConnection(channel, Observable.never(), Observable.never(),
+                                                                 Observable.empty(), 1024 * 1024);
+        FramePublisher frames = new FramePublisher();
+        RecordingCompletable callback = new RecordingCompletable();
+        connection.addOutput(frames, callback);
+        assertEquals(TcpDuplexConnection.OUTPUT_BATCH, frames.requested.get());
+
+        // more than half of the batch, which would ask for more if the channel had stayed writable
+        frames.emit(TcpDuplexConnection.OUTPUT_BATCH - 4);
+        assertFalse(channel.isWritable());
+        assertEquals(TcpDuplexConnection.OUTPUT_BATCH, frames.requested.get());
+        assertTrue(connection.availability() < 1.0);
+
+        heldFlush.release();
+        assertTrue(channel.isWritable());
+        assertEquals(TcpDuplexConnection.OUTPUT_BATCH - 4, channel.outboundMessages().size());
+        assertEquals(2 * TcpDuplexConnection.OUTPUT_BATCH - 4, frames.requested.get());
+        assertEquals(0, connection.getPendingBytes());
+        assertEquals(1.0, connection.availability(), 0.0);
+
+        frames.subscriber.get().onComplete();
+        assertTrue(callback.succeeded.get());
+        assertFalse(callback.failed.get());
+
+        Frame frame;
+        while ((frame = channel.readOutbound()) != null) {
+            frame.release();
+        }
+        channel.finish();
+    }
+
+    @Test
+    public void testRequestsInBatchesWhileWritable() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        TcpDuplexConnection connection = new TcpDuplexConnection(channel, Observable.never(), Observable.never(),
+                                                                 Observable.empty(), 1024 * 1024);
+        FramePublisher frames = new FramePublisher();
+        connection.addOutput(frames, new RecordingCompletable());
+
+        frames.emit(TcpDuplexConnection.OUTPUT_BATCH / 2 - 1);
+        assertEquals(TcpDuplexConnection.OUTPUT_BATCH, frames.requested.get());
+        // half of the batch outstanding, topped up to a full batch
+        frames.emit(1);
+        assertEquals(TcpDuplexConnection.OUTPUT_BATCH + TcpDuplexConnection.OUTPUT_BATCH / 2, frames.requested.get());
+
+        Frame frame;
+        while ((frame = channel.readOutbound()) != null) {
+            frame.release();
+        }
+        channel.finish();
+    }
+
+    /**
+     * Holds back flushes, so written frames stay in the outbound buffer, until released.
+     */
+    private static class HeldFlush extends ChannelOutboundHandlerAdapter {
+        private ChannelHandlerContext ctx;
+        private boolean held = true;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            this.ctx = ctx;
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            if (!held) {
+                ctx.flush();
+            }
+        }
+
+        private void release() {
+            held = false;
+            ctx.flush();
+        }
+    }
+
+    private static class FramePublisher implements Publisher<Frame> {
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicReference<Subscriber<? super Frame>> subscriber = new AtomicReference<>();
+        private int streamId;
+
+        @Override
+        public void subscribe(Subscriber<? super Frame> s) {
+            subscriber.set(s);
+            s.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+        }
+
+        private void emit(int count) {
+            for (int i = 0; i < count; i++) {
+                subscriber.get().onNext(Frame.RequestN.from(++streamId, 1));
+            }
+        }
+    }
+
+    private static class RecordingCompletable implements Completable {
+        private final AtomicBoolean succeeded = new AtomicBoolean();
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        @Override
+        public void success() {
+            succeeded.set(true);
+        }
+
+        @Override
+        public void error(Throwable e) {
+            failed.set(true);
+        }
+    }
+}
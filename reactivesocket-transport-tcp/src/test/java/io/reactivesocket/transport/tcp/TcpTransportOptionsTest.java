@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+package io.reactivesocket.transport.tcp;
+
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TcpTransportOptionsTest {
+
+    @Test
+    public void testDefaultsToNio() {
+        TcpTransportOptions options = TcpTransportOptions.DEFAULT;
+        assertFalse(options.isEpoll());
+        assertTrue(options.isTcpNoDelay());
+        assertEquals(1, options.getAcceptLoops());
+        assertEquals(NioServerSocketChannel.class, options.getServerChannelClass());
+        assertEquals(NioSocketChannel.class, options.getClientChannelClass());
+    }
+
+    @Test
+    public void testEpollOnlyOptionsIgnoredOnNio() {
+        TcpTransportOptions options = new TcpTransportOptions.Builder()
+                .epoll(false)
+                .reusePort(4)
+                .quickAck(true)
+                .build();
+        assertFalse(options.isReusePort());
+        assertFalse(options.isQuickAck());
+        assertEquals(1, options.getAcceptLoops());
+    }
+
+    @Test
+    public void testEpollWhenAvailable() {
+        TcpTransportOptions options = new TcpTransportOptions.Builder()
+                .epoll(true)
+                .reusePort(4)
+                .build();
+        boolean available = TcpTransportOptions.isEpollAvailable();
+        assertEquals(available, options.isEpoll());
+        assertEquals(available ? 4 : 1, options.getAcceptLoops());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvertedWaterMark() {
+        new TcpTransportOptions.Builder().writeBufferWaterMark(64 * 1024, 32 * 1024);
+    }
+}
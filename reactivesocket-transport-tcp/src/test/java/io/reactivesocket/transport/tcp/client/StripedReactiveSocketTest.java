@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+package io.reactivesocket.transport.tcp.client;
+
+import io.reactivesocket.Payload;
+import io.reactivesocket.ReactiveSocket;
+import io.reactivesocket.rx.Completable;
+import io.reactivesocket.util.PayloadImpl;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import rx.Observable;
+import rx.Subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static rx.RxReactiveStreams.toObservable;
+import static rx.RxReactiveStreams.toPublisher;
+
+public class StripedReactiveSocketTest {
+
+    @Test
+    public void testSpreadsStreamsByLeastOutstanding() {
+        StripedReactiveSocket socket = new StripedReactiveSocket(Arrays.asList(new IdleSocket(1.0),
+                                                                               new IdleSocket(1.0)));
+        List<Subscription> streams = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            streams.add(toObservable(socket.requestStream(new PayloadImpl("hello"))).subscribe());
+        }
+        assertArrayEquals(new int[] { 2, 2 }, socket.getOutstanding());
+
+        streams.forEach(Subscription::unsubscribe);
+        assertArrayEquals(new int[] { 0, 0 }, socket.getOutstanding());
+    }
+
+    @Test
+    public void testAvoidsUnavailableConnection() {
+        StripedReactiveSocket socket = new StripedReactiveSocket(Arrays.asList(new IdleSocket(0.0),
+                                                                               new IdleSocket(1.0)));
+        for (int i = 0; i < 3; i++) {
+            toObservable(socket.requestResponse(new PayloadImpl("hello"))).subscribe();
+        }
+        assertArrayEquals(new int[] { 0, 3 }, socket.getOutstanding());
+    }
+
+    @Test
+    public void testReleasesCompletedRequests() {
+        StripedReactiveSocket socket = new StripedReactiveSocket(Arrays.asList(new IdleSocket(1.0),
+                                                                               new IdleSocket(1.0)));
+        toObservable(socket.fireAndForget(new PayloadImpl("hello"))).subscribe();
+        assertArrayEquals(new int[] { 0, 0 }, socket.getOutstanding());
+    }
+
+    @Test
+    public void testAvailabilityIsMeanOfConnections() {
+        StripedReactiveSocket socket = new StripedReactiveSocket(Arrays.asList(new IdleSocket(0.0),
+                                                                               new IdleSocket(1.0)));
+        assertEquals(0.5, socket.availability(), 0.0);
+    }
+
+    /**
+     * Requests never complete, fire-and-forget and metadata push complete at once.
+     */
+    private static class IdleSocket implements ReactiveSocket {
+        private final double availability;
+
+        private IdleSocket(double availability) {
+            this.availability = availability;
+        }
+
+        @Override
+        public Publisher<Void> fireAndForget(Payload payload) {
+            return toPublisher(Observable.empty());
+        }
+
+        @Override
+        public Publisher<Payload> requestResponse(Payload payload) {
+            return toPublisher(Observable.never());
+        }
+
+        @Override
+        public Publisher<Payload> requestStream(Payload payload) {
+            return toPublisher(Observable.never());
+        }
+
+        @Override
+        public Publisher<Payload> requestSubscription(Payload payload) {
+            return toPublisher(Observable.never());
+        }
+
+        @Override
+        public Publisher<Payload> requestChannel(Publisher<Payload> payloads) {
+            return toPublisher(Observable.never());
+        }
+
+        @Override
+        public Publisher<Void> metadataPush(Payload payload) {
+            return toPublisher(Observable.empty());
+        }
+
+        @Override
+        public double availability() {
+            return availability;
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return toPublisher(Observable.empty());
+        }
+
+        @Override
+        public Publisher<Void> onClose() {
+            return toPublisher(Observable.never());
+        }
+
+        @Override
+        public void start(Completable c) {
+            c.success();
+        }
+
+        @Override
+        public void onRequestReady(Consumer<Throwable> c) {
+            c.accept(null);
+        }
+
+        @Override
+        public void onRequestReady(Completable c) {
+            c.success();
+        }
+
+        @Override
+        public void sendLease(int ttl, int numberOfRequests) {
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.transport.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.reactivesocket.Frame;
+import io.reactivesocket.exceptions.TransportException;
+import io.reactivesocket.rx.Completable;
+import io.reactivesocket.transport.tcp.ByteBufFrameEncoder;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the outputs of a WebSocket connection as {@link BinaryWebSocketFrame}s.
+ * <p>
+ * <ul>
+ *     <li>Frames are encoded into pooled I/O buffers of the channel's allocator, see {@link ByteBufFrameEncoder}.</li>
+ *     <li>Frames are written without a flush each, one flush per event loop turn covers all frames written in it.</li>
+ *     <li>Every output publisher is requested at most {@link #OUTPUT_BATCH} frames at a time and more only while the
+ *     channel is writable, per its write buffer water marks, so a slow peer holds back its producers.</li>
+ * </ul>
+ */
+public class WebSocketFrameWriter {
+
+    /**
+     * Most frames requested from an output publisher at once.
+     */
+    public static final int OUTPUT_BATCH = 32;
+
+    private final Channel channel;
+    private final Queue<OutputSubscriber> congested = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Runnable flushTask = this::flush;
+
+    public WebSocketFrameWriter(Channel channel) {
+        this.channel = channel;
+        channel.pipeline().addFirst("writability-listener", new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+                if (ctx.channel().isWritable()) {
+                    resumeOutputs();
+                }
+                ctx.fireChannelWritabilityChanged();
+            }
+        });
+    }
+
+    /**
+     * Writes all frames of {@code o}, see {@link io.reactivesocket.DuplexConnection#addOutput(Publisher, Completable)}.
+     */
+    public void addOutput(Publisher<Frame> o, Completable callback) {
+        o.subscribe(new OutputSubscriber(callback));
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            // runs after the writes queued so far, which from outside the event loop are tasks themselves
+            channel.eventLoop().execute(flushTask);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        channel.flush();
+    }
+
+    private void resumeOutputs() {
+        OutputSubscriber output;
+        while (channel.isWritable() && (output = congested.poll()) != null) {
+            output.resume();
+        }
+    }
+
+    private final class OutputSubscriber implements Subscriber<Frame>, ChannelFutureListener {
+        private final ByteBufFrameEncoder encoder = new ByteBufFrameEncoder();
+        private final Completable callback;
+        // frames requested and not received yet
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicBoolean parked = new AtomicBoolean();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile Subscription subscription;
+        // only written from onNext, which the publisher serializes
+        private volatile ChannelFuture lastWrite;
+
+        private OutputSubscriber(Completable callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            requestIfWritable();
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            if (done.get()) {
+                frame.release();
+                return;
+            }
+            outstanding.decrementAndGet();
+
+            ByteBuf byteBuf;
+            try {
+                // releases the frame, once written if the encoded buffer references its payload
+                byteBuf = encoder.encode(channel.alloc(), frame);
+            } catch (Throwable t) {
+                fail(t);
+                return;
+            }
+            ChannelFuture write = channel.write(new BinaryWebSocketFrame(byteBuf));
+            lastWrite = write;
+            write.addListener(this);
+            scheduleFlush();
+
+            requestIfWritable();
+        }
+
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            if (!future.isSuccess()) {
+                fail(future.cause());
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done.compareAndSet(false, true)) {
+                congested.remove(this);
+                callback.error(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            congested.remove(this);
+            ChannelFuture last = lastWrite;
+            if (last == null) {
+                complete();
+            } else {
+                // writes of a channel complete in order
+                last.addListener(f -> {
+                    if (f.isSuccess()) {
+                        complete();
+                    }
+                });
+            }
+        }
+
+        private void complete() {
+            if (done.compareAndSet(false, true)) {
+                callback.success();
+            }
+        }
+
+        private void fail(Throwable cause) {
+            if (done.compareAndSet(false, true)) {
+                congested.remove(this);
+                subscription.cancel();
+                callback.error(cause instanceof ClosedChannelException ? new TransportException(cause) : cause);
+            }
+        }
+
+        private void resume() {
+            parked.set(false);
+            requestIfWritable();
+        }
+
+        private void requestIfWritable() {
+            if (done.get()) {
+                return;
+            }
+            if (!channel.isWritable()) {
+                if (parked.compareAndSet(false, true)) {
+                    congested.offer(this);
+                }
+                // the channel may have drained before this was queued
+                if (channel.isWritable()) {
+                    resumeOutputs();
+                }
+                return;
+            }
+
+            int current;
+            while ((current = outstanding.get()) <= OUTPUT_BATCH / 2) {
+                if (outstanding.compareAndSet(current, OUTPUT_BATCH)) {
+                    subscription.request(OUTPUT_BATCH - current);
+                    return;
+                }
+            }
+        }
+    }
+}
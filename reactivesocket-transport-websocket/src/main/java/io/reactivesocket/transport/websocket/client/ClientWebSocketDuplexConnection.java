@@ -16,8 +16,6 @@
 package io.reactivesocket.transport.websocket.client;
 
 import io.netty.bootstrap.Bootstrap;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
@@ -25,21 +23,19 @@ import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.websocketx.*;
+import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketClientCompressionHandler;
 import io.reactivesocket.DuplexConnection;
 import io.reactivesocket.Frame;
-import io.reactivesocket.exceptions.TransportException;
 import io.reactivesocket.internal.rx.EmptySubscription;
 import io.reactivesocket.rx.Completable;
 import io.reactivesocket.rx.Observable;
 import io.reactivesocket.rx.Observer;
+import io.reactivesocket.transport.websocket.WebSocketFrameWriter;
 import org.reactivestreams.Publisher;
-import org.reactivestreams.Subscriber;
-import org.reactivestreams.Subscription;
 
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.channels.ClosedChannelException;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 public class ClientWebSocketDuplexConnection implements DuplexConnection {
@@ -47,23 +43,42 @@ public class ClientWebSocketDuplexConnection implements DuplexConnection {
 
     private final CopyOnWriteArrayList<Observer<Frame>> subjects;
 
+    private final WebSocketFrameWriter writer;
+
     private ClientWebSocketDuplexConnection(Channel channel, CopyOnWriteArrayList<Observer<Frame>> subjects) {
         this.subjects  = subjects;
         this.channel = channel;
+        this.writer = new WebSocketFrameWriter(channel);
     }
 
     public static Publisher<ClientWebSocketDuplexConnection> create(InetSocketAddress address, String path, EventLoopGroup eventLoopGroup) {
+        return create(address, path, eventLoopGroup, false);
+    }
+
+    /**
+     * @param compression offer the permessage-deflate extension, used if the server accepts it
+     */
+    public static Publisher<ClientWebSocketDuplexConnection> create(InetSocketAddress address, String path, EventLoopGroup eventLoopGroup,
+                                                                    boolean compression) {
         try {
-            return create(new URI("ws", null, address.getHostName(), address.getPort(), path, null, null), eventLoopGroup);
+            return create(new URI("ws", null, address.getHostName(), address.getPort(), path, null, null), eventLoopGroup,
+                          compression);
         } catch (URISyntaxException e) {
             throw new IllegalArgumentException(e.getMessage(), e);
         }
     }
 
     public static Publisher<ClientWebSocketDuplexConnection> create(URI uri, EventLoopGroup eventLoopGroup) {
+        return create(uri, eventLoopGroup, false);
+    }
+
+    /**
+     * @param compression offer the permessage-deflate extension, used if the server accepts it
+     */
+    public static Publisher<ClientWebSocketDuplexConnection> create(URI uri, EventLoopGroup eventLoopGroup, boolean compression) {
         return subscriber -> {
             WebSocketClientHandshaker handshaker = WebSocketClientHandshakerFactory.newHandshaker(
-                uri, WebSocketVersion.V13, null, false, new DefaultHttpHeaders());
+                uri, WebSocketVersion.V13, null, compression, new DefaultHttpHeaders());
 
             CopyOnWriteArrayList<Observer<Frame>> subjects = new CopyOnWriteArrayList<>();
             ReactiveSocketClientHandler clientHandler = new ReactiveSocketClientHandler(subjects);
@@ -77,7 +92,12 @@ public class ClientWebSocketDuplexConnection implements DuplexConnection {
                         ChannelPipeline p = ch.pipeline();
                         p.addLast(
                             new HttpClientCodec(),
-                            new HttpObjectAggregator(8192),
+                            new HttpObjectAggregator(8192)
+                        );
+                        if (compression) {
+                            p.addLast(WebSocketClientCompressionHandler.INSTANCE);
+                        }
+                        p.addLast(
                             new WebSocketClientProtocolHandler(handshaker),
                             clientHandler
                         );
@@ -115,49 +135,7 @@ public class ClientWebSocketDuplexConnection implements DuplexConnection {
 
     @Override
     public void addOutput(Publisher<Frame> o, Completable callback) {
-        o.subscribe(new Subscriber<Frame>() {
-            private Subscription subscription;
-
-            @Override
-            public void onSubscribe(Subscription s) {
-                subscription = s;
-                s.request(Long.MAX_VALUE);
-            }
-
-            @Override
-            public void onNext(Frame frame) {
-                try {
-                    ByteBuf byteBuf = Unpooled.wrappedBuffer(frame.getByteBuffer());
-                    BinaryWebSocketFrame binaryWebSocketFrame = new BinaryWebSocketFrame(byteBuf);
-                    ChannelFuture channelFuture = channel.writeAndFlush(binaryWebSocketFrame);
-                    channelFuture.addListener(future -> {
-                        Throwable cause = future.cause();
-                        if (cause != null) {
-                            if (cause instanceof ClosedChannelException) {
-                                onError(new TransportException(cause));
-                            } else {
-                                onError(cause);
-                            }
-                        }
-                    });
-                } catch (Throwable t) {
-                    onError(t);
-                }
-            }
-
-            @Override
-            public void onError(Throwable t) {
-                callback.error(t);
-                if (t instanceof TransportException) {
-                    subscription.cancel();
-                }
-            }
-
-            @Override
-            public void onComplete() {
-                callback.success();
-            }
-        });
+        writer.addOutput(o, callback);
     }
 
     @Override
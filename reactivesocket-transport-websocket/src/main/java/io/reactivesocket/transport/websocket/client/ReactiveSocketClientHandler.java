@@ -16,6 +16,7 @@
 package io.reactivesocket.transport.websocket.client;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
@@ -36,7 +37,13 @@ public class ReactiveSocketClientHandler extends SimpleChannelInboundHandler<Bin
 
     private ChannelPromise handshakePromise;
 
+    // wraps the message being read, replaced when a frame that was retained keeps it. Frame objects themselves are
+    // only reused with a pooling FramePool, selected with the io.reactivesocket.FramePool system property
+    private MutableDirectByteBuf buffer = new MutableDirectByteBuf(Unpooled.EMPTY_BUFFER);
+
     public ReactiveSocketClientHandler(CopyOnWriteArrayList<Observer<Frame>> subjects) {
+        // the frame releases the message, once the last reference to the frame is released
+        super(false);
         this.subjects = subjects;
     }
 
@@ -48,9 +55,21 @@ public class ReactiveSocketClientHandler extends SimpleChannelInboundHandler<Bin
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, BinaryWebSocketFrame bFrame) throws Exception {
         ByteBuf content = bFrame.content();
-        MutableDirectByteBuf mutableDirectByteBuf = new MutableDirectByteBuf(content);
-        final Frame from = Frame.from(mutableDirectByteBuf, 0, mutableDirectByteBuf.capacity());
-        subjects.forEach(o -> o.onNext(from));
+        final Frame from;
+        try {
+            buffer.wrap(content);
+            from = Frame.from(buffer, content.readerIndex(), content.readableBytes(), bFrame::release);
+        } catch (Throwable t) {
+            bFrame.release();
+            throw t;
+        }
+        try {
+            subjects.forEach(o -> o.onNext(from));
+        } finally {
+            if (!from.release()) {
+                buffer = new MutableDirectByteBuf(Unpooled.EMPTY_BUFFER);
+            }
+        }
     }
 
     public ChannelPromise getHandshakePromise() {
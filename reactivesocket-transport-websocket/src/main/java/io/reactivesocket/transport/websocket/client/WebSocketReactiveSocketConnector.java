@@ -39,19 +39,31 @@ public class WebSocketReactiveSocketConnector implements ReactiveSocketConnector
     private final Consumer<Throwable> errorStream;
     private final String path;
     private final EventLoopGroup eventLoopGroup;
+    private final boolean compression;
 
     public WebSocketReactiveSocketConnector(String path, EventLoopGroup eventLoopGroup, ConnectionSetupPayload connectionSetupPayload, Consumer<Throwable> errorStream) {
+        this(path, eventLoopGroup, connectionSetupPayload, errorStream, false);
+    }
+
+    /**
+     * @param compression offer the permessage-deflate extension, which the server must enable as well, e.g. with
+     * {@link io.reactivesocket.transport.websocket.server.ReactiveSocketServerHandler#addTo}.
+     * Pays off for large, compressible payloads, small frames are better sent as they are.
+     */
+    public WebSocketReactiveSocketConnector(String path, EventLoopGroup eventLoopGroup, ConnectionSetupPayload connectionSetupPayload, Consumer<Throwable> errorStream,
+                                            boolean compression) {
         this.connectionSetupPayload = connectionSetupPayload;
         this.errorStream = errorStream;
         this.path = path;
         this.eventLoopGroup = eventLoopGroup;
+        this.compression = compression;
     }
 
     @Override
     public Publisher<ReactiveSocket> connect(SocketAddress address) {
         if (address instanceof InetSocketAddress) {
             Publisher<ClientWebSocketDuplexConnection> connection
-                    = ClientWebSocketDuplexConnection.create((InetSocketAddress)address, path, eventLoopGroup);
+                    = ClientWebSocketDuplexConnection.create((InetSocketAddress)address, path, eventLoopGroup, compression);
 
             return subscriber -> connection.subscribe(new Subscriber<ClientWebSocketDuplexConnection>() {
                 @Override
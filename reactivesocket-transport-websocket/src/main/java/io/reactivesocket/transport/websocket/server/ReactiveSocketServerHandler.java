@@ -16,16 +16,21 @@
 package io.reactivesocket.transport.websocket.server;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler;
+import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketServerCompressionHandler;
 import io.reactivesocket.ConnectionSetupHandler;
 import io.reactivesocket.DefaultReactiveSocket;
 import io.reactivesocket.Frame;
 import io.reactivesocket.LeaseGovernor;
 import io.reactivesocket.ReactiveSocket;
+import io.reactivesocket.rx.Completable;
 import io.reactivesocket.transport.tcp.MutableDirectByteBuf;
-import io.reactivesocket.util.Unsafe;
+import io.reactivesocket.util.RequestHandlerExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,8 +40,13 @@ public class ReactiveSocketServerHandler extends SimpleChannelInboundHandler<Bin
     private ConnectionSetupHandler setupHandler;
     private LeaseGovernor leaseGovernor;
     private ServerWebSocketDuplexConnection connection;
+    // wraps the message being read, replaced when a frame that was retained keeps it. Frame objects themselves are
+    // only reused with a pooling FramePool, selected with the io.reactivesocket.FramePool system property
+    private MutableDirectByteBuf buffer = new MutableDirectByteBuf(Unpooled.EMPTY_BUFFER);
 
     protected ReactiveSocketServerHandler(ConnectionSetupHandler setupHandler, LeaseGovernor leaseGovernor) {
+        // the frame releases the message, once the last reference to the frame is released
+        super(false);
         this.setupHandler = setupHandler;
         this.leaseGovernor = leaseGovernor;
     }
@@ -49,23 +59,72 @@ public class ReactiveSocketServerHandler extends SimpleChannelInboundHandler<Bin
         return new ReactiveSocketServerHandler(setupHandler, leaseGovernor);
     }
 
+    /**
+     * Creates a handler that invokes the request handlers of the connection on {@code handlerExecutor} rather than on
+     * the event loop of the channel.
+     */
+    public static ReactiveSocketServerHandler create(ConnectionSetupHandler setupHandler, LeaseGovernor leaseGovernor,
+                                                     RequestHandlerExecutor handlerExecutor) {
+        return create(handlerExecutor.wrap(setupHandler), leaseGovernor);
+    }
+
+    /**
+     * Adds the WebSocket protocol handler for {@code path} and this handler to a pipeline that already decodes and
+     * aggregates HTTP, e.g. with an {@code HttpServerCodec} followed by an {@code HttpObjectAggregator}.
+     *
+     * @param compression accept the permessage-deflate extension when a client offers it, see
+     * {@link io.reactivesocket.transport.websocket.client.WebSocketReactiveSocketConnector}
+     */
+    public void addTo(ChannelPipeline pipeline, String path, boolean compression) {
+        if (compression) {
+            pipeline.addLast(new WebSocketServerCompressionHandler());
+        }
+        pipeline.addLast(new WebSocketServerProtocolHandler(path, null, compression));
+        pipeline.addLast(this);
+    }
+
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         connection = new ServerWebSocketDuplexConnection(ctx);
         ReactiveSocket reactiveSocket =
-            DefaultReactiveSocket.fromServerConnection(connection, setupHandler, leaseGovernor, Throwable::printStackTrace);
-        // Note: No blocking code here (still it should be refactored)
-        Unsafe.startAndWait(reactiveSocket);
+            DefaultReactiveSocket.fromServerConnection(connection, setupHandler, leaseGovernor,
+                                                       t -> logger.error("error on " + ctx.channel(), t));
+        // start() subscribes to the connection input before it returns, so no frame is read before the socket
+        // listens for it and the event loop need not wait for completion
+        reactiveSocket.start(new Completable() {
+            @Override
+            public void success() {
+                // SETUP is handled as it arrives
+            }
+
+            @Override
+            public void error(Throwable e) {
+                logger.error("failed to start ReactiveSocket, closing " + ctx.channel(), e);
+                ctx.close();
+            }
+        });
     }
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, BinaryWebSocketFrame msg) throws Exception {
         ByteBuf content = msg.content();
-        MutableDirectByteBuf mutableDirectByteBuf = new MutableDirectByteBuf(content);
-        Frame from = Frame.from(mutableDirectByteBuf, 0, mutableDirectByteBuf.capacity());
+        Frame from;
+        try {
+            buffer.wrap(content);
+            from = Frame.from(buffer, content.readerIndex(), content.readableBytes(), msg::release);
+        } catch (Throwable t) {
+            msg.release();
+            throw t;
+        }
 
-        if (connection != null) {
-            connection.getSubscribers().forEach(o -> o.onNext(from));
+        try {
+            if (connection != null) {
+                connection.getSubscribers().forEach(o -> o.onNext(from));
+            }
+        } finally {
+            if (!from.release()) {
+                buffer = new MutableDirectByteBuf(Unpooled.EMPTY_BUFFER);
+            }
         }
     }
 
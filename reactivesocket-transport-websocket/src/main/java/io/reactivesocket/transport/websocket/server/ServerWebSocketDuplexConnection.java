@@ -15,23 +15,18 @@
  */
 package io.reactivesocket.transport.websocket.server;
 
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
 import io.reactivesocket.DuplexConnection;
 import io.reactivesocket.Frame;
 import io.reactivesocket.rx.Completable;
 import io.reactivesocket.rx.Observable;
 import io.reactivesocket.rx.Observer;
+import io.reactivesocket.transport.websocket.WebSocketFrameWriter;
 import org.reactivestreams.Publisher;
-import org.reactivestreams.Subscriber;
-import org.reactivestreams.Subscription;
 
-import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -40,9 +35,12 @@ public class ServerWebSocketDuplexConnection implements DuplexConnection {
 
     private final ChannelHandlerContext ctx;
 
+    private final WebSocketFrameWriter writer;
+
     public ServerWebSocketDuplexConnection(ChannelHandlerContext ctx) {
         this.subjects = new CopyOnWriteArrayList<>();
         this.ctx = ctx;
+        this.writer = new WebSocketFrameWriter(ctx.channel());
     }
 
     public List<? extends Observer<Frame>> getSubscribers() {
@@ -59,41 +57,7 @@ public class ServerWebSocketDuplexConnection implements DuplexConnection {
 
     @Override
     public void addOutput(Publisher<Frame> o, Completable callback) {
-        o.subscribe(new Subscriber<Frame>() {
-            @Override
-            public void onSubscribe(Subscription s) {
-                s.request(Long.MAX_VALUE);
-            }
-
-            @Override
-            public void onNext(Frame frame) {
-                try {
-                    ByteBuffer data = frame.getByteBuffer();
-                    ByteBuf byteBuf = Unpooled.wrappedBuffer(data);
-                    BinaryWebSocketFrame binaryWebSocketFrame = new BinaryWebSocketFrame(byteBuf);
-                    ChannelFuture channelFuture = ctx.writeAndFlush(binaryWebSocketFrame);
-                    channelFuture.addListener(future -> {
-                        Throwable cause = future.cause();
-                        if (cause != null) {
-                            cause.printStackTrace();
-                            callback.error(cause);
-                        }
-                    });
-                } catch (Throwable t) {
-                    onError(t);
-                }
-            }
-
-            @Override
-            public void onError(Throwable t) {
-                callback.error(t);
-            }
-
-            @Override
-            public void onComplete() {
-                callback.success();
-            }
-        });
+        writer.addOutput(o, callback);
     }
 
     @Override
@@ -0,0 +1,153 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.transport.websocket;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler;
+import io.reactivesocket.ConnectionSetupHandler;
+import io.reactivesocket.ConnectionSetupPayload;
+import io.reactivesocket.Payload;
+import io.reactivesocket.ReactiveSocket;
+import io.reactivesocket.RequestHandler;
+import io.reactivesocket.transport.websocket.client.WebSocketReactiveSocketConnector;
+import io.reactivesocket.transport.websocket.server.ReactiveSocketServerHandler;
+import io.reactivesocket.util.PayloadImpl;
+import org.HdrHistogram.Recorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import rx.Observable;
+
+import java.net.InetSocketAddress;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static rx.RxReactiveStreams.toObservable;
+import static rx.RxReactiveStreams.toPublisher;
+
+/**
+ * Opens {@code sessions} WebSocket sessions at once against one server and waits for all of them to be set up, up to
+ * the first request-response round trip on each, as a burst of clients reconnecting would.
+ * <p>
+ * The score is the time of the whole burst. The setup latency of the individual sessions, from connect to first
+ * response, is printed as a distribution at the end of each trial. Thousands of sessions need a file descriptor
+ * limit above the usual default of 1024, e.g. {@code ulimit -n 65536}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WebSocketSetupPerf {
+
+	@Benchmark
+	public void setupBurst(Input input) throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(input.sessions);
+		for (int i = 0; i < input.sessions; i++) {
+			long start = System.nanoTime();
+			toObservable(input.connector.connect(input.address))
+				.doOnNext(input.connected::add)
+				.flatMap(rs -> toObservable(rs.requestResponse(input.request)))
+				.doOnTerminate(latch::countDown)
+				.subscribe(response -> input.latency.recordValue(System.nanoTime() - start),
+						   Throwable::printStackTrace);
+		}
+		latch.await();
+	}
+
+	@State(Scope.Benchmark)
+	public static class Input {
+
+		@Param({ "1000", "5000" })
+		public int sessions;
+
+		final Recorder latency = new Recorder(3);
+		final Queue<ReactiveSocket> connected = new ConcurrentLinkedQueue<>();
+		Payload request;
+		InetSocketAddress address;
+		WebSocketReactiveSocketConnector connector;
+		EventLoopGroup bossGroup;
+		EventLoopGroup workerGroup;
+		EventLoopGroup clientGroup;
+		Channel serverChannel;
+
+		@Setup(Level.Trial)
+		public void setup() throws InterruptedException {
+			request = new PayloadImpl("hello");
+			RequestHandler handler = new RequestHandler.Builder()
+				.withRequestResponse(payload -> toPublisher(Observable.just(new PayloadImpl("world"))))
+				.build();
+			ConnectionSetupHandler setupHandler = (setupPayload, rs) -> handler;
+
+			bossGroup = new NioEventLoopGroup(1);
+			workerGroup = new NioEventLoopGroup();
+			clientGroup = new NioEventLoopGroup();
+			serverChannel = new ServerBootstrap()
+				.group(bossGroup, workerGroup)
+				.channel(NioServerSocketChannel.class)
+				.option(ChannelOption.SO_BACKLOG, 8192)
+				.childHandler(new ChannelInitializer<Channel>() {
+					@Override
+					protected void initChannel(Channel ch) throws Exception {
+						ChannelPipeline pipeline = ch.pipeline();
+						pipeline.addLast(new HttpServerCodec());
+						pipeline.addLast(new HttpObjectAggregator(64 * 1024));
+						pipeline.addLast(new WebSocketServerProtocolHandler("/rs"));
+						pipeline.addLast(ReactiveSocketServerHandler.create(setupHandler));
+					}
+				})
+				.bind("localhost", 0).sync().channel();
+
+			address = new InetSocketAddress("localhost", ((InetSocketAddress) serverChannel.localAddress()).getPort());
+			connector = new WebSocketReactiveSocketConnector("/rs", clientGroup, ConnectionSetupPayload.create("", ""),
+															 Throwable::printStackTrace);
+		}
+
+		@TearDown(Level.Invocation)
+		public void closeSessions() {
+			ReactiveSocket rs;
+			while ((rs = connected.poll()) != null) {
+				toObservable(rs.close()).toBlocking().lastOrDefault(null);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			System.out.println();
+			System.out.println("Setup latency of " + sessions + " concurrent sessions (us):");
+			latency.getIntervalHistogram().outputPercentileDistribution(System.out, 1000.0);
+			serverChannel.close().syncUninterruptibly();
+			clientGroup.shutdownGracefully();
+			workerGroup.shutdownGracefully();
+			bossGroup.shutdownGracefully();
+		}
+	}
+}
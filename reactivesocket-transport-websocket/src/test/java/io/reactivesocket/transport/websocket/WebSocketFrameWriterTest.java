@@ -0,0 +1,129 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivesocket.transport.websocket;
+
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.reactivesocket.Frame;
+import io.reactivesocket.rx.Completable;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WebSocketFrameWriterTest {
+
+    @Test
+    public void testFlushesFramesOncePerEventLoopTurn() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        WebSocketFrameWriter writer = new WebSocketFrameWriter(channel);
+        FramePublisher frames = new FramePublisher();
+        RecordingCompletable callback = new RecordingCompletable();
+        writer.addOutput(frames, callback);
+
+        assertEquals(WebSocketFrameWriter.OUTPUT_BATCH, frames.requested.get());
+        frames.emit(3);
+        assertEquals(0, channel.outboundMessages().size());
+
+        channel.runPendingTasks();
+        assertEquals(3, channel.outboundMessages().size());
+        for (int streamId = 1; streamId <= 3; streamId++) {
+            BinaryWebSocketFrame message = channel.readOutbound();
+            Frame frame = Frame.from(message.content().nioBuffer());
+            assertEquals(streamId, frame.getStreamId());
+            frame.release();
+            message.release();
+        }
+
+        frames.subscriber.get().onComplete();
+        assertTrue(callback.succeeded.get());
+        assertFalse(callback.failed.get());
+        channel.finish();
+    }
+
+    @Test
+    public void testRequestsOnlyWhileWritableAndResumes() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1, 8));
+        WebSocketFrameWriter writer = new WebSocketFrameWriter(channel);
+        FramePublisher frames = new FramePublisher();
+        writer.addOutput(frames, new RecordingCompletable());
+
+        assertEquals(WebSocketFrameWriter.OUTPUT_BATCH, frames.requested.get());
+        // more than half of the batch, which would ask for more if the unflushed writes had not exceeded the water mark
+        frames.emit(WebSocketFrameWriter.OUTPUT_BATCH - 4);
+        assertFalse(channel.isWritable());
+        assertEquals(WebSocketFrameWriter.OUTPUT_BATCH, frames.requested.get());
+
+        channel.flush();
+        assertTrue(channel.isWritable());
+        assertEquals(2 * WebSocketFrameWriter.OUTPUT_BATCH - 4, frames.requested.get());
+
+        frames.subscriber.get().onComplete();
+        channel.finishAndReleaseAll();
+    }
+
+    private static class FramePublisher implements Publisher<Frame> {
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicReference<Subscriber<? super Frame>> subscriber = new AtomicReference<>();
+        private int streamId;
+
+        @Override
+        public void subscribe(Subscriber<? super Frame> s) {
+            subscriber.set(s);
+            s.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+        }
+
+        private void emit(int count) {
+            for (int i = 0; i < count; i++) {
+                subscriber.get().onNext(Frame.RequestN.from(++streamId, 1));
+            }
+        }
+    }
+
+    private static class RecordingCompletable implements Completable {
+        private final AtomicBoolean succeeded = new AtomicBoolean();
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        @Override
+        public void success() {
+            succeeded.set(true);
+        }
+
+        @Override
+        public void error(Throwable e) {
+            failed.set(true);
+        }
+    }
+}